@@ -0,0 +1,40 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger;
+
+/**
+ * What happens to the logs of the application when the consoles do not read them fast enough and the queue of logs
+ * to send is full.
+ */
+public enum BackPressurePolicy {
+    /**
+     * The new logs overwrite the oldest ones not read yet by the slow consoles.
+     */
+    DROP_OLDEST,
+    /**
+     * The new logs are dropped until there is room in the queue.
+     */
+    DROP_NEWEST,
+    /**
+     * The application thread waits for room in the queue, at most for the configured time, then the log is dropped.
+     */
+    BLOCK,
+    /**
+     * The new logs are dropped, but the executions of the dropped statements are still counted and sent with their
+     * total execution time, like the statements not sampled.
+     */
+    AGGREGATE
+}
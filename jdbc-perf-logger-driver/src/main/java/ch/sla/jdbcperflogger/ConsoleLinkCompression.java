@@ -0,0 +1,28 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger;
+
+public enum ConsoleLinkCompression {
+    /**
+     * Each log is written to the socket as soon as it is read from the queue.
+     */
+    NONE,
+    /**
+     * The logs are sent in batches compressed with {@link java.util.zip.Deflater}, for consoles on a slow link. Only
+     * used with the consoles knowing the binary format.
+     */
+    DEFLATE
+}
@@ -20,6 +20,7 @@ import org.eclipse.jdt.annotation.Nullable;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
@@ -32,6 +33,23 @@ public class DriverConfig {
     private Integer serverPort;
     private final List<InetSocketAddress> clientAddresses = new ArrayList<InetSocketAddress>();
     private final Map<String, String> driverPrefixToClassName = new HashMap<String, String>();
+    private WrapperMode wrapperMode = WrapperMode.PROXY;
+    private FilledSqlRendering filledSqlRendering = FilledSqlRendering.EAGER;
+    private StatementLogMode statementLogMode = StatementLogMode.SEPARATE;
+    private long statementStatsIntervalSeconds = 10;
+    private SamplingMode samplingMode = SamplingMode.NONE;
+    private int samplingRate = 1;
+    private long samplingThresholdMillis;
+    private long samplingMaxThresholdMillis = 1000;
+    private ConsoleLinkCompression consoleLinkCompression = ConsoleLinkCompression.NONE;
+    private int consoleLinkBatchSize = 256;
+    private long consoleLinkBatchDelayMillis = 20;
+    private BackPressurePolicy backPressurePolicy = BackPressurePolicy.DROP_OLDEST;
+    private long backPressureMaxBlockMicros = 100;
+    @Nullable
+    private String captureFileDirectory;
+    private int captureFileSegmentCount = 8;
+    private int captureFileSegmentSizeMb = 16;
 
     static {
 
@@ -67,6 +85,103 @@ public class DriverConfig {
                 }
             }
 
+            {
+                final NodeList wrappersList = root.getElementsByTagName("wrappers");
+                for (int i = 0; i < wrappersList.getLength(); i++) {
+                    final String mode = wrappersList.item(i).getAttributes().getNamedItem("mode").getTextContent();
+                    config.wrapperMode = WrapperMode.valueOf(mode.trim().toUpperCase());
+                }
+            }
+
+            {
+                final NodeList filledSqlList = root.getElementsByTagName("filled-sql");
+                for (int i = 0; i < filledSqlList.getLength(); i++) {
+                    final String rendering = filledSqlList.item(i).getAttributes().getNamedItem("rendering")
+                            .getTextContent();
+                    config.filledSqlRendering = FilledSqlRendering.valueOf(rendering.trim().toUpperCase());
+                }
+            }
+
+            {
+                final NodeList statementLogsList = root.getElementsByTagName("statement-logs");
+                for (int i = 0; i < statementLogsList.getLength(); i++) {
+                    final NamedNodeMap attributes = statementLogsList.item(i).getAttributes();
+                    final String mode = attributes.getNamedItem("mode").getTextContent();
+                    config.statementLogMode = StatementLogMode.valueOf(mode.trim().toUpperCase());
+                    final Node interval = attributes.getNamedItem("interval-s");
+                    if (interval != null) {
+                        config.statementStatsIntervalSeconds = Long.parseLong(interval.getTextContent().trim());
+                    }
+                }
+            }
+
+            {
+                final NodeList samplingList = root.getElementsByTagName("sampling");
+                for (int i = 0; i < samplingList.getLength(); i++) {
+                    final NamedNodeMap attributes = samplingList.item(i).getAttributes();
+                    final String mode = attributes.getNamedItem("mode").getTextContent();
+                    config.samplingMode = SamplingMode.valueOf(mode.trim().toUpperCase());
+                    final Node rate = attributes.getNamedItem("rate");
+                    if (rate != null) {
+                        config.samplingRate = Integer.parseInt(rate.getTextContent().trim());
+                    }
+                    final Node threshold = attributes.getNamedItem("threshold-ms");
+                    if (threshold != null) {
+                        config.samplingThresholdMillis = Long.parseLong(threshold.getTextContent().trim());
+                    }
+                    final Node maxThreshold = attributes.getNamedItem("max-threshold-ms");
+                    if (maxThreshold != null) {
+                        config.samplingMaxThresholdMillis = Long.parseLong(maxThreshold.getTextContent().trim());
+                    }
+                }
+            }
+
+            {
+                final NodeList consoleLinkList = root.getElementsByTagName("console-link");
+                for (int i = 0; i < consoleLinkList.getLength(); i++) {
+                    final NamedNodeMap attributes = consoleLinkList.item(i).getAttributes();
+                    final String compression = attributes.getNamedItem("compression").getTextContent();
+                    config.consoleLinkCompression = ConsoleLinkCompression.valueOf(compression.trim().toUpperCase());
+                    final Node batchSize = attributes.getNamedItem("batch-size");
+                    if (batchSize != null) {
+                        config.consoleLinkBatchSize = Integer.parseInt(batchSize.getTextContent().trim());
+                    }
+                    final Node batchDelay = attributes.getNamedItem("batch-delay-ms");
+                    if (batchDelay != null) {
+                        config.consoleLinkBatchDelayMillis = Long.parseLong(batchDelay.getTextContent().trim());
+                    }
+                }
+            }
+
+            {
+                final NodeList backPressureList = root.getElementsByTagName("back-pressure");
+                for (int i = 0; i < backPressureList.getLength(); i++) {
+                    final NamedNodeMap attributes = backPressureList.item(i).getAttributes();
+                    final String policy = attributes.getNamedItem("policy").getTextContent();
+                    config.backPressurePolicy = BackPressurePolicy.valueOf(policy.trim().toUpperCase());
+                    final Node maxBlock = attributes.getNamedItem("max-block-us");
+                    if (maxBlock != null) {
+                        config.backPressureMaxBlockMicros = Long.parseLong(maxBlock.getTextContent().trim());
+                    }
+                }
+            }
+
+            {
+                final NodeList captureFileList = root.getElementsByTagName("capture-file");
+                for (int i = 0; i < captureFileList.getLength(); i++) {
+                    final NamedNodeMap attributes = captureFileList.item(i).getAttributes();
+                    config.captureFileDirectory = attributes.getNamedItem("directory").getTextContent().trim();
+                    final Node segments = attributes.getNamedItem("segments");
+                    if (segments != null) {
+                        config.captureFileSegmentCount = Integer.parseInt(segments.getTextContent().trim());
+                    }
+                    final Node segmentSize = attributes.getNamedItem("segment-size-mb");
+                    if (segmentSize != null) {
+                        config.captureFileSegmentSizeMb = Integer.parseInt(segmentSize.getTextContent().trim());
+                    }
+                }
+            }
+
             final NodeList jdbcDriversRootNodesList = doc.getElementsByTagName("jdbc-drivers");
             if (jdbcDriversRootNodesList.getLength() > 0) {
                 final NodeList jdbcDriversNodeList = ((Element) jdbcDriversRootNodesList.item(0))
@@ -143,6 +258,107 @@ public class DriverConfig {
         return clientAddresses;
     }
 
+    public WrapperMode getWrapperMode() {
+        return wrapperMode;
+    }
+
+    public FilledSqlRendering getFilledSqlRendering() {
+        return filledSqlRendering;
+    }
+
+    // visible for testing
+    void setFilledSqlRendering(final FilledSqlRendering filledSqlRendering) {
+        this.filledSqlRendering = filledSqlRendering;
+    }
+
+    public StatementLogMode getStatementLogMode() {
+        return statementLogMode;
+    }
+
+    // visible for testing
+    void setStatementLogMode(final StatementLogMode statementLogMode) {
+        this.statementLogMode = statementLogMode;
+    }
+
+    /**
+     * @return the interval between the statistics sent in {@link StatementLogMode#AGGREGATED} mode
+     */
+    public long getStatementStatsIntervalSeconds() {
+        return statementStatsIntervalSeconds;
+    }
+
+    public SamplingMode getSamplingMode() {
+        return samplingMode;
+    }
+
+    /**
+     * @return N when only 1 statement out of N is kept in {@link SamplingMode#RATE} mode
+     */
+    public int getSamplingRate() {
+        return samplingRate;
+    }
+
+    /**
+     * @return the minimum execution time of the statements kept in {@link SamplingMode#THRESHOLD} mode, and the
+     *         threshold used by {@link SamplingMode#ADAPTIVE} while the logs queue is not loaded
+     */
+    public long getSamplingThresholdMillis() {
+        return samplingThresholdMillis;
+    }
+
+    /**
+     * @return the threshold reached by {@link SamplingMode#ADAPTIVE} when the logs queue is full
+     */
+    public long getSamplingMaxThresholdMillis() {
+        return samplingMaxThresholdMillis;
+    }
+
+    public ConsoleLinkCompression getConsoleLinkCompression() {
+        return consoleLinkCompression;
+    }
+
+    /**
+     * @return the maximum number of logs in a compressed batch
+     */
+    public int getConsoleLinkBatchSize() {
+        return consoleLinkBatchSize;
+    }
+
+    /**
+     * @return the maximum time a log waits for the next ones to fill its compressed batch
+     */
+    public long getConsoleLinkBatchDelayMillis() {
+        return consoleLinkBatchDelayMillis;
+    }
+
+    public BackPressurePolicy getBackPressurePolicy() {
+        return backPressurePolicy;
+    }
+
+    /**
+     * @return the maximum time an application thread waits for room in the queue of logs with
+     *         {@link BackPressurePolicy#BLOCK}
+     */
+    public long getBackPressureMaxBlockMicros() {
+        return backPressureMaxBlockMicros;
+    }
+
+    /**
+     * @return the directory of the files the logs are captured to, <code>null</code> if they are not captured
+     */
+    @Nullable
+    public String getCaptureFileDirectory() {
+        return captureFileDirectory;
+    }
+
+    public int getCaptureFileSegmentCount() {
+        return captureFileSegmentCount;
+    }
+
+    public int getCaptureFileSegmentSizeMb() {
+        return captureFileSegmentSizeMb;
+    }
+
     @Nullable
     public String getClassNameForJdbcUrl(final String jdbcUrl) {
         for (final Entry<String, String> driver : driverPrefixToClassName.entrySet()) {
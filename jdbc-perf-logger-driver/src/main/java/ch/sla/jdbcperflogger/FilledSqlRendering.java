@@ -0,0 +1,31 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger;
+
+/**
+ * When the SQL of prepared statements is filled with the values of the bound parameters.
+ */
+public enum FilledSqlRendering {
+    /**
+     * In the thread executing the statement, before it is executed.
+     */
+    EAGER,
+    /**
+     * The thread executing the statement only takes a snapshot of the bound values, the SQL is filled when the log is
+     * sent to the console (i.e. in the sender thread).
+     */
+    DEFERRED
+}
@@ -0,0 +1,37 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger;
+
+public enum SamplingMode {
+    /**
+     * Every statement is sent to the console.
+     */
+    NONE,
+    /**
+     * Only 1 statement out of N (chosen at random) is sent to the console.
+     */
+    RATE,
+    /**
+     * Only the statements whose execution time exceeds a threshold (or that fail) are sent to the console. The log
+     * preceding the execution is held back until the execution time is known.
+     */
+    THRESHOLD,
+    /**
+     * Like {@link #THRESHOLD}, but the threshold is raised automatically as the queue of logs waiting to be sent to
+     * the console fills up.
+     */
+    ADAPTIVE
+}
@@ -0,0 +1,35 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger;
+
+public enum StatementLogMode {
+    /**
+     * A log is sent before the execution of each statement, another one after its execution and a last one when its
+     * ResultSet is closed.
+     */
+    SEPARATE,
+    /**
+     * A single log is sent once the statement is executed, or once its ResultSet is closed for queries. The logs of
+     * the statements being executed are then not visible in the console.
+     */
+    FUSED,
+    /**
+     * No log is sent for the executions, the driver sends periodically the statistics of each statement instead (count,
+     * execution and fetch times, rows, errors). The console then only shows the statements grouped by raw SQL, but
+     * its load does not depend on the number of executions. The sampling does not apply.
+     */
+    AGGREGATED
+}
@@ -0,0 +1,32 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger;
+
+/**
+ * How the JDBC objects returned by the underlying driver are wrapped.
+ */
+public enum WrapperMode {
+    /**
+     * {@link java.lang.reflect.Proxy} implementing all the interfaces of the wrapped object, including vendor specific
+     * ones. All calls go through reflection.
+     */
+    PROXY,
+    /**
+     * Classes implementing only the java.sql interfaces and calling the wrapped object directly. Vendor specific
+     * interfaces are only reachable through {@link java.sql.Wrapper#unwrap(Class)}.
+     */
+    DELEGATE
+}
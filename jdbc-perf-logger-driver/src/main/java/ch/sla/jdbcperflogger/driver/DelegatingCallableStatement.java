@@ -0,0 +1,722 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger.driver;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.CallableStatement;
+import java.sql.Clob;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.Ref;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLType;
+import java.sql.SQLXML;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Calendar;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import ch.sla.jdbcperflogger.WrapperMode;
+
+/**
+ * {@link CallableStatement} used in {@link WrapperMode#DELEGATE} mode, see {@link DelegatingPreparedStatement}.
+ */
+public class DelegatingCallableStatement extends DelegatingPreparedStatement implements CallableStatement {
+    private final CallableStatement wrappedCallableStatement;
+
+    DelegatingCallableStatement(final CallableStatement wrappedCallableStatement,
+            final LoggingPreparedStatementInvocationHandler preparedStatementHandler) {
+        super(wrappedCallableStatement, preparedStatementHandler);
+        this.wrappedCallableStatement = wrappedCallableStatement;
+    }
+
+    @Override
+    public void registerOutParameter(final int parameterIndex, final int sqlType) throws SQLException {
+        wrappedCallableStatement.registerOutParameter(parameterIndex, sqlType);
+    }
+
+    @Override
+    public void registerOutParameter(final int parameterIndex, final int sqlType, final int scale) throws SQLException {
+        wrappedCallableStatement.registerOutParameter(parameterIndex, sqlType, scale);
+    }
+
+    @Override
+    public boolean wasNull() throws SQLException {
+        return wrappedCallableStatement.wasNull();
+    }
+
+    @Override
+    public String getString(final int parameterIndex) throws SQLException {
+        return wrappedCallableStatement.getString(parameterIndex);
+    }
+
+    @Override
+    public boolean getBoolean(final int parameterIndex) throws SQLException {
+        return wrappedCallableStatement.getBoolean(parameterIndex);
+    }
+
+    @Override
+    public byte getByte(final int parameterIndex) throws SQLException {
+        return wrappedCallableStatement.getByte(parameterIndex);
+    }
+
+    @Override
+    public short getShort(final int parameterIndex) throws SQLException {
+        return wrappedCallableStatement.getShort(parameterIndex);
+    }
+
+    @Override
+    public int getInt(final int parameterIndex) throws SQLException {
+        return wrappedCallableStatement.getInt(parameterIndex);
+    }
+
+    @Override
+    public long getLong(final int parameterIndex) throws SQLException {
+        return wrappedCallableStatement.getLong(parameterIndex);
+    }
+
+    @Override
+    public float getFloat(final int parameterIndex) throws SQLException {
+        return wrappedCallableStatement.getFloat(parameterIndex);
+    }
+
+    @Override
+    public double getDouble(final int parameterIndex) throws SQLException {
+        return wrappedCallableStatement.getDouble(parameterIndex);
+    }
+
+    @Override
+    @Deprecated
+    public BigDecimal getBigDecimal(final int parameterIndex, final int scale) throws SQLException {
+        return wrappedCallableStatement.getBigDecimal(parameterIndex, scale);
+    }
+
+    @Override
+    public byte[] getBytes(final int parameterIndex) throws SQLException {
+        return wrappedCallableStatement.getBytes(parameterIndex);
+    }
+
+    @Override
+    public Date getDate(final int parameterIndex) throws SQLException {
+        return wrappedCallableStatement.getDate(parameterIndex);
+    }
+
+    @Override
+    public Time getTime(final int parameterIndex) throws SQLException {
+        return wrappedCallableStatement.getTime(parameterIndex);
+    }
+
+    @Override
+    public Timestamp getTimestamp(final int parameterIndex) throws SQLException {
+        return wrappedCallableStatement.getTimestamp(parameterIndex);
+    }
+
+    @Override
+    public Object getObject(final int parameterIndex) throws SQLException {
+        return wrappedCallableStatement.getObject(parameterIndex);
+    }
+
+    @Override
+    public BigDecimal getBigDecimal(final int parameterIndex) throws SQLException {
+        return wrappedCallableStatement.getBigDecimal(parameterIndex);
+    }
+
+    @Override
+    public Object getObject(final int parameterIndex, @Nullable final Map<String, Class<?>> map) throws SQLException {
+        return wrappedCallableStatement.getObject(parameterIndex, map);
+    }
+
+    @Override
+    public Ref getRef(final int parameterIndex) throws SQLException {
+        return wrappedCallableStatement.getRef(parameterIndex);
+    }
+
+    @Override
+    public Blob getBlob(final int parameterIndex) throws SQLException {
+        return wrappedCallableStatement.getBlob(parameterIndex);
+    }
+
+    @Override
+    public Clob getClob(final int parameterIndex) throws SQLException {
+        return wrappedCallableStatement.getClob(parameterIndex);
+    }
+
+    @Override
+    public Array getArray(final int parameterIndex) throws SQLException {
+        return wrappedCallableStatement.getArray(parameterIndex);
+    }
+
+    @Override
+    public Date getDate(final int parameterIndex, @Nullable final Calendar cal) throws SQLException {
+        return wrappedCallableStatement.getDate(parameterIndex, cal);
+    }
+
+    @Override
+    public Time getTime(final int parameterIndex, @Nullable final Calendar cal) throws SQLException {
+        return wrappedCallableStatement.getTime(parameterIndex, cal);
+    }
+
+    @Override
+    public Timestamp getTimestamp(final int parameterIndex, @Nullable final Calendar cal) throws SQLException {
+        return wrappedCallableStatement.getTimestamp(parameterIndex, cal);
+    }
+
+    @Override
+    public void registerOutParameter(final int parameterIndex, final int sqlType, @Nullable final String typeName)
+            throws SQLException {
+        wrappedCallableStatement.registerOutParameter(parameterIndex, sqlType, typeName);
+    }
+
+    @Override
+    public void registerOutParameter(final String parameterName, final int sqlType) throws SQLException {
+        wrappedCallableStatement.registerOutParameter(parameterName, sqlType);
+    }
+
+    @Override
+    public void registerOutParameter(final String parameterName, final int sqlType, final int scale)
+            throws SQLException {
+        wrappedCallableStatement.registerOutParameter(parameterName, sqlType, scale);
+    }
+
+    @Override
+    public void registerOutParameter(final String parameterName, final int sqlType, @Nullable final String typeName)
+            throws SQLException {
+        wrappedCallableStatement.registerOutParameter(parameterName, sqlType, typeName);
+    }
+
+    @Override
+    public URL getURL(final int parameterIndex) throws SQLException {
+        return wrappedCallableStatement.getURL(parameterIndex);
+    }
+
+    @Override
+    public void setURL(final String parameterName, @Nullable final URL val) throws SQLException {
+        wrappedCallableStatement.setURL(parameterName, val);
+        preparedStatementHandler.internalSetParameter(parameterName, val, "setURL");
+    }
+
+    @Override
+    public void setNull(final String parameterName, final int sqlType) throws SQLException {
+        wrappedCallableStatement.setNull(parameterName, sqlType);
+        preparedStatementHandler.internalSetNull(parameterName, sqlType);
+    }
+
+    @Override
+    public void setBoolean(final String parameterName, final boolean x) throws SQLException {
+        wrappedCallableStatement.setBoolean(parameterName, x);
+        preparedStatementHandler.internalSetParameter(parameterName, x, "setBoolean");
+    }
+
+    @Override
+    public void setByte(final String parameterName, final byte x) throws SQLException {
+        wrappedCallableStatement.setByte(parameterName, x);
+        preparedStatementHandler.internalSetParameter(parameterName, x, "setByte");
+    }
+
+    @Override
+    public void setShort(final String parameterName, final short x) throws SQLException {
+        wrappedCallableStatement.setShort(parameterName, x);
+        preparedStatementHandler.internalSetParameter(parameterName, x, "setShort");
+    }
+
+    @Override
+    public void setInt(final String parameterName, final int x) throws SQLException {
+        wrappedCallableStatement.setInt(parameterName, x);
+        preparedStatementHandler.internalSetParameter(parameterName, x, "setInt");
+    }
+
+    @Override
+    public void setLong(final String parameterName, final long x) throws SQLException {
+        wrappedCallableStatement.setLong(parameterName, x);
+        preparedStatementHandler.internalSetParameter(parameterName, x, "setLong");
+    }
+
+    @Override
+    public void setFloat(final String parameterName, final float x) throws SQLException {
+        wrappedCallableStatement.setFloat(parameterName, x);
+        preparedStatementHandler.internalSetParameter(parameterName, x, "setFloat");
+    }
+
+    @Override
+    public void setDouble(final String parameterName, final double x) throws SQLException {
+        wrappedCallableStatement.setDouble(parameterName, x);
+        preparedStatementHandler.internalSetParameter(parameterName, x, "setDouble");
+    }
+
+    @Override
+    public void setBigDecimal(final String parameterName, @Nullable final BigDecimal x) throws SQLException {
+        wrappedCallableStatement.setBigDecimal(parameterName, x);
+        preparedStatementHandler.internalSetParameter(parameterName, x, "setBigDecimal");
+    }
+
+    @Override
+    public void setString(final String parameterName, @Nullable final String x) throws SQLException {
+        wrappedCallableStatement.setString(parameterName, x);
+        preparedStatementHandler.internalSetParameter(parameterName, x, "setString");
+    }
+
+    @Override
+    public void setBytes(final String parameterName, final byte @Nullable [] x) throws SQLException {
+        wrappedCallableStatement.setBytes(parameterName, x);
+        preparedStatementHandler.internalSetParameter(parameterName, x, "setBytes");
+    }
+
+    @Override
+    public void setDate(final String parameterName, @Nullable final Date x) throws SQLException {
+        wrappedCallableStatement.setDate(parameterName, x);
+        preparedStatementHandler.internalSetParameter(parameterName, x, "setDate");
+    }
+
+    @Override
+    public void setTime(final String parameterName, @Nullable final Time x) throws SQLException {
+        wrappedCallableStatement.setTime(parameterName, x);
+        preparedStatementHandler.internalSetParameter(parameterName, x, "setTime");
+    }
+
+    @Override
+    public void setTimestamp(final String parameterName, @Nullable final Timestamp x) throws SQLException {
+        wrappedCallableStatement.setTimestamp(parameterName, x);
+        preparedStatementHandler.internalSetParameter(parameterName, x, "setTimestamp");
+    }
+
+    @Override
+    public void setAsciiStream(final String parameterName, @Nullable final InputStream x, final int length)
+            throws SQLException {
+        wrappedCallableStatement.setAsciiStream(parameterName, x, length);
+    }
+
+    @Override
+    public void setBinaryStream(final String parameterName, @Nullable final InputStream x, final int length)
+            throws SQLException {
+        wrappedCallableStatement.setBinaryStream(parameterName, x, length);
+    }
+
+    @Override
+    public void setObject(final String parameterName, @Nullable final Object x, final int targetSqlType,
+            final int scale) throws SQLException {
+        wrappedCallableStatement.setObject(parameterName, x, targetSqlType, scale);
+        preparedStatementHandler.internalSetObject(parameterName, x, targetSqlType);
+    }
+
+    @Override
+    public void setObject(final String parameterName, @Nullable final Object x, final int targetSqlType)
+            throws SQLException {
+        wrappedCallableStatement.setObject(parameterName, x, targetSqlType);
+        preparedStatementHandler.internalSetObject(parameterName, x, targetSqlType);
+    }
+
+    @Override
+    public void setObject(final String parameterName, @Nullable final Object x) throws SQLException {
+        wrappedCallableStatement.setObject(parameterName, x);
+        preparedStatementHandler.internalSetParameter(parameterName, x, "setObject");
+    }
+
+    @Override
+    public void setCharacterStream(final String parameterName, @Nullable final Reader reader, final int length)
+            throws SQLException {
+        wrappedCallableStatement.setCharacterStream(parameterName, reader, length);
+    }
+
+    @Override
+    public void setDate(final String parameterName, @Nullable final Date x, @Nullable final Calendar cal)
+            throws SQLException {
+        wrappedCallableStatement.setDate(parameterName, x, cal);
+        preparedStatementHandler.internalSetParameter(parameterName, x, "setDate");
+    }
+
+    @Override
+    public void setTime(final String parameterName, @Nullable final Time x, @Nullable final Calendar cal)
+            throws SQLException {
+        wrappedCallableStatement.setTime(parameterName, x, cal);
+        preparedStatementHandler.internalSetParameter(parameterName, x, "setTime");
+    }
+
+    @Override
+    public void setTimestamp(final String parameterName, @Nullable final Timestamp x, @Nullable final Calendar cal)
+            throws SQLException {
+        wrappedCallableStatement.setTimestamp(parameterName, x, cal);
+        preparedStatementHandler.internalSetParameter(parameterName, x, "setTimestamp");
+    }
+
+    @Override
+    public void setNull(final String parameterName, final int sqlType, @Nullable final String typeName)
+            throws SQLException {
+        wrappedCallableStatement.setNull(parameterName, sqlType, typeName);
+        preparedStatementHandler.internalSetNull(parameterName, sqlType);
+    }
+
+    @Override
+    public String getString(final String parameterName) throws SQLException {
+        return wrappedCallableStatement.getString(parameterName);
+    }
+
+    @Override
+    public boolean getBoolean(final String parameterName) throws SQLException {
+        return wrappedCallableStatement.getBoolean(parameterName);
+    }
+
+    @Override
+    public byte getByte(final String parameterName) throws SQLException {
+        return wrappedCallableStatement.getByte(parameterName);
+    }
+
+    @Override
+    public short getShort(final String parameterName) throws SQLException {
+        return wrappedCallableStatement.getShort(parameterName);
+    }
+
+    @Override
+    public int getInt(final String parameterName) throws SQLException {
+        return wrappedCallableStatement.getInt(parameterName);
+    }
+
+    @Override
+    public long getLong(final String parameterName) throws SQLException {
+        return wrappedCallableStatement.getLong(parameterName);
+    }
+
+    @Override
+    public float getFloat(final String parameterName) throws SQLException {
+        return wrappedCallableStatement.getFloat(parameterName);
+    }
+
+    @Override
+    public double getDouble(final String parameterName) throws SQLException {
+        return wrappedCallableStatement.getDouble(parameterName);
+    }
+
+    @Override
+    public byte[] getBytes(final String parameterName) throws SQLException {
+        return wrappedCallableStatement.getBytes(parameterName);
+    }
+
+    @Override
+    public Date getDate(final String parameterName) throws SQLException {
+        return wrappedCallableStatement.getDate(parameterName);
+    }
+
+    @Override
+    public Time getTime(final String parameterName) throws SQLException {
+        return wrappedCallableStatement.getTime(parameterName);
+    }
+
+    @Override
+    public Timestamp getTimestamp(final String parameterName) throws SQLException {
+        return wrappedCallableStatement.getTimestamp(parameterName);
+    }
+
+    @Override
+    public Object getObject(final String parameterName) throws SQLException {
+        return wrappedCallableStatement.getObject(parameterName);
+    }
+
+    @Override
+    public BigDecimal getBigDecimal(final String parameterName) throws SQLException {
+        return wrappedCallableStatement.getBigDecimal(parameterName);
+    }
+
+    @Override
+    public Object getObject(final String parameterName, @Nullable final Map<String, Class<?>> map) throws SQLException {
+        return wrappedCallableStatement.getObject(parameterName, map);
+    }
+
+    @Override
+    public Ref getRef(final String parameterName) throws SQLException {
+        return wrappedCallableStatement.getRef(parameterName);
+    }
+
+    @Override
+    public Blob getBlob(final String parameterName) throws SQLException {
+        return wrappedCallableStatement.getBlob(parameterName);
+    }
+
+    @Override
+    public Clob getClob(final String parameterName) throws SQLException {
+        return wrappedCallableStatement.getClob(parameterName);
+    }
+
+    @Override
+    public Array getArray(final String parameterName) throws SQLException {
+        return wrappedCallableStatement.getArray(parameterName);
+    }
+
+    @Override
+    public Date getDate(final String parameterName, @Nullable final Calendar cal) throws SQLException {
+        return wrappedCallableStatement.getDate(parameterName, cal);
+    }
+
+    @Override
+    public Time getTime(final String parameterName, @Nullable final Calendar cal) throws SQLException {
+        return wrappedCallableStatement.getTime(parameterName, cal);
+    }
+
+    @Override
+    public Timestamp getTimestamp(final String parameterName, @Nullable final Calendar cal) throws SQLException {
+        return wrappedCallableStatement.getTimestamp(parameterName, cal);
+    }
+
+    @Override
+    public URL getURL(final String parameterName) throws SQLException {
+        return wrappedCallableStatement.getURL(parameterName);
+    }
+
+    @Override
+    public RowId getRowId(final int parameterIndex) throws SQLException {
+        return wrappedCallableStatement.getRowId(parameterIndex);
+    }
+
+    @Override
+    public RowId getRowId(final String parameterName) throws SQLException {
+        return wrappedCallableStatement.getRowId(parameterName);
+    }
+
+    @Override
+    public void setRowId(final String parameterName, @Nullable final RowId x) throws SQLException {
+        wrappedCallableStatement.setRowId(parameterName, x);
+        preparedStatementHandler.internalSetParameter(parameterName, x, "setRowId");
+    }
+
+    @Override
+    public void setNString(final String parameterName, @Nullable final String value) throws SQLException {
+        wrappedCallableStatement.setNString(parameterName, value);
+        preparedStatementHandler.internalSetParameter(parameterName, value, "setNString");
+    }
+
+    @Override
+    public void setNCharacterStream(final String parameterName, @Nullable final Reader value, final long length)
+            throws SQLException {
+        wrappedCallableStatement.setNCharacterStream(parameterName, value, length);
+    }
+
+    @Override
+    public void setNClob(final String parameterName, @Nullable final NClob value) throws SQLException {
+        wrappedCallableStatement.setNClob(parameterName, value);
+        preparedStatementHandler.internalSetParameter(parameterName, value, "setNClob");
+    }
+
+    @Override
+    public void setClob(final String parameterName, @Nullable final Reader reader, final long length)
+            throws SQLException {
+        wrappedCallableStatement.setClob(parameterName, reader, length);
+    }
+
+    @Override
+    public void setBlob(final String parameterName, @Nullable final InputStream inputStream, final long length)
+            throws SQLException {
+        wrappedCallableStatement.setBlob(parameterName, inputStream, length);
+    }
+
+    @Override
+    public void setNClob(final String parameterName, @Nullable final Reader reader, final long length)
+            throws SQLException {
+        wrappedCallableStatement.setNClob(parameterName, reader, length);
+    }
+
+    @Override
+    public NClob getNClob(final int parameterIndex) throws SQLException {
+        return wrappedCallableStatement.getNClob(parameterIndex);
+    }
+
+    @Override
+    public NClob getNClob(final String parameterName) throws SQLException {
+        return wrappedCallableStatement.getNClob(parameterName);
+    }
+
+    @Override
+    public void setSQLXML(final String parameterName, @Nullable final SQLXML xmlObject) throws SQLException {
+        wrappedCallableStatement.setSQLXML(parameterName, xmlObject);
+        preparedStatementHandler.internalSetParameter(parameterName, xmlObject, "setSQLXML");
+    }
+
+    @Override
+    public SQLXML getSQLXML(final int parameterIndex) throws SQLException {
+        return wrappedCallableStatement.getSQLXML(parameterIndex);
+    }
+
+    @Override
+    public SQLXML getSQLXML(final String parameterName) throws SQLException {
+        return wrappedCallableStatement.getSQLXML(parameterName);
+    }
+
+    @Override
+    public String getNString(final int parameterIndex) throws SQLException {
+        return wrappedCallableStatement.getNString(parameterIndex);
+    }
+
+    @Override
+    public String getNString(final String parameterName) throws SQLException {
+        return wrappedCallableStatement.getNString(parameterName);
+    }
+
+    @Override
+    public Reader getNCharacterStream(final int parameterIndex) throws SQLException {
+        return wrappedCallableStatement.getNCharacterStream(parameterIndex);
+    }
+
+    @Override
+    public Reader getNCharacterStream(final String parameterName) throws SQLException {
+        return wrappedCallableStatement.getNCharacterStream(parameterName);
+    }
+
+    @Override
+    public Reader getCharacterStream(final int parameterIndex) throws SQLException {
+        return wrappedCallableStatement.getCharacterStream(parameterIndex);
+    }
+
+    @Override
+    public Reader getCharacterStream(final String parameterName) throws SQLException {
+        return wrappedCallableStatement.getCharacterStream(parameterName);
+    }
+
+    @Override
+    public void setBlob(final String parameterName, @Nullable final Blob x) throws SQLException {
+        wrappedCallableStatement.setBlob(parameterName, x);
+        preparedStatementHandler.internalSetParameter(parameterName, x, "setBlob");
+    }
+
+    @Override
+    public void setClob(final String parameterName, @Nullable final Clob x) throws SQLException {
+        wrappedCallableStatement.setClob(parameterName, x);
+        preparedStatementHandler.internalSetParameter(parameterName, x, "setClob");
+    }
+
+    @Override
+    public void setAsciiStream(final String parameterName, @Nullable final InputStream x, final long length)
+            throws SQLException {
+        wrappedCallableStatement.setAsciiStream(parameterName, x, length);
+    }
+
+    @Override
+    public void setBinaryStream(final String parameterName, @Nullable final InputStream x, final long length)
+            throws SQLException {
+        wrappedCallableStatement.setBinaryStream(parameterName, x, length);
+    }
+
+    @Override
+    public void setCharacterStream(final String parameterName, @Nullable final Reader reader, final long length)
+            throws SQLException {
+        wrappedCallableStatement.setCharacterStream(parameterName, reader, length);
+    }
+
+    @Override
+    public void setAsciiStream(final String parameterName, @Nullable final InputStream x) throws SQLException {
+        wrappedCallableStatement.setAsciiStream(parameterName, x);
+        preparedStatementHandler.internalSetParameter(parameterName, x, "setAsciiStream");
+    }
+
+    @Override
+    public void setBinaryStream(final String parameterName, @Nullable final InputStream x) throws SQLException {
+        wrappedCallableStatement.setBinaryStream(parameterName, x);
+        preparedStatementHandler.internalSetParameter(parameterName, x, "setBinaryStream");
+    }
+
+    @Override
+    public void setCharacterStream(final String parameterName, @Nullable final Reader reader) throws SQLException {
+        wrappedCallableStatement.setCharacterStream(parameterName, reader);
+        preparedStatementHandler.internalSetParameter(parameterName, reader, "setCharacterStream");
+    }
+
+    @Override
+    public void setNCharacterStream(final String parameterName, @Nullable final Reader value) throws SQLException {
+        wrappedCallableStatement.setNCharacterStream(parameterName, value);
+        preparedStatementHandler.internalSetParameter(parameterName, value, "setNCharacterStream");
+    }
+
+    @Override
+    public void setClob(final String parameterName, @Nullable final Reader reader) throws SQLException {
+        wrappedCallableStatement.setClob(parameterName, reader);
+        preparedStatementHandler.internalSetParameter(parameterName, reader, "setClob");
+    }
+
+    @Override
+    public void setBlob(final String parameterName, @Nullable final InputStream inputStream) throws SQLException {
+        wrappedCallableStatement.setBlob(parameterName, inputStream);
+        preparedStatementHandler.internalSetParameter(parameterName, inputStream, "setBlob");
+    }
+
+    @Override
+    public void setNClob(final String parameterName, @Nullable final Reader reader) throws SQLException {
+        wrappedCallableStatement.setNClob(parameterName, reader);
+        preparedStatementHandler.internalSetParameter(parameterName, reader, "setNClob");
+    }
+
+    @Override
+    public <T> T getObject(final int parameterIndex, @Nullable final Class<T> type) throws SQLException {
+        return wrappedCallableStatement.getObject(parameterIndex, type);
+    }
+
+    @Override
+    public <T> T getObject(final String parameterName, @Nullable final Class<T> type) throws SQLException {
+        return wrappedCallableStatement.getObject(parameterName, type);
+    }
+
+    @Override
+    public void setObject(final String parameterName, @Nullable final Object x, final SQLType targetSqlType,
+            final int scaleOrLength) throws SQLException {
+        wrappedCallableStatement.setObject(parameterName, x, targetSqlType, scaleOrLength);
+        preparedStatementHandler.internalSetObject(parameterName, x, targetSqlType.getVendorTypeNumber());
+    }
+
+    @Override
+    public void setObject(final String parameterName, @Nullable final Object x, final SQLType targetSqlType)
+            throws SQLException {
+        wrappedCallableStatement.setObject(parameterName, x, targetSqlType);
+        preparedStatementHandler.internalSetObject(parameterName, x, targetSqlType.getVendorTypeNumber());
+    }
+
+    @Override
+    public void registerOutParameter(final int parameterIndex, final SQLType sqlType) throws SQLException {
+        wrappedCallableStatement.registerOutParameter(parameterIndex, sqlType);
+    }
+
+    @Override
+    public void registerOutParameter(final int parameterIndex, final SQLType sqlType, final int scale)
+            throws SQLException {
+        wrappedCallableStatement.registerOutParameter(parameterIndex, sqlType, scale);
+    }
+
+    @Override
+    public void registerOutParameter(final int parameterIndex, final SQLType sqlType, @Nullable final String typeName)
+            throws SQLException {
+        wrappedCallableStatement.registerOutParameter(parameterIndex, sqlType, typeName);
+    }
+
+    @Override
+    public void registerOutParameter(final String parameterName, final SQLType sqlType) throws SQLException {
+        wrappedCallableStatement.registerOutParameter(parameterName, sqlType);
+    }
+
+    @Override
+    public void registerOutParameter(final String parameterName, final SQLType sqlType, final int scale)
+            throws SQLException {
+        wrappedCallableStatement.registerOutParameter(parameterName, sqlType, scale);
+    }
+
+    @Override
+    public void registerOutParameter(final String parameterName, final SQLType sqlType, @Nullable final String typeName)
+            throws SQLException {
+        wrappedCallableStatement.registerOutParameter(parameterName, sqlType, typeName);
+    }
+
+}
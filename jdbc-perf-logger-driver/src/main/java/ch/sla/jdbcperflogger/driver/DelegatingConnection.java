@@ -0,0 +1,387 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger.driver;
+
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.CallableStatement;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.NClob;
+import java.sql.PreparedStatement;
+import java.sql.SQLClientInfoException;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.sql.Struct;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executor;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import ch.sla.jdbcperflogger.TxCompletionType;
+import ch.sla.jdbcperflogger.WrapperMode;
+import ch.sla.jdbcperflogger.logger.PerfLogger;
+
+/**
+ * {@link Connection} used in {@link WrapperMode#DELEGATE} mode. All calls are forwarded directly to the underlying
+ * connection, without reflection. Statements are wrapped and transactions are logged through the
+ * {@link LoggingConnectionInvocationHandler}.
+ */
+public class DelegatingConnection implements Connection {
+    private final Connection wrappedConnection;
+    private final LoggingConnectionInvocationHandler connectionHandler;
+
+    DelegatingConnection(final Connection wrappedConnection,
+            final LoggingConnectionInvocationHandler connectionHandler) {
+        this.wrappedConnection = wrappedConnection;
+        this.connectionHandler = connectionHandler;
+    }
+
+    @Override
+    public Statement createStatement() throws SQLException {
+        return connectionHandler.wrapStatement(wrappedConnection.createStatement());
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(final String sql) throws SQLException {
+        return connectionHandler.wrapPreparedStatement(wrappedConnection.prepareStatement(sql), sql);
+    }
+
+    @Override
+    public CallableStatement prepareCall(final String sql) throws SQLException {
+        return connectionHandler.wrapCallableStatement(wrappedConnection.prepareCall(sql), sql);
+    }
+
+    @Override
+    public String nativeSQL(final String sql) throws SQLException {
+        return wrappedConnection.nativeSQL(sql);
+    }
+
+    @Override
+    public void setAutoCommit(final boolean autoCommit) throws SQLException {
+        wrappedConnection.setAutoCommit(autoCommit);
+        connectionHandler.autoCommitChanged(autoCommit);
+    }
+
+    @Override
+    public boolean getAutoCommit() throws SQLException {
+        return wrappedConnection.getAutoCommit();
+    }
+
+    @Override
+    public void commit() throws SQLException {
+        if (!PerfLogger.isEnabled()) {
+            wrappedConnection.commit();
+            return;
+        }
+        final long startTimeStamp = System.currentTimeMillis();
+        final long startNanos = System.nanoTime();
+        wrappedConnection.commit();
+        connectionHandler.logTransactionComplete(TxCompletionType.COMMIT, startTimeStamp, startNanos, null);
+    }
+
+    @Override
+    public void rollback() throws SQLException {
+        if (!PerfLogger.isEnabled()) {
+            wrappedConnection.rollback();
+            return;
+        }
+        final long startTimeStamp = System.currentTimeMillis();
+        final long startNanos = System.nanoTime();
+        wrappedConnection.rollback();
+        connectionHandler.logTransactionComplete(TxCompletionType.ROLLBACK, startTimeStamp, startNanos, null);
+    }
+
+    @Override
+    public void close() throws SQLException {
+        wrappedConnection.close();
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        return wrappedConnection.isClosed();
+    }
+
+    @Override
+    public DatabaseMetaData getMetaData() throws SQLException {
+        return wrappedConnection.getMetaData();
+    }
+
+    @Override
+    public void setReadOnly(final boolean readOnly) throws SQLException {
+        wrappedConnection.setReadOnly(readOnly);
+    }
+
+    @Override
+    public boolean isReadOnly() throws SQLException {
+        return wrappedConnection.isReadOnly();
+    }
+
+    @Override
+    public void setCatalog(@Nullable final String catalog) throws SQLException {
+        wrappedConnection.setCatalog(catalog);
+    }
+
+    @Override
+    public String getCatalog() throws SQLException {
+        return wrappedConnection.getCatalog();
+    }
+
+    @Override
+    public void setTransactionIsolation(final int level) throws SQLException {
+        wrappedConnection.setTransactionIsolation(level);
+        connectionHandler.transactionIsolationChanged(level);
+    }
+
+    @Override
+    public int getTransactionIsolation() throws SQLException {
+        return wrappedConnection.getTransactionIsolation();
+    }
+
+    @Override
+    public SQLWarning getWarnings() throws SQLException {
+        return wrappedConnection.getWarnings();
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException {
+        wrappedConnection.clearWarnings();
+    }
+
+    @Override
+    public Statement createStatement(final int resultSetType, final int resultSetConcurrency) throws SQLException {
+        return connectionHandler.wrapStatement(wrappedConnection.createStatement(resultSetType, resultSetConcurrency));
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(final String sql, final int resultSetType, final int resultSetConcurrency)
+            throws SQLException {
+        return connectionHandler.wrapPreparedStatement(wrappedConnection.prepareStatement(sql, resultSetType,
+                resultSetConcurrency), sql);
+    }
+
+    @Override
+    public CallableStatement prepareCall(final String sql, final int resultSetType, final int resultSetConcurrency)
+            throws SQLException {
+        return connectionHandler.wrapCallableStatement(wrappedConnection.prepareCall(sql, resultSetType,
+                resultSetConcurrency), sql);
+    }
+
+    @Override
+    public Map<String, Class<?>> getTypeMap() throws SQLException {
+        return wrappedConnection.getTypeMap();
+    }
+
+    @Override
+    public void setTypeMap(@Nullable final Map<String, Class<?>> map) throws SQLException {
+        wrappedConnection.setTypeMap(map);
+    }
+
+    @Override
+    public void setHoldability(final int holdability) throws SQLException {
+        wrappedConnection.setHoldability(holdability);
+    }
+
+    @Override
+    public int getHoldability() throws SQLException {
+        return wrappedConnection.getHoldability();
+    }
+
+    @Override
+    public Savepoint setSavepoint() throws SQLException {
+        if (!PerfLogger.isEnabled()) {
+            return wrappedConnection.setSavepoint();
+        }
+        final long startTimeStamp = System.currentTimeMillis();
+        final long startNanos = System.nanoTime();
+        final Savepoint savepoint = wrappedConnection.setSavepoint();
+        connectionHandler.logTransactionComplete(TxCompletionType.SET_SAVE_POINT, startTimeStamp, startNanos,
+                savepoint);
+        return savepoint;
+    }
+
+    @Override
+    public Savepoint setSavepoint(@Nullable final String name) throws SQLException {
+        if (!PerfLogger.isEnabled()) {
+            return wrappedConnection.setSavepoint(name);
+        }
+        final long startTimeStamp = System.currentTimeMillis();
+        final long startNanos = System.nanoTime();
+        final Savepoint savepoint = wrappedConnection.setSavepoint(name);
+        connectionHandler.logTransactionComplete(TxCompletionType.SET_SAVE_POINT, startTimeStamp, startNanos,
+                savepoint);
+        return savepoint;
+    }
+
+    @Override
+    public void rollback(@Nullable final Savepoint savepoint) throws SQLException {
+        if (!PerfLogger.isEnabled()) {
+            wrappedConnection.rollback(savepoint);
+            return;
+        }
+        final long startTimeStamp = System.currentTimeMillis();
+        final long startNanos = System.nanoTime();
+        wrappedConnection.rollback(savepoint);
+        connectionHandler.logTransactionComplete(TxCompletionType.ROLLBACK_TO_SAVEPOINT, startTimeStamp, startNanos,
+                savepoint);
+    }
+
+    @Override
+    public void releaseSavepoint(@Nullable final Savepoint savepoint) throws SQLException {
+        wrappedConnection.releaseSavepoint(savepoint);
+    }
+
+    @Override
+    public Statement createStatement(final int resultSetType, final int resultSetConcurrency,
+            final int resultSetHoldability) throws SQLException {
+        return connectionHandler.wrapStatement(wrappedConnection.createStatement(resultSetType, resultSetConcurrency,
+                resultSetHoldability));
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(final String sql, final int resultSetType, final int resultSetConcurrency,
+            final int resultSetHoldability) throws SQLException {
+        return connectionHandler.wrapPreparedStatement(wrappedConnection.prepareStatement(sql, resultSetType,
+                resultSetConcurrency, resultSetHoldability), sql);
+    }
+
+    @Override
+    public CallableStatement prepareCall(final String sql, final int resultSetType, final int resultSetConcurrency,
+            final int resultSetHoldability) throws SQLException {
+        return connectionHandler.wrapCallableStatement(wrappedConnection.prepareCall(sql, resultSetType,
+                resultSetConcurrency, resultSetHoldability), sql);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(final String sql, final int autoGeneratedKeys) throws SQLException {
+        return connectionHandler.wrapPreparedStatement(wrappedConnection.prepareStatement(sql, autoGeneratedKeys), sql);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(final String sql, final int @Nullable [] columnIndexes)
+            throws SQLException {
+        return connectionHandler.wrapPreparedStatement(wrappedConnection.prepareStatement(sql, columnIndexes), sql);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(final String sql, final String @Nullable [] columnNames)
+            throws SQLException {
+        return connectionHandler.wrapPreparedStatement(wrappedConnection.prepareStatement(sql, columnNames), sql);
+    }
+
+    @Override
+    public Clob createClob() throws SQLException {
+        return wrappedConnection.createClob();
+    }
+
+    @Override
+    public Blob createBlob() throws SQLException {
+        return wrappedConnection.createBlob();
+    }
+
+    @Override
+    public NClob createNClob() throws SQLException {
+        return wrappedConnection.createNClob();
+    }
+
+    @Override
+    public SQLXML createSQLXML() throws SQLException {
+        return wrappedConnection.createSQLXML();
+    }
+
+    @Override
+    public boolean isValid(final int timeout) throws SQLException {
+        return wrappedConnection.isValid(timeout);
+    }
+
+    @Override
+    public void setClientInfo(@Nullable final String name, @Nullable final String value) throws SQLClientInfoException {
+        wrappedConnection.setClientInfo(name, value);
+    }
+
+    @Override
+    public void setClientInfo(@Nullable final Properties properties) throws SQLClientInfoException {
+        wrappedConnection.setClientInfo(properties);
+    }
+
+    @Override
+    public String getClientInfo(@Nullable final String name) throws SQLException {
+        return wrappedConnection.getClientInfo(name);
+    }
+
+    @Override
+    public Properties getClientInfo() throws SQLException {
+        return wrappedConnection.getClientInfo();
+    }
+
+    @Override
+    public Array createArrayOf(@Nullable final String typeName, final Object @Nullable [] elements)
+            throws SQLException {
+        return wrappedConnection.createArrayOf(typeName, elements);
+    }
+
+    @Override
+    public Struct createStruct(@Nullable final String typeName, final Object @Nullable [] attributes)
+            throws SQLException {
+        return wrappedConnection.createStruct(typeName, attributes);
+    }
+
+    @Override
+    public void setSchema(@Nullable final String schema) throws SQLException {
+        wrappedConnection.setSchema(schema);
+    }
+
+    @Override
+    public String getSchema() throws SQLException {
+        return wrappedConnection.getSchema();
+    }
+
+    @Override
+    public void abort(@Nullable final Executor executor) throws SQLException {
+        wrappedConnection.abort(executor);
+    }
+
+    @Override
+    public void setNetworkTimeout(@Nullable final Executor executor, final int milliseconds) throws SQLException {
+        wrappedConnection.setNetworkTimeout(executor, milliseconds);
+    }
+
+    @Override
+    public int getNetworkTimeout() throws SQLException {
+        return wrappedConnection.getNetworkTimeout();
+    }
+
+    @Override
+    public <T> T unwrap(@Nullable final Class<T> iface) throws SQLException {
+        return wrappedConnection.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(@Nullable final Class<?> iface) throws SQLException {
+        return wrappedConnection.isWrapperFor(iface);
+    }
+
+    @Override
+    public String toString() {
+        return wrappedConnection.toString();
+    }
+
+}
@@ -0,0 +1,411 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger.driver;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLType;
+import java.sql.SQLXML;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Calendar;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import ch.sla.jdbcperflogger.WrapperMode;
+
+/**
+ * {@link PreparedStatement} used in {@link WrapperMode#DELEGATE} mode. All calls are forwarded directly to the
+ * underlying statement, the parameter values and the executions are logged through the
+ * {@link LoggingPreparedStatementInvocationHandler}.
+ */
+public class DelegatingPreparedStatement extends DelegatingStatement implements PreparedStatement {
+    private final PreparedStatement wrappedPreparedStatement;
+    protected final LoggingPreparedStatementInvocationHandler preparedStatementHandler;
+
+    DelegatingPreparedStatement(final PreparedStatement wrappedPreparedStatement,
+            final LoggingPreparedStatementInvocationHandler preparedStatementHandler) {
+        super(wrappedPreparedStatement, preparedStatementHandler);
+        this.wrappedPreparedStatement = wrappedPreparedStatement;
+        this.preparedStatementHandler = preparedStatementHandler;
+    }
+
+    @Override
+    public ResultSet executeQuery() throws SQLException {
+        return preparedStatementHandler.internalExecutePreparedQuery(() -> wrappedPreparedStatement.executeQuery());
+    }
+
+    @Override
+    public int executeUpdate() throws SQLException {
+        return preparedStatementHandler.internalExecutePrepared(() -> wrappedPreparedStatement.executeUpdate());
+    }
+
+    @Override
+    public void setNull(final int parameterIndex, final int sqlType) throws SQLException {
+        wrappedPreparedStatement.setNull(parameterIndex, sqlType);
+        preparedStatementHandler.internalSetNull(parameterIndex, sqlType);
+    }
+
+    @Override
+    public void setBoolean(final int parameterIndex, final boolean x) throws SQLException {
+        wrappedPreparedStatement.setBoolean(parameterIndex, x);
+        preparedStatementHandler.internalSetParameter(parameterIndex, x, "setBoolean");
+    }
+
+    @Override
+    public void setByte(final int parameterIndex, final byte x) throws SQLException {
+        wrappedPreparedStatement.setByte(parameterIndex, x);
+        preparedStatementHandler.internalSetParameter(parameterIndex, x, "setByte");
+    }
+
+    @Override
+    public void setShort(final int parameterIndex, final short x) throws SQLException {
+        wrappedPreparedStatement.setShort(parameterIndex, x);
+        preparedStatementHandler.internalSetParameter(parameterIndex, x, "setShort");
+    }
+
+    @Override
+    public void setInt(final int parameterIndex, final int x) throws SQLException {
+        wrappedPreparedStatement.setInt(parameterIndex, x);
+        preparedStatementHandler.internalSetParameter(parameterIndex, x, "setInt");
+    }
+
+    @Override
+    public void setLong(final int parameterIndex, final long x) throws SQLException {
+        wrappedPreparedStatement.setLong(parameterIndex, x);
+        preparedStatementHandler.internalSetParameter(parameterIndex, x, "setLong");
+    }
+
+    @Override
+    public void setFloat(final int parameterIndex, final float x) throws SQLException {
+        wrappedPreparedStatement.setFloat(parameterIndex, x);
+        preparedStatementHandler.internalSetParameter(parameterIndex, x, "setFloat");
+    }
+
+    @Override
+    public void setDouble(final int parameterIndex, final double x) throws SQLException {
+        wrappedPreparedStatement.setDouble(parameterIndex, x);
+        preparedStatementHandler.internalSetParameter(parameterIndex, x, "setDouble");
+    }
+
+    @Override
+    public void setBigDecimal(final int parameterIndex, @Nullable final BigDecimal x) throws SQLException {
+        wrappedPreparedStatement.setBigDecimal(parameterIndex, x);
+        preparedStatementHandler.internalSetParameter(parameterIndex, x, "setBigDecimal");
+    }
+
+    @Override
+    public void setString(final int parameterIndex, @Nullable final String x) throws SQLException {
+        wrappedPreparedStatement.setString(parameterIndex, x);
+        preparedStatementHandler.internalSetParameter(parameterIndex, x, "setString");
+    }
+
+    @Override
+    public void setBytes(final int parameterIndex, final byte @Nullable [] x) throws SQLException {
+        wrappedPreparedStatement.setBytes(parameterIndex, x);
+        preparedStatementHandler.internalSetParameter(parameterIndex, x, "setBytes");
+    }
+
+    @Override
+    public void setDate(final int parameterIndex, @Nullable final Date x) throws SQLException {
+        wrappedPreparedStatement.setDate(parameterIndex, x);
+        preparedStatementHandler.internalSetParameter(parameterIndex, x, "setDate");
+    }
+
+    @Override
+    public void setTime(final int parameterIndex, @Nullable final Time x) throws SQLException {
+        wrappedPreparedStatement.setTime(parameterIndex, x);
+        preparedStatementHandler.internalSetParameter(parameterIndex, x, "setTime");
+    }
+
+    @Override
+    public void setTimestamp(final int parameterIndex, @Nullable final Timestamp x) throws SQLException {
+        wrappedPreparedStatement.setTimestamp(parameterIndex, x);
+        preparedStatementHandler.internalSetParameter(parameterIndex, x, "setTimestamp");
+    }
+
+    @Override
+    public void setAsciiStream(final int parameterIndex, @Nullable final InputStream x, final int length)
+            throws SQLException {
+        wrappedPreparedStatement.setAsciiStream(parameterIndex, x, length);
+    }
+
+    @Override
+    @Deprecated
+    public void setUnicodeStream(final int parameterIndex, @Nullable final InputStream x, final int length)
+            throws SQLException {
+        wrappedPreparedStatement.setUnicodeStream(parameterIndex, x, length);
+    }
+
+    @Override
+    public void setBinaryStream(final int parameterIndex, @Nullable final InputStream x, final int length)
+            throws SQLException {
+        wrappedPreparedStatement.setBinaryStream(parameterIndex, x, length);
+    }
+
+    @Override
+    public void clearParameters() throws SQLException {
+        wrappedPreparedStatement.clearParameters();
+        preparedStatementHandler.internalClearParameters();
+    }
+
+    @Override
+    public void setObject(final int parameterIndex, @Nullable final Object x, final int targetSqlType)
+            throws SQLException {
+        wrappedPreparedStatement.setObject(parameterIndex, x, targetSqlType);
+        preparedStatementHandler.internalSetObject(parameterIndex, x, targetSqlType);
+    }
+
+    @Override
+    public void setObject(final int parameterIndex, @Nullable final Object x) throws SQLException {
+        wrappedPreparedStatement.setObject(parameterIndex, x);
+        preparedStatementHandler.internalSetParameter(parameterIndex, x, "setObject");
+    }
+
+    @Override
+    public boolean execute() throws SQLException {
+        return preparedStatementHandler.internalExecutePrepared(() -> wrappedPreparedStatement.execute());
+    }
+
+    @Override
+    public void addBatch() throws SQLException {
+        wrappedPreparedStatement.addBatch();
+        preparedStatementHandler.internalAddBatch();
+    }
+
+    @Override
+    public void setCharacterStream(final int parameterIndex, @Nullable final Reader reader, final int length)
+            throws SQLException {
+        wrappedPreparedStatement.setCharacterStream(parameterIndex, reader, length);
+    }
+
+    @Override
+    public void setRef(final int parameterIndex, @Nullable final Ref x) throws SQLException {
+        wrappedPreparedStatement.setRef(parameterIndex, x);
+        preparedStatementHandler.internalSetParameter(parameterIndex, x, "setRef");
+    }
+
+    @Override
+    public void setBlob(final int parameterIndex, @Nullable final Blob x) throws SQLException {
+        wrappedPreparedStatement.setBlob(parameterIndex, x);
+        preparedStatementHandler.internalSetParameter(parameterIndex, x, "setBlob");
+    }
+
+    @Override
+    public void setClob(final int parameterIndex, @Nullable final Clob x) throws SQLException {
+        wrappedPreparedStatement.setClob(parameterIndex, x);
+        preparedStatementHandler.internalSetParameter(parameterIndex, x, "setClob");
+    }
+
+    @Override
+    public void setArray(final int parameterIndex, @Nullable final Array x) throws SQLException {
+        wrappedPreparedStatement.setArray(parameterIndex, x);
+        preparedStatementHandler.internalSetParameter(parameterIndex, x, "setArray");
+    }
+
+    @Override
+    public ResultSetMetaData getMetaData() throws SQLException {
+        return wrappedPreparedStatement.getMetaData();
+    }
+
+    @Override
+    public void setDate(final int parameterIndex, @Nullable final Date x, @Nullable final Calendar cal)
+            throws SQLException {
+        wrappedPreparedStatement.setDate(parameterIndex, x, cal);
+        preparedStatementHandler.internalSetParameter(parameterIndex, x, "setDate");
+    }
+
+    @Override
+    public void setTime(final int parameterIndex, @Nullable final Time x, @Nullable final Calendar cal)
+            throws SQLException {
+        wrappedPreparedStatement.setTime(parameterIndex, x, cal);
+        preparedStatementHandler.internalSetParameter(parameterIndex, x, "setTime");
+    }
+
+    @Override
+    public void setTimestamp(final int parameterIndex, @Nullable final Timestamp x, @Nullable final Calendar cal)
+            throws SQLException {
+        wrappedPreparedStatement.setTimestamp(parameterIndex, x, cal);
+        preparedStatementHandler.internalSetParameter(parameterIndex, x, "setTimestamp");
+    }
+
+    @Override
+    public void setNull(final int parameterIndex, final int sqlType, @Nullable final String typeName)
+            throws SQLException {
+        wrappedPreparedStatement.setNull(parameterIndex, sqlType, typeName);
+        preparedStatementHandler.internalSetNull(parameterIndex, sqlType);
+    }
+
+    @Override
+    public void setURL(final int parameterIndex, @Nullable final URL x) throws SQLException {
+        wrappedPreparedStatement.setURL(parameterIndex, x);
+        preparedStatementHandler.internalSetParameter(parameterIndex, x, "setURL");
+    }
+
+    @Override
+    public ParameterMetaData getParameterMetaData() throws SQLException {
+        return wrappedPreparedStatement.getParameterMetaData();
+    }
+
+    @Override
+    public void setRowId(final int parameterIndex, @Nullable final RowId x) throws SQLException {
+        wrappedPreparedStatement.setRowId(parameterIndex, x);
+        preparedStatementHandler.internalSetParameter(parameterIndex, x, "setRowId");
+    }
+
+    @Override
+    public void setNString(final int parameterIndex, @Nullable final String value) throws SQLException {
+        wrappedPreparedStatement.setNString(parameterIndex, value);
+        preparedStatementHandler.internalSetParameter(parameterIndex, value, "setNString");
+    }
+
+    @Override
+    public void setNCharacterStream(final int parameterIndex, @Nullable final Reader value, final long length)
+            throws SQLException {
+        wrappedPreparedStatement.setNCharacterStream(parameterIndex, value, length);
+    }
+
+    @Override
+    public void setNClob(final int parameterIndex, @Nullable final NClob value) throws SQLException {
+        wrappedPreparedStatement.setNClob(parameterIndex, value);
+        preparedStatementHandler.internalSetParameter(parameterIndex, value, "setNClob");
+    }
+
+    @Override
+    public void setClob(final int parameterIndex, @Nullable final Reader reader, final long length)
+            throws SQLException {
+        wrappedPreparedStatement.setClob(parameterIndex, reader, length);
+    }
+
+    @Override
+    public void setBlob(final int parameterIndex, @Nullable final InputStream inputStream, final long length)
+            throws SQLException {
+        wrappedPreparedStatement.setBlob(parameterIndex, inputStream, length);
+    }
+
+    @Override
+    public void setNClob(final int parameterIndex, @Nullable final Reader reader, final long length)
+            throws SQLException {
+        wrappedPreparedStatement.setNClob(parameterIndex, reader, length);
+    }
+
+    @Override
+    public void setSQLXML(final int parameterIndex, @Nullable final SQLXML xmlObject) throws SQLException {
+        wrappedPreparedStatement.setSQLXML(parameterIndex, xmlObject);
+        preparedStatementHandler.internalSetParameter(parameterIndex, xmlObject, "setSQLXML");
+    }
+
+    @Override
+    public void setObject(final int parameterIndex, @Nullable final Object x, final int targetSqlType,
+            final int scaleOrLength) throws SQLException {
+        wrappedPreparedStatement.setObject(parameterIndex, x, targetSqlType, scaleOrLength);
+        preparedStatementHandler.internalSetObject(parameterIndex, x, targetSqlType);
+    }
+
+    @Override
+    public void setAsciiStream(final int parameterIndex, @Nullable final InputStream x, final long length)
+            throws SQLException {
+        wrappedPreparedStatement.setAsciiStream(parameterIndex, x, length);
+    }
+
+    @Override
+    public void setBinaryStream(final int parameterIndex, @Nullable final InputStream x, final long length)
+            throws SQLException {
+        wrappedPreparedStatement.setBinaryStream(parameterIndex, x, length);
+    }
+
+    @Override
+    public void setCharacterStream(final int parameterIndex, @Nullable final Reader reader, final long length)
+            throws SQLException {
+        wrappedPreparedStatement.setCharacterStream(parameterIndex, reader, length);
+    }
+
+    @Override
+    public void setAsciiStream(final int parameterIndex, @Nullable final InputStream x) throws SQLException {
+        wrappedPreparedStatement.setAsciiStream(parameterIndex, x);
+        preparedStatementHandler.internalSetParameter(parameterIndex, x, "setAsciiStream");
+    }
+
+    @Override
+    public void setBinaryStream(final int parameterIndex, @Nullable final InputStream x) throws SQLException {
+        wrappedPreparedStatement.setBinaryStream(parameterIndex, x);
+        preparedStatementHandler.internalSetParameter(parameterIndex, x, "setBinaryStream");
+    }
+
+    @Override
+    public void setCharacterStream(final int parameterIndex, @Nullable final Reader reader) throws SQLException {
+        wrappedPreparedStatement.setCharacterStream(parameterIndex, reader);
+        preparedStatementHandler.internalSetParameter(parameterIndex, reader, "setCharacterStream");
+    }
+
+    @Override
+    public void setNCharacterStream(final int parameterIndex, @Nullable final Reader value) throws SQLException {
+        wrappedPreparedStatement.setNCharacterStream(parameterIndex, value);
+        preparedStatementHandler.internalSetParameter(parameterIndex, value, "setNCharacterStream");
+    }
+
+    @Override
+    public void setClob(final int parameterIndex, @Nullable final Reader reader) throws SQLException {
+        wrappedPreparedStatement.setClob(parameterIndex, reader);
+        preparedStatementHandler.internalSetParameter(parameterIndex, reader, "setClob");
+    }
+
+    @Override
+    public void setBlob(final int parameterIndex, @Nullable final InputStream inputStream) throws SQLException {
+        wrappedPreparedStatement.setBlob(parameterIndex, inputStream);
+        preparedStatementHandler.internalSetParameter(parameterIndex, inputStream, "setBlob");
+    }
+
+    @Override
+    public void setNClob(final int parameterIndex, @Nullable final Reader reader) throws SQLException {
+        wrappedPreparedStatement.setNClob(parameterIndex, reader);
+        preparedStatementHandler.internalSetParameter(parameterIndex, reader, "setNClob");
+    }
+
+    @Override
+    public void setObject(final int parameterIndex, @Nullable final Object x, final SQLType targetSqlType,
+            final int scaleOrLength) throws SQLException {
+        wrappedPreparedStatement.setObject(parameterIndex, x, targetSqlType, scaleOrLength);
+        preparedStatementHandler.internalSetObject(parameterIndex, x, targetSqlType.getVendorTypeNumber());
+    }
+
+    @Override
+    public void setObject(final int parameterIndex, @Nullable final Object x, final SQLType targetSqlType)
+            throws SQLException {
+        wrappedPreparedStatement.setObject(parameterIndex, x, targetSqlType);
+        preparedStatementHandler.internalSetObject(parameterIndex, x, targetSqlType.getVendorTypeNumber());
+    }
+
+    @Override
+    public long executeLargeUpdate() throws SQLException {
+        return preparedStatementHandler.internalExecutePrepared(() -> wrappedPreparedStatement.executeLargeUpdate());
+    }
+
+}
@@ -0,0 +1,1079 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger.driver;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLType;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Calendar;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import ch.sla.jdbcperflogger.WrapperMode;
+
+/**
+ * {@link ResultSet} used in {@link WrapperMode#DELEGATE} mode. All calls are forwarded directly to the underlying
+ * result set, only {@link #next()} and {@link #close()} are reported to the {@link LoggingResultSetInvocationHandler}.
+ */
+public class DelegatingResultSet implements ResultSet {
+    private final ResultSet wrappedResultSet;
+    private final LoggingResultSetInvocationHandler resultSetHandler;
+
+    DelegatingResultSet(final ResultSet wrappedResultSet, final LoggingResultSetInvocationHandler resultSetHandler) {
+        this.wrappedResultSet = wrappedResultSet;
+        this.resultSetHandler = resultSetHandler;
+    }
+
+    @Override
+    public boolean next() throws SQLException {
+        final long methodStartTime = System.nanoTime();
+        final boolean hasNext = wrappedResultSet.next();
+        resultSetHandler.internalNext(hasNext, System.nanoTime() - methodStartTime);
+        return hasNext;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        wrappedResultSet.close();
+        resultSetHandler.internalClose();
+    }
+
+    @Override
+    public boolean wasNull() throws SQLException {
+        return wrappedResultSet.wasNull();
+    }
+
+    @Override
+    public String getString(final int columnIndex) throws SQLException {
+        return wrappedResultSet.getString(columnIndex);
+    }
+
+    @Override
+    public boolean getBoolean(final int columnIndex) throws SQLException {
+        return wrappedResultSet.getBoolean(columnIndex);
+    }
+
+    @Override
+    public byte getByte(final int columnIndex) throws SQLException {
+        return wrappedResultSet.getByte(columnIndex);
+    }
+
+    @Override
+    public short getShort(final int columnIndex) throws SQLException {
+        return wrappedResultSet.getShort(columnIndex);
+    }
+
+    @Override
+    public int getInt(final int columnIndex) throws SQLException {
+        return wrappedResultSet.getInt(columnIndex);
+    }
+
+    @Override
+    public long getLong(final int columnIndex) throws SQLException {
+        return wrappedResultSet.getLong(columnIndex);
+    }
+
+    @Override
+    public float getFloat(final int columnIndex) throws SQLException {
+        return wrappedResultSet.getFloat(columnIndex);
+    }
+
+    @Override
+    public double getDouble(final int columnIndex) throws SQLException {
+        return wrappedResultSet.getDouble(columnIndex);
+    }
+
+    @Override
+    @Deprecated
+    public BigDecimal getBigDecimal(final int columnIndex, final int scale) throws SQLException {
+        return wrappedResultSet.getBigDecimal(columnIndex, scale);
+    }
+
+    @Override
+    public byte[] getBytes(final int columnIndex) throws SQLException {
+        return wrappedResultSet.getBytes(columnIndex);
+    }
+
+    @Override
+    public Date getDate(final int columnIndex) throws SQLException {
+        return wrappedResultSet.getDate(columnIndex);
+    }
+
+    @Override
+    public Time getTime(final int columnIndex) throws SQLException {
+        return wrappedResultSet.getTime(columnIndex);
+    }
+
+    @Override
+    public Timestamp getTimestamp(final int columnIndex) throws SQLException {
+        return wrappedResultSet.getTimestamp(columnIndex);
+    }
+
+    @Override
+    public InputStream getAsciiStream(final int columnIndex) throws SQLException {
+        return wrappedResultSet.getAsciiStream(columnIndex);
+    }
+
+    @Override
+    @Deprecated
+    public InputStream getUnicodeStream(final int columnIndex) throws SQLException {
+        return wrappedResultSet.getUnicodeStream(columnIndex);
+    }
+
+    @Override
+    public InputStream getBinaryStream(final int columnIndex) throws SQLException {
+        return wrappedResultSet.getBinaryStream(columnIndex);
+    }
+
+    @Override
+    public String getString(@Nullable final String columnLabel) throws SQLException {
+        return wrappedResultSet.getString(columnLabel);
+    }
+
+    @Override
+    public boolean getBoolean(@Nullable final String columnLabel) throws SQLException {
+        return wrappedResultSet.getBoolean(columnLabel);
+    }
+
+    @Override
+    public byte getByte(@Nullable final String columnLabel) throws SQLException {
+        return wrappedResultSet.getByte(columnLabel);
+    }
+
+    @Override
+    public short getShort(@Nullable final String columnLabel) throws SQLException {
+        return wrappedResultSet.getShort(columnLabel);
+    }
+
+    @Override
+    public int getInt(@Nullable final String columnLabel) throws SQLException {
+        return wrappedResultSet.getInt(columnLabel);
+    }
+
+    @Override
+    public long getLong(@Nullable final String columnLabel) throws SQLException {
+        return wrappedResultSet.getLong(columnLabel);
+    }
+
+    @Override
+    public float getFloat(@Nullable final String columnLabel) throws SQLException {
+        return wrappedResultSet.getFloat(columnLabel);
+    }
+
+    @Override
+    public double getDouble(@Nullable final String columnLabel) throws SQLException {
+        return wrappedResultSet.getDouble(columnLabel);
+    }
+
+    @Override
+    @Deprecated
+    public BigDecimal getBigDecimal(@Nullable final String columnLabel, final int scale) throws SQLException {
+        return wrappedResultSet.getBigDecimal(columnLabel, scale);
+    }
+
+    @Override
+    public byte[] getBytes(@Nullable final String columnLabel) throws SQLException {
+        return wrappedResultSet.getBytes(columnLabel);
+    }
+
+    @Override
+    public Date getDate(@Nullable final String columnLabel) throws SQLException {
+        return wrappedResultSet.getDate(columnLabel);
+    }
+
+    @Override
+    public Time getTime(@Nullable final String columnLabel) throws SQLException {
+        return wrappedResultSet.getTime(columnLabel);
+    }
+
+    @Override
+    public Timestamp getTimestamp(@Nullable final String columnLabel) throws SQLException {
+        return wrappedResultSet.getTimestamp(columnLabel);
+    }
+
+    @Override
+    public InputStream getAsciiStream(@Nullable final String columnLabel) throws SQLException {
+        return wrappedResultSet.getAsciiStream(columnLabel);
+    }
+
+    @Override
+    @Deprecated
+    public InputStream getUnicodeStream(@Nullable final String columnLabel) throws SQLException {
+        return wrappedResultSet.getUnicodeStream(columnLabel);
+    }
+
+    @Override
+    public InputStream getBinaryStream(@Nullable final String columnLabel) throws SQLException {
+        return wrappedResultSet.getBinaryStream(columnLabel);
+    }
+
+    @Override
+    public SQLWarning getWarnings() throws SQLException {
+        return wrappedResultSet.getWarnings();
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException {
+        wrappedResultSet.clearWarnings();
+    }
+
+    @Override
+    public String getCursorName() throws SQLException {
+        return wrappedResultSet.getCursorName();
+    }
+
+    @Override
+    public ResultSetMetaData getMetaData() throws SQLException {
+        return wrappedResultSet.getMetaData();
+    }
+
+    @Override
+    public Object getObject(final int columnIndex) throws SQLException {
+        return wrappedResultSet.getObject(columnIndex);
+    }
+
+    @Override
+    public Object getObject(@Nullable final String columnLabel) throws SQLException {
+        return wrappedResultSet.getObject(columnLabel);
+    }
+
+    @Override
+    public int findColumn(@Nullable final String columnLabel) throws SQLException {
+        return wrappedResultSet.findColumn(columnLabel);
+    }
+
+    @Override
+    public Reader getCharacterStream(final int columnIndex) throws SQLException {
+        return wrappedResultSet.getCharacterStream(columnIndex);
+    }
+
+    @Override
+    public Reader getCharacterStream(@Nullable final String columnLabel) throws SQLException {
+        return wrappedResultSet.getCharacterStream(columnLabel);
+    }
+
+    @Override
+    public BigDecimal getBigDecimal(final int columnIndex) throws SQLException {
+        return wrappedResultSet.getBigDecimal(columnIndex);
+    }
+
+    @Override
+    public BigDecimal getBigDecimal(@Nullable final String columnLabel) throws SQLException {
+        return wrappedResultSet.getBigDecimal(columnLabel);
+    }
+
+    @Override
+    public boolean isBeforeFirst() throws SQLException {
+        return wrappedResultSet.isBeforeFirst();
+    }
+
+    @Override
+    public boolean isAfterLast() throws SQLException {
+        return wrappedResultSet.isAfterLast();
+    }
+
+    @Override
+    public boolean isFirst() throws SQLException {
+        return wrappedResultSet.isFirst();
+    }
+
+    @Override
+    public boolean isLast() throws SQLException {
+        return wrappedResultSet.isLast();
+    }
+
+    @Override
+    public void beforeFirst() throws SQLException {
+        wrappedResultSet.beforeFirst();
+    }
+
+    @Override
+    public void afterLast() throws SQLException {
+        wrappedResultSet.afterLast();
+    }
+
+    @Override
+    public boolean first() throws SQLException {
+        return wrappedResultSet.first();
+    }
+
+    @Override
+    public boolean last() throws SQLException {
+        return wrappedResultSet.last();
+    }
+
+    @Override
+    public int getRow() throws SQLException {
+        return wrappedResultSet.getRow();
+    }
+
+    @Override
+    public boolean absolute(final int row) throws SQLException {
+        return wrappedResultSet.absolute(row);
+    }
+
+    @Override
+    public boolean relative(final int rows) throws SQLException {
+        return wrappedResultSet.relative(rows);
+    }
+
+    @Override
+    public boolean previous() throws SQLException {
+        return wrappedResultSet.previous();
+    }
+
+    @Override
+    public void setFetchDirection(final int direction) throws SQLException {
+        wrappedResultSet.setFetchDirection(direction);
+    }
+
+    @Override
+    public int getFetchDirection() throws SQLException {
+        return wrappedResultSet.getFetchDirection();
+    }
+
+    @Override
+    public void setFetchSize(final int rows) throws SQLException {
+        wrappedResultSet.setFetchSize(rows);
+    }
+
+    @Override
+    public int getFetchSize() throws SQLException {
+        return wrappedResultSet.getFetchSize();
+    }
+
+    @Override
+    public int getType() throws SQLException {
+        return wrappedResultSet.getType();
+    }
+
+    @Override
+    public int getConcurrency() throws SQLException {
+        return wrappedResultSet.getConcurrency();
+    }
+
+    @Override
+    public boolean rowUpdated() throws SQLException {
+        return wrappedResultSet.rowUpdated();
+    }
+
+    @Override
+    public boolean rowInserted() throws SQLException {
+        return wrappedResultSet.rowInserted();
+    }
+
+    @Override
+    public boolean rowDeleted() throws SQLException {
+        return wrappedResultSet.rowDeleted();
+    }
+
+    @Override
+    public void updateNull(final int columnIndex) throws SQLException {
+        wrappedResultSet.updateNull(columnIndex);
+    }
+
+    @Override
+    public void updateBoolean(final int columnIndex, final boolean x) throws SQLException {
+        wrappedResultSet.updateBoolean(columnIndex, x);
+    }
+
+    @Override
+    public void updateByte(final int columnIndex, final byte x) throws SQLException {
+        wrappedResultSet.updateByte(columnIndex, x);
+    }
+
+    @Override
+    public void updateShort(final int columnIndex, final short x) throws SQLException {
+        wrappedResultSet.updateShort(columnIndex, x);
+    }
+
+    @Override
+    public void updateInt(final int columnIndex, final int x) throws SQLException {
+        wrappedResultSet.updateInt(columnIndex, x);
+    }
+
+    @Override
+    public void updateLong(final int columnIndex, final long x) throws SQLException {
+        wrappedResultSet.updateLong(columnIndex, x);
+    }
+
+    @Override
+    public void updateFloat(final int columnIndex, final float x) throws SQLException {
+        wrappedResultSet.updateFloat(columnIndex, x);
+    }
+
+    @Override
+    public void updateDouble(final int columnIndex, final double x) throws SQLException {
+        wrappedResultSet.updateDouble(columnIndex, x);
+    }
+
+    @Override
+    public void updateBigDecimal(final int columnIndex, @Nullable final BigDecimal x) throws SQLException {
+        wrappedResultSet.updateBigDecimal(columnIndex, x);
+    }
+
+    @Override
+    public void updateString(final int columnIndex, @Nullable final String x) throws SQLException {
+        wrappedResultSet.updateString(columnIndex, x);
+    }
+
+    @Override
+    public void updateBytes(final int columnIndex, final byte @Nullable [] x) throws SQLException {
+        wrappedResultSet.updateBytes(columnIndex, x);
+    }
+
+    @Override
+    public void updateDate(final int columnIndex, @Nullable final Date x) throws SQLException {
+        wrappedResultSet.updateDate(columnIndex, x);
+    }
+
+    @Override
+    public void updateTime(final int columnIndex, @Nullable final Time x) throws SQLException {
+        wrappedResultSet.updateTime(columnIndex, x);
+    }
+
+    @Override
+    public void updateTimestamp(final int columnIndex, @Nullable final Timestamp x) throws SQLException {
+        wrappedResultSet.updateTimestamp(columnIndex, x);
+    }
+
+    @Override
+    public void updateAsciiStream(final int columnIndex, @Nullable final InputStream x, final int length)
+            throws SQLException {
+        wrappedResultSet.updateAsciiStream(columnIndex, x, length);
+    }
+
+    @Override
+    public void updateBinaryStream(final int columnIndex, @Nullable final InputStream x, final int length)
+            throws SQLException {
+        wrappedResultSet.updateBinaryStream(columnIndex, x, length);
+    }
+
+    @Override
+    public void updateCharacterStream(final int columnIndex, @Nullable final Reader x, final int length)
+            throws SQLException {
+        wrappedResultSet.updateCharacterStream(columnIndex, x, length);
+    }
+
+    @Override
+    public void updateObject(final int columnIndex, @Nullable final Object x, final int scaleOrLength)
+            throws SQLException {
+        wrappedResultSet.updateObject(columnIndex, x, scaleOrLength);
+    }
+
+    @Override
+    public void updateObject(final int columnIndex, @Nullable final Object x) throws SQLException {
+        wrappedResultSet.updateObject(columnIndex, x);
+    }
+
+    @Override
+    public void updateNull(@Nullable final String columnLabel) throws SQLException {
+        wrappedResultSet.updateNull(columnLabel);
+    }
+
+    @Override
+    public void updateBoolean(@Nullable final String columnLabel, final boolean x) throws SQLException {
+        wrappedResultSet.updateBoolean(columnLabel, x);
+    }
+
+    @Override
+    public void updateByte(@Nullable final String columnLabel, final byte x) throws SQLException {
+        wrappedResultSet.updateByte(columnLabel, x);
+    }
+
+    @Override
+    public void updateShort(@Nullable final String columnLabel, final short x) throws SQLException {
+        wrappedResultSet.updateShort(columnLabel, x);
+    }
+
+    @Override
+    public void updateInt(@Nullable final String columnLabel, final int x) throws SQLException {
+        wrappedResultSet.updateInt(columnLabel, x);
+    }
+
+    @Override
+    public void updateLong(@Nullable final String columnLabel, final long x) throws SQLException {
+        wrappedResultSet.updateLong(columnLabel, x);
+    }
+
+    @Override
+    public void updateFloat(@Nullable final String columnLabel, final float x) throws SQLException {
+        wrappedResultSet.updateFloat(columnLabel, x);
+    }
+
+    @Override
+    public void updateDouble(@Nullable final String columnLabel, final double x) throws SQLException {
+        wrappedResultSet.updateDouble(columnLabel, x);
+    }
+
+    @Override
+    public void updateBigDecimal(@Nullable final String columnLabel, @Nullable final BigDecimal x) throws SQLException {
+        wrappedResultSet.updateBigDecimal(columnLabel, x);
+    }
+
+    @Override
+    public void updateString(@Nullable final String columnLabel, @Nullable final String x) throws SQLException {
+        wrappedResultSet.updateString(columnLabel, x);
+    }
+
+    @Override
+    public void updateBytes(@Nullable final String columnLabel, final byte @Nullable [] x) throws SQLException {
+        wrappedResultSet.updateBytes(columnLabel, x);
+    }
+
+    @Override
+    public void updateDate(@Nullable final String columnLabel, @Nullable final Date x) throws SQLException {
+        wrappedResultSet.updateDate(columnLabel, x);
+    }
+
+    @Override
+    public void updateTime(@Nullable final String columnLabel, @Nullable final Time x) throws SQLException {
+        wrappedResultSet.updateTime(columnLabel, x);
+    }
+
+    @Override
+    public void updateTimestamp(@Nullable final String columnLabel, @Nullable final Timestamp x) throws SQLException {
+        wrappedResultSet.updateTimestamp(columnLabel, x);
+    }
+
+    @Override
+    public void updateAsciiStream(@Nullable final String columnLabel, @Nullable final InputStream x, final int length)
+            throws SQLException {
+        wrappedResultSet.updateAsciiStream(columnLabel, x, length);
+    }
+
+    @Override
+    public void updateBinaryStream(@Nullable final String columnLabel, @Nullable final InputStream x, final int length)
+            throws SQLException {
+        wrappedResultSet.updateBinaryStream(columnLabel, x, length);
+    }
+
+    @Override
+    public void updateCharacterStream(@Nullable final String columnLabel, @Nullable final Reader reader,
+            final int length) throws SQLException {
+        wrappedResultSet.updateCharacterStream(columnLabel, reader, length);
+    }
+
+    @Override
+    public void updateObject(@Nullable final String columnLabel, @Nullable final Object x, final int scaleOrLength)
+            throws SQLException {
+        wrappedResultSet.updateObject(columnLabel, x, scaleOrLength);
+    }
+
+    @Override
+    public void updateObject(@Nullable final String columnLabel, @Nullable final Object x) throws SQLException {
+        wrappedResultSet.updateObject(columnLabel, x);
+    }
+
+    @Override
+    public void insertRow() throws SQLException {
+        wrappedResultSet.insertRow();
+    }
+
+    @Override
+    public void updateRow() throws SQLException {
+        wrappedResultSet.updateRow();
+    }
+
+    @Override
+    public void deleteRow() throws SQLException {
+        wrappedResultSet.deleteRow();
+    }
+
+    @Override
+    public void refreshRow() throws SQLException {
+        wrappedResultSet.refreshRow();
+    }
+
+    @Override
+    public void cancelRowUpdates() throws SQLException {
+        wrappedResultSet.cancelRowUpdates();
+    }
+
+    @Override
+    public void moveToInsertRow() throws SQLException {
+        wrappedResultSet.moveToInsertRow();
+    }
+
+    @Override
+    public void moveToCurrentRow() throws SQLException {
+        wrappedResultSet.moveToCurrentRow();
+    }
+
+    @Override
+    public Statement getStatement() throws SQLException {
+        return wrappedResultSet.getStatement();
+    }
+
+    @Override
+    public Object getObject(final int columnIndex, @Nullable final Map<String, Class<?>> map) throws SQLException {
+        return wrappedResultSet.getObject(columnIndex, map);
+    }
+
+    @Override
+    public Ref getRef(final int columnIndex) throws SQLException {
+        return wrappedResultSet.getRef(columnIndex);
+    }
+
+    @Override
+    public Blob getBlob(final int columnIndex) throws SQLException {
+        return wrappedResultSet.getBlob(columnIndex);
+    }
+
+    @Override
+    public Clob getClob(final int columnIndex) throws SQLException {
+        return wrappedResultSet.getClob(columnIndex);
+    }
+
+    @Override
+    public Array getArray(final int columnIndex) throws SQLException {
+        return wrappedResultSet.getArray(columnIndex);
+    }
+
+    @Override
+    public Object getObject(@Nullable final String columnLabel, @Nullable final Map<String, Class<?>> map)
+            throws SQLException {
+        return wrappedResultSet.getObject(columnLabel, map);
+    }
+
+    @Override
+    public Ref getRef(@Nullable final String columnLabel) throws SQLException {
+        return wrappedResultSet.getRef(columnLabel);
+    }
+
+    @Override
+    public Blob getBlob(@Nullable final String columnLabel) throws SQLException {
+        return wrappedResultSet.getBlob(columnLabel);
+    }
+
+    @Override
+    public Clob getClob(@Nullable final String columnLabel) throws SQLException {
+        return wrappedResultSet.getClob(columnLabel);
+    }
+
+    @Override
+    public Array getArray(@Nullable final String columnLabel) throws SQLException {
+        return wrappedResultSet.getArray(columnLabel);
+    }
+
+    @Override
+    public Date getDate(final int columnIndex, @Nullable final Calendar cal) throws SQLException {
+        return wrappedResultSet.getDate(columnIndex, cal);
+    }
+
+    @Override
+    public Date getDate(@Nullable final String columnLabel, @Nullable final Calendar cal) throws SQLException {
+        return wrappedResultSet.getDate(columnLabel, cal);
+    }
+
+    @Override
+    public Time getTime(final int columnIndex, @Nullable final Calendar cal) throws SQLException {
+        return wrappedResultSet.getTime(columnIndex, cal);
+    }
+
+    @Override
+    public Time getTime(@Nullable final String columnLabel, @Nullable final Calendar cal) throws SQLException {
+        return wrappedResultSet.getTime(columnLabel, cal);
+    }
+
+    @Override
+    public Timestamp getTimestamp(final int columnIndex, @Nullable final Calendar cal) throws SQLException {
+        return wrappedResultSet.getTimestamp(columnIndex, cal);
+    }
+
+    @Override
+    public Timestamp getTimestamp(@Nullable final String columnLabel, @Nullable final Calendar cal)
+            throws SQLException {
+        return wrappedResultSet.getTimestamp(columnLabel, cal);
+    }
+
+    @Override
+    public URL getURL(final int columnIndex) throws SQLException {
+        return wrappedResultSet.getURL(columnIndex);
+    }
+
+    @Override
+    public URL getURL(@Nullable final String columnLabel) throws SQLException {
+        return wrappedResultSet.getURL(columnLabel);
+    }
+
+    @Override
+    public void updateRef(final int columnIndex, @Nullable final Ref x) throws SQLException {
+        wrappedResultSet.updateRef(columnIndex, x);
+    }
+
+    @Override
+    public void updateRef(@Nullable final String columnLabel, @Nullable final Ref x) throws SQLException {
+        wrappedResultSet.updateRef(columnLabel, x);
+    }
+
+    @Override
+    public void updateBlob(final int columnIndex, @Nullable final Blob x) throws SQLException {
+        wrappedResultSet.updateBlob(columnIndex, x);
+    }
+
+    @Override
+    public void updateBlob(@Nullable final String columnLabel, @Nullable final Blob x) throws SQLException {
+        wrappedResultSet.updateBlob(columnLabel, x);
+    }
+
+    @Override
+    public void updateClob(final int columnIndex, @Nullable final Clob x) throws SQLException {
+        wrappedResultSet.updateClob(columnIndex, x);
+    }
+
+    @Override
+    public void updateClob(@Nullable final String columnLabel, @Nullable final Clob x) throws SQLException {
+        wrappedResultSet.updateClob(columnLabel, x);
+    }
+
+    @Override
+    public void updateArray(final int columnIndex, @Nullable final Array x) throws SQLException {
+        wrappedResultSet.updateArray(columnIndex, x);
+    }
+
+    @Override
+    public void updateArray(@Nullable final String columnLabel, @Nullable final Array x) throws SQLException {
+        wrappedResultSet.updateArray(columnLabel, x);
+    }
+
+    @Override
+    public RowId getRowId(final int columnIndex) throws SQLException {
+        return wrappedResultSet.getRowId(columnIndex);
+    }
+
+    @Override
+    public RowId getRowId(@Nullable final String columnLabel) throws SQLException {
+        return wrappedResultSet.getRowId(columnLabel);
+    }
+
+    @Override
+    public void updateRowId(final int columnIndex, @Nullable final RowId x) throws SQLException {
+        wrappedResultSet.updateRowId(columnIndex, x);
+    }
+
+    @Override
+    public void updateRowId(@Nullable final String columnLabel, @Nullable final RowId x) throws SQLException {
+        wrappedResultSet.updateRowId(columnLabel, x);
+    }
+
+    @Override
+    public int getHoldability() throws SQLException {
+        return wrappedResultSet.getHoldability();
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        return wrappedResultSet.isClosed();
+    }
+
+    @Override
+    public void updateNString(final int columnIndex, @Nullable final String nString) throws SQLException {
+        wrappedResultSet.updateNString(columnIndex, nString);
+    }
+
+    @Override
+    public void updateNString(@Nullable final String columnLabel, @Nullable final String nString) throws SQLException {
+        wrappedResultSet.updateNString(columnLabel, nString);
+    }
+
+    @Override
+    public void updateNClob(final int columnIndex, @Nullable final NClob nClob) throws SQLException {
+        wrappedResultSet.updateNClob(columnIndex, nClob);
+    }
+
+    @Override
+    public void updateNClob(@Nullable final String columnLabel, @Nullable final NClob nClob) throws SQLException {
+        wrappedResultSet.updateNClob(columnLabel, nClob);
+    }
+
+    @Override
+    public NClob getNClob(final int columnIndex) throws SQLException {
+        return wrappedResultSet.getNClob(columnIndex);
+    }
+
+    @Override
+    public NClob getNClob(@Nullable final String columnLabel) throws SQLException {
+        return wrappedResultSet.getNClob(columnLabel);
+    }
+
+    @Override
+    public SQLXML getSQLXML(final int columnIndex) throws SQLException {
+        return wrappedResultSet.getSQLXML(columnIndex);
+    }
+
+    @Override
+    public SQLXML getSQLXML(@Nullable final String columnLabel) throws SQLException {
+        return wrappedResultSet.getSQLXML(columnLabel);
+    }
+
+    @Override
+    public void updateSQLXML(final int columnIndex, @Nullable final SQLXML xmlObject) throws SQLException {
+        wrappedResultSet.updateSQLXML(columnIndex, xmlObject);
+    }
+
+    @Override
+    public void updateSQLXML(@Nullable final String columnLabel, @Nullable final SQLXML xmlObject) throws SQLException {
+        wrappedResultSet.updateSQLXML(columnLabel, xmlObject);
+    }
+
+    @Override
+    public String getNString(final int columnIndex) throws SQLException {
+        return wrappedResultSet.getNString(columnIndex);
+    }
+
+    @Override
+    public String getNString(@Nullable final String columnLabel) throws SQLException {
+        return wrappedResultSet.getNString(columnLabel);
+    }
+
+    @Override
+    public Reader getNCharacterStream(final int columnIndex) throws SQLException {
+        return wrappedResultSet.getNCharacterStream(columnIndex);
+    }
+
+    @Override
+    public Reader getNCharacterStream(@Nullable final String columnLabel) throws SQLException {
+        return wrappedResultSet.getNCharacterStream(columnLabel);
+    }
+
+    @Override
+    public void updateNCharacterStream(final int columnIndex, @Nullable final Reader x, final long length)
+            throws SQLException {
+        wrappedResultSet.updateNCharacterStream(columnIndex, x, length);
+    }
+
+    @Override
+    public void updateNCharacterStream(@Nullable final String columnLabel, @Nullable final Reader reader,
+            final long length) throws SQLException {
+        wrappedResultSet.updateNCharacterStream(columnLabel, reader, length);
+    }
+
+    @Override
+    public void updateAsciiStream(final int columnIndex, @Nullable final InputStream x, final long length)
+            throws SQLException {
+        wrappedResultSet.updateAsciiStream(columnIndex, x, length);
+    }
+
+    @Override
+    public void updateBinaryStream(final int columnIndex, @Nullable final InputStream x, final long length)
+            throws SQLException {
+        wrappedResultSet.updateBinaryStream(columnIndex, x, length);
+    }
+
+    @Override
+    public void updateCharacterStream(final int columnIndex, @Nullable final Reader x, final long length)
+            throws SQLException {
+        wrappedResultSet.updateCharacterStream(columnIndex, x, length);
+    }
+
+    @Override
+    public void updateAsciiStream(@Nullable final String columnLabel, @Nullable final InputStream x, final long length)
+            throws SQLException {
+        wrappedResultSet.updateAsciiStream(columnLabel, x, length);
+    }
+
+    @Override
+    public void updateBinaryStream(@Nullable final String columnLabel, @Nullable final InputStream x, final long length)
+            throws SQLException {
+        wrappedResultSet.updateBinaryStream(columnLabel, x, length);
+    }
+
+    @Override
+    public void updateCharacterStream(@Nullable final String columnLabel, @Nullable final Reader reader,
+            final long length) throws SQLException {
+        wrappedResultSet.updateCharacterStream(columnLabel, reader, length);
+    }
+
+    @Override
+    public void updateBlob(final int columnIndex, @Nullable final InputStream inputStream, final long length)
+            throws SQLException {
+        wrappedResultSet.updateBlob(columnIndex, inputStream, length);
+    }
+
+    @Override
+    public void updateBlob(@Nullable final String columnLabel, @Nullable final InputStream inputStream,
+            final long length) throws SQLException {
+        wrappedResultSet.updateBlob(columnLabel, inputStream, length);
+    }
+
+    @Override
+    public void updateClob(final int columnIndex, @Nullable final Reader reader, final long length)
+            throws SQLException {
+        wrappedResultSet.updateClob(columnIndex, reader, length);
+    }
+
+    @Override
+    public void updateClob(@Nullable final String columnLabel, @Nullable final Reader reader, final long length)
+            throws SQLException {
+        wrappedResultSet.updateClob(columnLabel, reader, length);
+    }
+
+    @Override
+    public void updateNClob(final int columnIndex, @Nullable final Reader reader, final long length)
+            throws SQLException {
+        wrappedResultSet.updateNClob(columnIndex, reader, length);
+    }
+
+    @Override
+    public void updateNClob(@Nullable final String columnLabel, @Nullable final Reader reader, final long length)
+            throws SQLException {
+        wrappedResultSet.updateNClob(columnLabel, reader, length);
+    }
+
+    @Override
+    public void updateNCharacterStream(final int columnIndex, @Nullable final Reader x) throws SQLException {
+        wrappedResultSet.updateNCharacterStream(columnIndex, x);
+    }
+
+    @Override
+    public void updateNCharacterStream(@Nullable final String columnLabel, @Nullable final Reader reader)
+            throws SQLException {
+        wrappedResultSet.updateNCharacterStream(columnLabel, reader);
+    }
+
+    @Override
+    public void updateAsciiStream(final int columnIndex, @Nullable final InputStream x) throws SQLException {
+        wrappedResultSet.updateAsciiStream(columnIndex, x);
+    }
+
+    @Override
+    public void updateBinaryStream(final int columnIndex, @Nullable final InputStream x) throws SQLException {
+        wrappedResultSet.updateBinaryStream(columnIndex, x);
+    }
+
+    @Override
+    public void updateCharacterStream(final int columnIndex, @Nullable final Reader x) throws SQLException {
+        wrappedResultSet.updateCharacterStream(columnIndex, x);
+    }
+
+    @Override
+    public void updateAsciiStream(@Nullable final String columnLabel, @Nullable final InputStream x)
+            throws SQLException {
+        wrappedResultSet.updateAsciiStream(columnLabel, x);
+    }
+
+    @Override
+    public void updateBinaryStream(@Nullable final String columnLabel, @Nullable final InputStream x)
+            throws SQLException {
+        wrappedResultSet.updateBinaryStream(columnLabel, x);
+    }
+
+    @Override
+    public void updateCharacterStream(@Nullable final String columnLabel, @Nullable final Reader reader)
+            throws SQLException {
+        wrappedResultSet.updateCharacterStream(columnLabel, reader);
+    }
+
+    @Override
+    public void updateBlob(final int columnIndex, @Nullable final InputStream inputStream) throws SQLException {
+        wrappedResultSet.updateBlob(columnIndex, inputStream);
+    }
+
+    @Override
+    public void updateBlob(@Nullable final String columnLabel, @Nullable final InputStream inputStream)
+            throws SQLException {
+        wrappedResultSet.updateBlob(columnLabel, inputStream);
+    }
+
+    @Override
+    public void updateClob(final int columnIndex, @Nullable final Reader reader) throws SQLException {
+        wrappedResultSet.updateClob(columnIndex, reader);
+    }
+
+    @Override
+    public void updateClob(@Nullable final String columnLabel, @Nullable final Reader reader) throws SQLException {
+        wrappedResultSet.updateClob(columnLabel, reader);
+    }
+
+    @Override
+    public void updateNClob(final int columnIndex, @Nullable final Reader reader) throws SQLException {
+        wrappedResultSet.updateNClob(columnIndex, reader);
+    }
+
+    @Override
+    public void updateNClob(@Nullable final String columnLabel, @Nullable final Reader reader) throws SQLException {
+        wrappedResultSet.updateNClob(columnLabel, reader);
+    }
+
+    @Override
+    public <T> T getObject(final int columnIndex, @Nullable final Class<T> type) throws SQLException {
+        return wrappedResultSet.getObject(columnIndex, type);
+    }
+
+    @Override
+    public <T> T getObject(@Nullable final String columnLabel, @Nullable final Class<T> type) throws SQLException {
+        return wrappedResultSet.getObject(columnLabel, type);
+    }
+
+    @Override
+    public void updateObject(final int columnIndex, @Nullable final Object x, final SQLType targetSqlType,
+            final int scaleOrLength) throws SQLException {
+        wrappedResultSet.updateObject(columnIndex, x, targetSqlType, scaleOrLength);
+    }
+
+    @Override
+    public void updateObject(@Nullable final String columnLabel, @Nullable final Object x, final SQLType targetSqlType,
+            final int scaleOrLength) throws SQLException {
+        wrappedResultSet.updateObject(columnLabel, x, targetSqlType, scaleOrLength);
+    }
+
+    @Override
+    public void updateObject(final int columnIndex, @Nullable final Object x, final SQLType targetSqlType)
+            throws SQLException {
+        wrappedResultSet.updateObject(columnIndex, x, targetSqlType);
+    }
+
+    @Override
+    public void updateObject(@Nullable final String columnLabel, @Nullable final Object x, final SQLType targetSqlType)
+            throws SQLException {
+        wrappedResultSet.updateObject(columnLabel, x, targetSqlType);
+    }
+
+    @Override
+    public <T> T unwrap(@Nullable final Class<T> iface) throws SQLException {
+        return wrappedResultSet.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(@Nullable final Class<?> iface) throws SQLException {
+        return wrappedResultSet.isWrapperFor(iface);
+    }
+
+    @Override
+    public String toString() {
+        return wrappedResultSet.toString();
+    }
+
+}
@@ -0,0 +1,310 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger.driver;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import ch.sla.jdbcperflogger.WrapperMode;
+
+/**
+ * {@link Statement} used in {@link WrapperMode#DELEGATE} mode. All calls are forwarded directly to the underlying
+ * statement, the executions are logged through the {@link LoggingStatementInvocationHandler}.
+ */
+public class DelegatingStatement implements Statement {
+    private final Statement wrappedStatement;
+    private final LoggingStatementInvocationHandler statementHandler;
+
+    DelegatingStatement(final Statement wrappedStatement, final LoggingStatementInvocationHandler statementHandler) {
+        this.wrappedStatement = wrappedStatement;
+        this.statementHandler = statementHandler;
+    }
+
+    @Override
+    public ResultSet executeQuery(final String sql) throws SQLException {
+        return statementHandler.internalExecuteQuery(sql, () -> wrappedStatement.executeQuery(sql));
+    }
+
+    @Override
+    public int executeUpdate(final String sql) throws SQLException {
+        return statementHandler.internalExecute(sql, () -> wrappedStatement.executeUpdate(sql));
+    }
+
+    @Override
+    public void close() throws SQLException {
+        wrappedStatement.close();
+        statementHandler.internalClose();
+    }
+
+    @Override
+    public int getMaxFieldSize() throws SQLException {
+        return wrappedStatement.getMaxFieldSize();
+    }
+
+    @Override
+    public void setMaxFieldSize(final int max) throws SQLException {
+        wrappedStatement.setMaxFieldSize(max);
+    }
+
+    @Override
+    public int getMaxRows() throws SQLException {
+        return wrappedStatement.getMaxRows();
+    }
+
+    @Override
+    public void setMaxRows(final int max) throws SQLException {
+        wrappedStatement.setMaxRows(max);
+    }
+
+    @Override
+    public void setEscapeProcessing(final boolean enable) throws SQLException {
+        wrappedStatement.setEscapeProcessing(enable);
+    }
+
+    @Override
+    public int getQueryTimeout() throws SQLException {
+        return wrappedStatement.getQueryTimeout();
+    }
+
+    @Override
+    public void setQueryTimeout(final int seconds) throws SQLException {
+        wrappedStatement.setQueryTimeout(seconds);
+        statementHandler.queryTimeoutChanged(seconds);
+    }
+
+    @Override
+    public void cancel() throws SQLException {
+        wrappedStatement.cancel();
+    }
+
+    @Override
+    public SQLWarning getWarnings() throws SQLException {
+        return wrappedStatement.getWarnings();
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException {
+        wrappedStatement.clearWarnings();
+    }
+
+    @Override
+    public void setCursorName(@Nullable final String name) throws SQLException {
+        wrappedStatement.setCursorName(name);
+    }
+
+    @Override
+    public boolean execute(final String sql) throws SQLException {
+        return statementHandler.internalExecute(sql, () -> wrappedStatement.execute(sql));
+    }
+
+    @Override
+    public ResultSet getResultSet() throws SQLException {
+        return statementHandler.internalGetResultSet(() -> wrappedStatement.getResultSet());
+    }
+
+    @Override
+    public int getUpdateCount() throws SQLException {
+        return wrappedStatement.getUpdateCount();
+    }
+
+    @Override
+    public boolean getMoreResults() throws SQLException {
+        return wrappedStatement.getMoreResults();
+    }
+
+    @Override
+    public void setFetchDirection(final int direction) throws SQLException {
+        wrappedStatement.setFetchDirection(direction);
+    }
+
+    @Override
+    public int getFetchDirection() throws SQLException {
+        return wrappedStatement.getFetchDirection();
+    }
+
+    @Override
+    public void setFetchSize(final int rows) throws SQLException {
+        wrappedStatement.setFetchSize(rows);
+    }
+
+    @Override
+    public int getFetchSize() throws SQLException {
+        return wrappedStatement.getFetchSize();
+    }
+
+    @Override
+    public int getResultSetConcurrency() throws SQLException {
+        return wrappedStatement.getResultSetConcurrency();
+    }
+
+    @Override
+    public int getResultSetType() throws SQLException {
+        return wrappedStatement.getResultSetType();
+    }
+
+    @Override
+    public void addBatch(final String sql) throws SQLException {
+        wrappedStatement.addBatch(sql);
+        statementHandler.internalAddBatch(sql);
+    }
+
+    @Override
+    public void clearBatch() throws SQLException {
+        wrappedStatement.clearBatch();
+        statementHandler.internalClearBatch();
+    }
+
+    @Override
+    public int[] executeBatch() throws SQLException {
+        return statementHandler.internalExecuteBatch(() -> wrappedStatement.executeBatch());
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrappedStatement.getConnection();
+    }
+
+    @Override
+    public boolean getMoreResults(final int current) throws SQLException {
+        return wrappedStatement.getMoreResults(current);
+    }
+
+    @Override
+    public ResultSet getGeneratedKeys() throws SQLException {
+        return wrappedStatement.getGeneratedKeys();
+    }
+
+    @Override
+    public int executeUpdate(final String sql, final int autoGeneratedKeys) throws SQLException {
+        return statementHandler.internalExecute(sql, () -> wrappedStatement.executeUpdate(sql, autoGeneratedKeys));
+    }
+
+    @Override
+    public int executeUpdate(final String sql, final int @Nullable [] columnIndexes) throws SQLException {
+        return statementHandler.internalExecute(sql, () -> wrappedStatement.executeUpdate(sql, columnIndexes));
+    }
+
+    @Override
+    public int executeUpdate(final String sql, final String @Nullable [] columnNames) throws SQLException {
+        return statementHandler.internalExecute(sql, () -> wrappedStatement.executeUpdate(sql, columnNames));
+    }
+
+    @Override
+    public boolean execute(final String sql, final int autoGeneratedKeys) throws SQLException {
+        return statementHandler.internalExecute(sql, () -> wrappedStatement.execute(sql, autoGeneratedKeys));
+    }
+
+    @Override
+    public boolean execute(final String sql, final int @Nullable [] columnIndexes) throws SQLException {
+        return statementHandler.internalExecute(sql, () -> wrappedStatement.execute(sql, columnIndexes));
+    }
+
+    @Override
+    public boolean execute(final String sql, final String @Nullable [] columnNames) throws SQLException {
+        return statementHandler.internalExecute(sql, () -> wrappedStatement.execute(sql, columnNames));
+    }
+
+    @Override
+    public int getResultSetHoldability() throws SQLException {
+        return wrappedStatement.getResultSetHoldability();
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        return wrappedStatement.isClosed();
+    }
+
+    @Override
+    public void setPoolable(final boolean poolable) throws SQLException {
+        wrappedStatement.setPoolable(poolable);
+    }
+
+    @Override
+    public boolean isPoolable() throws SQLException {
+        return wrappedStatement.isPoolable();
+    }
+
+    @Override
+    public void closeOnCompletion() throws SQLException {
+        wrappedStatement.closeOnCompletion();
+    }
+
+    @Override
+    public boolean isCloseOnCompletion() throws SQLException {
+        return wrappedStatement.isCloseOnCompletion();
+    }
+
+    @Override
+    public long getLargeUpdateCount() throws SQLException {
+        return wrappedStatement.getLargeUpdateCount();
+    }
+
+    @Override
+    public void setLargeMaxRows(final long max) throws SQLException {
+        wrappedStatement.setLargeMaxRows(max);
+    }
+
+    @Override
+    public long getLargeMaxRows() throws SQLException {
+        return wrappedStatement.getLargeMaxRows();
+    }
+
+    @Override
+    public long[] executeLargeBatch() throws SQLException {
+        return statementHandler.internalExecuteBatch(() -> wrappedStatement.executeLargeBatch());
+    }
+
+    @Override
+    public long executeLargeUpdate(final String sql) throws SQLException {
+        return statementHandler.internalExecute(sql, () -> wrappedStatement.executeLargeUpdate(sql));
+    }
+
+    @Override
+    public long executeLargeUpdate(final String sql, final int autoGeneratedKeys) throws SQLException {
+        return statementHandler.internalExecute(sql, () -> wrappedStatement.executeLargeUpdate(sql, autoGeneratedKeys));
+    }
+
+    @Override
+    public long executeLargeUpdate(final String sql, final int @Nullable [] columnIndexes) throws SQLException {
+        return statementHandler.internalExecute(sql, () -> wrappedStatement.executeLargeUpdate(sql, columnIndexes));
+    }
+
+    @Override
+    public long executeLargeUpdate(final String sql, final String @Nullable [] columnNames) throws SQLException {
+        return statementHandler.internalExecute(sql, () -> wrappedStatement.executeLargeUpdate(sql, columnNames));
+    }
+
+    @Override
+    public <T> T unwrap(@Nullable final Class<T> iface) throws SQLException {
+        return wrappedStatement.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(@Nullable final Class<?> iface) throws SQLException {
+        return wrappedStatement.isWrapperFor(iface);
+    }
+
+    @Override
+    public String toString() {
+        return wrappedStatement.toString();
+    }
+
+}
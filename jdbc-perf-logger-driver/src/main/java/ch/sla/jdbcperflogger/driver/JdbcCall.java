@@ -0,0 +1,29 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger.driver;
+
+/**
+ * A call to the wrapped JDBC object, either done through reflection (proxy mode) or directly (delegate mode).
+ *
+ * @param <T>
+ *            type returned by the call
+ * @param <E>
+ *            type of exception thrown by the call
+ */
+@FunctionalInterface
+interface JdbcCall<T, E extends Throwable> {
+    T call() throws E;
+}
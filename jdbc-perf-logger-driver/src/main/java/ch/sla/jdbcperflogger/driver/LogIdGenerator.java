@@ -0,0 +1,42 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger.driver;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates the ids of the connections and of the logs, much cheaper than {@link java.util.UUID#randomUUID()} which
+ * draws from a {@link SecureRandom} on each call.
+ * <p>
+ * An id is made of a random id of the JVM in the high bits followed by a sequence in the low bits, so that the ids
+ * coming from the several JVMs logging to the same console do not collide. The ids are positive, 0 means no id.
+ */
+final class LogIdGenerator {
+    static final long NO_ID = 0;
+
+    private static final int SEQUENCE_BITS = 44;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final long JVM_ID = (long) new SecureRandom().nextInt(1 << (63 - SEQUENCE_BITS)) << SEQUENCE_BITS;
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private LogIdGenerator() {
+    }
+
+    static long nextId() {
+        return JVM_ID | (SEQUENCE.incrementAndGet() & SEQUENCE_MASK);
+    }
+}
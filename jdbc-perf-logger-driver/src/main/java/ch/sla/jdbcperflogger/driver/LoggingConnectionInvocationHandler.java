@@ -17,36 +17,69 @@ package ch.sla.jdbcperflogger.driver;
 
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
-import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.sql.Savepoint;
 import java.sql.Statement;
 import java.util.Properties;
-import java.util.UUID;
 
 import org.eclipse.jdt.annotation.Nullable;
 
 import ch.sla.jdbcperflogger.DatabaseType;
 import ch.sla.jdbcperflogger.TxCompletionType;
+import ch.sla.jdbcperflogger.WrapperMode;
 import ch.sla.jdbcperflogger.logger.PerfLogger;
 
 public class LoggingConnectionInvocationHandler implements InvocationHandler {
-    private final UUID connectionUuid;
+    private static final MethodDispatcher<ConnectionMethod> DISPATCHER = new MethodDispatcher<ConnectionMethod>(
+            LoggingConnectionInvocationHandler::resolveConnectionMethod);
+
+    /**
+     * What the handler does with a {@link Connection} method, resolved once per proxied method.
+     */
+    private enum ConnectionMethod {
+        COMMIT(TxCompletionType.COMMIT), //
+        ROLLBACK(TxCompletionType.ROLLBACK), //
+        ROLLBACK_TO_SAVEPOINT(TxCompletionType.ROLLBACK_TO_SAVEPOINT), //
+        SET_SAVEPOINT(TxCompletionType.SET_SAVE_POINT), //
+        CREATE_STATEMENT(null), //
+        PREPARE_STATEMENT(null), //
+        PREPARE_CALL(null), //
+        SET_AUTO_COMMIT(null), //
+        SET_TRANSACTION_ISOLATION(null), //
+        OTHER(null);
+
+        @Nullable
+        final TxCompletionType txCompletionType;
+
+        private ConnectionMethod(@Nullable final TxCompletionType txCompletionType) {
+            this.txCompletionType = txCompletionType;
+        }
+    }
+
+    private final long connectionUniqueId;
     private final int connectionId;
     private final Connection wrappedConnection;
     private final DatabaseType databaseType;
     private final String url;
     private final Properties connectionProperties;
+    private final WrapperMode wrapperMode;
+    // state of the connection as changed through its setters, null/-1 when unknown and to be queried
+    @Nullable
+    private volatile Boolean autoCommit;
+    private volatile int transactionIsolation = -1;
 
     LoggingConnectionInvocationHandler(final int connectionId, final Connection wrappedConnection, final String url,
-            final Properties connectionProperties) {
-        connectionUuid = UUID.randomUUID();
+            final Properties connectionProperties, final WrapperMode wrapperMode) {
+        connectionUniqueId = LogIdGenerator.nextId();
         this.connectionId = connectionId;
         this.wrappedConnection = wrappedConnection;
         databaseType = Utils.getDatabaseType(wrappedConnection);
         this.url = url;
         this.connectionProperties = connectionProperties;
+        this.wrapperMode = wrapperMode;
     }
 
     @Override
@@ -54,57 +87,146 @@ public class LoggingConnectionInvocationHandler implements InvocationHandler {
     public Object invoke(@Nullable final Object proxy, final Method method, final Object @Nullable [] args)
             throws Throwable {
 
-        final String methodName = method.getName();
-
-        TxCompletionType txCompletionType = null;
-        String savePointDescription = null;
-        if ("commit".equals(methodName)) {
-            txCompletionType = TxCompletionType.COMMIT;
-        } else if ("rollback".equals(methodName)) {
-            if (args == null) {
-                txCompletionType = TxCompletionType.ROLLBACK;
-            } else {
-                txCompletionType = TxCompletionType.ROLLBACK_TO_SAVEPOINT;
-                final Savepoint savepoint = (Savepoint) args[0];
-                savePointDescription = savepoint.toString();
-            }
-        } else if ("setSavepoint".equals(methodName)) {
-            txCompletionType = TxCompletionType.SET_SAVE_POINT;
-        }
-        final long startTimeStamp = System.currentTimeMillis();
+        final ConnectionMethod action = DISPATCHER.getAction(proxy, method);
+        final TxCompletionType txCompletionType = action.txCompletionType != null && PerfLogger.isEnabled()
+                ? action.txCompletionType
+                : null;
+        long startTimeStamp = -1;
         long startNanos = -1;
         if (txCompletionType != null) {
+            startTimeStamp = System.currentTimeMillis();
             startNanos = System.nanoTime();
         }
 
         final Object result = Utils.invokeUnwrapException(wrappedConnection, method, args);
         if (result != null) {
-            if ("createStatement".equals(methodName)) {
-                return Proxy.newProxyInstance(result.getClass().getClassLoader(),
-                        Utils.extractAllInterfaces(result.getClass()),
-                        new LoggingStatementInvocationHandler(connectionUuid, (Statement) result, databaseType));
-            } else if (("prepareStatement".equals(methodName) || "prepareCall".equals(methodName)) && args != null) {
-                return Proxy.newProxyInstance(result.getClass().getClassLoader(),
-                        Utils.extractAllInterfaces(result.getClass()), new LoggingPreparedStatementInvocationHandler(
-                                connectionUuid, (PreparedStatement) result, (String) args[0], databaseType));
+            switch (action) {
+            case CREATE_STATEMENT:
+                return wrapStatement((Statement) result);
+            case PREPARE_STATEMENT:
+                return wrapPreparedStatement((PreparedStatement) result, (String) nonNullArgs(args)[0]);
+            case PREPARE_CALL:
+                return wrapCallableStatement((CallableStatement) result, (String) nonNullArgs(args)[0]);
+            default:
+                break;
             }
-
+        }
+        if (action == ConnectionMethod.SET_AUTO_COMMIT) {
+            autoCommitChanged((Boolean) nonNullArgs(args)[0]);
+        } else if (action == ConnectionMethod.SET_TRANSACTION_ISOLATION) {
+            transactionIsolationChanged((Integer) nonNullArgs(args)[0]);
         }
 
         if (txCompletionType != null) {
-            if (txCompletionType == TxCompletionType.SET_SAVE_POINT && result != null) {
-                final Savepoint savepoint = (Savepoint) result;
-                savePointDescription = savepoint.toString();
+            Savepoint savepoint = null;
+            if (txCompletionType == TxCompletionType.SET_SAVE_POINT) {
+                savepoint = (Savepoint) result;
+            } else if (txCompletionType == TxCompletionType.ROLLBACK_TO_SAVEPOINT) {
+                savepoint = (Savepoint) nonNullArgs(args)[0];
             }
-            PerfLogger.logTransactionComplete(connectionUuid, startTimeStamp, txCompletionType,
-                    System.nanoTime() - startNanos, savePointDescription);
+            logTransactionComplete(txCompletionType, startTimeStamp, startNanos, savepoint);
         }
 
         return result;
     }
 
-    public UUID getConnectionUuid() {
-        return connectionUuid;
+    private static Object[] nonNullArgs(final Object @Nullable [] args) {
+        assert args != null;
+        return args;
+    }
+
+    private static ConnectionMethod resolveConnectionMethod(final Method method) {
+        final String methodName = method.getName();
+        final boolean hasParams = method.getParameterCount() > 0;
+        if ("commit".equals(methodName)) {
+            return ConnectionMethod.COMMIT;
+        } else if ("rollback".equals(methodName)) {
+            return hasParams ? ConnectionMethod.ROLLBACK_TO_SAVEPOINT : ConnectionMethod.ROLLBACK;
+        } else if ("setSavepoint".equals(methodName)) {
+            return ConnectionMethod.SET_SAVEPOINT;
+        } else if ("createStatement".equals(methodName)) {
+            return ConnectionMethod.CREATE_STATEMENT;
+        } else if ("prepareStatement".equals(methodName) && hasParams) {
+            return ConnectionMethod.PREPARE_STATEMENT;
+        } else if ("prepareCall".equals(methodName) && hasParams) {
+            return ConnectionMethod.PREPARE_CALL;
+        } else if ("setAutoCommit".equals(methodName) && hasParams) {
+            return ConnectionMethod.SET_AUTO_COMMIT;
+        } else if ("setTransactionIsolation".equals(methodName) && hasParams) {
+            return ConnectionMethod.SET_TRANSACTION_ISOLATION;
+        }
+        return ConnectionMethod.OTHER;
+    }
+
+    Statement wrapStatement(final Statement statement) {
+        final LoggingStatementInvocationHandler handler = new LoggingStatementInvocationHandler(this, statement,
+                databaseType, wrapperMode);
+        if (wrapperMode == WrapperMode.DELEGATE) {
+            return new DelegatingStatement(statement, handler);
+        }
+        return (Statement) Utils.newProxyInstance(statement, handler);
+    }
+
+    PreparedStatement wrapPreparedStatement(final PreparedStatement statement, final String rawSql) {
+        final LoggingPreparedStatementInvocationHandler handler = new LoggingPreparedStatementInvocationHandler(
+                this, statement, rawSql, databaseType, wrapperMode);
+        if (wrapperMode == WrapperMode.DELEGATE) {
+            return new DelegatingPreparedStatement(statement, handler);
+        }
+        return (PreparedStatement) Utils.newProxyInstance(statement, handler);
+    }
+
+    CallableStatement wrapCallableStatement(final CallableStatement statement, final String rawSql) {
+        final LoggingPreparedStatementInvocationHandler handler = new LoggingPreparedStatementInvocationHandler(
+                this, statement, rawSql, databaseType, wrapperMode);
+        if (wrapperMode == WrapperMode.DELEGATE) {
+            return new DelegatingCallableStatement(statement, handler);
+        }
+        return (CallableStatement) Utils.newProxyInstance(statement, handler);
+    }
+
+    void logTransactionComplete(final TxCompletionType txCompletionType, final long startTimeStamp,
+            final long startNanos, @Nullable final Savepoint savepoint) {
+        final String savePointDescription = savepoint != null ? savepoint.toString() : null;
+        PerfLogger.logTransactionComplete(connectionUniqueId, startTimeStamp, txCompletionType,
+                System.nanoTime() - startNanos, savePointDescription);
+    }
+
+    void autoCommitChanged(final boolean newAutoCommit) {
+        autoCommit = Boolean.valueOf(newAutoCommit);
+    }
+
+    void transactionIsolationChanged(final int level) {
+        transactionIsolation = level;
+    }
+
+    /**
+     * @return the auto-commit mode as last set through this wrapper, only queried from the connection when unknown
+     */
+    boolean isAutoCommit() throws SQLException {
+        Boolean currentAutoCommit = autoCommit;
+        if (currentAutoCommit == null) {
+            currentAutoCommit = Boolean.valueOf(wrappedConnection.getAutoCommit());
+            autoCommit = currentAutoCommit;
+        }
+        return currentAutoCommit.booleanValue();
+    }
+
+    /**
+     * @return the transaction isolation as last set through this wrapper, only queried from the connection when
+     *         unknown
+     */
+    int getTransactionIsolation() throws SQLException {
+        int level = transactionIsolation;
+        if (level == -1) {
+            level = wrappedConnection.getTransactionIsolation();
+            transactionIsolation = level;
+        }
+        return level;
+    }
+
+    public long getConnectionUniqueId() {
+        return connectionUniqueId;
     }
 
     public int getConnectionId() {
@@ -17,154 +17,291 @@ package ch.sla.jdbcperflogger.driver;
 
 import java.io.Serializable;
 import java.lang.reflect.Method;
-import java.lang.reflect.Proxy;
-import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.SQLType;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
 
 import org.eclipse.jdt.annotation.Nullable;
 
 import ch.sla.jdbcperflogger.DatabaseType;
 import ch.sla.jdbcperflogger.StatementType;
+import ch.sla.jdbcperflogger.WrapperMode;
 import ch.sla.jdbcperflogger.logger.PerfLogger;
+import ch.sla.jdbcperflogger.logger.SqlPlaceholderIndex;
+import ch.sla.jdbcperflogger.model.AbstractBeforeStatementExecutionLog;
+import ch.sla.jdbcperflogger.model.LogMessage;
 import ch.sla.jdbcperflogger.model.PreparedStatementValuesHolder;
-import ch.sla.jdbcperflogger.model.SqlTypedValue;
 
 public class LoggingPreparedStatementInvocationHandler extends LoggingStatementInvocationHandler {
     private static final String CLEAR_PARAMETERS = "clearParameters";
 
+    private static final MethodDispatcher<StatementMethod> DISPATCHER = new MethodDispatcher<StatementMethod>(
+            LoggingPreparedStatementInvocationHandler::resolvePreparedStatementMethod);
+
     private final String rawSql;
+    // looked up on the first logged execution, so that nothing is computed while the logging is disabled
+    @Nullable
+    private SqlPlaceholderIndex placeholderIndex;
     private final PreparedStatementValuesHolder paramValues = new PreparedStatementValuesHolder();
     private final List<Object> batchedPreparedOrNonPreparedStmtExecutions = new ArrayList<Object>();
 
-    LoggingPreparedStatementInvocationHandler(final UUID connectionId, final PreparedStatement statement,
-            final String rawSql, final DatabaseType databaseType) {
-        super(connectionId, statement, databaseType);
+    LoggingPreparedStatementInvocationHandler(final LoggingConnectionInvocationHandler connectionHandler,
+            final PreparedStatement statement, final String rawSql, final DatabaseType databaseType,
+            final WrapperMode wrapperMode) {
+        super(connectionHandler, statement, databaseType, wrapperMode);
         this.rawSql = rawSql;
     }
 
+    private SqlPlaceholderIndex getPlaceholderIndex() {
+        SqlPlaceholderIndex index = placeholderIndex;
+        if (index == null) {
+            index = SqlPlaceholderIndex.of(rawSql);
+            placeholderIndex = index;
+        }
+        return index;
+    }
+
     @Override
     @Nullable
     public Object invoke(final @Nullable Object proxy, final Method method, final Object @Nullable [] args)
             throws Throwable {
 
+        final StatementMethod action = DISPATCHER.getAction(proxy, method);
         final Object result;
+        switch (action) {
+        case EXECUTE_PREPARED_QUERY:
+            return internalExecutePreparedQuery(
+                    () -> (ResultSet) Utils.invokeUnwrapExceptionReturnNonNull(wrappedStatement, method, null));
+        case EXECUTE_PREPARED:
+            return internalExecutePrepared(() -> Utils.invokeUnwrapException(wrappedStatement, method, args));
+        case ADD_PREPARED_BATCH:
+            result = Utils.invokeUnwrapException(wrappedStatement, method, args);
+            internalAddBatch();
+            return result;
+        case CLEAR_PARAMETERS:
+            result = Utils.invokeUnwrapException(wrappedStatement, method, args);
+            internalClearParameters();
+            return result;
+        case SET_NULL:
+        case SET_PARAMETER:
+        case SET_OBJECT:
+        case SET_OBJECT_WITH_TYPE:
+        case SET_OBJECT_WITH_SQL_TYPE:
+            result = Utils.invokeUnwrapException(wrappedStatement, method, args);
+            if (PerfLogger.isEnabled()) {
+                captureParameter(action, method, nonNullArgs(args));
+            }
+            return result;
+        default:
+            return invokeStatementMethod(action, method, args);
+        }
+    }
+
+    private void captureParameter(final StatementMethod action, final Method method, final Object[] args) {
+        final Serializable key = (Serializable) args[0];
+        switch (action) {
+        case SET_NULL:
+            paramValues.set(key, null, null, (Integer) args[1]);
+            break;
+        case SET_PARAMETER:
+            paramValues.set(key, args[1], method.getName(), -1);
+            break;
+        case SET_OBJECT_WITH_TYPE:
+            paramValues.set(key, args[1], null, (Integer) args[2]);
+            break;
+        case SET_OBJECT_WITH_SQL_TYPE: {
+            final Integer sqlType = ((SQLType) args[2]).getVendorTypeNumber();
+            paramValues.set(key, args[1], null, sqlType != null ? sqlType.intValue() : 0);
+            break;
+        }
+        default:
+            paramValues.set(key, args[1], null, 0);
+            break;
+        }
+    }
+
+    static StatementMethod resolvePreparedStatementMethod(final Method method) {
         final String methodName = method.getName();
-        if (args == null || args.length == 0) {
-            if (EXECUTE_QUERY.equals(methodName) && args == null) {
-                return internalExecutePreparedQuery(method);
-            } else if ((EXECUTE.equals(methodName) || EXECUTE_UPDATE.equals(methodName)
-                    || EXECUTE_LARGE_UPDATE.equals(methodName))) {
-                return internalExecutePrepared(method, args);
+        final Class<?>[] paramTypes = method.getParameterTypes();
+        if (paramTypes.length == 0) {
+            if (EXECUTE_QUERY.equals(methodName)) {
+                return StatementMethod.EXECUTE_PREPARED_QUERY;
+            } else if (EXECUTE.equals(methodName) || EXECUTE_UPDATE.equals(methodName)
+                    || EXECUTE_LARGE_UPDATE.equals(methodName)) {
+                return StatementMethod.EXECUTE_PREPARED;
             } else if (ADD_BATCH.equals(methodName)) {
-                result = Utils.invokeUnwrapException(wrappedStatement, method, args);
-                batchedPreparedOrNonPreparedStmtExecutions.add(paramValues.copy());
-                return result;
-            } else if (CLEAR_BATCH.equals(methodName)) {
-                result = Utils.invokeUnwrapException(wrappedStatement, method, args);
-                batchedPreparedOrNonPreparedStmtExecutions.clear();
-                return result;
+                return StatementMethod.ADD_PREPARED_BATCH;
             } else if (CLEAR_PARAMETERS.equals(methodName)) {
-                result = Utils.invokeUnwrapException(wrappedStatement, method, args);
-                paramValues.clear();
-                return result;
+                return StatementMethod.CLEAR_PARAMETERS;
             }
-            // TODO : handle getResultSet to return a proxy to the resultset like in internalExecutePreparedQuery
-        } else {
-            if (methodName.startsWith("set")) {
-                result = Utils.invokeUnwrapException(wrappedStatement, method, args);
-                if ("setNull".equals(methodName) && args[1] instanceof Integer) {
-                    paramValues.put((Serializable) args[0], new SqlTypedValue(null, ((Integer) args[1])));
-                } else if (args.length == 2 || "setDate".equals(methodName) || "setTime".equals(methodName)
-                        || "setTimestamp".equals(methodName)) {
-                    paramValues.put((Serializable) args[0], new SqlTypedValue(args[1], methodName));
-                } else if ("setObject".equals(methodName)) {
-                    final Class<?>[] argType = method.getParameterTypes();
-                    if (argType.length > 2) {
-                        Integer sqlType = null;
-                        if (argType[2] == Integer.TYPE) {
-                            sqlType = (Integer) args[2];
-                        } else if (argType[2] == SQLType.class) {
-                            sqlType = ((SQLType) args[2]).getVendorTypeNumber();
-                        }
-                        paramValues.put((Serializable) args[0], new SqlTypedValue(args[1], sqlType));
-                    }
+        } else if (methodName.startsWith("set")) {
+            if (paramTypes.length == 1) {
+                // a setter of the statement itself, like setQueryTimeout, the parameters setters take an index
+                return resolveStatementMethod(method);
+            } else if ("setNull".equals(methodName) && paramTypes.length > 1 && paramTypes[1] == Integer.TYPE) {
+                return StatementMethod.SET_NULL;
+            } else if (paramTypes.length == 2 || "setDate".equals(methodName) || "setTime".equals(methodName)
+                    || "setTimestamp".equals(methodName)) {
+                return StatementMethod.SET_PARAMETER;
+            } else if ("setObject".equals(methodName) && paramTypes.length > 2) {
+                if (paramTypes[2] == Integer.TYPE) {
+                    return StatementMethod.SET_OBJECT_WITH_TYPE;
+                } else if (paramTypes[2] == SQLType.class) {
+                    return StatementMethod.SET_OBJECT_WITH_SQL_TYPE;
                 }
-                return result;
+                return StatementMethod.SET_OBJECT;
             }
+            return StatementMethod.OTHER;
         }
-        return super.invoke(proxy, method, args);
+        return resolveStatementMethod(method);
     }
 
-    protected ResultSet internalExecutePreparedQuery(final Method method) throws Throwable {
-        final UUID logId = UUID.randomUUID();
-        final Connection connection = wrappedStatement.getConnection();
-        PerfLogger.logBeforePreparedStatement(connectionId, logId, rawSql, paramValues,
-                StatementType.PREPARED_QUERY_STMT, databaseType, wrappedStatement.getQueryTimeout(),
-                connection.getAutoCommit(), connection.getTransactionIsolation());
+    final <E extends Throwable> ResultSet internalExecutePreparedQuery(final JdbcCall<ResultSet, E> call)
+            throws E, SQLException {
+        releaseResultSet();
+        if (!PerfLogger.isEnabled()) {
+            lastExecutionLogId = LogIdGenerator.NO_ID;
+            return call.call();
+        }
+        if (!PerfLogger.sampleNextStatement()) {
+            lastExecutionLogId = LogIdGenerator.NO_ID;
+            return executeSampledOut(call);
+        }
+        final long logId = LogIdGenerator.nextId();
+        final AbstractBeforeStatementExecutionLog heldLog = PerfLogger.logBeforePreparedStatement(
+                connectionId, logId, rawSql, getPlaceholderIndex(), paramValues, StatementType.PREPARED_QUERY_STMT,
+                databaseType, getQueryTimeout(), connectionHandler.isAutoCommit(),
+                connectionHandler.getTransactionIsolation());
         final long start = System.nanoTime();
         Throwable exc = null;
+        LogMessage executionLog;
+        final ResultSet resultSet;
         try {
-            final ResultSet resultSet = (ResultSet) Utils.invokeUnwrapExceptionReturnNonNull(wrappedStatement, method,
-                    null);
-            return (ResultSet) Proxy.newProxyInstance(resultSet.getClass().getClassLoader(),
-                    Utils.extractAllInterfaces(resultSet.getClass()),
-                    new LoggingResultSetInvocationHandler(resultSet, logId));
+            resultSet = call.call();
         } catch (final Throwable e) {
             exc = e;
-            throw exc;
+            throw e;
         } finally {
             final long end = System.nanoTime();
-            PerfLogger.logStatementExecuted(logId, end - start, null, exc);
-            lastExecutionLogId = logId;
+            executionLog = PerfLogger.logStatementExecuted(logId, end - start, null, exc, heldLog, exc == null);
+            lastExecutionLogId = executionLog != null ? logId : LogIdGenerator.NO_ID;
         }
-
+        return executionLog != null ? wrapResultSet(resultSet, logId, executionLog) : resultSet;
     }
 
-    @Nullable
-    protected Object internalExecutePrepared(final Method method, final Object @Nullable [] args) throws Throwable {
-        final UUID logId = UUID.randomUUID();
+    final <T, E extends Throwable> T internalExecutePrepared(final JdbcCall<T, E> call) throws E, SQLException {
+        releaseResultSet();
+        if (!PerfLogger.isEnabled()) {
+            lastExecutionLogId = LogIdGenerator.NO_ID;
+            return call.call();
+        }
+        if (!PerfLogger.sampleNextStatement()) {
+            lastExecutionLogId = LogIdGenerator.NO_ID;
+            return executeSampledOut(call);
+        }
+        final long logId = LogIdGenerator.nextId();
         final long start = System.nanoTime();
-        final Connection connection = wrappedStatement.getConnection();
-        PerfLogger.logBeforePreparedStatement(connectionId, logId, rawSql, paramValues,
-                StatementType.BASE_PREPARED_STMT, databaseType, wrappedStatement.getQueryTimeout(),
-                connection.getAutoCommit(), connection.getTransactionIsolation());
+        final AbstractBeforeStatementExecutionLog heldLog = PerfLogger.logBeforePreparedStatement(
+                connectionId, logId, rawSql, getPlaceholderIndex(), paramValues, StatementType.BASE_PREPARED_STMT,
+                databaseType, getQueryTimeout(), connectionHandler.isAutoCommit(),
+                connectionHandler.getTransactionIsolation());
         Throwable exc = null;
         Long updateCount = null;
         try {
-            final Object result = Utils.invokeUnwrapException(wrappedStatement, method, args);
+            final T result = call.call();
             if (result instanceof Number) {
                 updateCount = ((Number) result).longValue();
             }
             return result;
         } catch (final Throwable e) {
             exc = e;
-            throw exc;
+            throw e;
         } finally {
             final long end = System.nanoTime();
-            PerfLogger.logStatementExecuted(logId, end - start, updateCount, exc);
-            lastExecutionLogId = logId;
+            final LogMessage executionLog = PerfLogger.logStatementExecuted(logId, end - start, updateCount, exc,
+                    heldLog, false);
+            lastExecutionLogId = executionLog != null ? logId : LogIdGenerator.NO_ID;
         }
     }
 
     @Override
-    @Nullable
-    protected Object internalExecuteBatch(final Method method, final Object @Nullable [] args) throws Throwable {
-        final UUID logId = UUID.randomUUID();
-        final Connection connection = wrappedStatement.getConnection();
-        PerfLogger.logPreparedBatchedStatements(connectionId, logId, rawSql, batchedPreparedOrNonPreparedStmtExecutions,
-                databaseType, wrappedStatement.getQueryTimeout(), connection.getAutoCommit(), connection.getTransactionIsolation());
+    <T, E extends Throwable> T internalExecuteBatch(final JdbcCall<T, E> call) throws E, SQLException {
+        releaseResultSet();
+        if (!PerfLogger.isEnabled()) {
+            batchedPreparedOrNonPreparedStmtExecutions.clear();
+            lastExecutionLogId = LogIdGenerator.NO_ID;
+            return call.call();
+        }
+        if (!PerfLogger.sampleNextStatement()) {
+            batchedPreparedOrNonPreparedStmtExecutions.clear();
+            lastExecutionLogId = LogIdGenerator.NO_ID;
+            return executeSampledOut(call);
+        }
+        final long logId = LogIdGenerator.nextId();
+        final AbstractBeforeStatementExecutionLog heldLog = PerfLogger.logPreparedBatchedStatements(
+                connectionId, logId, rawSql, getPlaceholderIndex(), batchedPreparedOrNonPreparedStmtExecutions,
+                databaseType, getQueryTimeout(), connectionHandler.isAutoCommit(),
+                connectionHandler.getTransactionIsolation());
         try {
-            return internalExecuteBatchInternal(method, args, logId);
+            return internalExecuteBatchInternal(call, logId, heldLog);
         } finally {
             batchedPreparedOrNonPreparedStmtExecutions.clear();
-            lastExecutionLogId = logId;
         }
 
     }
 
+    void internalAddBatch() {
+        if (PerfLogger.isEnabled()) {
+            batchedPreparedOrNonPreparedStmtExecutions.add(paramValues.copy());
+        }
+    }
+
+    @Override
+    void internalClearBatch() {
+        batchedPreparedOrNonPreparedStmtExecutions.clear();
+    }
+
+    void internalClearParameters() {
+        paramValues.clear();
+    }
+
+    void internalSetParameter(final int index, @Nullable final Object value, final String setter) {
+        if (PerfLogger.isEnabled()) {
+            paramValues.set(index, value, setter, -1);
+        }
+    }
+
+    void internalSetParameter(final String name, @Nullable final Object value, final String setter) {
+        if (PerfLogger.isEnabled()) {
+            paramValues.set(name, value, setter, -1);
+        }
+    }
+
+    void internalSetNull(final int index, final int sqlType) {
+        if (PerfLogger.isEnabled()) {
+            paramValues.set(index, null, null, sqlType);
+        }
+    }
+
+    void internalSetNull(final String name, final int sqlType) {
+        if (PerfLogger.isEnabled()) {
+            paramValues.set(name, null, null, sqlType);
+        }
+    }
+
+    void internalSetObject(final int index, @Nullable final Object value, @Nullable final Integer sqlType) {
+        if (PerfLogger.isEnabled()) {
+            paramValues.set(index, value, null, sqlType != null ? sqlType.intValue() : 0);
+        }
+    }
+
+    void internalSetObject(final String name, @Nullable final Object value, @Nullable final Integer sqlType) {
+        if (PerfLogger.isEnabled()) {
+            paramValues.set(name, value, null, sqlType != null ? sqlType.intValue() : 0);
+        }
+    }
+
 }
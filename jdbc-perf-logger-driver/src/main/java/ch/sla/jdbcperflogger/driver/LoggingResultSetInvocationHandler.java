@@ -18,23 +18,33 @@ package ch.sla.jdbcperflogger.driver;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.sql.ResultSet;
-import java.util.UUID;
 
 import org.eclipse.jdt.annotation.Nullable;
 
 import ch.sla.jdbcperflogger.logger.PerfLogger;
+import ch.sla.jdbcperflogger.model.LogMessage;
 
 public class LoggingResultSetInvocationHandler implements InvocationHandler {
+    private static final MethodDispatcher<ResultSetMethod> DISPATCHER = new MethodDispatcher<ResultSetMethod>(
+            LoggingResultSetInvocationHandler::resolveResultSetMethod);
+
+    private enum ResultSetMethod {
+        NEXT, CLOSE, OTHER
+    }
+
     private final ResultSet wrappedResultSet;
-    private final UUID logId;
+    private final long logId;
+    @Nullable
+    private final LogMessage executionLog;
     private final long fetchStartTime;
     private boolean closed;
     private int nbRowsIterated;
     private long fetchDurationNanos;
 
-    LoggingResultSetInvocationHandler(final ResultSet rset, final UUID logId) {
+    LoggingResultSetInvocationHandler(final ResultSet rset, final long logId, @Nullable final LogMessage executionLog) {
         wrappedResultSet = rset;
         this.logId = logId;
+        this.executionLog = executionLog;
         fetchStartTime = System.nanoTime();
     }
 
@@ -42,26 +52,57 @@ public class LoggingResultSetInvocationHandler implements InvocationHandler {
     @Nullable
     public Object invoke(@Nullable final Object proxy, final Method method, final Object @Nullable [] args)
             throws Throwable {
-        final long methodStartTime = System.nanoTime();
-        final Object result = Utils.invokeUnwrapException(wrappedResultSet, method, args);
-        final long oneRowFetchDurationNanos = System.nanoTime() - methodStartTime;
+        switch (DISPATCHER.getAction(proxy, method)) {
+        case NEXT: {
+            final long methodStartTime = System.nanoTime();
+            final Object result = Utils.invokeUnwrapException(wrappedResultSet, method, args);
+            internalNext(Boolean.TRUE.equals(result), System.nanoTime() - methodStartTime);
+            return result;
+        }
+        case CLOSE: {
+            final Object result = Utils.invokeUnwrapException(wrappedResultSet, method, args);
+            internalClose();
+            return result;
+        }
+        default:
+            return Utils.invokeUnwrapException(wrappedResultSet, method, args);
+        }
+    }
 
-        final String methodName = method.getName();
-        if (args == null || args.length == 0) {
-            if ("close".equals(methodName)) {
-                if (!closed) {
-                    closed = true;
-                    PerfLogger.logClosedResultSet(logId, System.nanoTime() - fetchStartTime, fetchDurationNanos,
-                            nbRowsIterated);
-                }
-            } else if ("next".equals(methodName)) {
-                fetchDurationNanos += oneRowFetchDurationNanos;
-                if (Boolean.TRUE.equals(result)) {
-                    nbRowsIterated++;
-                }
+    private static ResultSetMethod resolveResultSetMethod(final Method method) {
+        if (method.getParameterCount() == 0) {
+            if ("next".equals(method.getName())) {
+                return ResultSetMethod.NEXT;
+            } else if ("close".equals(method.getName())) {
+                return ResultSetMethod.CLOSE;
             }
         }
-        return result;
+        return ResultSetMethod.OTHER;
+    }
+
+    synchronized void internalClose() {
+        if (!closed) {
+            closed = true;
+            PerfLogger.logClosedResultSet(logId, executionLog, System.nanoTime() - fetchStartTime,
+                    fetchDurationNanos, nbRowsIterated);
+        }
+    }
+
+    /**
+     * Called when the statement is executed again or closed, which implicitly closes this ResultSet.
+     */
+    synchronized void statementReleased() {
+        if (!closed) {
+            closed = true;
+            PerfLogger.logUnclosedResultSet(executionLog);
+        }
+    }
+
+    void internalNext(final boolean hasNext, final long oneRowFetchDurationNanos) {
+        fetchDurationNanos += oneRowFetchDurationNanos;
+        if (hasNext) {
+            nbRowsIterated++;
+        }
     }
 
 }
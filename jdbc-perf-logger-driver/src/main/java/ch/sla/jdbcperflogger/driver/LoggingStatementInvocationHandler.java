@@ -17,19 +17,20 @@ package ch.sla.jdbcperflogger.driver;
 
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
-import java.lang.reflect.Proxy;
-import java.sql.Connection;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
 
 import org.eclipse.jdt.annotation.Nullable;
 
 import ch.sla.jdbcperflogger.DatabaseType;
 import ch.sla.jdbcperflogger.StatementType;
+import ch.sla.jdbcperflogger.WrapperMode;
 import ch.sla.jdbcperflogger.logger.PerfLogger;
+import ch.sla.jdbcperflogger.model.AbstractBeforeStatementExecutionLog;
+import ch.sla.jdbcperflogger.model.LogMessage;
 
 public class LoggingStatementInvocationHandler implements InvocationHandler {
     protected static final String CLEAR_BATCH = "clearBatch";
@@ -42,125 +43,235 @@ public class LoggingStatementInvocationHandler implements InvocationHandler {
     protected static final String EXECUTE_QUERY = "executeQuery";
     protected static final String GET_RESULT_SET = "getResultSet";
 
-    protected UUID connectionId;
+    private static final MethodDispatcher<StatementMethod> DISPATCHER = new MethodDispatcher<StatementMethod>(
+            LoggingStatementInvocationHandler::resolveStatementMethod);
+
+    /**
+     * What the handlers do with a {@link Statement} method, resolved once per proxied method.
+     */
+    enum StatementMethod {
+        EXECUTE_QUERY, EXECUTE, EXECUTE_BATCH, GET_RESULT_SET, ADD_BATCH, CLEAR_BATCH, //
+        EXECUTE_PREPARED_QUERY, EXECUTE_PREPARED, ADD_PREPARED_BATCH, CLEAR_PARAMETERS, //
+        SET_NULL, SET_PARAMETER, SET_OBJECT, SET_OBJECT_WITH_TYPE, SET_OBJECT_WITH_SQL_TYPE, //
+        SET_QUERY_TIMEOUT, CLOSE, OTHER
+    }
+
+    protected final long connectionId;
+    protected final LoggingConnectionInvocationHandler connectionHandler;
     protected final DatabaseType databaseType;
     protected final Statement wrappedStatement;
+    protected final WrapperMode wrapperMode;
     private final List<String> batchedNonPreparedStmtExecutions = new ArrayList<String>();
-    protected @Nullable UUID lastExecutionLogId;
+    // as set through this wrapper, -1 when unknown and to be queried
+    private int queryTimeout = -1;
+    protected long lastExecutionLogId = LogIdGenerator.NO_ID;
+    // handler of the last ResultSet returned, in case it is not closed before the next execution
+    @Nullable
+    private LoggingResultSetInvocationHandler lastResultSetHandler;
 
-    LoggingStatementInvocationHandler(final UUID connectionId, final Statement statement,
-            final DatabaseType databaseType) {
-        this.connectionId = connectionId;
+    LoggingStatementInvocationHandler(final LoggingConnectionInvocationHandler connectionHandler,
+            final Statement statement, final DatabaseType databaseType, final WrapperMode wrapperMode) {
+        this.connectionHandler = connectionHandler;
+        connectionId = connectionHandler.getConnectionUniqueId();
         wrappedStatement = statement;
         this.databaseType = databaseType;
+        this.wrapperMode = wrapperMode;
     }
 
     @Override
     @Nullable
-    public Object invoke(final @Nullable Object _proxy, final Method method, final Object @Nullable [] args)
+    public Object invoke(final @Nullable Object proxy, final Method method, final Object @Nullable [] args)
             throws Throwable {
+        return invokeStatementMethod(DISPATCHER.getAction(proxy, method), method, args);
+    }
+
+    @Nullable
+    protected final Object invokeStatementMethod(final StatementMethod action, final Method method,
+            final Object @Nullable [] args) throws Throwable {
+        switch (action) {
+        case EXECUTE_QUERY:
+            return internalExecuteQuery((String) nonNullArgs(args)[0],
+                    () -> (ResultSet) Utils.invokeUnwrapExceptionReturnNonNull(wrappedStatement, method, args));
+        case EXECUTE:
+            return internalExecute((String) nonNullArgs(args)[0],
+                    () -> Utils.invokeUnwrapException(wrappedStatement, method, args));
+        case EXECUTE_BATCH:
+            return internalExecuteBatch(() -> Utils.invokeUnwrapException(wrappedStatement, method, args));
+        case GET_RESULT_SET:
+            return internalGetResultSet(() -> (ResultSet) Utils.invokeUnwrapException(wrappedStatement, method, args));
+        case ADD_BATCH: {
+            final Object result = Utils.invokeUnwrapException(wrappedStatement, method, args);
+            internalAddBatch((String) nonNullArgs(args)[0]);
+            return result;
+        }
+        case CLEAR_BATCH: {
+            final Object result = Utils.invokeUnwrapException(wrappedStatement, method, args);
+            internalClearBatch();
+            return result;
+        }
+        case SET_QUERY_TIMEOUT: {
+            final Object result = Utils.invokeUnwrapException(wrappedStatement, method, args);
+            queryTimeoutChanged((Integer) nonNullArgs(args)[0]);
+            return result;
+        }
+        case CLOSE: {
+            final Object result = Utils.invokeUnwrapException(wrappedStatement, method, args);
+            internalClose();
+            return result;
+        }
+        default:
+            return Utils.invokeUnwrapException(wrappedStatement, method, args);
+        }
+    }
+
+    protected static Object[] nonNullArgs(final Object @Nullable [] args) {
+        assert args != null;
+        return args;
+    }
 
-        final Object result;
+    static StatementMethod resolveStatementMethod(final Method method) {
         final String methodName = method.getName();
-        if (EXECUTE_QUERY.equals(methodName) && args != null) {
-            return internalExecuteQuery(method, args);
+        final boolean hasParams = method.getParameterCount() > 0;
+        if (EXECUTE_QUERY.equals(methodName) && hasParams) {
+            return StatementMethod.EXECUTE_QUERY;
         } else if ((EXECUTE.equals(methodName) || EXECUTE_UPDATE.equals(methodName)
-                || EXECUTE_LARGE_UPDATE.equals(methodName)) && args != null) {
-            return internalExecute(method, args);
+                || EXECUTE_LARGE_UPDATE.equals(methodName)) && hasParams) {
+            return StatementMethod.EXECUTE;
         } else if (EXECUTE_BATCH.equals(methodName) || EXECUTE_LARGE_BATCH.equals(methodName)) {
-            return internalExecuteBatch(method, args);
+            return StatementMethod.EXECUTE_BATCH;
         } else if (GET_RESULT_SET.equals(methodName)) {
-            // TODO : handle getResultSet to return a proxy to the resultset like in internalExecuteQuery
-            assert lastExecutionLogId != null;
-            return getAndWrapResultSet(method, args, lastExecutionLogId);
-        } else {
-            result = Utils.invokeUnwrapException(wrappedStatement, method, args);
-            if (ADD_BATCH.equals(methodName) && args != null) {
-                batchedNonPreparedStmtExecutions.add((String) args[0]);
-            } else if (CLEAR_BATCH.equals(methodName)) {
-                batchedNonPreparedStmtExecutions.clear();
-            }
+            return StatementMethod.GET_RESULT_SET;
+        } else if (ADD_BATCH.equals(methodName) && hasParams) {
+            return StatementMethod.ADD_BATCH;
+        } else if (CLEAR_BATCH.equals(methodName)) {
+            return StatementMethod.CLEAR_BATCH;
+        } else if ("setQueryTimeout".equals(methodName) && hasParams) {
+            return StatementMethod.SET_QUERY_TIMEOUT;
+        } else if ("close".equals(methodName) && !hasParams) {
+            return StatementMethod.CLOSE;
         }
-        return result;
+        return StatementMethod.OTHER;
     }
 
-    protected final ResultSet internalExecuteQuery(final Method method, final Object[] args) throws Throwable {
-        final UUID logId = UUID.randomUUID();
+    final <E extends Throwable> ResultSet internalExecuteQuery(final String sql, final JdbcCall<ResultSet, E> call)
+            throws E, SQLException {
+        releaseResultSet();
+        if (!PerfLogger.isEnabled()) {
+            lastExecutionLogId = LogIdGenerator.NO_ID;
+            return call.call();
+        }
+        if (!PerfLogger.sampleNextStatement()) {
+            lastExecutionLogId = LogIdGenerator.NO_ID;
+            return executeSampledOut(call);
+        }
+        final long logId = LogIdGenerator.nextId();
         final long start = System.nanoTime();
-        final Connection connection = wrappedStatement.getConnection();
-        PerfLogger.logBeforeStatement(connectionId, logId, (String) args[0], StatementType.NON_PREPARED_QUERY_STMT,
-                wrappedStatement.getQueryTimeout(), connection.getAutoCommit(), connection.getTransactionIsolation());
+        final AbstractBeforeStatementExecutionLog heldLog = PerfLogger.logBeforeStatement(
+                connectionId, logId, sql, StatementType.NON_PREPARED_QUERY_STMT, getQueryTimeout(),
+                connectionHandler.isAutoCommit(), connectionHandler.getTransactionIsolation());
         Throwable exc = null;
+        LogMessage executionLog;
+        final ResultSet resultSet;
         try {
-            return getAndWrapResultSet(method, args, logId);
+            resultSet = call.call();
         } catch (final Throwable e) {
             exc = e;
-            throw exc;
+            throw e;
         } finally {
             final long end = System.nanoTime();
-            PerfLogger.logStatementExecuted(logId, end - start, null, exc);
-            lastExecutionLogId = logId;
+            executionLog = PerfLogger.logStatementExecuted(logId, end - start, null, exc, heldLog, exc == null);
+            lastExecutionLogId = executionLog != null ? logId : LogIdGenerator.NO_ID;
         }
+        return executionLog != null ? wrapResultSet(resultSet, logId, executionLog) : resultSet;
+    }
 
+    @Nullable
+    final <E extends Throwable> ResultSet internalGetResultSet(final JdbcCall<@Nullable ResultSet, E> call) throws E {
+        final ResultSet resultSet = call.call();
+        final long logId = lastExecutionLogId;
+        if (resultSet == null || logId == LogIdGenerator.NO_ID) {
+            return resultSet;
+        }
+        return wrapResultSet(resultSet, logId, null);
     }
 
-    private ResultSet getAndWrapResultSet(final Method method, final Object @Nullable [] args, final UUID logId)
-            throws Throwable {
-        final ResultSet resultSet = (ResultSet) Utils.invokeUnwrapExceptionReturnNonNull(wrappedStatement, method,
-                args);
-        return (ResultSet) Proxy.newProxyInstance(resultSet.getClass().getClassLoader(),
-                Utils.extractAllInterfaces(resultSet.getClass()),
-                new LoggingResultSetInvocationHandler(resultSet, logId));
+    protected final ResultSet wrapResultSet(final ResultSet resultSet, final long logId,
+            @Nullable final LogMessage executionLog) {
+        final LoggingResultSetInvocationHandler resultSetHandler = new LoggingResultSetInvocationHandler(resultSet,
+                logId, executionLog);
+        lastResultSetHandler = resultSetHandler;
+        if (wrapperMode == WrapperMode.DELEGATE) {
+            return new DelegatingResultSet(resultSet, resultSetHandler);
+        }
+        return (ResultSet) Utils.newProxyInstance(resultSet, resultSetHandler);
     }
 
-    @Nullable
-    protected final Object internalExecute(final Method method, final Object[] args) throws Throwable {
-        final UUID logId = UUID.randomUUID();
-        final Connection connection = wrappedStatement.getConnection();
-        PerfLogger.logBeforeStatement(connectionId, logId, (String) args[0], StatementType.BASE_NON_PREPARED_STMT,
-                wrappedStatement.getQueryTimeout(), connection.getAutoCommit(), connection.getTransactionIsolation());
+    final <T, E extends Throwable> T internalExecute(final String sql, final JdbcCall<T, E> call)
+            throws E, SQLException {
+        releaseResultSet();
+        if (!PerfLogger.isEnabled()) {
+            lastExecutionLogId = LogIdGenerator.NO_ID;
+            return call.call();
+        }
+        if (!PerfLogger.sampleNextStatement()) {
+            lastExecutionLogId = LogIdGenerator.NO_ID;
+            return executeSampledOut(call);
+        }
+        final long logId = LogIdGenerator.nextId();
+        final AbstractBeforeStatementExecutionLog heldLog = PerfLogger.logBeforeStatement(
+                connectionId, logId, sql, StatementType.BASE_NON_PREPARED_STMT, getQueryTimeout(),
+                connectionHandler.isAutoCommit(), connectionHandler.getTransactionIsolation());
         Throwable exc = null;
         Long updateCount = null;
         final long start = System.nanoTime();
         try {
-            final Object result = Utils.invokeUnwrapException(wrappedStatement, method, args);
+            final T result = call.call();
             if (result instanceof Number) {
                 updateCount = ((Number) result).longValue();
             }
             return result;
         } catch (final Throwable e) {
             exc = e;
-            throw exc;
+            throw e;
         } finally {
             final long end = System.nanoTime();
-            PerfLogger.logStatementExecuted(logId, end - start, updateCount, exc);
-            lastExecutionLogId = logId;
+            final LogMessage executionLog = PerfLogger.logStatementExecuted(logId, end - start, updateCount, exc,
+                    heldLog, false);
+            lastExecutionLogId = executionLog != null ? logId : LogIdGenerator.NO_ID;
         }
     }
 
-    @Nullable
-    protected Object internalExecuteBatch(final Method method, final Object @Nullable [] args) throws Throwable {
-        final UUID logId = UUID.randomUUID();
-        final Connection connection = wrappedStatement.getConnection();
-        PerfLogger.logNonPreparedBatchedStatements(connectionId, logId, batchedNonPreparedStmtExecutions, databaseType,
-                wrappedStatement.getQueryTimeout(), connection.getAutoCommit(), connection.getTransactionIsolation());
+    <T, E extends Throwable> T internalExecuteBatch(final JdbcCall<T, E> call) throws E, SQLException {
+        releaseResultSet();
+        if (!PerfLogger.isEnabled()) {
+            batchedNonPreparedStmtExecutions.clear();
+            lastExecutionLogId = LogIdGenerator.NO_ID;
+            return call.call();
+        }
+        if (!PerfLogger.sampleNextStatement()) {
+            batchedNonPreparedStmtExecutions.clear();
+            lastExecutionLogId = LogIdGenerator.NO_ID;
+            return executeSampledOut(call);
+        }
+        final long logId = LogIdGenerator.nextId();
+        final AbstractBeforeStatementExecutionLog heldLog = PerfLogger.logNonPreparedBatchedStatements(
+                connectionId, logId, batchedNonPreparedStmtExecutions, databaseType, getQueryTimeout(),
+                connectionHandler.isAutoCommit(), connectionHandler.getTransactionIsolation());
         try {
-            return internalExecuteBatchInternal(method, args, logId);
+            return internalExecuteBatchInternal(call, logId, heldLog);
         } finally {
             batchedNonPreparedStmtExecutions.clear();
-            lastExecutionLogId = logId;
         }
 
     }
 
-    @Nullable
-    protected Object internalExecuteBatchInternal(final Method method, final Object @Nullable [] args, final UUID logId)
-            throws Throwable {
+    protected final <T, E extends Throwable> T internalExecuteBatchInternal(final JdbcCall<T, E> call,
+            final long logId, @Nullable final AbstractBeforeStatementExecutionLog heldLog) throws E {
         Throwable exc = null;
         long updateCount = -1;
         final long start = System.nanoTime();
         try {
-            final Object result = Utils.invokeUnwrapException(wrappedStatement, method, args);
+            final T result = call.call();
             if (result instanceof int[]) {
                 final int[] nbRows = (int[]) result;
                 long totalRows = 0;
@@ -179,12 +290,66 @@ public class LoggingStatementInvocationHandler implements InvocationHandler {
             return result;
         } catch (final Throwable e) {
             exc = e;
-            throw exc;
+            throw e;
         } finally {
             final long end = System.nanoTime();
-            PerfLogger.logStatementExecuted(logId, end - start, updateCount, exc);
-            lastExecutionLogId = logId;
+            final LogMessage executionLog = PerfLogger.logStatementExecuted(logId, end - start, updateCount, exc,
+                    heldLog, false);
+            lastExecutionLogId = executionLog != null ? logId : LogIdGenerator.NO_ID;
+        }
+    }
+
+    /**
+     * Executes a statement not logged because of sampling, only measuring its execution time.
+     */
+    protected static <T, E extends Throwable> T executeSampledOut(final JdbcCall<T, E> call) throws E {
+        final long start = System.nanoTime();
+        try {
+            return call.call();
+        } finally {
+            PerfLogger.logStatementSampledOut(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Executing a statement again or closing it closes its current ResultSet.
+     */
+    protected final void releaseResultSet() {
+        final LoggingResultSetInvocationHandler resultSetHandler = lastResultSetHandler;
+        if (resultSetHandler != null) {
+            lastResultSetHandler = null;
+            resultSetHandler.statementReleased();
+        }
+    }
+
+    void internalClose() {
+        releaseResultSet();
+    }
+
+    void queryTimeoutChanged(final int seconds) {
+        queryTimeout = seconds;
+    }
+
+    /**
+     * @return the query timeout as last set through this wrapper, only queried from the statement when unknown
+     */
+    protected final int getQueryTimeout() throws SQLException {
+        int seconds = queryTimeout;
+        if (seconds == -1) {
+            seconds = wrappedStatement.getQueryTimeout();
+            queryTimeout = seconds;
+        }
+        return seconds;
+    }
+
+    void internalAddBatch(final String sql) {
+        if (PerfLogger.isEnabled()) {
+            batchedNonPreparedStmtExecutions.add(sql);
         }
     }
 
+    void internalClearBatch() {
+        batchedNonPreparedStmtExecutions.clear();
+    }
+
 }
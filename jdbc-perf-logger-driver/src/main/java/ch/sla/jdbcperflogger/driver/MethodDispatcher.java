@@ -0,0 +1,70 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger.driver;
+
+import java.lang.reflect.Method;
+import java.util.IdentityHashMap;
+import java.util.function.Function;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Resolves the {@link Method}s invoked through a {@link java.lang.reflect.Proxy} into an action only once per method.
+ * <p>
+ * A proxy class always passes the same {@link Method} instances to its invocation handler, so the resolved actions are
+ * kept per proxy class (in a {@link ClassValue}, to avoid leaking class loaders) in an identity map. The map is copied
+ * on write since it only changes the first time each method is invoked.
+ *
+ * @param <A>
+ *            type of the resolved action, usually an enum used in a switch
+ */
+final class MethodDispatcher<A> {
+    private final Function<Method, A> resolver;
+    private final ClassValue<DispatchTable<A>> dispatchTables = new ClassValue<DispatchTable<A>>() {
+        @Override
+        protected DispatchTable<A> computeValue(@Nullable final Class<?> type) {
+            return new DispatchTable<A>();
+        }
+    };
+
+    MethodDispatcher(final Function<Method, A> resolver) {
+        this.resolver = resolver;
+    }
+
+    A getAction(@Nullable final Object proxy, final Method method) {
+        if (proxy == null) {
+            return resolver.apply(method);
+        }
+        return dispatchTables.get(proxy.getClass()).getAction(method, resolver);
+    }
+
+    private static final class DispatchTable<A> {
+        private volatile IdentityHashMap<Method, A> actions = new IdentityHashMap<Method, A>();
+
+        A getAction(final Method method, final Function<Method, A> resolver) {
+            A action = actions.get(method);
+            if (action == null) {
+                action = resolver.apply(method);
+                synchronized (this) {
+                    final IdentityHashMap<Method, A> newActions = new IdentityHashMap<Method, A>(actions);
+                    newActions.put(method, action);
+                    actions = newActions;
+                }
+            }
+            return action;
+        }
+    }
+}
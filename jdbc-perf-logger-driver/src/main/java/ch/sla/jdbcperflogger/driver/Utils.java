@@ -15,8 +15,12 @@
  */
 package ch.sla.jdbcperflogger.driver;
 
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.Collections;
@@ -31,6 +35,18 @@ import ch.sla.jdbcperflogger.Logger;
 public final class Utils {
     private final static Logger LOGGER = Logger.getLogger(Utils.class);
 
+    /**
+     * Constructors of the proxy classes, per JDBC implementation class. Kept in a {@link ClassValue} so that the cache
+     * does not prevent the JDBC driver classes from being unloaded.
+     */
+    private static final ClassValue<Constructor<?>> PROXY_CONSTRUCTORS = new ClassValue<Constructor<?>>() {
+        @Override
+        protected Constructor<?> computeValue(@Nullable final Class<?> type) {
+            assert type != null;
+            return getProxyConstructor(type.getClassLoader(), extractAllInterfaces(type));
+        }
+    };
+
     private Utils() {
 
     }
@@ -70,6 +86,36 @@ public final class Utils {
         }
     }
 
+    /**
+     * Creates a {@link Proxy} implementing all the interfaces of the given target, including vendor specific ones.
+     * The proxy constructor is looked up only once per target class.
+     */
+    static Object newProxyInstance(final Object target, final InvocationHandler invocationHandler) {
+        try {
+            return PROXY_CONSTRUCTORS.get(target.getClass()).newInstance(invocationHandler);
+        } catch (final InvocationTargetException e) {
+            throw new IllegalStateException(e.getCause());
+        } catch (final ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private static Constructor<?> getProxyConstructor(@Nullable final ClassLoader classLoader,
+            final Class<?>[] interfaces) {
+        try {
+            final Class<?> proxyClass = Proxy.getProxyClass(classLoader, interfaces);
+            final Constructor<?> constructor = proxyClass.getConstructor(InvocationHandler.class);
+            if (!Modifier.isPublic(proxyClass.getModifiers())) {
+                // proxy of a non-public vendor interface, same as what Proxy.newProxyInstance does
+                constructor.setAccessible(true);
+            }
+            return constructor;
+        } catch (final NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     static Class<?>[] extractAllInterfaces(final Class<?> clazz) {
         final Set<Class<?>> interfaces = new HashSet<Class<?>>();
         for (Class<?> currClazz = clazz; currClazz != null; currClazz = currClazz.getSuperclass()) {
@@ -34,6 +34,7 @@ import org.eclipse.jdt.annotation.Nullable;
 
 import ch.sla.jdbcperflogger.DriverConfig;
 import ch.sla.jdbcperflogger.Logger;
+import ch.sla.jdbcperflogger.WrapperMode;
 import ch.sla.jdbcperflogger.logger.PerfLoggerRemoting;
 
 /**
@@ -142,6 +143,13 @@ public class WrappingDriver implements Driver {
 
     public @Nullable Connection wrapConnection(final String url, final @Nullable Properties info,
             final Callable<@Nullable Connection> underlyingConnectionCreator) throws SQLException {
+        return wrapConnection(url, info, underlyingConnectionCreator, DriverConfig.INSTANCE.getWrapperMode());
+    }
+
+    @Nullable
+    Connection wrapConnection(final String url, final @Nullable Properties info,
+            final Callable<@Nullable Connection> underlyingConnectionCreator, final WrapperMode wrapperMode)
+            throws SQLException {
         final long startNanos = System.nanoTime();
 
         Connection connection;
@@ -158,7 +166,7 @@ public class WrappingDriver implements Driver {
             // short-circuit, the underlying driver was not the right one
             return null;
         }
-        if (Proxy.isProxyClass(connection.getClass())
+        if (connection instanceof DelegatingConnection || Proxy.isProxyClass(connection.getClass())
                 && Proxy.getInvocationHandler(connection).getClass() == LoggingConnectionInvocationHandler.class) {
             // the connection may have already been wrapped if the caller asks for a jdbcperflogger: prefixed url while
             // using the java agent at the same time. In that case, just return the connection without wrapping it again
@@ -177,9 +185,12 @@ public class WrappingDriver implements Driver {
         }
 
         final LoggingConnectionInvocationHandler connectionInvocationHandler = new LoggingConnectionInvocationHandler(
-                connectionCounter.incrementAndGet(), connection, url, cleanedConnectionProperties);
-        connection = (Connection) Proxy.newProxyInstance(connection.getClass().getClassLoader(),
-                Utils.extractAllInterfaces(connection.getClass()), connectionInvocationHandler);
+                connectionCounter.incrementAndGet(), connection, url, cleanedConnectionProperties, wrapperMode);
+        if (wrapperMode == WrapperMode.DELEGATE) {
+            connection = new DelegatingConnection(connection, connectionInvocationHandler);
+        } else {
+            connection = (Connection) Utils.newProxyInstance(connection, connectionInvocationHandler);
+        }
 
         PerfLoggerRemoting.connectionCreated(connectionInvocationHandler, connectionCreationDuration);
         return connection;
@@ -0,0 +1,313 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger.logger;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import ch.sla.jdbcperflogger.Logger;
+import ch.sla.jdbcperflogger.model.BinaryLogMessageCodec;
+import ch.sla.jdbcperflogger.model.ConnectionInfo;
+import ch.sla.jdbcperflogger.model.LogMessage;
+import ch.sla.jdbcperflogger.model.LostMessagesLog;
+
+/**
+ * Appends the logs to a ring of memory-mapped files of fixed size (the segments), for when no console can receive
+ * them. {@link CaptureFileReader} converts the segments into a file the console can open.
+ * <p>
+ * The application threads only publish the logs to a {@link LogRingBuffer}, the sender encodes and writes them with
+ * its own thread. All the segments are mapped when the sender is created, so that this thread only copies bytes to
+ * memory: the OS writes them to disk, even if the JVM crashes. A segment starts with a header holding its generation,
+ * which grows each time the writing moves to the next segment, followed by the connections. Each record holds the
+ * binary frame of a log (see {@link BinaryLogMessageCodec}, without dictionary), preceded by its length, the generation
+ * of the segment and a CRC32 of the frame. The reader stops at the first record of another generation, left by a previous lap of the ring, and skips the
+ * records with a wrong CRC, which were being written when the JVM crashed.
+ * <p>
+ * When the segments are opened again, the writing starts in the segment following the last one written, so that the
+ * logs captured before a crash are only overwritten once the ring is full again.
+ */
+public class CaptureFileLogSender implements LogSender, Closeable {
+    private final static Logger LOGGER = Logger.getLogger(CaptureFileLogSender.class);
+
+    // "JPLC"
+    static final int SEGMENT_MAGIC = 0x4A504C43;
+    static final short FORMAT_VERSION = 1;
+    // magic, format version, codec version, generation
+    static final int SEGMENT_HEADER_SIZE = 16;
+    // length, generation, CRC32
+    static final int RECORD_HEADER_SIZE = 12;
+    static final int END_OF_SEGMENT = -1;
+    static final String SEGMENT_FILE_PREFIX = "jdbcperflogger-capture-";
+    static final String SEGMENT_FILE_SUFFIX = ".bin";
+    private static final String LOCK_FILE_NAME = "jdbcperflogger-capture.lock";
+    private static final int RING_CAPACITY = 16384;
+    private static final long POLL_TIMEOUT_MS = 100;
+    private static final long CLOSE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final int segmentSize;
+    private final MappedByteBuffer[] segments;
+    private final RandomAccessFile lockFile;
+    private final FileLock lock;
+    private final LogRingBuffer ring = new LogRingBuffer(RING_CAPACITY);
+    private final LogRingBuffer.Consumer logsToCapture = ring.newConsumer("capture file");
+    private final Thread thread;
+    // only used by the thread of the sender once started
+    private long generation;
+    private int writeOffset;
+    volatile boolean done;
+
+    /**
+     * @throws IOException
+     *             if the segments cannot be created, or if another JVM writes to the same directory
+     */
+    public CaptureFileLogSender(final File directory, final int segmentCount, final int segmentSize)
+            throws IOException {
+        if (segmentSize <= SEGMENT_HEADER_SIZE + RECORD_HEADER_SIZE) {
+            throw new IllegalArgumentException("segment size too small: " + segmentSize);
+        }
+        this.segmentSize = segmentSize;
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("cannot create directory " + directory);
+        }
+        lockFile = new RandomAccessFile(new File(directory, LOCK_FILE_NAME), "rw");
+        FileLock lock2;
+        try {
+            lock2 = lockFile.getChannel().tryLock();
+        } catch (final OverlappingFileLockException e) {
+            // already used by this JVM
+            lock2 = null;
+        }
+        if (lock2 == null) {
+            lockFile.close();
+            throw new IOException(directory + " is already used by another sender");
+        }
+        lock = lock2;
+
+        segments = new MappedByteBuffer[segmentCount];
+        long lastGeneration = -1;
+        for (int i = 0; i < segmentCount; i++) {
+            try (RandomAccessFile file = new RandomAccessFile(getSegmentFile(directory, i), "rw")) {
+                file.setLength(segmentSize);
+                // the mapping stays valid once the file is closed
+                segments[i] = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            }
+            final Long generation = getGeneration(segments[i]);
+            if (generation != null && generation % segmentCount == i) {
+                lastGeneration = Math.max(lastGeneration, generation);
+            }
+        }
+        startSegment(lastGeneration + 1);
+        thread = newThread(this::captureLogs, "PerfLoggerCaptureFile " + directory);
+        thread.start();
+        LOGGER.info("capturing the logs in " + directory + " from generation " + (lastGeneration + 1));
+    }
+
+    private static Thread newThread(final Runnable runnable, final String name) {
+        // avoid Classloader leaks
+        return AccessController.doPrivileged(new PrivilegedAction<Thread>() {
+            @Override
+            public Thread run() {
+                final ClassLoader savedClassLoader = Thread.currentThread().getContextClassLoader();
+                try {
+                    Thread.currentThread().setContextClassLoader(null);
+
+                    final Thread thread = new Thread(runnable, name);
+                    thread.setDaemon(true);
+                    return thread;
+                } finally {
+                    Thread.currentThread().setContextClassLoader(savedClassLoader);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void postLog(final LogMessage log) {
+        ring.publish(log);
+    }
+
+    @Override
+    public double getQueueFillRatio() {
+        return logsToCapture.getFillRatio();
+    }
+
+    @Override
+    public boolean isTelemetryReceiver() {
+        // the captures are opened by the console
+        return true;
+    }
+
+    static File getSegmentFile(final File directory, final int index) {
+        return new File(directory, SEGMENT_FILE_PREFIX + index + SEGMENT_FILE_SUFFIX);
+    }
+
+    /**
+     * @return the generation of the segment, or <code>null</code> if it was never written
+     */
+    @Nullable
+    static Long getGeneration(final ByteBuffer segment) {
+        if (segment.capacity() < SEGMENT_HEADER_SIZE || segment.getInt(0) != SEGMENT_MAGIC
+                || segment.getShort(4) != FORMAT_VERSION) {
+            return null;
+        }
+        return segment.getLong(8);
+    }
+
+    private void captureLogs() {
+        try {
+            long closingDeadlineNanos = 0;
+            while (true) {
+                // the logs published before close() are captured too, unless the application keeps logging
+                final boolean closing = done;
+                if (closing && closingDeadlineNanos == 0) {
+                    closingDeadlineNanos = System.nanoTime() + CLOSE_TIMEOUT_NANOS;
+                }
+                final LostMessagesLog lostMessagesLog = logsToCapture.drainLost();
+                if (lostMessagesLog != null) {
+                    LOGGER.warn("queue full, dropped " + lostMessagesLog.getTotalLostCount() + " captured logs");
+                    capture(lostMessagesLog);
+                }
+                final LogMessage log = logsToCapture.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (log != null) {
+                    capture(log);
+                }
+                if (closing && (log == null || System.nanoTime() - closingDeadlineNanos > 0)) {
+                    break;
+                }
+            }
+        } catch (final InterruptedException e) {
+            // closing
+        }
+    }
+
+    private void capture(final LogMessage log) {
+        final byte[] frame;
+        try {
+            // without dictionary, each record must be readable on its own
+            frame = BinaryLogMessageCodec.encode(log);
+        } catch (final IOException e) {
+            LOGGER.error("cannot encode " + log, e);
+            return;
+        }
+        // a record must fit in a segment after the connections written at its start
+        if (RECORD_HEADER_SIZE + frame.length >= segmentSize - getConnectionsEnd()) {
+            LOGGER.warn("log of " + frame.length + " bytes too large for the capture segments, dropped");
+            return;
+        }
+        if (!append(frame, segmentSize)) {
+            if (writeOffset + 4 <= segmentSize) {
+                getSegment(generation).putInt(writeOffset, END_OF_SEGMENT);
+            }
+            startSegment(generation + 1);
+            append(frame, segmentSize);
+        }
+    }
+
+    /**
+     * Writes the record in the current segment if it ends before <code>end</code>. A record never reaches the end of
+     * its segment, so that there is always room for {@link #END_OF_SEGMENT} or for a length the reader rejects.
+     *
+     * @return <code>false</code> if the record does not fit
+     */
+    private boolean append(final byte[] frame, final int end) {
+        final int recordSize = RECORD_HEADER_SIZE + frame.length;
+        if (writeOffset + recordSize >= end) {
+            return false;
+        }
+        writeRecord(writeOffset, frame);
+        writeOffset += recordSize;
+        return true;
+    }
+
+    /**
+     * @return the offset the connections written at the start of a segment cannot reach, half of the segment
+     */
+    private int getConnectionsEnd() {
+        return SEGMENT_HEADER_SIZE + (segmentSize - SEGMENT_HEADER_SIZE) / 2;
+    }
+
+    private MappedByteBuffer getSegment(final long generation) {
+        return segments[(int) (generation % segments.length)];
+    }
+
+    private void startSegment(final long newGeneration) {
+        generation = newGeneration;
+        writeOffset = SEGMENT_HEADER_SIZE;
+        final MappedByteBuffer segment = getSegment(generation);
+        segment.putInt(0, SEGMENT_MAGIC);
+        segment.putShort(4, FORMAT_VERSION);
+        segment.putShort(6, BinaryLogMessageCodec.VERSION);
+        segment.putLong(8, generation);
+        // the connections may have been logged in an overwritten segment. They are written directly in this segment,
+        // as starting another one would write them again
+        synchronized (PerfLoggerRemoting.connectionToInfo) {
+            for (final ConnectionInfo connectionInfo : PerfLoggerRemoting.connectionToInfo.values()) {
+                final byte[] frame;
+                try {
+                    frame = BinaryLogMessageCodec.encode(connectionInfo);
+                } catch (final IOException e) {
+                    LOGGER.error("cannot encode " + connectionInfo, e);
+                    continue;
+                }
+                if (!append(frame, getConnectionsEnd())) {
+                    LOGGER.warn("too many connections for the capture segments, some of them are not written again");
+                    break;
+                }
+            }
+        }
+    }
+
+    private void writeRecord(final int offset, final byte[] frame) {
+        final CRC32 crc = new CRC32();
+        crc.update(frame);
+        final ByteBuffer record = getSegment(generation).duplicate();
+        record.position(offset);
+        record.putInt(frame.length);
+        record.putInt((int) generation);
+        record.putInt((int) crc.getValue());
+        record.put(frame);
+    }
+
+    @Override
+    public void close() throws IOException {
+        done = true;
+        if (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (final MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+        lock.release();
+        lockFile.close();
+    }
+}
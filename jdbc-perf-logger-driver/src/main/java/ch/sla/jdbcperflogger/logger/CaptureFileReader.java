@@ -0,0 +1,146 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger.logger;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import ch.sla.jdbcperflogger.Logger;
+import ch.sla.jdbcperflogger.model.BinaryLogMessageCodec;
+
+/**
+ * Reads the segments written by {@link CaptureFileLogSender}, to convert them into a file holding the logs as the
+ * driver sends them to a console: {@link BinaryLogMessageCodec#MAGIC} and version followed by the frames.
+ * <p>
+ * Usage: <code>java -cp jdbc-perf-logger-driver.jar ch.sla.jdbcperflogger.logger.CaptureFileReader
+ * captureDirectory outputFile</code>
+ */
+public final class CaptureFileReader {
+    private final static Logger LOGGER = Logger.getLogger(CaptureFileReader.class);
+
+    private CaptureFileReader() {
+    }
+
+    public static void main(final String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: " + CaptureFileReader.class.getName() + " captureDirectory outputFile");
+            System.exit(1);
+        }
+        final File outputFile = new File(args[1]);
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(outputFile))) {
+            final long count = convert(new File(args[0]), out);
+            System.out.println(count + " logs written to " + outputFile);
+        }
+    }
+
+    /**
+     * Writes the logs of all the segments of the directory, oldest first.
+     *
+     * @return the number of logs written
+     */
+    public static long convert(final File directory, final OutputStream out) throws IOException {
+        final DataOutputStream dos = new DataOutputStream(out);
+        dos.writeInt(BinaryLogMessageCodec.MAGIC);
+        dos.writeShort(BinaryLogMessageCodec.VERSION);
+        long count = 0;
+        for (final ByteBuffer segment : readSegments(directory)) {
+            for (final byte[] frame : readFrames(segment)) {
+                dos.write(frame);
+                count++;
+            }
+        }
+        dos.flush();
+        return count;
+    }
+
+    /**
+     * @return whether the file is named like the segments of a capture directory
+     */
+    public static boolean isSegmentFile(final File file) {
+        final String name = file.getName();
+        return name.startsWith(CaptureFileLogSender.SEGMENT_FILE_PREFIX)
+                && name.endsWith(CaptureFileLogSender.SEGMENT_FILE_SUFFIX);
+    }
+
+    /**
+     * @return the segments of the directory written in the current version of the binary format, oldest first
+     */
+    public static List<ByteBuffer> readSegments(final File directory) throws IOException {
+        final File[] files = directory.listFiles(CaptureFileReader::isSegmentFile);
+        if (files == null) {
+            throw new IOException("cannot list " + directory);
+        }
+        final List<ByteBuffer> segments = new ArrayList<ByteBuffer>();
+        for (final File file : files) {
+            final ByteBuffer segment;
+            try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+                segment = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+            }
+            if (CaptureFileLogSender.getGeneration(segment) == null) {
+                LOGGER.debug(file + " was never written");
+            } else if (segment.getShort(6) != BinaryLogMessageCodec.VERSION) {
+                LOGGER.warn(file + " was written with version " + segment.getShort(6) + " of the binary format");
+            } else {
+                segments.add(segment);
+            }
+        }
+        Collections.sort(segments, Comparator.comparing(CaptureFileLogSender::getGeneration));
+        return segments;
+    }
+
+    /**
+     * @return the frames of the logs of the segment, including their length
+     */
+    public static List<byte[]> readFrames(final ByteBuffer segment) {
+        final List<byte[]> frames = new ArrayList<byte[]>();
+        final int generation = (int) segment.getLong(8);
+        final CRC32 crc = new CRC32();
+        int offset = CaptureFileLogSender.SEGMENT_HEADER_SIZE;
+        while (offset + CaptureFileLogSender.RECORD_HEADER_SIZE <= segment.capacity()) {
+            final int length = segment.getInt(offset);
+            if (length <= 0 || segment.getInt(offset + 4) != generation
+                    || offset + CaptureFileLogSender.RECORD_HEADER_SIZE + length > segment.capacity()) {
+                // end of the segment, or left by a previous lap of the ring
+                break;
+            }
+            final byte[] frame = new byte[length];
+            final ByteBuffer record = segment.duplicate();
+            record.position(offset + CaptureFileLogSender.RECORD_HEADER_SIZE);
+            record.get(frame);
+            crc.reset();
+            crc.update(frame);
+            if ((int) crc.getValue() == segment.getInt(offset + 8)) {
+                frames.add(frame);
+            } else {
+                LOGGER.warn("skipping a log partially written in segment " + generation);
+            }
+            offset += CaptureFileLogSender.RECORD_HEADER_SIZE + length;
+        }
+        return frames;
+    }
+}
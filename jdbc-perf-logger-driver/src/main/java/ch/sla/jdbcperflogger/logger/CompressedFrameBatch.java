@@ -0,0 +1,87 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger.logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+
+import ch.sla.jdbcperflogger.model.BinaryLogMessageCodec;
+
+/**
+ * Accumulates the frames sent to a console and writes them as compressed batches of at most <code>maxLogs</code>
+ * logs, the first log of a batch waiting at most <code>maxDelayMillis</code> for the next ones.
+ */
+final class CompressedFrameBatch {
+    private final OutputStream out;
+    private final int maxLogs;
+    private final long maxDelayNanos;
+    // speed matters more than ratio, the SQL compresses well anyway
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final ExposedByteArrayOutputStream frames = new ExposedByteArrayOutputStream(16 * 1024);
+    private int logCount;
+    private long deadlineNanos;
+
+    CompressedFrameBatch(final OutputStream out, final int maxLogs, final long maxDelayMillis) {
+        this.out = out;
+        this.maxLogs = maxLogs;
+        maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+    }
+
+    /**
+     * @return the stream where the frames of the batch are written
+     */
+    OutputStream getFramesOutputStream() {
+        return frames;
+    }
+
+    /**
+     * To be called after writing the frames of a log, sends the batch if it is full.
+     */
+    void logWritten() throws IOException {
+        if (logCount++ == 0) {
+            deadlineNanos = System.nanoTime() + maxDelayNanos;
+        }
+        if (logCount >= maxLogs) {
+            flush();
+        }
+    }
+
+    boolean isEmpty() {
+        return frames.size() == 0;
+    }
+
+    /**
+     * @return the time before the batch must be sent
+     */
+    long getRemainingNanos() {
+        return Math.max(0, deadlineNanos - System.nanoTime());
+    }
+
+    void flush() throws IOException {
+        if (isEmpty()) {
+            return;
+        }
+        out.write(BinaryLogMessageCodec.compressBatch(frames.getBuffer(), frames.size(), deflater));
+        frames.reset();
+        logCount = 0;
+    }
+
+    void close() {
+        deflater.end();
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger.logger;
+
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import ch.sla.jdbcperflogger.ConsoleLinkCompression;
+import ch.sla.jdbcperflogger.Logger;
+import ch.sla.jdbcperflogger.model.BinaryLogMessageCodec;
+import ch.sla.jdbcperflogger.model.ConnectionInfo;
+import ch.sla.jdbcperflogger.model.EncodedLogMessage;
+import ch.sla.jdbcperflogger.model.LostMessagesLog;
+
+/**
+ * Writes the logs sent to a console to a stream, in the {@link WireFormat} the console understands. Used both by the
+ * threads sending to a single console and by the selector thread of the local server.
+ */
+final class ConsoleLogWriter implements Closeable {
+    private final static Logger LOGGER = Logger.getLogger(ConsoleLogWriter.class);
+
+    private final WireFormat format;
+    private final DataOutputStream os;
+    private final BinaryLogMessageCodec.FrameWriter frameWriter = new BinaryLogMessageCodec.FrameWriter();
+    @Nullable
+    private final CompressedFrameBatch batch;
+
+    ConsoleLogWriter(final OutputStream rawOut, final WireFormat format, final ConsoleLinkCompression compression,
+            final int batchSize, final long batchDelayMillis) throws IOException {
+        this.format = format;
+        os = new DataOutputStream(new CountingOutputStream(rawOut));
+        os.writeInt(BinaryLogMessageCodec.MAGIC);
+        os.writeShort(BinaryLogMessageCodec.VERSION);
+        batch = compression == ConsoleLinkCompression.DEFLATE
+                ? new CompressedFrameBatch(os, batchSize, batchDelayMillis)
+                : null;
+    }
+
+    WireFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * Writes the information of all the current connections, to be done before the first log.
+     */
+    void writeConnectionInfos() throws IOException {
+        synchronized (PerfLoggerRemoting.connectionToInfo) {
+            for (final ConnectionInfo connectionInfo : PerfLoggerRemoting.connectionToInfo.values()) {
+                writeLog(format.encode(connectionInfo));
+            }
+        }
+    }
+
+    /**
+     * Tells the console if logs were lost for the given consumer since the last call.
+     */
+    void reportLostLogs(final LogRingBuffer.Consumer logsToSend) throws IOException {
+        final LostMessagesLog lostMessagesLog = logsToSend.drainLost();
+        if (lostMessagesLog != null) {
+            LOGGER.warn("queue full, dropped " + lostMessagesLog.getTotalLostCount() + " remote logs");
+            writeLog(format.encode(lostMessagesLog));
+        }
+    }
+
+    void writeLog(final EncodedLogMessage log) throws IOException {
+        final CompressedFrameBatch batch2 = batch;
+        if (batch2 != null) {
+            frameWriter.write(log, batch2.getFramesOutputStream());
+            batch2.logWritten();
+        } else {
+            frameWriter.write(log, os);
+        }
+    }
+
+    void writeKeepAlive() throws IOException {
+        os.write(BinaryLogMessageCodec.encode(null));
+    }
+
+    /**
+     * @return <code>true</code> if logs are waiting in a compressed batch
+     */
+    boolean hasPendingBatch() {
+        final CompressedFrameBatch batch2 = batch;
+        return batch2 != null && !batch2.isEmpty();
+    }
+
+    /**
+     * @return the time before the pending batch must be sent
+     */
+    long getBatchRemainingNanos() {
+        final CompressedFrameBatch batch2 = batch;
+        return batch2 != null ? batch2.getRemainingNanos() : 0;
+    }
+
+    void flushBatch() throws IOException {
+        final CompressedFrameBatch batch2 = batch;
+        if (batch2 != null) {
+            batch2.flush();
+        }
+    }
+
+    /**
+     * Flushes the underlying stream, but not the pending batch.
+     */
+    void flush() throws IOException {
+        os.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        final CompressedFrameBatch batch2 = batch;
+        if (batch2 != null) {
+            batch2.close();
+        }
+        os.close();
+    }
+
+    /**
+     * Counts the bytes sent to the console in the telemetry.
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+        CountingOutputStream(final OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            out.write(b);
+            PipelineTelemetry.INSTANCE.bytesSent(1);
+        }
+
+        @Override
+        public void write(final byte @Nullable [] b, final int off, final int len) throws IOException {
+            out.write(b, off, len);
+            PipelineTelemetry.INSTANCE.bytesSent(len);
+        }
+    }
+}
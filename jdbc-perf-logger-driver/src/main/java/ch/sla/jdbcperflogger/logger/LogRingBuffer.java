@@ -0,0 +1,482 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger.logger;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import ch.sla.jdbcperflogger.model.EncodedLogMessage;
+import ch.sla.jdbcperflogger.model.LogMessage;
+import ch.sla.jdbcperflogger.model.LostMessagesLog;
+import ch.sla.jdbcperflogger.model.LostMessagesLog.MessageType;
+
+/**
+ * Bounded and preallocated ring of logs, written by the application threads and read by each connected console
+ * through its own {@link Consumer}.
+ * <p>
+ * With {@link #publish(LogMessage)}, a producer claims the next sequence with a single atomic increment and never
+ * waits for the consumers: a consumer too slow to keep up is overrun and counts the logs it missed. With
+ * {@link #tryPublish(LogMessage, long)}, a producer only claims a sequence if the slowest consumer has room for it.
+ * Each slot holds the sequence of its log, set to a
+ * "being written" marker while a producer writes it, so that a consumer can detect that a slot was overwritten while
+ * it was reading it.
+ * <p>
+ * The encoded forms of each log are kept next to it, so that it is encoded only once per {@link WireFormat} for all
+ * the consumers. The types of the logs are kept for {@value #TYPE_HISTORY_FACTOR} laps of the ring, so that an
+ * overrun consumer can tell which types of logs it missed.
+ * <p>
+ * Once all the consumers have read a log, its slot is released, so that the ring does not keep large logs alive after
+ * a burst until the slot is written again.
+ */
+final class LogRingBuffer {
+    private static final long PARK_MIN_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long PARK_MAX_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long BLOCKED_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+    private static final WireFormat[] WIRE_FORMATS = WireFormat.values();
+    private static final MessageType[] MESSAGE_TYPES = MessageType.values();
+    // enough for the ordinals of MessageType
+    private static final int TYPE_BITS = 3;
+    private static final int TYPE_HISTORY_FACTOR = 4;
+    // a consumer releases the slots read by all the consumers each time it has read this number of logs
+    private static final int RELEASE_INTERVAL = 64;
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<LogMessage> entries;
+    // sequence of the log held by each slot, or writingMarker(sequence) while a producer writes it
+    private final AtomicLongArray publishedSequences;
+    // encoded forms of the logs (one per wire format for each slot), computed by the first consumer reading them
+    private final AtomicReferenceArray<EncodedLog> encodedEntries;
+    // (sequence << TYPE_BITS | type ordinal) of the recent logs
+    private final AtomicLongArray typeHistory;
+    private final int typeHistoryMask;
+    // next sequence to be claimed by a producer
+    private final AtomicLong claimSequence = new AtomicLong();
+    // the slots of the sequences below are released
+    private final AtomicLong releasedSequence = new AtomicLong();
+    private final Set<Consumer> consumers = new CopyOnWriteArraySet<Consumer>();
+    // cheaper to read than consumers.isEmpty() on each JDBC call
+    private volatile boolean hasConsumers;
+
+    LogRingBuffer(final int minCapacity) {
+        capacity = Integer.highestOneBit(Math.max(2, minCapacity - 1)) << 1;
+        mask = capacity - 1;
+        entries = new AtomicReferenceArray<LogMessage>(capacity);
+        publishedSequences = new AtomicLongArray(capacity);
+        encodedEntries = new AtomicReferenceArray<EncodedLog>(capacity * WIRE_FORMATS.length);
+        typeHistory = new AtomicLongArray(capacity * TYPE_HISTORY_FACTOR);
+        typeHistoryMask = capacity * TYPE_HISTORY_FACTOR - 1;
+        for (int i = 0; i < capacity * TYPE_HISTORY_FACTOR; i++) {
+            typeHistory.set(i, -1);
+        }
+        for (int i = 0; i < capacity; i++) {
+            // sequence i is not published yet
+            publishedSequences.set(i, i - capacity);
+        }
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    boolean hasConsumers() {
+        return hasConsumers;
+    }
+
+    /**
+     * @param name
+     *            the name of the consumer in the telemetry, usually the address of its console
+     * @return a consumer receiving the logs published from now on
+     */
+    synchronized Consumer newConsumer(final String name) {
+        final Consumer consumer = new Consumer(name, claimSequence.get());
+        consumers.add(consumer);
+        hasConsumers = true;
+        return consumer;
+    }
+
+    synchronized void removeConsumer(final Consumer consumer) {
+        consumers.remove(consumer);
+        hasConsumers = !consumers.isEmpty();
+        release();
+    }
+
+    /**
+     * @return the highest ratio (between 0 and 1) of the ring waiting to be read by a consumer
+     */
+    double getMaxFillRatio() {
+        double maxFillRatio = 0;
+        for (final Consumer consumer : consumers) {
+            maxFillRatio = Math.max(maxFillRatio, consumer.getFillRatio());
+        }
+        return maxFillRatio;
+    }
+
+    /**
+     * @return the number of logs waiting to be read, by name of consumer
+     */
+    Map<String, Long> getQueueDepths() {
+        final Map<String, Long> queueDepths = new LinkedHashMap<String, Long>();
+        for (final Consumer consumer : consumers) {
+            queueDepths.put(consumer.name, consumer.getQueueDepth());
+        }
+        return queueDepths;
+    }
+
+    /**
+     * @return the highest number of logs waiting to be read by a consumer
+     */
+    long getMaxQueueDepth() {
+        long maxQueueDepth = 0;
+        for (final Consumer consumer : consumers) {
+            maxQueueDepth = Math.max(maxQueueDepth, consumer.getQueueDepth());
+        }
+        return maxQueueDepth;
+    }
+
+    /**
+     * Publishes the log, overwriting the oldest log of the ring even if some consumers have not read it yet.
+     */
+    void publish(final LogMessage log) {
+        write(claimSequence.getAndIncrement(), log);
+    }
+
+    /**
+     * Publishes the log only if all the consumers have room for it, waiting at most the given time for the slowest
+     * consumer to make room.
+     *
+     * @return <code>false</code> if the log was not published, in which case it should be counted with
+     *         {@link #countLost(LogMessage)}
+     */
+    boolean tryPublish(final LogMessage log, final long maxWaitNanos) {
+        long deadline = 0;
+        while (true) {
+            final long sequence = claimSequence.get();
+            if (sequence - getSlowestConsumerSequence(sequence) < capacity) {
+                if (claimSequence.compareAndSet(sequence, sequence + 1)) {
+                    write(sequence, log);
+                    return true;
+                }
+                continue;
+            }
+            if (maxWaitNanos <= 0) {
+                return false;
+            }
+            if (deadline == 0) {
+                deadline = System.nanoTime() + maxWaitNanos;
+            } else if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            LockSupport.parkNanos(this, BLOCKED_PARK_NANOS);
+        }
+    }
+
+    /**
+     * Counts the log as lost by all the current consumers.
+     */
+    void countLost(final LogMessage log) {
+        final MessageType type = MessageType.of(log);
+        for (final Consumer consumer : consumers) {
+            consumer.countLost(type, 1);
+        }
+    }
+
+    private long getSlowestConsumerSequence(final long claimedSequence) {
+        long slowest = claimedSequence;
+        for (final Consumer consumer : consumers) {
+            slowest = Math.min(slowest, consumer.nextSequence);
+        }
+        return slowest;
+    }
+
+    private void write(final long sequence, final LogMessage log) {
+        typeHistory.set((int) sequence & typeHistoryMask, sequence << TYPE_BITS | MessageType.of(log).ordinal());
+        final int index = (int) sequence & mask;
+        final long marker = writingMarker(sequence);
+        while (true) {
+            final long current = publishedSequences.get(index);
+            final long currentSequence = current < -capacity ? writingMarkerSequence(current) : current;
+            if (currentSequence >= sequence) {
+                // a producer of the next lap was faster, the consumers will count this log as missed
+                return;
+            }
+            if (current < -capacity) {
+                // a producer of the previous lap has not finished writing this slot yet, which needs a whole ring of
+                // concurrent posts
+                Thread.yield();
+                continue;
+            }
+            if (publishedSequences.compareAndSet(index, current, marker)) {
+                break;
+            }
+        }
+        entries.set(index, log);
+        publishedSequences.set(index, sequence);
+    }
+
+    /**
+     * Releases the slots of the logs read by all the consumers. The last log read is kept, as a consumer may still be
+     * encoding it.
+     */
+    private void release() {
+        final long limit = getSlowestConsumerSequence(claimSequence.get()) - 1;
+        while (true) {
+            final long from = releasedSequence.get();
+            if (from >= limit) {
+                return;
+            }
+            if (releasedSequence.compareAndSet(from, limit)) {
+                // the older slots were overwritten since
+                for (long sequence = Math.max(from, limit - capacity); sequence < limit; sequence++) {
+                    releaseSlot(sequence);
+                }
+                return;
+            }
+        }
+    }
+
+    private void releaseSlot(final long sequence) {
+        final int index = (int) sequence & mask;
+        // marked as being written, so that a producer of the next lap waits for the slot to be released
+        if (publishedSequences.compareAndSet(index, sequence, writingMarker(sequence))) {
+            entries.set(index, null);
+            publishedSequences.set(index, sequence);
+        }
+        for (int i = 0; i < WIRE_FORMATS.length; i++) {
+            final int encodedIndex = index * WIRE_FORMATS.length + i;
+            final EncodedLog encodedLog = encodedEntries.get(encodedIndex);
+            if (encodedLog != null && encodedLog.sequence == sequence) {
+                encodedEntries.compareAndSet(encodedIndex, encodedLog, null);
+            }
+        }
+    }
+
+    // visible for testing
+    boolean isReleased(final long sequence) {
+        final int index = (int) sequence & mask;
+        for (int i = 0; i < WIRE_FORMATS.length; i++) {
+            final EncodedLog encodedLog = encodedEntries.get(index * WIRE_FORMATS.length + i);
+            if (encodedLog != null && encodedLog.sequence == sequence) {
+                return false;
+            }
+        }
+        return publishedSequences.get(index) != sequence || entries.get(index) == null;
+    }
+
+    private EncodedLogMessage getEncoded(final long sequence, final LogMessage log, final WireFormat format)
+            throws IOException {
+        final int index = ((int) sequence & mask) * WIRE_FORMATS.length + format.ordinal();
+        final EncodedLog encodedLog = encodedEntries.get(index);
+        if (encodedLog != null && encodedLog.sequence == sequence) {
+            return encodedLog.log;
+        }
+        // several consumers may encode the same log concurrently, which is only wasted work
+        final long startNanos = System.nanoTime();
+        final EncodedLogMessage encoded = format.encode(log);
+        PipelineTelemetry.INSTANCE.logEncoded(System.nanoTime() - startNanos);
+        encodedEntries.set(index, new EncodedLog(sequence, encoded));
+        return encoded;
+    }
+
+    // markers are below -capacity so that they are not confused with the initial values of the slots
+    private long writingMarker(final long sequence) {
+        return -capacity - 1 - sequence;
+    }
+
+    private long writingMarkerSequence(final long marker) {
+        return -capacity - 1 - marker;
+    }
+
+    /**
+     * Reads the logs of the ring in order. A consumer must only be used by a single thread.
+     */
+    final class Consumer {
+        private final String name;
+        // only written by the consumer thread, volatile for getFillRatio()
+        private volatile long nextSequence;
+        private long missedCount;
+        // lost logs by type, counted by the producers too
+        private final AtomicLongArray lostCounts = new AtomicLongArray(MESSAGE_TYPES.length);
+        // 0 when no log was lost since the last drainLost()
+        private final AtomicLong firstLostTimestamp = new AtomicLong();
+
+        private Consumer(final String name, final long nextSequence) {
+            this.name = name;
+            this.nextSequence = nextSequence;
+        }
+
+        /**
+         * @return the next log, or <code>null</code> if none was published before the timeout
+         */
+        @Nullable
+        LogMessage poll(final long timeout, final TimeUnit unit) throws InterruptedException {
+            final long deadline = System.nanoTime() + unit.toNanos(timeout);
+            long parkNanos = PARK_MIN_NANOS;
+            while (true) {
+                final LogMessage log = poll();
+                if (log != null) {
+                    return log;
+                }
+                final long remainingNanos = deadline - System.nanoTime();
+                if (remainingNanos <= 0) {
+                    return null;
+                }
+                // the producers do not signal the consumers, so that they never take a lock
+                LockSupport.parkNanos(this, Math.min(parkNanos, remainingNanos));
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                parkNanos = Math.min(parkNanos * 2, PARK_MAX_NANOS);
+            }
+        }
+
+        /**
+         * @return the encoded form of the next log, or <code>null</code> if none was published before the timeout
+         */
+        @Nullable
+        EncodedLogMessage pollEncoded(final long timeout, final TimeUnit unit, final WireFormat format)
+                throws InterruptedException, IOException {
+            final LogMessage log = poll(timeout, unit);
+            if (log == null) {
+                return null;
+            }
+            return getEncoded(nextSequence - 1, log, format);
+        }
+
+        /**
+         * @return the next log, or <code>null</code> if none is published yet
+         */
+        @Nullable
+        LogMessage poll() {
+            while (true) {
+                final int index = (int) nextSequence & mask;
+                final long published = publishedSequences.get(index);
+                if (published == nextSequence) {
+                    final LogMessage log = entries.get(index);
+                    if (publishedSequences.get(index) == nextSequence) {
+                        nextSequence++;
+                        if ((nextSequence & (RELEASE_INTERVAL - 1)) == 0) {
+                            release();
+                        }
+                        return log;
+                    }
+                    // overwritten while reading it
+                    continue;
+                }
+                final long publishedSequence = published < -capacity ? writingMarkerSequence(published) : published;
+                if (publishedSequence > nextSequence) {
+                    // overrun by the producers, skip to the oldest log that may still be in the ring
+                    final long oldestSequence = Math.max(nextSequence + 1, claimSequence.get() - capacity);
+                    missedCount += oldestSequence - nextSequence;
+                    countMissed(nextSequence, oldestSequence);
+                    nextSequence = oldestSequence;
+                    continue;
+                }
+                // not published yet, the consumer caught up
+                release();
+                return null;
+            }
+        }
+
+        private void countMissed(final long fromSequence, final long toSequence) {
+            final long[] counts = new long[MESSAGE_TYPES.length];
+            for (long sequence = fromSequence; sequence < toSequence; sequence++) {
+                final long typedSequence = typeHistory.get((int) sequence & typeHistoryMask);
+                if (typedSequence >> TYPE_BITS == sequence) {
+                    counts[(int) typedSequence & ((1 << TYPE_BITS) - 1)]++;
+                } else {
+                    // overrun by more than the type history
+                    counts[MessageType.OTHER.ordinal()]++;
+                }
+            }
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] != 0) {
+                    countLost(MESSAGE_TYPES[i], counts[i]);
+                }
+            }
+        }
+
+        void countLost(final MessageType type, final long count) {
+            lostCounts.addAndGet(type.ordinal(), count);
+            PipelineTelemetry.INSTANCE.logsDropped(count);
+            firstLostTimestamp.compareAndSet(0, System.currentTimeMillis());
+        }
+
+        /**
+         * @return the logs lost since the previous call, or <code>null</code> if none was lost
+         */
+        @Nullable
+        LostMessagesLog drainLost() {
+            final long startTimestamp = firstLostTimestamp.getAndSet(0);
+            if (startTimestamp == 0) {
+                return null;
+            }
+            final long[] counts = new long[MESSAGE_TYPES.length];
+            long total = 0;
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = lostCounts.getAndSet(i, 0);
+                total += counts[i];
+            }
+            if (total == 0) {
+                // already drained with the previous window
+                return null;
+            }
+            return new LostMessagesLog(startTimestamp, System.currentTimeMillis(), counts);
+        }
+
+        /**
+         * @return the number of logs this consumer missed because it was overrun by the producers
+         */
+        long getMissedCount() {
+            return missedCount;
+        }
+
+        /**
+         * @return the ratio (between 0 and 1) of the ring waiting to be read by this consumer
+         */
+        double getFillRatio() {
+            return getQueueDepth() / (double) capacity;
+        }
+
+        /**
+         * @return the number of logs waiting to be read by this consumer
+         */
+        long getQueueDepth() {
+            final long pending = claimSequence.get() - nextSequence;
+            return Math.min(capacity, Math.max(0, pending));
+        }
+    }
+
+    private static final class EncodedLog {
+        final long sequence;
+        final EncodedLogMessage log;
+
+        EncodedLog(final long sequence, final EncodedLogMessage log) {
+            this.sequence = sequence;
+            this.log = log;
+        }
+    }
+}
@@ -1,9 +1,23 @@
 package ch.sla.jdbcperflogger.logger;
 
 import ch.sla.jdbcperflogger.model.LogMessage;
+import ch.sla.jdbcperflogger.model.TelemetryLog;
 
 public interface LogSender {
 
     void postLog(LogMessage log);
 
+    /**
+     * @return the fill ratio (between 0 and 1) of the queue of logs waiting to be sent
+     */
+    double getQueueFillRatio();
+
+    /**
+     * @return whether the sender also receives the {@link TelemetryLog}s of the logging pipeline, which are meant for
+     *         the consoles
+     */
+    default boolean isTelemetryReceiver() {
+        return false;
+    }
+
 }
\ No newline at end of file
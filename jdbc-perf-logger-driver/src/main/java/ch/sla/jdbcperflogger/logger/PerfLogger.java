@@ -16,8 +16,6 @@
 package ch.sla.jdbcperflogger.logger;
 
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
-import static java.util.regex.Pattern.DOTALL;
-import static java.util.regex.Pattern.MULTILINE;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
@@ -25,27 +23,33 @@ import java.lang.reflect.Field;
 import java.sql.Timestamp;
 import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 import java.util.concurrent.TimeUnit;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.eclipse.jdt.annotation.Nullable;
 
 import ch.sla.jdbcperflogger.DatabaseType;
+import ch.sla.jdbcperflogger.DriverConfig;
+import ch.sla.jdbcperflogger.FilledSqlRendering;
 import ch.sla.jdbcperflogger.Logger;
+import ch.sla.jdbcperflogger.StatementLogMode;
 import ch.sla.jdbcperflogger.StatementType;
 import ch.sla.jdbcperflogger.TxCompletionType;
+import ch.sla.jdbcperflogger.model.AbstractBeforeStatementExecutionLog;
 import ch.sla.jdbcperflogger.model.BatchedNonPreparedStatementsLog;
 import ch.sla.jdbcperflogger.model.BatchedPreparedStatementsLog;
+import ch.sla.jdbcperflogger.model.LogMessage;
 import ch.sla.jdbcperflogger.model.PreparedStatementValuesHolder;
 import ch.sla.jdbcperflogger.model.ResultSetLog;
+import ch.sla.jdbcperflogger.model.SampledOutStatementsLog;
 import ch.sla.jdbcperflogger.model.SqlTypedValue;
+import ch.sla.jdbcperflogger.model.StatementCompletedLog;
 import ch.sla.jdbcperflogger.model.StatementExecutedLog;
 import ch.sla.jdbcperflogger.model.StatementLog;
+import ch.sla.jdbcperflogger.model.StatementStatsLog;
 import ch.sla.jdbcperflogger.model.TxCompleteLog;
 
 public class PerfLogger {
@@ -57,7 +61,8 @@ public class PerfLogger {
     private final static Logger LOGGER_BATCHED_STATEMENTS_DETAIL = Logger
             .getLogger(PerfLogger.class.getName() + ".batchedStatementDetail");
 
-    private final static Pattern PSTMT_PARAMETER_PATTERN = Pattern.compile("(?:'(?:''|[^'])*')|(?:--[^\\r\\n]*$)|(?:\\/\\*(?:[^\\*]|\\*(?!\\/))*\\*\\/)|(\\?)", MULTILINE | DOTALL);
+    private static final StatementSampler SAMPLER = new StatementSampler(DriverConfig.INSTANCE);
+    private static final StatementStatsAggregator STATS_AGGREGATOR = new StatementStatsAggregator();
 
     private static Map<Integer, String> typesMap;
 
@@ -75,65 +80,192 @@ public class PerfLogger {
 
     }
 
-    public static void logBeforeStatement(final UUID connectionId, final UUID logId, final String sql,
-            final StatementType statementType, final int timeout, final boolean autoCommit, final int transactionIsolation) {
-        if (LOGGER_ORIGINAL_SQL.isDebugEnabled()) {
-            LOGGER_ORIGINAL_SQL.debug("Before execution of non-prepared stmt " + logId + ": " + sql);
-        }
-        final long now = System.currentTimeMillis();
-        PerfLoggerRemoting.postLog(new StatementLog(connectionId, logId, now, statementType, sql,
-                Thread.currentThread().getName(), timeout, autoCommit, transactionIsolation));
+    /**
+     * Tells whether the JDBC calls must be captured, i.e. if a console is connected or if one of the debug loggers is
+     * enabled. When not, the wrappers only delegate to the underlying driver.
+     */
+    public static boolean isEnabled() {
+        return PerfLoggerRemoting.hasSenders() || LOGGER_ORIGINAL_SQL.isDebugEnabled()
+                || LOGGER_FILLED_SQL.isDebugEnabled() || LOGGER_EXECUTED.isDebugEnabled()
+                || LOGGER_CLOSED_RESULTSET.isDebugEnabled() || LOGGER_BATCHED_STATEMENTS_DETAIL.isDebugEnabled();
+    }
+
+    /**
+     * Tells whether the next statement must be logged according to the configured sampling. When not, its execution
+     * must only be reported through {@link #logStatementSampledOut(long)}.
+     */
+    public static boolean sampleNextStatement() {
+        return aggregatesStatements() || SAMPLER.sampleNext();
+    }
+
+    public static void logStatementSampledOut(final long durationNanos) {
+        SAMPLER.sampledOut(durationNanos);
     }
 
-    public static void logBeforePreparedStatement(final UUID connectionId, final UUID logId, final String rawSql,
-            final PreparedStatementValuesHolder pstmtValues, final StatementType statementType,
-            final DatabaseType databaseType, final int timeout, final boolean autoCommit, final int transactionIsolation) {
-        if (LOGGER_ORIGINAL_SQL.isDebugEnabled()) {
-            LOGGER_ORIGINAL_SQL.debug("Before execution of prepared stmt " + logId + ": " + rawSql);
+    static void postSampledOutStatements() {
+        final SampledOutStatementsLog log = SAMPLER.drainSampledOut();
+        if (log != null) {
+            PerfLoggerRemoting.postLog(log);
         }
-        final String filledSql = fillParameters(rawSql, pstmtValues, databaseType);
-        if (LOGGER_FILLED_SQL.isDebugEnabled()) {
-            LOGGER_FILLED_SQL.debug("Before execution of prepared stmt " + logId + ": " + filledSql);
+    }
+
+    static void postStatementStats() {
+        final StatementStatsLog log = STATS_AGGREGATOR.drain();
+        if (log != null) {
+            PerfLoggerRemoting.postLog(log);
         }
-        final long now = System.currentTimeMillis();
-        PerfLoggerRemoting.postLog(new StatementLog(connectionId, logId, now, statementType, rawSql, filledSql,
-                Thread.currentThread().getName(), timeout, autoCommit, transactionIsolation));
     }
 
-    public static void logNonPreparedBatchedStatements(final UUID connectionId, final UUID logId,
-            final List<String> batchedExecutions, final DatabaseType databaseType, final int timeout,
-            final boolean autoCommit, final int transactionIsolation) {
+    private static boolean aggregatesStatements() {
+        return DriverConfig.INSTANCE.getStatementLogMode() == StatementLogMode.AGGREGATED;
+    }
+
+    private static boolean holdsBeforeLogs() {
+        return SAMPLER.holdsBeforeLogs() || DriverConfig.INSTANCE.getStatementLogMode() != StatementLogMode.SEPARATE;
+    }
 
-        final long now = System.currentTimeMillis();
-        if (LOGGER_ORIGINAL_SQL.isDebugEnabled()) {
-            LOGGER_ORIGINAL_SQL
-                    .debug("Before execution of " + batchedExecutions.size() + " batched non-prepared statements");
+    /**
+     * Sends the log unless the sampling requires to wait for the execution time of the statement, or unless it is to
+     * be sent with the rest of the execution.
+     *
+     * @return the log held back, to be given to <code>logStatementExecuted</code>
+     */
+    @Nullable
+    private static AbstractBeforeStatementExecutionLog postOrHoldBeforeLog(
+            final AbstractBeforeStatementExecutionLog log) {
+        if (holdsBeforeLogs()) {
+            return log;
         }
-        for (int i = 0; i < batchedExecutions.size(); i++) {
-            final String sql = batchedExecutions.get(i);
-            if (LOGGER_BATCHED_STATEMENTS_DETAIL.isDebugEnabled()) {
-                LOGGER_BATCHED_STATEMENTS_DETAIL.debug("#" + i + ": " + sql);
+        PerfLoggerRemoting.postLog(log);
+        return null;
+    }
+
+    @Nullable
+    public static AbstractBeforeStatementExecutionLog logBeforeStatement(final long connectionId,
+            final long logId, final String sql,
+            final StatementType statementType, final int timeout, final boolean autoCommit, final int transactionIsolation) {
+        final long startNanos = System.nanoTime();
+        try {
+            if (LOGGER_ORIGINAL_SQL.isDebugEnabled()) {
+                LOGGER_ORIGINAL_SQL.debug("Before execution of non-prepared stmt " + logId + ": " + sql);
             }
+            final long now = System.currentTimeMillis();
+            return postOrHoldBeforeLog(new StatementLog(connectionId, logId, now, statementType, sql,
+                    Thread.currentThread().getName(), timeout, autoCommit, transactionIsolation));
+        } finally {
+            PipelineTelemetry.INSTANCE.loggerCalled(startNanos);
         }
-        PerfLoggerRemoting.postLog(new BatchedNonPreparedStatementsLog(connectionId, logId, now, batchedExecutions,
-                Thread.currentThread().getName(), timeout, autoCommit, transactionIsolation));
     }
 
-    public static void logPreparedBatchedStatements(final UUID connectionId, final UUID logId, final String rawSql,
-            final List<Object> batchedExecutions, final DatabaseType databaseType, final int timeout,
+    @Nullable
+    public static AbstractBeforeStatementExecutionLog logBeforePreparedStatement(final long connectionId,
+            final long logId, final String rawSql,
+            final SqlPlaceholderIndex placeholderIndex, final PreparedStatementValuesHolder pstmtValues,
+            final StatementType statementType, final DatabaseType databaseType, final int timeout,
             final boolean autoCommit, final int transactionIsolation) {
-        final long now = System.currentTimeMillis();
-        if (LOGGER_ORIGINAL_SQL.isDebugEnabled()) {
-            LOGGER_ORIGINAL_SQL.debug("Before execution of " + batchedExecutions.size()
-                    + " batched prepared statements with raw sql " + rawSql);
+        final long startNanos = System.nanoTime();
+        try {
+            if (LOGGER_ORIGINAL_SQL.isDebugEnabled()) {
+                LOGGER_ORIGINAL_SQL.debug("Before execution of prepared stmt " + logId + ": " + rawSql);
+            }
+            final long now = System.currentTimeMillis();
+            final StatementLog log;
+            if (aggregatesStatements() && !LOGGER_FILLED_SQL.isDebugEnabled()) {
+                // only the raw SQL is used by the statistics
+                log = new StatementLog(connectionId, logId, now, statementType, rawSql, rawSql,
+                        Thread.currentThread().getName(), timeout, autoCommit, transactionIsolation,
+                        placeholderIndex.getFingerprintHash());
+            } else if ((DriverConfig.INSTANCE.getFilledSqlRendering() == FilledSqlRendering.DEFERRED
+                    || holdsBeforeLogs()) && !LOGGER_FILLED_SQL.isDebugEnabled()) {
+                final PreparedStatementValuesHolder pstmtValuesSnapshot = pstmtValues.copy();
+                log = new StatementLog(connectionId, logId, now, statementType, rawSql,
+                        () -> fillParameters(placeholderIndex, pstmtValuesSnapshot, databaseType),
+                        Thread.currentThread().getName(), timeout, autoCommit, transactionIsolation,
+                        placeholderIndex.getFingerprintHash());
+            } else {
+                final String filledSql = fillParameters(placeholderIndex, pstmtValues, databaseType);
+                if (LOGGER_FILLED_SQL.isDebugEnabled()) {
+                    LOGGER_FILLED_SQL.debug("Before execution of prepared stmt " + logId + ": " + filledSql);
+                }
+                log = new StatementLog(connectionId, logId, now, statementType, rawSql, filledSql,
+                        Thread.currentThread().getName(), timeout, autoCommit, transactionIsolation,
+                        placeholderIndex.getFingerprintHash());
+            }
+            return postOrHoldBeforeLog(log);
+        } finally {
+            PipelineTelemetry.INSTANCE.loggerCalled(startNanos);
+        }
+    }
+
+    @Nullable
+    public static AbstractBeforeStatementExecutionLog logNonPreparedBatchedStatements(final long connectionId,
+            final long logId,
+            final List<String> batchedExecutions, final DatabaseType databaseType, final int timeout,
+            final boolean autoCommit, final int transactionIsolation) {
+        final long startNanos = System.nanoTime();
+        try {
+            final long now = System.currentTimeMillis();
+            if (LOGGER_ORIGINAL_SQL.isDebugEnabled()) {
+                LOGGER_ORIGINAL_SQL
+                        .debug("Before execution of " + batchedExecutions.size() + " batched non-prepared statements");
+            }
+            for (int i = 0; i < batchedExecutions.size(); i++) {
+                final String sql = batchedExecutions.get(i);
+                if (LOGGER_BATCHED_STATEMENTS_DETAIL.isDebugEnabled()) {
+                    LOGGER_BATCHED_STATEMENTS_DETAIL.debug("#" + i + ": " + sql);
+                }
+            }
+            return postOrHoldBeforeLog(new BatchedNonPreparedStatementsLog(connectionId, logId, now, batchedExecutions,
+                    Thread.currentThread().getName(), timeout, autoCommit, transactionIsolation));
+        } finally {
+            PipelineTelemetry.INSTANCE.loggerCalled(startNanos);
+        }
+    }
+
+    @Nullable
+    public static AbstractBeforeStatementExecutionLog logPreparedBatchedStatements(final long connectionId,
+            final long logId, final String rawSql,
+            final SqlPlaceholderIndex placeholderIndex, final List<Object> batchedExecutions,
+            final DatabaseType databaseType, final int timeout, final boolean autoCommit,
+            final int transactionIsolation) {
+        final long startNanos = System.nanoTime();
+        try {
+            final long now = System.currentTimeMillis();
+            if (LOGGER_ORIGINAL_SQL.isDebugEnabled()) {
+                LOGGER_ORIGINAL_SQL.debug("Before execution of " + batchedExecutions.size()
+                        + " batched prepared statements with raw sql " + rawSql);
+            }
+            if (aggregatesStatements() && !LOGGER_BATCHED_STATEMENTS_DETAIL.isDebugEnabled()) {
+                // only the raw SQL is used by the statistics
+                return postOrHoldBeforeLog(new BatchedPreparedStatementsLog(connectionId, logId, now, rawSql,
+                        Collections.<String> emptyList(), Thread.currentThread().getName(), timeout, autoCommit,
+                        transactionIsolation));
+            } else if ((DriverConfig.INSTANCE.getFilledSqlRendering() == FilledSqlRendering.DEFERRED
+                    || holdsBeforeLogs()) && !LOGGER_BATCHED_STATEMENTS_DETAIL.isDebugEnabled()) {
+                // the list of executions is cleared once the batch is executed, its elements are already snapshots
+                final List<Object> batchedExecutionsSnapshot = new ArrayList<Object>(batchedExecutions);
+                return postOrHoldBeforeLog(new BatchedPreparedStatementsLog(connectionId, logId, now, rawSql,
+                        () -> fillBatchedParameters(placeholderIndex, batchedExecutionsSnapshot, databaseType),
+                        Thread.currentThread().getName(), timeout, autoCommit, transactionIsolation));
+            } else {
+                return postOrHoldBeforeLog(new BatchedPreparedStatementsLog(connectionId, logId, now, rawSql,
+                        fillBatchedParameters(placeholderIndex, batchedExecutions, databaseType),
+                        Thread.currentThread().getName(), timeout, autoCommit, transactionIsolation));
+            }
+        } finally {
+            PipelineTelemetry.INSTANCE.loggerCalled(startNanos);
         }
+    }
+
+    private static List<String> fillBatchedParameters(final SqlPlaceholderIndex placeholderIndex,
+            final List<Object> batchedExecutions, final DatabaseType databaseType) {
         final List<String> filledSqlList = new ArrayList<String>(batchedExecutions.size());
 
         for (int i = 0; i < batchedExecutions.size(); i++) {
             final Object exec = batchedExecutions.get(i);
             final String filledSql;
             if (exec instanceof PreparedStatementValuesHolder) {
-                filledSql = fillParameters(rawSql, (PreparedStatementValuesHolder) exec, databaseType);
+                filledSql = fillParameters(placeholderIndex, (PreparedStatementValuesHolder) exec, databaseType);
             } else {
                 filledSql = exec.toString();
             }
@@ -142,21 +274,91 @@ public class PerfLogger {
                 LOGGER_BATCHED_STATEMENTS_DETAIL.debug("#" + i + ": " + filledSql);
             }
         }
-        PerfLoggerRemoting.postLog(new BatchedPreparedStatementsLog(connectionId, logId, now, rawSql, filledSqlList,
-                Thread.currentThread().getName(), timeout, autoCommit, transactionIsolation));
+        return filledSqlList;
+    }
+
+    /**
+     * @param heldBeforeLog
+     *            the log returned by the <code>logBefore*</code> method called for this execution
+     * @param resultSetFollows
+     *            <code>true</code> if the closing of the ResultSet returned by the statement will be logged with
+     *            {@link #logClosedResultSet(long, LogMessage, long, long, int)}
+     * @return <code>null</code> if the statement has been sampled out, in which case nothing else must be logged
+     *         about it, otherwise the log to give to {@link #logClosedResultSet(long, LogMessage, long, long, int)}
+     */
+    @Nullable
+    public static LogMessage logStatementExecuted(final long logId, final long durationNanos,
+            @Nullable final Long updateCount, @Nullable final Throwable sqlException,
+            @Nullable final AbstractBeforeStatementExecutionLog heldBeforeLog, final boolean resultSetFollows) {
+        final long startNanos = System.nanoTime();
+        try {
+            if (LOGGER_EXECUTED.isDebugEnabled()) {
+                LOGGER_EXECUTED.debug(TimeUnit.NANOSECONDS.toMillis(durationNanos) + "ms to execute  stmt #" + logId,
+                        sqlException);
+            }
+            if (heldBeforeLog != null && SAMPLER.holdsBeforeLogs() && !aggregatesStatements()
+                    && !SAMPLER.keep(durationNanos, sqlException != null)) {
+                SAMPLER.sampledOut(durationNanos);
+                return null;
+            }
+            String excString = null;
+            if (sqlException != null) {
+                excString = dumpException(sqlException);
+            }
+            final StatementExecutedLog executedLog = new StatementExecutedLog(logId, durationNanos, updateCount,
+                    excString);
+            if (heldBeforeLog != null && DriverConfig.INSTANCE.getStatementLogMode() != StatementLogMode.SEPARATE) {
+                final StatementCompletedLog completedLog = new StatementCompletedLog(heldBeforeLog, executedLog, null);
+                if (resultSetFollows) {
+                    // sent once the ResultSet is closed
+                    return completedLog;
+                }
+                postCompletedLog(completedLog);
+                return executedLog;
+            }
+            if (aggregatesStatements()) {
+                // not part of the statistics of a statement
+                return executedLog;
+            }
+            if (heldBeforeLog != null) {
+                PerfLoggerRemoting.postLog(heldBeforeLog);
+            }
+            PerfLoggerRemoting.postLog(executedLog);
+            return executedLog;
+        } finally {
+            PipelineTelemetry.INSTANCE.loggerCalled(startNanos);
+        }
     }
 
-    public static void logStatementExecuted(final UUID logId, final long durationNanos,
-            @Nullable final Long updateCount, @Nullable final Throwable sqlException) {
-        if (LOGGER_EXECUTED.isDebugEnabled()) {
-            LOGGER_EXECUTED.debug(TimeUnit.NANOSECONDS.toMillis(durationNanos) + "ms to execute  stmt #" + logId,
-                    sqlException);
+    private static void postCompletedLog(final StatementCompletedLog completedLog) {
+        if (!aggregatesStatements()) {
+            PerfLoggerRemoting.postLog(completedLog);
+            return;
         }
-        String excString = null;
-        if (sqlException != null) {
-            excString = dumpException(sqlException);
+        final AbstractBeforeStatementExecutionLog beforeLog = completedLog.getBeforeExecutionLog();
+        final StatementExecutedLog executedLog = completedLog.getExecutedLog();
+        final ResultSetLog resultSetLog = completedLog.getResultSetLog();
+        final String rawSql;
+        if (beforeLog instanceof StatementLog) {
+            rawSql = ((StatementLog) beforeLog).getRawSql();
+        } else if (beforeLog instanceof BatchedPreparedStatementsLog) {
+            rawSql = ((BatchedPreparedStatementsLog) beforeLog).getRawSql();
+        } else {
+            rawSql = "(" + ((BatchedNonPreparedStatementsLog) beforeLog).getSqlList().size()
+                    + " batched statements)";
+        }
+        if (resultSetLog != null) {
+            STATS_AGGREGATOR.add(beforeLog.getStatementType(), rawSql,
+                    executedLog.getExecutionTimeNanos() + resultSetLog.getResultSetUsageDurationNanos(),
+                    resultSetLog.getResultSetUsageDurationNanos(), resultSetLog.getFetchDurationNanos(),
+                    resultSetLog.getNbRowsIterated(),
+                    executedLog.getSqlException() != null);
+        } else {
+            final Long updateCount = executedLog.getUpdateCount();
+            STATS_AGGREGATOR.add(beforeLog.getStatementType(), rawSql, executedLog.getExecutionTimeNanos(), -1, 0,
+                    updateCount != null ? Math.max(0, updateCount.longValue()) : 0,
+                    executedLog.getSqlException() != null);
         }
-        PerfLoggerRemoting.postLog(new StatementExecutedLog(logId, durationNanos, updateCount, excString));
     }
 
     private static String dumpException(final Throwable th) {
@@ -165,53 +367,115 @@ public class PerfLogger {
         return stringWriter.toString();
     }
 
-    public static void logClosedResultSet(final UUID logId, final long resultSetIterationTimeNanos,
-            final long fetchDurationNanos, final int nbRowsIterated) {
-        if (LOGGER_CLOSED_RESULTSET.isDebugEnabled()) {
-            LOGGER_CLOSED_RESULTSET.debug(NANOSECONDS.toMillis(resultSetIterationTimeNanos)
-                    + "ms to use and close ResultSet, " + NANOSECONDS.toMillis(fetchDurationNanos)
-                    + "ms in calls to rset.next(), iterating " + nbRowsIterated + " rows for statement #" + logId);
+    /**
+     * @param executionLog
+     *            the log returned by <code>logStatementExecuted</code>, <code>null</code> if the ResultSet was not
+     *            obtained from the execution itself
+     */
+    public static void logClosedResultSet(final long logId, @Nullable final LogMessage executionLog,
+            final long resultSetIterationTimeNanos, final long fetchDurationNanos, final int nbRowsIterated) {
+        final long startNanos = System.nanoTime();
+        try {
+            if (LOGGER_CLOSED_RESULTSET.isDebugEnabled()) {
+                LOGGER_CLOSED_RESULTSET.debug(NANOSECONDS.toMillis(resultSetIterationTimeNanos)
+                        + "ms to use and close ResultSet, " + NANOSECONDS.toMillis(fetchDurationNanos)
+                        + "ms in calls to rset.next(), iterating " + nbRowsIterated + " rows for statement #" + logId);
+            }
+            final ResultSetLog resultSetLog = new ResultSetLog(logId, resultSetIterationTimeNanos, fetchDurationNanos,
+                    nbRowsIterated);
+            if (executionLog instanceof StatementCompletedLog) {
+                final StatementCompletedLog pendingLog = (StatementCompletedLog) executionLog;
+                postCompletedLog(new StatementCompletedLog(pendingLog.getBeforeExecutionLog(),
+                        pendingLog.getExecutedLog(), resultSetLog));
+            } else if (!aggregatesStatements()) {
+                PerfLoggerRemoting.postLog(resultSetLog);
+            }
+        } finally {
+            PipelineTelemetry.INSTANCE.loggerCalled(startNanos);
+        }
+    }
+
+    /**
+     * Sends the log of a statement still waiting for its ResultSet to be closed, when the statement is executed again
+     * or closed without closing its ResultSet first.
+     */
+    public static void logUnclosedResultSet(@Nullable final LogMessage executionLog) {
+        final long startNanos = System.nanoTime();
+        try {
+            if (executionLog instanceof StatementCompletedLog) {
+                postCompletedLog((StatementCompletedLog) executionLog);
+            }
+        } finally {
+            PipelineTelemetry.INSTANCE.loggerCalled(startNanos);
         }
-        PerfLoggerRemoting
-                .postLog(new ResultSetLog(logId, resultSetIterationTimeNanos, fetchDurationNanos, nbRowsIterated));
     }
 
-    public static void logTransactionComplete(final UUID connectionUuid, final long startTimeStamp,
+    public static void logTransactionComplete(final long connectionId, final long startTimeStamp,
             final TxCompletionType txCompletionType, final long durationNanos,
             @Nullable final String savePointDescription) {
-        final TxCompleteLog log = new TxCompleteLog(connectionUuid, startTimeStamp, txCompletionType, durationNanos,
-                Thread.currentThread().getName(), savePointDescription);
-        PerfLoggerRemoting.postLog(log);
+        final long startNanos = System.nanoTime();
+        try {
+            if (aggregatesStatements()) {
+                STATS_AGGREGATOR.add(StatementType.TRANSACTION, txCompletionType.name(), durationNanos, -1, 0, 0,
+                        false);
+                return;
+            }
+            final TxCompleteLog log = new TxCompleteLog(connectionId, startTimeStamp, txCompletionType, durationNanos,
+                    Thread.currentThread().getName(), savePointDescription);
+            PerfLoggerRemoting.postLog(log);
+        } finally {
+            PipelineTelemetry.INSTANCE.loggerCalled(startNanos);
+        }
     }
 
-    static String fillParameters(final String preparedStatementSql,
-                                 final PreparedStatementValuesHolder pstmtValues,
-                                 final DatabaseType databaseType) {
-        Matcher matcherOnPstmtParameters = PSTMT_PARAMETER_PATTERN.matcher(preparedStatementSql);
-        StringBuilder newSQLWithValues = new StringBuilder();
+    static String fillParameters(final String preparedStatementSql, final PreparedStatementValuesHolder pstmtValues,
+            final DatabaseType databaseType) {
+        return fillParameters(SqlPlaceholderIndex.of(preparedStatementSql), pstmtValues, databaseType);
+    }
+
+    static String fillParameters(final SqlPlaceholderIndex placeholderIndex,
+            final PreparedStatementValuesHolder pstmtValues, final DatabaseType databaseType) {
+        final String sql = placeholderIndex.getSql();
+        final int placeholderCount = placeholderIndex.getPlaceholderCount();
+        if (placeholderCount == 0) {
+            return sql;
+        }
+        final String[] valuesAsString = new String[placeholderCount];
+        int length = sql.length();
+        for (int i = 0; i < placeholderCount; i++) {
+            final int index = i + 1;
+            if (pstmtValues.isSet(index)) {
+                final String valueAsString = getValueAsString(pstmtValues.getValue(index),
+                        pstmtValues.getSetter(index), pstmtValues.getSqlType(index), databaseType);
+                valuesAsString[i] = valueAsString;
+                length += valueAsString.length() - 1;
+            }
+        }
+
+        final StringBuilder newSQLWithValues = new StringBuilder(length);
         int lastReplacementIndex = 0;
-        int i = 0;
-        while (matcherOnPstmtParameters.find()) {
-            if (matcherOnPstmtParameters.group(1) != null) {
-                i++;
-                final SqlTypedValue sqlTypedValue = pstmtValues.get(i);
-                if (sqlTypedValue != null) {
-                    final String valueAsString = getValueAsString(sqlTypedValue, databaseType);
-                    newSQLWithValues.append(preparedStatementSql.substring(lastReplacementIndex, matcherOnPstmtParameters.start(1)));
-                    newSQLWithValues.append(valueAsString);
-                    lastReplacementIndex = matcherOnPstmtParameters.end(1);
-                }
+        for (int i = 0; i < placeholderCount; i++) {
+            final String valueAsString = valuesAsString[i];
+            if (valueAsString != null) {
+                final int offset = placeholderIndex.getOffset(i);
+                newSQLWithValues.append(sql, lastReplacementIndex, offset);
+                newSQLWithValues.append(valueAsString);
+                lastReplacementIndex = offset + 1;
             }
         }
-        newSQLWithValues.append(preparedStatementSql.substring(lastReplacementIndex));
+        newSQLWithValues.append(sql, lastReplacementIndex, sql.length());
         return newSQLWithValues.toString();
     }
 
     static String getValueAsString(final SqlTypedValue sqlTypedValue, final DatabaseType databaseType) {
-        final Object value = sqlTypedValue.value; // using a local variable for null analysis
-        final String setter = sqlTypedValue.setter;
+        final Integer sqlType = sqlTypedValue.sqlType;
+        return getValueAsString(sqlTypedValue.value, sqlTypedValue.setter, sqlType != null ? sqlType.intValue() : 0,
+                databaseType);
+    }
+
+    static String getValueAsString(@Nullable final Object value, @Nullable final String setter, final int sqlType,
+            final DatabaseType databaseType) {
         String sqlTypeStr = setter;
-        final int sqlType = sqlTypedValue.sqlType != null ? sqlTypedValue.sqlType : 0;
         if (sqlTypeStr == null) {
             sqlTypeStr = typesMap.get(sqlType);
             if (sqlTypeStr == null) {
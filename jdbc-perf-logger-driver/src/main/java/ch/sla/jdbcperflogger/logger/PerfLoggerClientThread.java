@@ -79,7 +79,6 @@ class PerfLoggerClientThread extends Thread implements Closeable {
             LOGGER.debug("Connected to " + socketAddress);
             try {
                 final SocketLogSender sender = new SocketLogSender(socket);
-                PerfLoggerRemoting.senders.add(sender);
                 sender.run();
             } catch (final IOException e) {
                 LOGGER.info("Error in connection with " + socketAddress + ", will try again later", e);
@@ -16,6 +16,7 @@
 package ch.sla.jdbcperflogger.logger;
 
 import java.io.Closeable;
+import java.io.File;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.util.ArrayList;
@@ -25,19 +26,45 @@ import java.util.Map;
 import java.util.Set;
 import java.util.WeakHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.TimeUnit;
 
+import ch.sla.jdbcperflogger.BackPressurePolicy;
 import ch.sla.jdbcperflogger.DriverConfig;
+import ch.sla.jdbcperflogger.Logger;
+import ch.sla.jdbcperflogger.SamplingMode;
+import ch.sla.jdbcperflogger.StatementLogMode;
 import ch.sla.jdbcperflogger.driver.LoggingConnectionInvocationHandler;
 import ch.sla.jdbcperflogger.model.ConnectionInfo;
 import ch.sla.jdbcperflogger.model.LogMessage;
+import ch.sla.jdbcperflogger.model.SampledOutStatementsLog;
+import ch.sla.jdbcperflogger.model.StatementCompletedLog;
+import ch.sla.jdbcperflogger.model.StatementExecutedLog;
+import ch.sla.jdbcperflogger.model.StatementStatsLog;
+import ch.sla.jdbcperflogger.model.TelemetryLog;
 
 public class PerfLoggerRemoting {
+    private final static Logger LOGGER = Logger.getLogger(PerfLoggerRemoting.class);
+
+    private static final int LOG_RING_CAPACITY = 16384;
+    private static final long SAMPLED_OUT_REPORT_INTERVAL_MS = TimeUnit.SECONDS.toMillis(1);
+    private static final long TELEMETRY_REPORT_INTERVAL_MS = TimeUnit.SECONDS.toMillis(5);
+    private static final BackPressurePolicy BACK_PRESSURE_POLICY = DriverConfig.INSTANCE.getBackPressurePolicy();
+    private static final long MAX_BLOCK_NANOS = BACK_PRESSURE_POLICY == BackPressurePolicy.BLOCK
+            ? TimeUnit.MICROSECONDS.toNanos(DriverConfig.INSTANCE.getBackPressureMaxBlockMicros())
+            : 0;
 
     final static Set<LogSender> senders = new CopyOnWriteArraySet<LogSender>();
     final static Map<LoggingConnectionInvocationHandler, ConnectionInfo> connectionToInfo = new WeakHashMap<LoggingConnectionInvocationHandler, ConnectionInfo>();
     final static List<Closeable> remotingThreads = new ArrayList<Closeable>();
+    // shared by all the consoles connected through a socket
+    final static LogRingBuffer logRing = new LogRingBuffer(LOG_RING_CAPACITY);
+    // cheaper to read than senders.isEmpty() on each JDBC call
+    private static volatile boolean hasSenders;
 
     public static synchronized void start() {
+        remotingThreads.add(PipelineTelemetry.register());
+        remotingThreads.add(PeriodicReporter.spawn("PerfLoggerTelemetryReporter", TELEMETRY_REPORT_INTERVAL_MS,
+                PerfLoggerRemoting::postTelemetry));
         final Integer serverPort = DriverConfig.INSTANCE.getServerPort();
         if (serverPort != null) {
             remotingThreads.add(PerfLoggerServerThread.spawn(serverPort));
@@ -45,6 +72,31 @@ public class PerfLoggerRemoting {
         for (final InetSocketAddress clientAddress : DriverConfig.INSTANCE.getClientAddresses()) {
             remotingThreads.add(PerfLoggerClientThread.spawn(clientAddress));
         }
+        final String captureFileDirectory = DriverConfig.INSTANCE.getCaptureFileDirectory();
+        if (captureFileDirectory != null) {
+            try {
+                final CaptureFileLogSender captureFileSender = new CaptureFileLogSender(new File(captureFileDirectory),
+                        DriverConfig.INSTANCE.getCaptureFileSegmentCount(),
+                        DriverConfig.INSTANCE.getCaptureFileSegmentSizeMb() * 1024 * 1024);
+                addSender(captureFileSender);
+                remotingThreads.add(() -> {
+                    removeSender(captureFileSender);
+                    captureFileSender.close();
+                });
+            } catch (final IOException e) {
+                LOGGER.error("cannot capture the logs in " + captureFileDirectory, e);
+            }
+        }
+        if (DriverConfig.INSTANCE.getSamplingMode() != SamplingMode.NONE
+                || BACK_PRESSURE_POLICY == BackPressurePolicy.AGGREGATE) {
+            remotingThreads.add(PeriodicReporter.spawn("PerfLoggerSampledOutStatementsReporter",
+                    SAMPLED_OUT_REPORT_INTERVAL_MS, PerfLogger::postSampledOutStatements));
+        }
+        if (DriverConfig.INSTANCE.getStatementLogMode() == StatementLogMode.AGGREGATED) {
+            remotingThreads.add(PeriodicReporter.spawn("PerfLoggerStatementStatsReporter",
+                    TimeUnit.SECONDS.toMillis(DriverConfig.INSTANCE.getStatementStatsIntervalSeconds()),
+                    PerfLogger::postStatementStats));
+        }
     }
 
     public static synchronized void stop() {
@@ -63,7 +115,7 @@ public class PerfLoggerRemoting {
 
     public static void connectionCreated(final LoggingConnectionInvocationHandler connectionHandler,
             final long connectionCreationDuration) {
-        final ConnectionInfo info = new ConnectionInfo(connectionHandler.getConnectionUuid(),
+        final ConnectionInfo info = new ConnectionInfo(connectionHandler.getConnectionUniqueId(),
                 connectionHandler.getConnectionId(), connectionHandler.getUrl(), new Date(), connectionCreationDuration,
                 connectionHandler.getConnectionProperties());
         synchronized (connectionToInfo) {
@@ -73,17 +125,97 @@ public class PerfLoggerRemoting {
     }
 
     static void postLog(final LogMessage log) {
+        PipelineTelemetry.INSTANCE.logPosted();
+        if (logRing.hasConsumers()) {
+            publish(logRing, log, BACK_PRESSURE_POLICY, MAX_BLOCK_NANOS);
+        }
         for (final LogSender sender : senders) {
             sender.postLog(log);
         }
     }
 
+    // visible for testing
+    static void publish(final LogRingBuffer ring, final LogMessage log, final BackPressurePolicy policy,
+            final long maxBlockNanos) {
+        if (policy == BackPressurePolicy.DROP_OLDEST
+                || policy == BackPressurePolicy.AGGREGATE
+                        && (log instanceof SampledOutStatementsLog || log instanceof StatementStatsLog
+                                || log instanceof TelemetryLog)) {
+            // the aggregates are never dropped
+            ring.publish(log);
+        } else if (!ring.tryPublish(log, maxBlockNanos)) {
+            if (policy == BackPressurePolicy.AGGREGATE && log instanceof StatementExecutedLog) {
+                PerfLogger.logStatementSampledOut(((StatementExecutedLog) log).getExecutionTimeNanos());
+            } else if (policy == BackPressurePolicy.AGGREGATE && log instanceof StatementCompletedLog) {
+                PerfLogger.logStatementSampledOut(
+                        ((StatementCompletedLog) log).getExecutedLog().getExecutionTimeNanos());
+            } else {
+                ring.countLost(log);
+            }
+        }
+    }
+
+    static void postTelemetry() {
+        final TelemetryLog log = PipelineTelemetry.INSTANCE.drain(logRing.getMaxQueueDepth());
+        if (!hasSenders) {
+            return;
+        }
+        PipelineTelemetry.INSTANCE.logPosted();
+        if (logRing.hasConsumers()) {
+            publish(logRing, log, BACK_PRESSURE_POLICY, MAX_BLOCK_NANOS);
+        }
+        for (final LogSender sender : senders) {
+            if (sender.isTelemetryReceiver()) {
+                sender.postLog(log);
+            }
+        }
+    }
+
+    /**
+     * @return <code>true</code> if at least one console receives the logs
+     */
+    static boolean hasSenders() {
+        return hasSenders;
+    }
+
+    /**
+     * @return the highest fill ratio (between 0 and 1) of the queues of logs waiting to be sent
+     */
+    static double getQueueFillRatio() {
+        double maxFillRatio = logRing.getMaxFillRatio();
+        for (final LogSender sender : senders) {
+            maxFillRatio = Math.max(maxFillRatio, sender.getQueueFillRatio());
+        }
+        return maxFillRatio;
+    }
+
     public static void addSender(final LogSender sender) {
-        senders.add(sender);
+        synchronized (senders) {
+            senders.add(sender);
+            hasSenders = true;
+        }
     }
 
     public static void removeSender(final LogSender sender) {
-        senders.remove(sender);
+        synchronized (senders) {
+            senders.remove(sender);
+            hasSenders = !senders.isEmpty() || logRing.hasConsumers();
+        }
+    }
+
+    static LogRingBuffer.Consumer addLogRingConsumer(final String consoleAddress) {
+        synchronized (senders) {
+            final LogRingBuffer.Consumer consumer = logRing.newConsumer(consoleAddress);
+            hasSenders = true;
+            return consumer;
+        }
+    }
+
+    static void removeLogRingConsumer(final LogRingBuffer.Consumer consumer) {
+        synchronized (senders) {
+            logRing.removeConsumer(consumer);
+            hasSenders = !senders.isEmpty() || logRing.hasConsumers();
+        }
     }
 
 }
@@ -17,17 +17,47 @@ package ch.sla.jdbcperflogger.logger;
 
 import java.io.Closeable;
 import java.io.IOException;
-import java.net.ServerSocket;
-import java.net.Socket;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
+import org.eclipse.jdt.annotation.Nullable;
+
+import ch.sla.jdbcperflogger.DriverConfig;
 import ch.sla.jdbcperflogger.Logger;
+import ch.sla.jdbcperflogger.model.BinaryLogMessageCodec;
+import ch.sla.jdbcperflogger.model.EncodedLogMessage;
 
+/**
+ * Accepts the consoles connecting to the local server and sends them the logs, all from a single thread with
+ * non-blocking sockets.
+ * <p>
+ * The logs of a console are only read from the ring buffer while its output buffer is not full, so a slow console only
+ * misses logs itself (when it is overrun in the ring) and never blocks a thread.
+ */
 class PerfLoggerServerThread extends Thread implements Closeable {
     private final static Logger LOGGER = Logger.getLogger(PerfLoggerServerThread.class);
 
-    ServerSocket serverSocket;
+    private static final long HELLO_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final long KEEP_ALIVE_NANOS = TimeUnit.SECONDS.toNanos(10);
+    // the producers do not signal the ring buffer, it is polled
+    private static final long POLL_INTERVAL_MS = 10;
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    final ServerSocketChannel serverChannel;
+    final Selector selector;
+    private final List<ConsoleConnection> connections = new ArrayList<ConsoleConnection>();
+    private final ByteBuffer discardedBytes = ByteBuffer.allocate(64);
     volatile boolean done;
 
     static PerfLoggerServerThread spawn(final int serverPort) {
@@ -53,47 +83,239 @@ class PerfLoggerServerThread extends Thread implements Closeable {
 
     private PerfLoggerServerThread(final int serverPort) {
         this.setDaemon(true);
-        this.setName("PerfLoggerServer acceptor port " + serverPort);
+        this.setName("PerfLoggerServer port " + serverPort);
         try {
-            serverSocket = new ServerSocket(serverPort);
+            selector = Selector.open();
+            serverChannel = ServerSocketChannel.open();
+            serverChannel.bind(new InetSocketAddress(serverPort));
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
         } catch (final IOException e) {
             throw new RuntimeException(e);
         }
     }
 
+    int getLocalPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
     @Override
     public void run() {
         try {
             while (!done) {
-                try {
-                    final Socket socket = serverSocket.accept();
-                    LOGGER.debug("Got client connection from " + socket);
-                    final SocketLogSender sender = new SocketLogSender(socket);
-                    final Thread logSenderThread = new Thread(sender, "PerfLoggerServer " + socket.getInetAddress()
-                            + ":" + socket.getPort());
-                    logSenderThread.setDaemon(true);
-                    logSenderThread.start();
-                    PerfLoggerRemoting.senders.add(sender);
-                } catch (final IOException e) {
-                    LOGGER.error("error while accepting socket", e);
+                selector.select(connections.isEmpty() ? 0 : POLL_INTERVAL_MS);
+                final Iterator<SelectionKey> selectedKeys = selector.selectedKeys().iterator();
+                while (selectedKeys.hasNext()) {
+                    final SelectionKey key = selectedKeys.next();
+                    selectedKeys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else if (key.isReadable()) {
+                        final ConsoleConnection connection = (ConsoleConnection) key.attachment();
+                        if (connection != null) {
+                            readFromConsole(connection);
+                        }
+                    }
                 }
+                // also writes to the connections whose key was writable
+                for (final ConsoleConnection connection : new ArrayList<ConsoleConnection>(connections)) {
+                    sendLogs(connection);
+                }
+            }
+        } catch (final IOException | ClosedSelectorException e) {
+            if (!done) {
+                LOGGER.error("error in server selector", e);
             }
         } finally {
+            for (final ConsoleConnection connection : new ArrayList<ConsoleConnection>(connections)) {
+                closeConnection(connection);
+            }
             try {
-                serverSocket.close();
+                serverChannel.close();
+                selector.close();
             } catch (final IOException e) {
                 LOGGER.error("error while closing socket", e);
             }
         }
     }
 
+    private void accept() {
+        try {
+            final SocketChannel channel = serverChannel.accept();
+            if (channel == null) {
+                return;
+            }
+            LOGGER.debug("Got client connection from " + channel);
+            channel.configureBlocking(false);
+            channel.socket().setKeepAlive(true);
+            final ConsoleConnection connection = new ConsoleConnection(channel);
+            connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+            connections.add(connection);
+        } catch (final IOException e) {
+            LOGGER.error("error while accepting socket", e);
+        }
+    }
+
+    /**
+     * Reads the hello of the console, and detects when it disconnects.
+     */
+    private void readFromConsole(final ConsoleConnection connection) {
+        try {
+            // nothing is expected after the hello
+            final ByteBuffer buffer = connection.writer == null ? connection.hello : discardedBytes;
+            if (buffer == discardedBytes) {
+                discardedBytes.clear();
+            }
+            if (connection.channel.read(buffer) < 0) {
+                LOGGER.debug("The remote closed its connection " + connection.channel);
+                closeConnection(connection);
+            }
+        } catch (final IOException e) {
+            LOGGER.warn("socket error", e);
+            closeConnection(connection);
+        }
+    }
+
+    private void sendLogs(final ConsoleConnection connection) {
+        try {
+            ConsoleLogWriter writer = connection.writer;
+            if (writer == null) {
+                final WireFormat format = connection.negotiateWireFormat();
+                if (format == null) {
+                    return;
+                }
+                LOGGER.debug("sending logs to " + connection.channel + " as " + format);
+                writer = new ConsoleLogWriter(connection.pendingBytes, format,
+                        DriverConfig.INSTANCE.getConsoleLinkCompression(),
+                        DriverConfig.INSTANCE.getConsoleLinkBatchSize(),
+                        DriverConfig.INSTANCE.getConsoleLinkBatchDelayMillis());
+                connection.writer = writer;
+                writer.writeConnectionInfos();
+            }
+
+            // only read the ring when the console took what was already written
+            if (connection.writePendingBytes()) {
+                writer.reportLostLogs(connection.logsToSend);
+                final long now = System.nanoTime();
+                EncodedLogMessage log;
+                while (connection.pendingBytes.size() < BUFFER_SIZE
+                        && (log = connection.logsToSend.pollEncoded(0, TimeUnit.SECONDS, writer.getFormat())) != null) {
+                    writer.writeLog(log);
+                    connection.lastLogNanos = now;
+                }
+                if (writer.hasPendingBatch() && writer.getBatchRemainingNanos() == 0) {
+                    writer.flushBatch();
+                }
+                if (now - connection.lastLogNanos > KEEP_ALIVE_NANOS) {
+                    writer.writeKeepAlive();
+                    connection.lastLogNanos = now;
+                }
+                writer.flush();
+                connection.writePendingBytes();
+            }
+        } catch (final IOException | InterruptedException e) {
+            LOGGER.warn("socket error", e);
+            closeConnection(connection);
+        }
+    }
+
+    private void closeConnection(final ConsoleConnection connection) {
+        LOGGER.info("closing connection with " + connection.channel);
+        connections.remove(connection);
+        PerfLoggerRemoting.removeLogRingConsumer(connection.logsToSend);
+        final SelectionKey key = connection.key;
+        if (key != null) {
+            key.cancel();
+        }
+        final ConsoleLogWriter writer = connection.writer;
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (final IOException ignored) {
+            }
+        }
+        try {
+            connection.channel.close();
+        } catch (final IOException e) {
+            LOGGER.error("error while closing socket", e);
+        }
+    }
+
     @Override
     public void close() {
         done = true;
-        try {
-            serverSocket.close();
-        } catch (final IOException e) {
-            LOGGER.error("error closing socket at " + serverSocket.getLocalPort(), e);
+        selector.wakeup();
+    }
+
+    private static final class ConsoleConnection {
+        final SocketChannel channel;
+        final LogRingBuffer.Consumer logsToSend;
+        // magic + version
+        final ByteBuffer hello = ByteBuffer.allocate(6);
+        final long helloDeadlineNanos = System.nanoTime() + HELLO_TIMEOUT_NANOS;
+        // bytes written by the writer and not yet accepted by the socket
+        final ExposedByteArrayOutputStream pendingBytes = new ExposedByteArrayOutputStream(BUFFER_SIZE);
+        int pendingBytesOffset;
+        @Nullable
+        SelectionKey key;
+        @Nullable
+        ConsoleLogWriter writer;
+        long lastLogNanos = System.nanoTime();
+
+        ConsoleConnection(final SocketChannel channel) {
+            this.channel = channel;
+            logsToSend = PerfLoggerRemoting
+                    .addLogRingConsumer(String.valueOf(channel.socket().getRemoteSocketAddress()));
+        }
+
+        /**
+         * @return the format of the console, or <code>null</code> if its hello is not received yet
+         * @throws IOException
+         *             if the console is too old to read the logs
+         */
+        @Nullable
+        WireFormat negotiateWireFormat() throws IOException {
+            WireFormat format = null;
+            if (!hello.hasRemaining()) {
+                format = WireFormat.fromHello(hello.getInt(0), hello.getShort(4));
+            } else if (hello.position() < 4 || hello.getInt(0) == BinaryLogMessageCodec.MAGIC) {
+                if (System.nanoTime() - helloDeadlineNanos <= 0) {
+                    return null;
+                }
+            }
+            if (format == null) {
+                throw new IOException("no valid hello received from " + channel
+                        + ", the console is probably older than the driver and must be upgraded");
+            }
+            return format;
+        }
+
+        /**
+         * @return <code>true</code> if all the pending bytes were written, otherwise the socket is watched until it
+         *         is writable again
+         */
+        boolean writePendingBytes() throws IOException {
+            final int size = pendingBytes.size();
+            if (pendingBytesOffset < size) {
+                pendingBytesOffset += channel.write(
+                        ByteBuffer.wrap(pendingBytes.getBuffer(), pendingBytesOffset, size - pendingBytesOffset));
+            }
+            final SelectionKey key2 = key;
+            if (pendingBytesOffset < size) {
+                if (key2 != null) {
+                    key2.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                }
+                return false;
+            }
+            pendingBytes.reset();
+            pendingBytesOffset = 0;
+            if (key2 != null) {
+                key2.interestOps(SelectionKey.OP_READ);
+            }
+            return true;
         }
     }
-}
\ No newline at end of file
+}
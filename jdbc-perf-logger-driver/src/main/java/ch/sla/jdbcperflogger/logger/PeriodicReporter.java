@@ -0,0 +1,75 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger.logger;
+
+import java.io.Closeable;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+
+/**
+ * Periodically sends to the consoles the statistics accumulated by the driver, like the number of statements that were
+ * not logged because of sampling.
+ */
+class PeriodicReporter extends Thread implements Closeable {
+    private final long intervalMillis;
+    private final Runnable report;
+
+    volatile boolean done;
+
+    static PeriodicReporter spawn(final String name, final long intervalMillis, final Runnable report) {
+        // avoid Classloader leaks
+        return AccessController.doPrivileged(new PrivilegedAction<PeriodicReporter>() {
+            @Override
+            public PeriodicReporter run() {
+                final ClassLoader savedClassLoader = Thread.currentThread().getContextClassLoader();
+                try {
+                    Thread.currentThread().setContextClassLoader(null);
+
+                    final PeriodicReporter thread = new PeriodicReporter(name, intervalMillis, report);
+                    thread.start();
+                    return thread;
+                } finally {
+                    Thread.currentThread().setContextClassLoader(savedClassLoader);
+                }
+            }
+        });
+    }
+
+    private PeriodicReporter(final String name, final long intervalMillis, final Runnable report) {
+        this.intervalMillis = intervalMillis;
+        this.report = report;
+        this.setDaemon(true);
+        this.setName(name);
+    }
+
+    @Override
+    public void run() {
+        while (!done) {
+            try {
+                Thread.sleep(intervalMillis);
+            } catch (final InterruptedException e) {
+                break;
+            }
+            report.run();
+        }
+    }
+
+    @Override
+    public void close() {
+        done = true;
+        interrupt();
+    }
+}
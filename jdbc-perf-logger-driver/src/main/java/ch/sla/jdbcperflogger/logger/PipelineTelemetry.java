@@ -0,0 +1,169 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger.logger;
+
+import java.io.Closeable;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import ch.sla.jdbcperflogger.Logger;
+import ch.sla.jdbcperflogger.model.TelemetryLog;
+
+/**
+ * Counts what the logger itself costs to the application and whether the consoles keep up with it. The counters are
+ * exposed through JMX and sent periodically to the consoles as {@link TelemetryLog}s.
+ */
+final class PipelineTelemetry implements PipelineTelemetryMXBean {
+    private final static Logger LOGGER = Logger.getLogger(PipelineTelemetry.class);
+
+    static final String OBJECT_NAME = "ch.sla.jdbcperflogger:type=PipelineTelemetry";
+    static final PipelineTelemetry INSTANCE = new PipelineTelemetry();
+
+    // LongAdders since the application threads update them concurrently
+    private final LongAdder postedLogs = new LongAdder();
+    private final LongAdder droppedLogs = new LongAdder();
+    private final LongAdder encodedLogs = new LongAdder();
+    private final LongAdder encodingTimeNanos = new LongAdder();
+    private final LongAdder bytesSent = new LongAdder();
+    private final LongAdder loggerCalls = new LongAdder();
+    private final LongAdder loggerTimeNanos = new LongAdder();
+
+    // totals at the end of the previous telemetry log
+    private long lastDrainTimestamp = System.currentTimeMillis();
+    private final long[] lastDrainTotals = new long[7];
+
+    // visible for testing
+    PipelineTelemetry() {
+    }
+
+    void logPosted() {
+        postedLogs.increment();
+    }
+
+    void logsDropped(final long count) {
+        droppedLogs.add(count);
+    }
+
+    void logEncoded(final long durationNanos) {
+        encodedLogs.increment();
+        encodingTimeNanos.add(durationNanos);
+    }
+
+    void bytesSent(final long count) {
+        bytesSent.add(count);
+    }
+
+    /**
+     * @param startNanos
+     *            the value of {@link System#nanoTime()} when the application thread called the logger
+     */
+    void loggerCalled(final long startNanos) {
+        loggerCalls.increment();
+        loggerTimeNanos.add(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * @return the telemetry since the previous call
+     */
+    synchronized TelemetryLog drain(final long maxQueueDepth) {
+        final long now = System.currentTimeMillis();
+        final long[] totals = { postedLogs.sum(), droppedLogs.sum(), encodedLogs.sum(), encodingTimeNanos.sum(),
+                bytesSent.sum(), loggerCalls.sum(), loggerTimeNanos.sum() };
+        final long[] deltas = new long[totals.length];
+        for (int i = 0; i < totals.length; i++) {
+            deltas[i] = totals[i] - lastDrainTotals[i];
+            lastDrainTotals[i] = totals[i];
+        }
+        final TelemetryLog log = new TelemetryLog(lastDrainTimestamp, now, deltas[0], deltas[1], deltas[2],
+                deltas[3], deltas[4], deltas[5], deltas[6], maxQueueDepth);
+        lastDrainTimestamp = now;
+        return log;
+    }
+
+    /**
+     * Registers {@link #INSTANCE} in the platform MBean server.
+     *
+     * @return to be closed to unregister it
+     */
+    static Closeable register() {
+        final MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+        try {
+            final ObjectName objectName = new ObjectName(OBJECT_NAME);
+            mbeanServer.registerMBean(INSTANCE, objectName);
+            return () -> {
+                try {
+                    mbeanServer.unregisterMBean(objectName);
+                } catch (final JMException ignored) {
+                }
+            };
+        } catch (final JMException e) {
+            // typically another copy of the driver loaded by another class loader
+            LOGGER.info("could not register " + OBJECT_NAME + ": " + e);
+            return () -> {
+            };
+        }
+    }
+
+    @Override
+    public long getPostedLogCount() {
+        return postedLogs.sum();
+    }
+
+    @Override
+    public long getDroppedLogCount() {
+        return droppedLogs.sum();
+    }
+
+    @Override
+    public long getEncodedLogCount() {
+        return encodedLogs.sum();
+    }
+
+    @Override
+    public long getEncodingTimeNanos() {
+        return encodingTimeNanos.sum();
+    }
+
+    @Override
+    public long getBytesSent() {
+        return bytesSent.sum();
+    }
+
+    @Override
+    public long getLoggerCallCount() {
+        return loggerCalls.sum();
+    }
+
+    @Override
+    public long getLoggerTimeNanos() {
+        return loggerTimeNanos.sum();
+    }
+
+    @Override
+    public Map<String, Long> getQueueDepths() {
+        return PerfLoggerRemoting.logRing.getQueueDepths();
+    }
+
+    @Override
+    public int getQueueCapacity() {
+        return PerfLoggerRemoting.logRing.getCapacity();
+    }
+}
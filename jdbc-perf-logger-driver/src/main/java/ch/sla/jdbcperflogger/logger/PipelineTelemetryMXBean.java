@@ -0,0 +1,64 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger.logger;
+
+import java.util.Map;
+
+/**
+ * Management interface of the telemetry of the logger itself, registered as {@value PipelineTelemetry#OBJECT_NAME}.
+ * All the counts and times are totals since the driver was loaded.
+ */
+public interface PipelineTelemetryMXBean {
+
+    /**
+     * @return the number of logs posted by the application threads
+     */
+    long getPostedLogCount();
+
+    /**
+     * @return the number of logs that could not be sent, summed over all the consoles
+     */
+    long getDroppedLogCount();
+
+    /**
+     * @return the number of logs encoded for the consoles
+     */
+    long getEncodedLogCount();
+
+    long getEncodingTimeNanos();
+
+    /**
+     * @return the number of bytes written to the consoles, after compression
+     */
+    long getBytesSent();
+
+    /**
+     * @return the number of calls to the logger made by the application threads
+     */
+    long getLoggerCallCount();
+
+    /**
+     * @return the time spent by the application threads in the calls to the logger
+     */
+    long getLoggerTimeNanos();
+
+    /**
+     * @return the number of logs waiting to be sent, by address of console
+     */
+    Map<String, Long> getQueueDepths();
+
+    int getQueueCapacity();
+}
@@ -26,6 +26,11 @@ public class RecordingLogSender implements LogSender {
         }
     }
 
+    @Override
+    public double getQueueFillRatio() {
+        return 0;
+    }
+
     public LogMessage[] getRecordedLogMessages() {
         return queue.toArray(new LogMessage[0]);
     }
@@ -1,80 +1,89 @@
 package ch.sla.jdbcperflogger.logger;
 
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
 import java.io.IOException;
-import java.io.ObjectOutputStream;
 import java.net.Socket;
 import java.net.SocketException;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.net.SocketTimeoutException;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.eclipse.jdt.annotation.Nullable;
+
+import ch.sla.jdbcperflogger.ConsoleLinkCompression;
+import ch.sla.jdbcperflogger.DriverConfig;
 import ch.sla.jdbcperflogger.Logger;
-import ch.sla.jdbcperflogger.model.BufferFullLogMessage;
-import ch.sla.jdbcperflogger.model.ConnectionInfo;
-import ch.sla.jdbcperflogger.model.LogMessage;
+import ch.sla.jdbcperflogger.model.EncodedLogMessage;
 
 // public for tests
-public class SocketLogSender implements Runnable, LogSender {
+public class SocketLogSender implements Runnable {
     private final static Logger LOGGER2 = Logger.getLogger(SocketLogSender.class);
 
-    private final BlockingQueue<LogMessage> logsToSend = new LinkedBlockingQueue<LogMessage>(10000);
+    private static final int SO_TIMEOUT_MS = (int) TimeUnit.SECONDS.toMillis(10);
+    private static final int BUFFER_SIZE = 16 * 1024;
+
     private final Socket socket;
-    private final AtomicBoolean queueFull = new AtomicBoolean();
+    private final ConsoleLinkCompression compression;
+    private final int batchSize;
+    private final long batchDelayMillis;
+    private final LogRingBuffer.Consumer logsToSend;
 
     SocketLogSender(final Socket socket) throws SocketException {
-        this.socket = socket;
-        socket.setKeepAlive(true);
-        socket.setSoTimeout((int) TimeUnit.SECONDS.toMillis(10));
+        this(socket, DriverConfig.INSTANCE.getConsoleLinkCompression(), DriverConfig.INSTANCE.getConsoleLinkBatchSize(),
+                DriverConfig.INSTANCE.getConsoleLinkBatchDelayMillis());
     }
 
-    /* (non-Javadoc)
-     * @see ch.sla.jdbcperflogger.logger.LogSender#postLog(ch.sla.jdbcperflogger.model.LogMessage)
-     */
-    @Override
-    public void postLog(final LogMessage log) {
-        final boolean posted = logsToSend.offer(log);
-        if (!posted) {
-            queueFull.set(true);
-            LOGGER2.warn("queue full, dropping remote log of statement");
-        }
+    SocketLogSender(final Socket socket, final ConsoleLinkCompression compression, final int batchSize,
+            final long batchDelayMillis) throws SocketException {
+        this.socket = socket;
+        this.compression = compression;
+        this.batchSize = batchSize;
+        this.batchDelayMillis = batchDelayMillis;
+        socket.setKeepAlive(true);
+        socket.setSoTimeout(SO_TIMEOUT_MS);
+        logsToSend = PerfLoggerRemoting.addLogRingConsumer(String.valueOf(socket.getRemoteSocketAddress()));
     }
 
     @Override
     public void run() {
-        // first send all current connections information to the socket
-        synchronized (PerfLoggerRemoting.connectionToInfo) {
-            for (final ConnectionInfo connectionInfo : PerfLoggerRemoting.connectionToInfo.values()) {
-                logsToSend.offer(connectionInfo);
-            }
-        }
-
-        ObjectOutputStream oos = null;
+        ConsoleLogWriter writer = null;
         try {
-            oos = new ObjectOutputStream(socket.getOutputStream());
-            int cnt = 0;
+            final WireFormat format = negotiateWireFormat();
+            if (format == null) {
+                return;
+            }
+            LOGGER2.debug("sending logs to " + socket + " as " + format);
+            writer = new ConsoleLogWriter(new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE), format,
+                    compression, batchSize, batchDelayMillis);
+            // first send all current connections information to the socket
+            writer.writeConnectionInfos();
             while (true) {
                 try {
-                    if (queueFull.compareAndSet(true, false)) {
-                        oos.writeUnshared(new BufferFullLogMessage(System.currentTimeMillis()));
-                    }
+                    writer.reportLostLogs(logsToSend);
 
-                    final LogMessage log = logsToSend.poll(10, TimeUnit.SECONDS);
+                    // encoded once for all the consoles
+                    EncodedLogMessage log = logsToSend.pollEncoded(0, TimeUnit.SECONDS, format);
+                    if (log == null && writer.hasPendingBatch()) {
+                        // give the next logs a chance to join the batch
+                        log = logsToSend.pollEncoded(writer.getBatchRemainingNanos(), TimeUnit.NANOSECONDS, format);
+                        if (log == null) {
+                            writer.flushBatch();
+                        }
+                    }
+                    if (log == null) {
+                        // nothing more to send for now
+                        writer.flush();
+                        log = logsToSend.pollEncoded(10, TimeUnit.SECONDS, format);
+                    }
                     if (log != null) {
-                        oos.writeUnshared(log);
+                        writer.writeLog(log);
                     } else {
                         // check the socket state
                         if (socket.isClosed() || !socket.isConnected()) {
                             // client disconnected
                             break;
                         }
-                        oos.writeUnshared(null);
-                    }
-                    cnt = (cnt + 1) % 10;
-                    if (cnt == 0) {
-                        // avoid mem leak when the stream keeps back
-                        // references to serialized objects
-                        oos.reset();
+                        writer.writeKeepAlive();
                     }
                 } catch (final InterruptedException e) {
                     break;
@@ -84,10 +93,10 @@ public class SocketLogSender implements Runnable, LogSender {
             LOGGER2.warn("socket error", e);
         } finally {
             LOGGER2.info("closing connection with " + socket);
-            PerfLoggerRemoting.senders.remove(this);
-            if (oos != null) {
+            PerfLoggerRemoting.removeLogRingConsumer(logsToSend);
+            if (writer != null) {
                 try {
-                    oos.close();
+                    writer.close();
                 } catch (final IOException ignored) {
                 }
             }
@@ -98,4 +107,23 @@ public class SocketLogSender implements Runnable, LogSender {
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * @return the format of the console, or <code>null</code> if the console is too old to read the logs
+     */
+    @Nullable
+    private WireFormat negotiateWireFormat() throws IOException {
+        final DataInputStream dis = new DataInputStream(socket.getInputStream());
+        WireFormat format;
+        try {
+            format = WireFormat.fromHello(dis.readInt(), dis.readShort());
+        } catch (final SocketTimeoutException e) {
+            format = null;
+        }
+        if (format == null) {
+            LOGGER2.warn("no valid hello received from " + socket
+                    + ", the console is probably older than the driver and must be upgraded");
+        }
+        return format;
+    }
+}
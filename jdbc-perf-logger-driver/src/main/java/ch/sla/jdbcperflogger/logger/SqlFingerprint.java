@@ -0,0 +1,215 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger.logger;
+
+import ch.sla.jdbcperflogger.model.StatementLog;
+
+/**
+ * Normalizes the SQL of the statements so that the executions differing only by their literals, like the ones of
+ * plain {@link java.sql.Statement}s, are grouped together: the string and number literals are replaced by
+ * <code>?</code>, the lists of values of the <code>IN</code> clauses by <code>?+</code>, the comments are removed
+ * and the tokens are separated by a single space, except around dots and inside parentheses, before commas and
+ * after <code>:</code> or <code>@</code>. A function call keeps its parenthesis next to its name.
+ * <p>
+ * It runs for every logged statement, hence a single pass scanner. The console groups the statements by the
+ * {@link #hash} of their fingerprint, computed by the driver once per prepared statement SQL.
+ */
+public final class SqlFingerprint {
+    private static final int WORD = 0;
+    private static final int OPERATOR = 1;
+    private static final int OPENING_PARENTHESIS = 2;
+    private static final int NO_SPACE_BEFORE = 3;
+    private static final int NO_SPACE_AFTER = 4;
+    private static final int DOT = 5;
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private SqlFingerprint() {
+    }
+
+    public static String normalize(final String sql) {
+        final int length = sql.length();
+        final StringBuilder out = new StringBuilder(length);
+        // position in out after the opening parenthesis of an IN clause, -1 when not in such a list
+        int inListStart = -1;
+        boolean afterIn = false;
+        boolean whitespaceBefore = false;
+        int previousType = -1;
+        int i = 0;
+        while (i < length) {
+            final char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                whitespaceBefore = true;
+                i++;
+                continue;
+            }
+            if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+                final int eol = sql.indexOf('\n', i + 2);
+                i = eol < 0 ? length : eol + 1;
+                whitespaceBefore = true;
+                continue;
+            }
+            if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                final int endOfComment = sql.indexOf("*/", i + 2);
+                i = endOfComment < 0 ? length : endOfComment + 2;
+                whitespaceBefore = true;
+                continue;
+            }
+
+            final int type;
+            final int tokenEnd;
+            if (c == '\'' || isDigit(c) || c == '.' && i + 1 < length && isDigit(sql.charAt(i + 1))) {
+                type = WORD;
+                tokenEnd = c == '\'' ? skipQuoted(sql, i) : skipNumber(sql, i);
+            } else if (c == '"' || c == '`') {
+                // quoted identifier
+                type = WORD;
+                tokenEnd = skipQuoted(sql, i);
+            } else if (Character.isJavaIdentifierStart(c)) {
+                type = WORD;
+                int end = i + 1;
+                while (end < length && Character.isJavaIdentifierPart(sql.charAt(end))) {
+                    end++;
+                }
+                tokenEnd = end;
+            } else if (c == '(') {
+                type = OPENING_PARENTHESIS;
+                tokenEnd = i + 1;
+            } else if (c == ')' || c == ',' || c == ';') {
+                type = NO_SPACE_BEFORE;
+                tokenEnd = i + 1;
+            } else if (c == ':' || c == '@') {
+                type = NO_SPACE_AFTER;
+                tokenEnd = i + 1;
+            } else if (c == '.') {
+                type = DOT;
+                tokenEnd = i + 1;
+            } else {
+                type = OPERATOR;
+                int end = i + 1;
+                while (end < length && isComparison(c) && isComparison(sql.charAt(end))) {
+                    end++;
+                }
+                tokenEnd = end;
+            }
+
+            if (out.length() > 0 && type != NO_SPACE_BEFORE && type != DOT && previousType != OPENING_PARENTHESIS
+                    && previousType != NO_SPACE_AFTER && previousType != DOT
+                    && (type != OPENING_PARENTHESIS || whitespaceBefore || previousType == OPERATOR
+                            || previousType == NO_SPACE_BEFORE)) {
+                out.append(' ');
+            }
+            whitespaceBefore = false;
+            previousType = type;
+
+            if (c == '\'' || isDigit(c) || c == '.' && type == WORD) {
+                out.append('?');
+            } else if (c == ')') {
+                if (inListStart >= 0 && isListOfValues(out, inListStart)) {
+                    out.setLength(inListStart);
+                    out.append("?+");
+                }
+                inListStart = -1;
+                out.append(c);
+            } else {
+                out.append(sql, i, tokenEnd);
+                if (c == '(') {
+                    inListStart = afterIn ? out.length() : -1;
+                }
+            }
+            afterIn = type == WORD && tokenEnd - i == 2 && sql.regionMatches(true, i, "in", 0, 2);
+            i = tokenEnd;
+        }
+        return out.toString();
+    }
+
+    /**
+     * @param fingerprint
+     *            a fingerprint returned by {@link #normalize(String)}
+     * @return a 64-bit FNV-1a hash of the fingerprint, stable across JVMs and never
+     *         {@link StatementLog#UNKNOWN_FINGERPRINT_HASH}
+     */
+    public static long hash(final String fingerprint) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < fingerprint.length(); i++) {
+            final char c = fingerprint.charAt(i);
+            hash = (hash ^ (c & 0xff)) * FNV_PRIME;
+            hash = (hash ^ (c >>> 8)) * FNV_PRIME;
+        }
+        return hash != StatementLog.UNKNOWN_FINGERPRINT_HASH ? hash : 1;
+    }
+
+    private static boolean isComparison(final char c) {
+        return c == '<' || c == '>' || c == '=' || c == '!' || c == '|';
+    }
+
+    private static boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * @return the position after the closing quote, the quote being escaped by doubling it
+     */
+    private static int skipQuoted(final String sql, final int start) {
+        final char quote = sql.charAt(start);
+        int i = start + 1;
+        while (i < sql.length()) {
+            if (sql.charAt(i) == quote) {
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == quote) {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * @return the position after the number, including decimals, exponent or hexadecimal digits
+     */
+    private static int skipNumber(final String sql, final int start) {
+        int i = start + 1;
+        while (i < sql.length()) {
+            final char c = sql.charAt(i);
+            final char previous = sql.charAt(i - 1);
+            if (Character.isLetterOrDigit(c) || c == '.'
+                    || (c == '+' || c == '-') && (previous == 'e' || previous == 'E')) {
+                i++;
+            } else {
+                break;
+            }
+        }
+        return i;
+    }
+
+    /**
+     * @return whether the end of the fingerprint only contains placeholders, possibly negative, separated by commas
+     */
+    private static boolean isListOfValues(final StringBuilder out, final int start) {
+        boolean placeholderFound = false;
+        for (int i = start; i < out.length(); i++) {
+            final char c = out.charAt(i);
+            if (c == '?') {
+                placeholderFound = true;
+            } else if (c != ',' && c != ' ' && c != '-') {
+                return false;
+            }
+        }
+        return placeholderFound;
+    }
+}
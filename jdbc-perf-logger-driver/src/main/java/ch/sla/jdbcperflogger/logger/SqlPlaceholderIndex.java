@@ -0,0 +1,156 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger.logger;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Offsets of the parameter placeholders ("?") of a prepared statement SQL, ignoring the ones in quoted strings and
+ * comments.
+ * <p>
+ * The SQL of a prepared statement never changes, so it is scanned only once and the index is shared by all the
+ * statements prepared with the same SQL, through a bounded cache. The hash of its {@link SqlFingerprint} is computed
+ * at the same time.
+ */
+public final class SqlPlaceholderIndex {
+    static final int MAX_CACHED_SQL = 5000;
+
+    private static final ConcurrentMap<String, SqlPlaceholderIndex> CACHE = //
+            new ConcurrentHashMap<String, SqlPlaceholderIndex>();
+
+    private final String sql;
+    private final int[] offsets;
+    private final long fingerprintHash;
+
+    private SqlPlaceholderIndex(final String sql, final int[] offsets, final long fingerprintHash) {
+        this.sql = sql;
+        this.offsets = offsets;
+        this.fingerprintHash = fingerprintHash;
+    }
+
+    /**
+     * @return the (possibly shared) index of the given SQL
+     */
+    public static SqlPlaceholderIndex of(final String sql) {
+        SqlPlaceholderIndex index = CACHE.get(sql);
+        if (index == null) {
+            index = new SqlPlaceholderIndex(sql, findPlaceholders(sql),
+                    SqlFingerprint.hash(SqlFingerprint.normalize(sql)));
+            if (CACHE.size() >= MAX_CACHED_SQL) {
+                // applications using non-parameterized SQL with prepared statements would make the cache grow without
+                // limit, just start over
+                CACHE.clear();
+            }
+            CACHE.put(sql, index);
+        }
+        return index;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public long getFingerprintHash() {
+        return fingerprintHash;
+    }
+
+    public int getPlaceholderCount() {
+        return offsets.length;
+    }
+
+    /**
+     * @param i
+     *            0-based index of the placeholder
+     * @return offset of the placeholder in the SQL
+     */
+    public int getOffset(final int i) {
+        return offsets[i];
+    }
+
+    /**
+     * Single pass scan of the SQL skipping quoted strings ('' being an escaped quote), -- comments up to the end of the
+     * line and /* comments. Unterminated quoted strings and block comments are not skipped.
+     */
+    static int[] findPlaceholders(final String sql) {
+        int[] offsets = new int[8];
+        int count = 0;
+        final int length = sql.length();
+        int i = 0;
+        while (i < length) {
+            final char c = sql.charAt(i);
+            if (c == '?') {
+                if (count == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, count * 2);
+                }
+                offsets[count++] = i;
+                i++;
+            } else if (c == '\'') {
+                i = skipQuotedString(sql, i);
+            } else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+                i = skipEndOfLineComment(sql, i + 2);
+            } else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                final int end = sql.indexOf("*/", i + 2);
+                i = end >= 0 ? end + 2 : i + 1;
+            } else {
+                i++;
+            }
+        }
+        return Arrays.copyOf(offsets, count);
+    }
+
+    /**
+     * @return the offset following the quoted string starting at the given offset, or the next offset if the string
+     *         is not terminated
+     */
+    private static int skipQuotedString(final String sql, final int start) {
+        final int length = sql.length();
+        int lastEscapedQuote = -1;
+        int i = start + 1;
+        while (i < length) {
+            if (sql.charAt(i) == '\'') {
+                if (i + 1 < length && sql.charAt(i + 1) == '\'') {
+                    lastEscapedQuote = i;
+                    i += 2;
+                } else {
+                    return i + 1;
+                }
+            } else {
+                i++;
+            }
+        }
+        // not terminated: the last '' is in fact the end of the string followed by an unterminated one
+        return lastEscapedQuote >= 0 ? lastEscapedQuote + 1 : start + 1;
+    }
+
+    private static int skipEndOfLineComment(final String sql, final int start) {
+        final int length = sql.length();
+        int i = start;
+        while (i < length && sql.charAt(i) != '\r' && sql.charAt(i) != '\n') {
+            i++;
+        }
+        return i;
+    }
+
+    @Override
+    public String toString() {
+        return "SqlPlaceholderIndex["//
+                + "sql=" + sql//
+                + ", offsets=" + Arrays.toString(offsets)//
+                + "]";
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger.logger;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import ch.sla.jdbcperflogger.DriverConfig;
+import ch.sla.jdbcperflogger.SamplingMode;
+import ch.sla.jdbcperflogger.model.SampledOutStatementsLog;
+
+/**
+ * Decides which statements are sent to the console according to the configured {@link SamplingMode}, and counts the
+ * ones that are not.
+ */
+final class StatementSampler {
+    // below this queue fill ratio, the adaptive threshold is not raised
+    static final double ADAPTIVE_MIN_FILL_RATIO = 0.25;
+
+    private final SamplingMode mode;
+    private final int rate;
+    private final long thresholdNanos;
+    private final long maxThresholdNanos;
+    private final DoubleSupplier queueFillRatio;
+
+    private final LongAdder sampledOutCount = new LongAdder();
+    private final LongAdder sampledOutDurationNanos = new LongAdder();
+
+    StatementSampler(final DriverConfig config) {
+        this(config.getSamplingMode(), config.getSamplingRate(), config.getSamplingThresholdMillis(),
+                config.getSamplingMaxThresholdMillis(), PerfLoggerRemoting::getQueueFillRatio);
+    }
+
+    StatementSampler(final SamplingMode mode, final int rate, final long thresholdMillis,
+            final long maxThresholdMillis, final DoubleSupplier queueFillRatio) {
+        this.mode = mode;
+        this.rate = Math.max(1, rate);
+        thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        maxThresholdNanos = Math.max(thresholdNanos, TimeUnit.MILLISECONDS.toNanos(maxThresholdMillis));
+        this.queueFillRatio = queueFillRatio;
+    }
+
+    SamplingMode getMode() {
+        return mode;
+    }
+
+    /**
+     * @return <code>false</code> if the next statement must not be logged at all (but only counted)
+     */
+    boolean sampleNext() {
+        return mode != SamplingMode.RATE || rate == 1 || ThreadLocalRandom.current().nextInt(rate) == 0;
+    }
+
+    /**
+     * @return <code>true</code> if the logs preceding the executions must be held back until the execution time is
+     *         known
+     */
+    boolean holdsBeforeLogs() {
+        return mode == SamplingMode.THRESHOLD || mode == SamplingMode.ADAPTIVE;
+    }
+
+    /**
+     * @return <code>true</code> if a statement executed with held back logs must be sent to the console
+     */
+    boolean keep(final long durationNanos, final boolean failed) {
+        return failed || durationNanos >= getThresholdNanos();
+    }
+
+    long getThresholdNanos() {
+        if (mode != SamplingMode.ADAPTIVE) {
+            return thresholdNanos;
+        }
+        final double fillRatio = queueFillRatio.getAsDouble();
+        if (fillRatio <= ADAPTIVE_MIN_FILL_RATIO) {
+            return thresholdNanos;
+        }
+        final double load = Math.min(1.0, (fillRatio - ADAPTIVE_MIN_FILL_RATIO) / (1.0 - ADAPTIVE_MIN_FILL_RATIO));
+        return thresholdNanos + (long) ((maxThresholdNanos - thresholdNanos) * load);
+    }
+
+    void sampledOut(final long durationNanos) {
+        sampledOutCount.increment();
+        sampledOutDurationNanos.add(durationNanos);
+    }
+
+    /**
+     * @return the statements sampled out since the last call, or <code>null</code> if there was none
+     */
+    @Nullable
+    SampledOutStatementsLog drainSampledOut() {
+        final long count = sampledOutCount.sumThenReset();
+        final long durationNanos = sampledOutDurationNanos.sumThenReset();
+        if (count == 0) {
+            return null;
+        }
+        return new SampledOutStatementsLog(System.currentTimeMillis(), count, durationNanos);
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger.logger;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import ch.sla.jdbcperflogger.StatementType;
+import ch.sla.jdbcperflogger.model.LatencyHistogram;
+import ch.sla.jdbcperflogger.model.StatementStatsLog;
+import ch.sla.jdbcperflogger.model.StatementStatsLog.StatementStats;
+
+/**
+ * Accumulates the statistics of the executed statements by statement type and raw SQL, to send them periodically
+ * instead of the logs of each execution.
+ * <p>
+ * There is one map per statement type, so that looking up a statement does not allocate a key. The statistics of
+ * a statement are updated under its own lock, so that a drain never sees a half-recorded execution. The statements
+ * not executed during an interval are forgotten to keep the maps small.
+ */
+final class StatementStatsAggregator {
+    // beyond that, the statements are counted together (non-prepared statements with literals...)
+    static final int MAX_STATEMENTS = 4096;
+    static final String OTHER_STATEMENTS_SQL = "(other statements)";
+
+    private static final StatementType[] STATEMENT_TYPES = StatementType.values();
+
+    private final List<ConcurrentHashMap<String, Accumulator>> accumulatorsByType;
+    private final AtomicInteger statementCount = new AtomicInteger();
+    private final int maxStatements;
+    private volatile long intervalStartTimestamp = System.currentTimeMillis();
+
+    StatementStatsAggregator() {
+        this(MAX_STATEMENTS);
+    }
+
+    StatementStatsAggregator(final int maxStatements) {
+        this.maxStatements = maxStatements;
+        accumulatorsByType = new ArrayList<ConcurrentHashMap<String, Accumulator>>(STATEMENT_TYPES.length);
+        for (int i = 0; i < STATEMENT_TYPES.length; i++) {
+            accumulatorsByType.add(new ConcurrentHashMap<String, Accumulator>());
+        }
+    }
+
+    /**
+     * @param executionTimeNanos
+     *            the execution time of the statement, including the usage of its ResultSet
+     * @param resultSetUsageTimeNanos
+     *            the usage time of the ResultSet of a query, negative for the other statements
+     * @param rows
+     *            the number of rows iterated for a query, updated for the other statements
+     */
+    void add(final StatementType statementType, final String rawSql, final long executionTimeNanos,
+            final long resultSetUsageTimeNanos, final long fetchTimeNanos, final long rows, final boolean failed) {
+        while (!getAccumulator(statementType, rawSql).add(executionTimeNanos, resultSetUsageTimeNanos,
+                fetchTimeNanos, rows, failed)) {
+            // removed by a concurrent drain, look it up again
+        }
+    }
+
+    private Accumulator getAccumulator(final StatementType statementType, final String rawSql) {
+        final ConcurrentHashMap<String, Accumulator> accumulators = accumulatorsByType.get(statementType.ordinal());
+        Accumulator accumulator = accumulators.get(rawSql);
+        if (accumulator != null) {
+            return accumulator;
+        }
+        String key = rawSql;
+        if (statementCount.incrementAndGet() > maxStatements) {
+            statementCount.decrementAndGet();
+            key = OTHER_STATEMENTS_SQL;
+        }
+        final Accumulator newAccumulator = new Accumulator();
+        accumulator = accumulators.putIfAbsent(key, newAccumulator);
+        if (accumulator == null) {
+            return newAccumulator;
+        }
+        if (key != OTHER_STATEMENTS_SQL) {
+            // added concurrently
+            statementCount.decrementAndGet();
+        }
+        return accumulator;
+    }
+
+    /**
+     * @return the statistics of the statements executed since the last call, or <code>null</code> if none was
+     */
+    @Nullable
+    StatementStatsLog drain() {
+        final long now = System.currentTimeMillis();
+        final long startTimestamp = intervalStartTimestamp;
+        intervalStartTimestamp = now;
+
+        final List<StatementStats> stats = new ArrayList<StatementStats>();
+        for (int i = 0; i < STATEMENT_TYPES.length; i++) {
+            final Iterator<Map.Entry<String, Accumulator>> iterator = accumulatorsByType.get(i).entrySet()
+                    .iterator();
+            while (iterator.hasNext()) {
+                final Map.Entry<String, Accumulator> entry = iterator.next();
+                final StatementStats statementStats = entry.getValue().drain(STATEMENT_TYPES[i], entry.getKey());
+                if (statementStats != null) {
+                    stats.add(statementStats);
+                } else {
+                    iterator.remove();
+                    if (entry.getKey() != OTHER_STATEMENTS_SQL) {
+                        statementCount.decrementAndGet();
+                    }
+                }
+            }
+        }
+        if (stats.isEmpty()) {
+            return null;
+        }
+        return new StatementStatsLog(startTimestamp, now, stats);
+    }
+
+    private static final class Accumulator {
+        private long executionCount;
+        private long errorCount;
+        private long totalExecutionTimeNanos;
+        private long minExecutionTimeNanos = Long.MAX_VALUE;
+        private long maxExecutionTimeNanos;
+        private long totalFetchTimeNanos;
+        private long totalRows;
+        private final LatencyHistogram executionTimeHistogram = new LatencyHistogram();
+        // only for the queries
+        @Nullable
+        private LatencyHistogram resultSetUsageTimeHistogram;
+        private boolean removed;
+
+        /**
+         * @return <code>false</code> if this accumulator has been removed from its map and cannot be used anymore
+         */
+        synchronized boolean add(final long executionTimeNanos, final long resultSetUsageTimeNanos,
+                final long fetchTimeNanos, final long rows, final boolean failed) {
+            if (removed) {
+                return false;
+            }
+            executionCount++;
+            if (failed) {
+                errorCount++;
+            }
+            totalExecutionTimeNanos += executionTimeNanos;
+            minExecutionTimeNanos = Math.min(minExecutionTimeNanos, executionTimeNanos);
+            maxExecutionTimeNanos = Math.max(maxExecutionTimeNanos, executionTimeNanos);
+            totalFetchTimeNanos += fetchTimeNanos;
+            totalRows += rows;
+            executionTimeHistogram.record(executionTimeNanos);
+            if (resultSetUsageTimeNanos >= 0) {
+                LatencyHistogram resultSetUsageTimeHistogram2 = resultSetUsageTimeHistogram;
+                if (resultSetUsageTimeHistogram2 == null) {
+                    resultSetUsageTimeHistogram2 = new LatencyHistogram();
+                    resultSetUsageTimeHistogram = resultSetUsageTimeHistogram2;
+                }
+                resultSetUsageTimeHistogram2.record(resultSetUsageTimeNanos);
+            }
+            return true;
+        }
+
+        /**
+         * @return the statistics since the last drain, or <code>null</code> (and marks this accumulator as removed)
+         *         if the statement was not executed
+         */
+        @Nullable
+        synchronized StatementStats drain(final StatementType statementType, final String rawSql) {
+            if (executionCount == 0) {
+                removed = true;
+                return null;
+            }
+            final LatencyHistogram resultSetUsageTimeHistogram2 = resultSetUsageTimeHistogram;
+            final StatementStats stats = new StatementStats(statementType, rawSql, executionCount, errorCount,
+                    totalExecutionTimeNanos, minExecutionTimeNanos, maxExecutionTimeNanos, totalFetchTimeNanos,
+                    totalRows, executionTimeHistogram.copy(), resultSetUsageTimeHistogram2 != null
+                            ? resultSetUsageTimeHistogram2.copy() : new LatencyHistogram());
+            executionCount = 0;
+            errorCount = 0;
+            totalExecutionTimeNanos = 0;
+            minExecutionTimeNanos = Long.MAX_VALUE;
+            maxExecutionTimeNanos = 0;
+            totalFetchTimeNanos = 0;
+            totalRows = 0;
+            executionTimeHistogram.reset();
+            if (resultSetUsageTimeHistogram2 != null) {
+                resultSetUsageTimeHistogram2.reset();
+            }
+            return stats;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger.logger;
+
+import java.io.IOException;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import ch.sla.jdbcperflogger.model.BinaryLogMessageCodec;
+import ch.sla.jdbcperflogger.model.EncodedLogMessage;
+import ch.sla.jdbcperflogger.model.LogMessage;
+import ch.sla.jdbcperflogger.model.StringDictionary;
+
+/**
+ * How the logs are encoded on the socket of a console.
+ */
+enum WireFormat {
+    /**
+     * Each log is a frame of {@link BinaryLogMessageCodec}, the repeated strings referring to a dictionary shared by
+     * all the consoles.
+     */
+    BINARY {
+        @Override
+        EncodedLogMessage encode(final LogMessage log) throws IOException {
+            return BinaryLogMessageCodec.encode(log, DICTIONARY);
+        }
+    };
+
+    // shared so that a log is encoded only once, each console receiving the definitions of the entries it uses
+    private static final StringDictionary DICTIONARY = new StringDictionary(BinaryLogMessageCodec.DICTIONARY_CAPACITY);
+
+    abstract EncodedLogMessage encode(LogMessage log) throws IOException;
+
+    /**
+     * The consoles announce the format they read as soon as they are connected with {@link BinaryLogMessageCodec#MAGIC}
+     * followed by their version.
+     *
+     * @return <code>null</code> if the console is too old to read the logs of this driver
+     */
+    @Nullable
+    static WireFormat fromHello(final int magic, final short version) {
+        if (magic == BinaryLogMessageCodec.MAGIC && version >= BinaryLogMessageCodec.VERSION) {
+            return BINARY;
+        }
+        return null;
+    }
+}
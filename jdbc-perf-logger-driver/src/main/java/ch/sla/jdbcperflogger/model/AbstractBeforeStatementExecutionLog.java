@@ -15,16 +15,14 @@
  */
 package ch.sla.jdbcperflogger.model;
 
-import java.util.UUID;
-
 import ch.sla.jdbcperflogger.StatementType;
 
 public class AbstractBeforeStatementExecutionLog implements LogMessage {
 
-    private static final long serialVersionUID = 1L;
+    private static final long serialVersionUID = 2L;
 
-    private final UUID connectionUuid;
-    private final UUID logId;
+    private final long connectionId;
+    private final long logId;
     private final long timestamp;
     private final StatementType statementType;
     private final String threadName;
@@ -32,9 +30,9 @@ public class AbstractBeforeStatementExecutionLog implements LogMessage {
     private final boolean autoCommit;
     private final int transactionIsolation;
 
-    public AbstractBeforeStatementExecutionLog(final UUID connectionId, final UUID logId, final long timestamp,
+    public AbstractBeforeStatementExecutionLog(final long connectionId, final long logId, final long timestamp,
                                                final StatementType statementType, final String threadName, final int timeout, final boolean autoCommit, int transactionIsolation) {
-        connectionUuid = connectionId;
+        this.connectionId = connectionId;
         this.logId = logId;
         this.timestamp = timestamp;
         this.statementType = statementType;
@@ -44,11 +42,11 @@ public class AbstractBeforeStatementExecutionLog implements LogMessage {
         this.transactionIsolation = transactionIsolation;
     }
 
-    public UUID getConnectionUuid() {
-        return connectionUuid;
+    public long getConnectionId() {
+        return connectionId;
     }
 
-    public UUID getLogId() {
+    public long getLogId() {
         return logId;
     }
 
@@ -18,8 +18,6 @@ package ch.sla.jdbcperflogger.model;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.UUID;
-
 import ch.sla.jdbcperflogger.StatementType;
 
 public class BatchedNonPreparedStatementsLog extends AbstractBeforeStatementExecutionLog {
@@ -28,7 +26,7 @@ public class BatchedNonPreparedStatementsLog extends AbstractBeforeStatementExec
 
     private final List<String> sqlList;
 
-    public BatchedNonPreparedStatementsLog(final UUID connectionId, final UUID logId, final long timestamp,
+    public BatchedNonPreparedStatementsLog(final long connectionId, final long logId, final long timestamp,
             final List<String> sqlList, final String threadName, final int timeout, final boolean autoCommit,
             final int transactionIsolation) {
         super(connectionId, logId, timestamp, StatementType.NON_PREPARED_BATCH_EXECUTION, threadName, timeout,
@@ -15,10 +15,14 @@
  */
 package ch.sla.jdbcperflogger.model;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.UUID;
+import java.util.function.Supplier;
+
+import org.eclipse.jdt.annotation.Nullable;
 
 import ch.sla.jdbcperflogger.StatementType;
 
@@ -27,9 +31,13 @@ public class BatchedPreparedStatementsLog extends AbstractBeforeStatementExecuti
     private static final long serialVersionUID = 1L;
 
     private final String rawSql;
-    private final List<String> sqlList;
+    @Nullable
+    private List<String> sqlList;
+    // set only when the filled sql list is rendered lazily, not serialized
+    @Nullable
+    private transient Supplier<List<String>> sqlListRenderer;
 
-    public BatchedPreparedStatementsLog(final UUID connectionId, final UUID logId, final long timestamp,
+    public BatchedPreparedStatementsLog(final long connectionId, final long logId, final long timestamp,
             final String rawSql, final List<String> sqlList, final String threadName, final int timeout,
             final boolean autoCommit, final int transactionIsolation) {
         super(connectionId, logId, timestamp, StatementType.PREPARED_BATCH_EXECUTION, threadName, timeout, autoCommit, transactionIsolation);
@@ -37,12 +45,33 @@ public class BatchedPreparedStatementsLog extends AbstractBeforeStatementExecuti
         this.sqlList = Collections.unmodifiableList(new ArrayList<String>(sqlList));
     }
 
+    /**
+     * Creates the log of a batch whose filled SQL list is only rendered when first needed, at the latest when the log
+     * is serialized.
+     */
+    public BatchedPreparedStatementsLog(final long connectionId, final long logId, final long timestamp,
+            final String rawSql, final Supplier<List<String>> sqlListRenderer, final String threadName,
+            final int timeout, final boolean autoCommit, final int transactionIsolation) {
+        super(connectionId, logId, timestamp, StatementType.PREPARED_BATCH_EXECUTION, threadName, timeout, autoCommit,
+                transactionIsolation);
+        this.rawSql = rawSql;
+        this.sqlListRenderer = sqlListRenderer;
+    }
+
     public String getRawSql() {
         return rawSql;
     }
 
-    public List<String> getSqlList() {
-        return sqlList;
+    public synchronized List<String> getSqlList() {
+        List<String> list = sqlList;
+        if (list == null) {
+            final Supplier<List<String>> renderer = sqlListRenderer;
+            assert renderer != null;
+            list = Collections.unmodifiableList(new ArrayList<String>(renderer.get()));
+            sqlList = list;
+            sqlListRenderer = null;
+        }
+        return list;
     }
 
     @Override
@@ -59,4 +88,9 @@ public class BatchedPreparedStatementsLog extends AbstractBeforeStatementExecuti
                 + "]";
     }
 
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        getSqlList();
+        out.defaultWriteObject();
+    }
+
 }
@@ -0,0 +1,760 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger.model;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import ch.sla.jdbcperflogger.StatementType;
+import ch.sla.jdbcperflogger.TxCompletionType;
+
+/**
+ * Compact binary encoding of the logs sent to the console, smaller and much cheaper to encode and decode than java
+ * serialization.
+ * <p>
+ * A stream starts with {@link #MAGIC} followed by the protocol version (a short), then contains frames made of their
+ * length (an int), the type of the log (a byte) and its fields. Integers are encoded as zig-zag varints and strings
+ * as their UTF-8 length + 1 (0 for <code>null</code>) followed by their bytes. Logs of an unknown class are sent java
+ * serialized in a frame of their own.
+ * <p>
+ * The raw SQL of prepared statements and the thread names are sent as ids of a {@link StringDictionary}, each
+ * connection receiving a dictionary frame defining an id before the first log using it (see {@link FrameWriter}).
+ * Both sides keep at most {@link #DICTIONARY_CAPACITY} ids.
+ * <p>
+ * Several frames may be sent deflated together in a batch frame (see {@link #compressBatch}), which is worth it on
+ * slow links since the SQL compresses very well.
+ * <p>
+ * The console announces the versions it supports with the same header when it connects, the driver falls back to
+ * java serialization if it does not.
+ */
+public final class BinaryLogMessageCodec {
+    // "JPLG", different from the header of java serialization streams
+    public static final int MAGIC = 0x4A504C47;
+    public static final short VERSION = 8;
+    public static final int DICTIONARY_CAPACITY = 2048;
+
+    private static final byte KEEP_ALIVE = 0;
+    private static final byte CONNECTION_INFO = 1;
+    private static final byte STATEMENT = 2;
+    private static final byte BATCHED_NON_PREPARED_STATEMENTS = 3;
+    private static final byte BATCHED_PREPARED_STATEMENTS = 4;
+    private static final byte STATEMENT_EXECUTED = 5;
+    private static final byte RESULT_SET = 6;
+    private static final byte TX_COMPLETE = 7;
+    private static final byte BUFFER_FULL = 8;
+    private static final byte SAMPLED_OUT_STATEMENTS = 9;
+    private static final byte STATEMENT_COMPLETED = 10;
+    private static final byte DICTIONARY_ENTRY = 11;
+    private static final byte COMPRESSED_BATCH = 12;
+    private static final byte LOST_MESSAGES = 13;
+    private static final byte STATEMENT_STATS = 14;
+    private static final byte TELEMETRY = 15;
+    private static final byte JAVA_SERIALIZED = 127;
+
+    private static final TxCompletionType[] TX_COMPLETION_TYPES = TxCompletionType.values();
+    private static final LostMessagesLog.MessageType[] MESSAGE_TYPES = LostMessagesLog.MessageType.values();
+
+    private BinaryLogMessageCodec() {
+    }
+
+    /**
+     * @return the frame of the given log, including its length, or of a keep-alive message if the log is
+     *         <code>null</code>, without references to a dictionary
+     */
+    public static byte[] encode(@Nullable final LogMessage log) throws IOException {
+        return encode(log, null).getBytes();
+    }
+
+    /**
+     * @param dictionary
+     *            the dictionary of the repeated strings, <code>null</code> to write them in the frame
+     * @return the frame of the given log, including its length, or of a keep-alive message if the log is
+     *         <code>null</code>
+     */
+    public static EncodedLogMessage encode(@Nullable final LogMessage log, @Nullable final StringDictionary dictionary)
+            throws IOException {
+        final Output out = new Output(dictionary);
+        // length of the frame, set at the end
+        out.writeInt(0);
+        if (log == null) {
+            out.writeByte(KEEP_ALIVE);
+        } else if (log instanceof StatementCompletedLog
+                && isBinaryEncoded(((StatementCompletedLog) log).getBeforeExecutionLog())) {
+            final StatementCompletedLog completedLog = (StatementCompletedLog) log;
+            out.writeByte(STATEMENT_COMPLETED);
+            writeBeforeExecutionLog(out, completedLog.getBeforeExecutionLog());
+            writeStatementExecutedLog(out, completedLog.getExecutedLog());
+            final ResultSetLog resultSetLog = completedLog.getResultSetLog();
+            out.writeBoolean(resultSetLog != null);
+            if (resultSetLog != null) {
+                writeResultSetLog(out, resultSetLog);
+            }
+        } else if (log instanceof StatementExecutedLog) {
+            out.writeByte(STATEMENT_EXECUTED);
+            writeStatementExecutedLog(out, (StatementExecutedLog) log);
+        } else if (log instanceof ResultSetLog) {
+            out.writeByte(RESULT_SET);
+            writeResultSetLog(out, (ResultSetLog) log);
+        } else if (log instanceof AbstractBeforeStatementExecutionLog
+                && isBinaryEncoded((AbstractBeforeStatementExecutionLog) log)) {
+            writeBeforeExecutionLog(out, (AbstractBeforeStatementExecutionLog) log);
+        } else if (log instanceof ConnectionInfo) {
+            final ConnectionInfo connectionInfo = (ConnectionInfo) log;
+            out.writeByte(CONNECTION_INFO);
+            out.writeLong(connectionInfo.getConnectionId());
+            out.writeVarLong(connectionInfo.getConnectionNumber());
+            out.writeString(connectionInfo.getUrl());
+            out.writeVarLong(connectionInfo.getCreationDate().getTime());
+            out.writeVarLong(connectionInfo.getConnectionCreationDuration());
+            final Properties properties = connectionInfo.getConnectionProperties();
+            final Set<String> names = properties.stringPropertyNames();
+            out.writeVarLong(names.size());
+            for (final String name : names) {
+                out.writeString(name);
+                out.writeString(properties.getProperty(name));
+            }
+        } else if (log instanceof TxCompleteLog) {
+            final TxCompleteLog txCompleteLog = (TxCompleteLog) log;
+            out.writeByte(TX_COMPLETE);
+            out.writeLong(txCompleteLog.getConnectionId());
+            out.writeVarLong(txCompleteLog.getTimestamp());
+            out.writeByte((byte) txCompleteLog.getCompletionType().ordinal());
+            out.writeVarLong(txCompleteLog.getExecutionTimeNanos());
+            out.writeDictionaryString(txCompleteLog.getThreadName());
+            out.writeString(txCompleteLog.getSavePointDescription());
+        } else if (log instanceof BufferFullLogMessage) {
+            out.writeByte(BUFFER_FULL);
+            out.writeVarLong(((BufferFullLogMessage) log).getTimestamp());
+        } else if (log instanceof SampledOutStatementsLog) {
+            final SampledOutStatementsLog sampledOutLog = (SampledOutStatementsLog) log;
+            out.writeByte(SAMPLED_OUT_STATEMENTS);
+            out.writeVarLong(sampledOutLog.getTimestamp());
+            out.writeVarLong(sampledOutLog.getStatementCount());
+            out.writeVarLong(sampledOutLog.getExecutionTimeNanos());
+        } else if (log instanceof LostMessagesLog) {
+            final LostMessagesLog lostMessagesLog = (LostMessagesLog) log;
+            out.writeByte(LOST_MESSAGES);
+            out.writeVarLong(lostMessagesLog.getStartTimestamp());
+            out.writeVarLong(lostMessagesLog.getEndTimestamp());
+            out.writeVarLong(MESSAGE_TYPES.length);
+            for (final LostMessagesLog.MessageType type : MESSAGE_TYPES) {
+                out.writeVarLong(lostMessagesLog.getLostCount(type));
+            }
+        } else if (log instanceof StatementStatsLog) {
+            final StatementStatsLog statsLog = (StatementStatsLog) log;
+            out.writeByte(STATEMENT_STATS);
+            out.writeVarLong(statsLog.getStartTimestamp());
+            out.writeVarLong(statsLog.getEndTimestamp());
+            out.writeVarLong(statsLog.getStats().size());
+            for (final StatementStatsLog.StatementStats stats : statsLog.getStats()) {
+                out.writeByte((byte) stats.getStatementType().getId());
+                // not in the dictionary, a single log could evict its own entries
+                out.writeString(stats.getRawSql());
+                out.writeVarLong(stats.getExecutionCount());
+                out.writeVarLong(stats.getErrorCount());
+                out.writeVarLong(stats.getTotalExecutionTimeNanos());
+                out.writeVarLong(stats.getMinExecutionTimeNanos());
+                out.writeVarLong(stats.getMaxExecutionTimeNanos());
+                out.writeVarLong(stats.getTotalFetchTimeNanos());
+                out.writeVarLong(stats.getTotalRows());
+                writeHistogram(out, stats.getExecutionTimeHistogram());
+                writeHistogram(out, stats.getResultSetUsageTimeHistogram());
+            }
+        } else if (log instanceof TelemetryLog) {
+            final TelemetryLog telemetryLog = (TelemetryLog) log;
+            out.writeByte(TELEMETRY);
+            out.writeVarLong(telemetryLog.getStartTimestamp());
+            out.writeVarLong(telemetryLog.getEndTimestamp());
+            out.writeVarLong(telemetryLog.getPostedCount());
+            out.writeVarLong(telemetryLog.getDroppedCount());
+            out.writeVarLong(telemetryLog.getEncodedCount());
+            out.writeVarLong(telemetryLog.getEncodingTimeNanos());
+            out.writeVarLong(telemetryLog.getBytesSent());
+            out.writeVarLong(telemetryLog.getLoggerCallCount());
+            out.writeVarLong(telemetryLog.getLoggerTimeNanos());
+            out.writeVarLong(telemetryLog.getMaxQueueDepth());
+        } else {
+            writeJavaSerialized(out, log);
+        }
+        return new EncodedLogMessage(out.toFrame(), out.getUsedEntries());
+    }
+
+    /**
+     * @param frames
+     *            a buffer containing frames, including their length
+     * @param length
+     *            the number of bytes of the frames in the buffer
+     * @return a frame, including its length, containing the given frames compressed with the given deflater
+     */
+    public static byte[] compressBatch(final byte[] frames, final int length, final Deflater deflater) {
+        final Output out = new Output(null);
+        out.writeInt(0);
+        out.writeByte(COMPRESSED_BATCH);
+        out.writeVarLong(length);
+        out.writeDeflated(frames, length, deflater);
+        return out.toFrame();
+    }
+
+    private static void writeJavaSerialized(final Output out, final LogMessage log) throws IOException {
+        out.writeByte(JAVA_SERIALIZED);
+        out.writeBytes(LogMessageSerializer.serialize(log));
+    }
+
+    private static boolean isBinaryEncoded(final AbstractBeforeStatementExecutionLog log) {
+        return log instanceof StatementLog || log instanceof BatchedNonPreparedStatementsLog
+                || log instanceof BatchedPreparedStatementsLog;
+    }
+
+    private static void writeBeforeExecutionLog(final Output out, final AbstractBeforeStatementExecutionLog log) {
+        if (log instanceof StatementLog) {
+            final StatementLog statementLog = (StatementLog) log;
+            out.writeByte(STATEMENT);
+            writeBeforeExecutionLogFields(out, log);
+            out.writeBoolean(statementLog.isPreparedStatement());
+            if (statementLog.isPreparedStatement()) {
+                out.writeDictionaryString(statementLog.getRawSql());
+                out.writeString(statementLog.getFilledSql());
+                out.writeLong(statementLog.getFingerprintHash());
+            } else {
+                // the values are part of the SQL, it is rarely repeated
+                out.writeString(statementLog.getRawSql());
+            }
+        } else if (log instanceof BatchedNonPreparedStatementsLog) {
+            out.writeByte(BATCHED_NON_PREPARED_STATEMENTS);
+            writeBeforeExecutionLogFields(out, log);
+            writeStrings(out, ((BatchedNonPreparedStatementsLog) log).getSqlList());
+        } else {
+            final BatchedPreparedStatementsLog batchedLog = (BatchedPreparedStatementsLog) log;
+            out.writeByte(BATCHED_PREPARED_STATEMENTS);
+            writeBeforeExecutionLogFields(out, log);
+            out.writeDictionaryString(batchedLog.getRawSql());
+            writeStrings(out, batchedLog.getSqlList());
+        }
+    }
+
+    private static void writeBeforeExecutionLogFields(final Output out, final AbstractBeforeStatementExecutionLog log) {
+        out.writeLong(log.getConnectionId());
+        out.writeLong(log.getLogId());
+        out.writeVarLong(log.getTimestamp());
+        out.writeByte((byte) log.getStatementType().getId());
+        out.writeDictionaryString(log.getThreadName());
+        out.writeVarLong(log.getTimeout());
+        out.writeBoolean(log.isAutoCommit());
+        out.writeVarLong(log.getTransactionIsolation());
+    }
+
+    private static void writeStatementExecutedLog(final Output out, final StatementExecutedLog log) {
+        out.writeLong(log.getLogId());
+        out.writeVarLong(log.getExecutionTimeNanos());
+        final Long updateCount = log.getUpdateCount();
+        out.writeBoolean(updateCount != null);
+        if (updateCount != null) {
+            out.writeVarLong(updateCount.longValue());
+        }
+        out.writeString(log.getSqlException());
+    }
+
+    private static void writeResultSetLog(final Output out, final ResultSetLog log) {
+        out.writeLong(log.getLogId());
+        out.writeVarLong(log.getResultSetUsageDurationNanos());
+        out.writeVarLong(log.getFetchDurationNanos());
+        out.writeVarLong(log.getNbRowsIterated());
+    }
+
+    // only the non-empty buckets, as (index delta, count) pairs
+    private static void writeHistogram(final Output out, final LatencyHistogram histogram) {
+        int nonEmptyBuckets = 0;
+        for (int i = 0; i < LatencyHistogram.BUCKET_COUNT; i++) {
+            if (histogram.getCount(i) != 0) {
+                nonEmptyBuckets++;
+            }
+        }
+        out.writeVarLong(nonEmptyBuckets);
+        int previousIndex = 0;
+        for (int i = 0; i < LatencyHistogram.BUCKET_COUNT; i++) {
+            final long count = histogram.getCount(i);
+            if (count != 0) {
+                out.writeVarLong(i - previousIndex);
+                out.writeVarLong(count);
+                previousIndex = i;
+            }
+        }
+    }
+
+    private static void writeStrings(final Output out, final List<String> strings) {
+        out.writeVarLong(strings.size());
+        for (final String string : strings) {
+            out.writeString(string);
+        }
+    }
+
+    /**
+     * Decodes a frame not referring to a dictionary.
+     *
+     * @param frame
+     *            a frame without its length
+     * @return the log, or <code>null</code> for a keep-alive message
+     * @throws IllegalArgumentException
+     *             if the type of the frame is unknown
+     */
+    @Nullable
+    public static LogMessage decode(final byte[] frame) throws IOException, ClassNotFoundException {
+        return decode(new Input(frame, 0, frame.length, null));
+    }
+
+    @Nullable
+    private static LogMessage decode(final Input in) throws IOException, ClassNotFoundException {
+        final byte type = in.readByte();
+        switch (type) {
+        case KEEP_ALIVE:
+            return null;
+        case DICTIONARY_ENTRY:
+            in.defineDictionaryEntry((int) in.readVarLong(), in.readNonNullString());
+            return null;
+        case COMPRESSED_BATCH:
+            throw new IllegalArgumentException("unexpected batch of logs");
+        case STATEMENT_COMPLETED: {
+            final AbstractBeforeStatementExecutionLog beforeExecutionLog = readBeforeExecutionLog(in, in.readByte());
+            final StatementExecutedLog executedLog = readStatementExecutedLog(in);
+            final ResultSetLog resultSetLog = in.readBoolean() ? readResultSetLog(in) : null;
+            return new StatementCompletedLog(beforeExecutionLog, executedLog, resultSetLog);
+        }
+        case STATEMENT:
+        case BATCHED_NON_PREPARED_STATEMENTS:
+        case BATCHED_PREPARED_STATEMENTS:
+            return readBeforeExecutionLog(in, type);
+        case STATEMENT_EXECUTED:
+            return readStatementExecutedLog(in);
+        case RESULT_SET:
+            return readResultSetLog(in);
+        case CONNECTION_INFO: {
+            final long connectionId = in.readLong();
+            final int connectionNumber = (int) in.readVarLong();
+            final String url = in.readNonNullString();
+            final Date creationDate = new Date(in.readVarLong());
+            final long connectionCreationDuration = in.readVarLong();
+            final Properties properties = new Properties();
+            for (int i = (int) in.readVarLong(); i > 0; i--) {
+                properties.setProperty(in.readNonNullString(), in.readNonNullString());
+            }
+            return new ConnectionInfo(connectionId, connectionNumber, url, creationDate, connectionCreationDuration,
+                    properties);
+        }
+        case TX_COMPLETE:
+            return new TxCompleteLog(in.readLong(), in.readVarLong(), TX_COMPLETION_TYPES[in.readByte()],
+                    in.readVarLong(), in.readDictionaryString(), in.readString());
+        case BUFFER_FULL:
+            return new BufferFullLogMessage(in.readVarLong());
+        case SAMPLED_OUT_STATEMENTS:
+            return new SampledOutStatementsLog(in.readVarLong(), in.readVarLong(), in.readVarLong());
+        case LOST_MESSAGES: {
+            final long startTimestamp = in.readVarLong();
+            final long endTimestamp = in.readVarLong();
+            final long[] lostCounts = new long[(int) in.readVarLong()];
+            for (int i = 0; i < lostCounts.length; i++) {
+                lostCounts[i] = in.readVarLong();
+            }
+            return new LostMessagesLog(startTimestamp, endTimestamp, lostCounts);
+        }
+        case STATEMENT_STATS: {
+            final long startTimestamp = in.readVarLong();
+            final long endTimestamp = in.readVarLong();
+            final int size = (int) in.readVarLong();
+            final List<StatementStatsLog.StatementStats> stats = new ArrayList<StatementStatsLog.StatementStats>(
+                    size);
+            for (int i = 0; i < size; i++) {
+                stats.add(new StatementStatsLog.StatementStats(StatementType.fromId(in.readByte()),
+                        in.readNonNullString(), in.readVarLong(), in.readVarLong(), in.readVarLong(),
+                        in.readVarLong(), in.readVarLong(), in.readVarLong(), in.readVarLong(), readHistogram(in),
+                        readHistogram(in)));
+            }
+            return new StatementStatsLog(startTimestamp, endTimestamp, stats);
+        }
+        case TELEMETRY:
+            return new TelemetryLog(in.readVarLong(), in.readVarLong(), in.readVarLong(), in.readVarLong(),
+                    in.readVarLong(), in.readVarLong(), in.readVarLong(), in.readVarLong(), in.readVarLong(),
+                    in.readVarLong());
+        case JAVA_SERIALIZED:
+            return LogMessageSerializer.deserialize(in.readRemainingBytes());
+        default:
+            throw new IllegalArgumentException("unknown log type " + type);
+        }
+    }
+
+    private static LatencyHistogram readHistogram(final Input in) {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        int index = 0;
+        for (int i = (int) in.readVarLong(); i > 0; i--) {
+            index += (int) in.readVarLong();
+            histogram.addCount(index, in.readVarLong());
+        }
+        return histogram;
+    }
+
+    private static AbstractBeforeStatementExecutionLog readBeforeExecutionLog(final Input in, final byte type) {
+        final long connectionId = in.readLong();
+        final long logId = in.readLong();
+        final long timestamp = in.readVarLong();
+        final StatementType statementType = StatementType.fromId(in.readByte());
+        final String threadName = in.readDictionaryString();
+        final int timeout = (int) in.readVarLong();
+        final boolean autoCommit = in.readBoolean();
+        final int transactionIsolation = (int) in.readVarLong();
+        switch (type) {
+        case STATEMENT: {
+            if (in.readBoolean()) {
+                final String rawSql = in.readDictionaryString();
+                final String filledSql = in.readNonNullString();
+                return new StatementLog(connectionId, logId, timestamp, statementType, rawSql, filledSql, threadName,
+                        timeout, autoCommit, transactionIsolation, in.readLong());
+            }
+            return new StatementLog(connectionId, logId, timestamp, statementType, in.readNonNullString(),
+                    threadName, timeout, autoCommit, transactionIsolation);
+        }
+        case BATCHED_NON_PREPARED_STATEMENTS:
+            return new BatchedNonPreparedStatementsLog(connectionId, logId, timestamp, readStrings(in), threadName,
+                    timeout, autoCommit, transactionIsolation);
+        case BATCHED_PREPARED_STATEMENTS: {
+            final String rawSql = in.readDictionaryString();
+            return new BatchedPreparedStatementsLog(connectionId, logId, timestamp, rawSql, readStrings(in),
+                    threadName, timeout, autoCommit, transactionIsolation);
+        }
+        default:
+            throw new IllegalArgumentException("unknown statement log type " + type);
+        }
+    }
+
+    private static StatementExecutedLog readStatementExecutedLog(final Input in) {
+        final long logId = in.readLong();
+        final long executionTimeNanos = in.readVarLong();
+        final Long updateCount = in.readBoolean() ? Long.valueOf(in.readVarLong()) : null;
+        return new StatementExecutedLog(logId, executionTimeNanos, updateCount, in.readString());
+    }
+
+    private static ResultSetLog readResultSetLog(final Input in) {
+        return new ResultSetLog(in.readLong(), in.readVarLong(), in.readVarLong(), (int) in.readVarLong());
+    }
+
+    private static List<String> readStrings(final Input in) {
+        final int size = (int) in.readVarLong();
+        final List<String> strings = new ArrayList<String>(size);
+        for (int i = 0; i < size; i++) {
+            strings.add(in.readNonNullString());
+        }
+        return strings;
+    }
+
+    /**
+     * Writes the encoded logs to the stream of a connection, preceded by the definitions of the dictionary entries
+     * that the connection does not know yet.
+     */
+    public static final class FrameWriter {
+        private final StringDictionary.Entry[] definedEntries = new StringDictionary.Entry[DICTIONARY_CAPACITY];
+
+        public void write(final EncodedLogMessage log, final OutputStream os) throws IOException {
+            for (final StringDictionary.Entry entry : log.getDictionaryEntries()) {
+                if (definedEntries[entry.getId()] != entry) {
+                    final Output out = new Output(null);
+                    out.writeInt(0);
+                    out.writeByte(DICTIONARY_ENTRY);
+                    out.writeVarLong(entry.getId());
+                    out.writeString(entry.getValue());
+                    os.write(out.toFrame());
+                    definedEntries[entry.getId()] = entry;
+                }
+            }
+            os.write(log.getBytes());
+        }
+    }
+
+    /**
+     * Decodes the frames received on a connection, keeping the dictionary they define.
+     */
+    public static final class Decoder {
+        private final String[] dictionary = new String[DICTIONARY_CAPACITY];
+        private final Inflater inflater = new Inflater();
+
+        /**
+         * @param frame
+         *            a frame without its length
+         * @param logs
+         *            receives the logs of the frame: none for a keep-alive message or a dictionary entry, several for
+         *            a batch
+         * @throws IllegalArgumentException
+         *             if the type of the frame is unknown or if it refers to an unknown dictionary entry
+         */
+        public void decode(final byte[] frame, final Consumer<LogMessage> logs)
+                throws IOException, ClassNotFoundException {
+            decode(frame, 0, frame.length, logs);
+        }
+
+        /**
+         * Decodes a frame stored in a larger buffer, like the records of a capture file.
+         *
+         * @see #decode(byte[], Consumer)
+         */
+        public void decode(final byte[] buffer, final int offset, final int length, final Consumer<LogMessage> logs)
+                throws IOException, ClassNotFoundException {
+            final int limit = offset + length;
+            if (length == 0 || buffer[offset] != COMPRESSED_BATCH) {
+                decodeTo(new Input(buffer, offset, limit, dictionary), logs);
+                return;
+            }
+            final Input batchIn = new Input(buffer, offset + 1, limit, dictionary);
+            final byte[] frames = batchIn.readInflated((int) batchIn.readVarLong(), inflater);
+            int position = 0;
+            while (position < frames.length) {
+                final int frameLength = new Input(frames, position, frames.length, null).readInt();
+                position += 4;
+                decodeTo(new Input(frames, position, position + frameLength, dictionary), logs);
+                position += frameLength;
+            }
+        }
+
+        private static void decodeTo(final Input in, final Consumer<LogMessage> logs)
+                throws IOException, ClassNotFoundException {
+            final LogMessage log = BinaryLogMessageCodec.decode(in);
+            if (log != null) {
+                logs.accept(log);
+            }
+        }
+    }
+
+    private static final class Output {
+        @Nullable
+        private final StringDictionary dictionary;
+        private final List<StringDictionary.Entry> usedEntries = new ArrayList<StringDictionary.Entry>(2);
+        private byte[] buffer = new byte[256];
+        private int position;
+
+        Output(@Nullable final StringDictionary dictionary) {
+            this.dictionary = dictionary;
+        }
+
+        private void ensureCapacity(final int additionalBytes) {
+            if (position + additionalBytes > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + additionalBytes));
+            }
+        }
+
+        void writeByte(final byte value) {
+            ensureCapacity(1);
+            buffer[position++] = value;
+        }
+
+        void writeBoolean(final boolean value) {
+            writeByte(value ? (byte) 1 : (byte) 0);
+        }
+
+        void writeInt(final int value) {
+            ensureCapacity(4);
+            buffer[position++] = (byte) (value >>> 24);
+            buffer[position++] = (byte) (value >>> 16);
+            buffer[position++] = (byte) (value >>> 8);
+            buffer[position++] = (byte) value;
+        }
+
+        void writeLong(final long value) {
+            writeInt((int) (value >>> 32));
+            writeInt((int) value);
+        }
+
+        void writeVarLong(final long value) {
+            ensureCapacity(10);
+            long zigZag = (value << 1) ^ (value >> 63);
+            while ((zigZag & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((zigZag & 0x7F) | 0x80);
+                zigZag >>>= 7;
+            }
+            buffer[position++] = (byte) zigZag;
+        }
+
+        void writeBytes(final byte[] bytes) {
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        void writeString(@Nullable final String value) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length + 1L);
+            writeBytes(bytes);
+        }
+
+        /**
+         * Writes the id + 1 of the string in the dictionary, or 0 followed by the string if there is no dictionary
+         */
+        void writeDictionaryString(final String value) {
+            final StringDictionary dictionary2 = dictionary;
+            if (dictionary2 == null) {
+                writeVarLong(0);
+                writeString(value);
+                return;
+            }
+            final StringDictionary.Entry entry = dictionary2.getEntry(value);
+            if (!usedEntries.contains(entry)) {
+                usedEntries.add(entry);
+            }
+            writeVarLong(entry.getId() + 1L);
+        }
+
+        StringDictionary.Entry[] getUsedEntries() {
+            return usedEntries.toArray(new StringDictionary.Entry[usedEntries.size()]);
+        }
+
+        void writeDeflated(final byte[] bytes, final int length, final Deflater deflater) {
+            deflater.reset();
+            deflater.setInput(bytes, 0, length);
+            deflater.finish();
+            while (!deflater.finished()) {
+                ensureCapacity(Math.max(64, length / 4));
+                position += deflater.deflate(buffer, position, buffer.length - position);
+            }
+        }
+
+        byte[] toFrame() {
+            final int length = position - 4;
+            position = 0;
+            writeInt(length);
+            return Arrays.copyOf(buffer, length + 4);
+        }
+    }
+
+    private static final class Input {
+        private final byte[] buffer;
+        private final int limit;
+        private final String @Nullable [] dictionary;
+        private int position;
+
+        Input(final byte[] buffer, final int position, final int limit, final String @Nullable [] dictionary) {
+            this.buffer = buffer;
+            this.position = position;
+            this.limit = limit;
+            this.dictionary = dictionary;
+        }
+
+        byte readByte() {
+            return buffer[position++];
+        }
+
+        boolean readBoolean() {
+            return readByte() != 0;
+        }
+
+        int readInt() {
+            return (buffer[position++] & 0xFF) << 24 | (buffer[position++] & 0xFF) << 16
+                    | (buffer[position++] & 0xFF) << 8 | buffer[position++] & 0xFF;
+        }
+
+        long readLong() {
+            return (long) readInt() << 32 | readInt() & 0xFFFFFFFFL;
+        }
+
+        long readVarLong() {
+            long zigZag = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer[position++];
+                zigZag |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return (zigZag >>> 1) ^ -(zigZag & 1);
+        }
+
+        @Nullable
+        String readString() {
+            final int lengthPlusOne = (int) readVarLong();
+            if (lengthPlusOne == 0) {
+                return null;
+            }
+            final String value = new String(buffer, position, lengthPlusOne - 1, StandardCharsets.UTF_8);
+            position += lengthPlusOne - 1;
+            return value;
+        }
+
+        String readNonNullString() {
+            final String value = readString();
+            if (value == null) {
+                throw new IllegalArgumentException("unexpected null string");
+            }
+            return value;
+        }
+
+        String readDictionaryString() {
+            final int idPlusOne = (int) readVarLong();
+            if (idPlusOne == 0) {
+                return readNonNullString();
+            }
+            final String[] dictionary2 = dictionary;
+            final String value = dictionary2 != null && idPlusOne <= dictionary2.length ? dictionary2[idPlusOne - 1]
+                    : null;
+            if (value == null) {
+                throw new IllegalArgumentException("unknown dictionary entry " + (idPlusOne - 1));
+            }
+            return value;
+        }
+
+        void defineDictionaryEntry(final int id, final String value) {
+            final String[] dictionary2 = dictionary;
+            if (dictionary2 == null || id < 0 || id >= dictionary2.length) {
+                throw new IllegalArgumentException("unexpected dictionary entry " + id);
+            }
+            dictionary2[id] = value;
+        }
+
+        byte[] readRemainingBytes() {
+            return Arrays.copyOfRange(buffer, position, limit);
+        }
+
+        byte[] readInflated(final int inflatedLength, final Inflater inflater) throws IOException {
+            final byte[] inflated = new byte[inflatedLength];
+            inflater.reset();
+            inflater.setInput(buffer, position, limit - position);
+            try {
+                int inflatedPosition = 0;
+                while (inflatedPosition < inflatedLength && !inflater.finished()) {
+                    final int count = inflater.inflate(inflated, inflatedPosition, inflatedLength - inflatedPosition);
+                    if (count == 0 && inflater.needsInput()) {
+                        throw new IOException("truncated batch of logs");
+                    }
+                    inflatedPosition += count;
+                }
+            } catch (final DataFormatException e) {
+                throw new IOException("corrupted batch of logs", e);
+            }
+            position = limit;
+            return inflated;
+        }
+    }
+}
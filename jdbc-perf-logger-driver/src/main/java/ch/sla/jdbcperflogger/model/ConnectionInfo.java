@@ -2,12 +2,10 @@ package ch.sla.jdbcperflogger.model;
 
 import java.util.Date;
 import java.util.Properties;
-import java.util.UUID;
-
 public class ConnectionInfo implements LogMessage {
-    private static final long serialVersionUID = 1L;
+    private static final long serialVersionUID = 2L;
 
-    private final UUID uuid;
+    private final long connectionId;
     private final int connectionNumber;
     private final String url;
     private final Date creationDate;
@@ -17,9 +15,9 @@ public class ConnectionInfo implements LogMessage {
      */
     private final Properties connectionProperties;
 
-    public ConnectionInfo(final UUID uuid, final int connectionNumber, final String url, final Date creationDate,
+    public ConnectionInfo(final long connectionId, final int connectionNumber, final String url, final Date creationDate,
             final long connectionCreationDuration, final Properties connectionProperties) {
-        this.uuid = uuid;
+        this.connectionId = connectionId;
         this.connectionNumber = connectionNumber;
         this.url = url;
         this.creationDate = creationDate;
@@ -27,8 +25,8 @@ public class ConnectionInfo implements LogMessage {
         this.connectionProperties = connectionProperties;
     }
 
-    public UUID getUuid() {
-        return uuid;
+    public long getConnectionId() {
+        return connectionId;
     }
 
     public int getConnectionNumber() {
@@ -54,7 +52,7 @@ public class ConnectionInfo implements LogMessage {
     @Override
     public String toString() {
         return "ConnectionInfo["//
-                + "connectionId=" + uuid//
+                + "connectionId=" + connectionId//
                 + ", connectionNumber=" + connectionNumber//
                 + ", url=" + url//
                 + ", creationDate=" + creationDate//
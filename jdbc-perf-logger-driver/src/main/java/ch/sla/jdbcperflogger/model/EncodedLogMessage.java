@@ -0,0 +1,43 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger.model;
+
+/**
+ * A log encoded to be sent to the consoles, with the dictionary entries its bytes refer to.
+ */
+public final class EncodedLogMessage {
+    private static final StringDictionary.Entry[] NO_ENTRIES = new StringDictionary.Entry[0];
+
+    private final byte[] bytes;
+    private final StringDictionary.Entry[] dictionaryEntries;
+
+    public EncodedLogMessage(final byte[] bytes) {
+        this(bytes, NO_ENTRIES);
+    }
+
+    public EncodedLogMessage(final byte[] bytes, final StringDictionary.Entry[] dictionaryEntries) {
+        this.bytes = bytes;
+        this.dictionaryEntries = dictionaryEntries;
+    }
+
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    public StringDictionary.Entry[] getDictionaryEntries() {
+        return dictionaryEntries;
+    }
+}
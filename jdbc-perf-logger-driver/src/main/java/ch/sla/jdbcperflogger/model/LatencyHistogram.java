@@ -0,0 +1,162 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger.model;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Fixed-size log-linear histogram of durations in nanoseconds, in the spirit of HdrHistogram.
+ * <p>
+ * Each power of 2 is split in {@link #SUB_BUCKET_COUNT} linear buckets, so the width of a bucket is at most 1/16 of
+ * its values. The durations of 2<sup>40</sup>ns (18 minutes) or more are counted in the last bucket. The layout of
+ * the buckets is the same for all the histograms, so that the histograms of different JVMs can be merged by adding
+ * their counts.
+ * <p>
+ * Recording a duration does not allocate. This class is not thread-safe.
+ */
+public class LatencyHistogram implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    static final int SUB_BUCKET_BITS = 4;
+    static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    static final int MAX_MAGNITUDE = 40;
+    public static final int BUCKET_COUNT = (MAX_MAGNITUDE - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+    private final long[] counts = new long[BUCKET_COUNT];
+    private long totalCount;
+
+    public void record(final long valueNanos) {
+        counts[getBucketIndex(valueNanos)]++;
+        totalCount++;
+    }
+
+    public void addCount(final int bucketIndex, final long count) {
+        counts[bucketIndex] += count;
+        totalCount += count;
+    }
+
+    public void add(final LatencyHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+    }
+
+    public LatencyHistogram copy() {
+        final LatencyHistogram copy = new LatencyHistogram();
+        copy.add(this);
+        return copy;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public long getCount(final int bucketIndex) {
+        return counts[bucketIndex];
+    }
+
+    /**
+     * @param percentile
+     *            between 0 and 100
+     * @return the highest duration of the bucket holding the given percentile (so at most 1/16 more than the actual
+     *         value), 0 if the histogram is empty
+     */
+    public long getValueAtPercentile(final double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * totalCount));
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            count += counts[i];
+            if (count >= rank) {
+                return getBucketHighestValue(i);
+            }
+        }
+        return getBucketHighestValue(BUCKET_COUNT - 1);
+    }
+
+    static int getBucketIndex(final long valueNanos) {
+        if (valueNanos < SUB_BUCKET_COUNT) {
+            return valueNanos < 0 ? 0 : (int) valueNanos;
+        }
+        final int magnitude = 63 - Long.numberOfLeadingZeros(valueNanos);
+        if (magnitude >= MAX_MAGNITUDE) {
+            return BUCKET_COUNT - 1;
+        }
+        final int shift = magnitude - SUB_BUCKET_BITS;
+        return ((shift + 1) << SUB_BUCKET_BITS) + (int) (valueNanos >>> shift) - SUB_BUCKET_COUNT;
+    }
+
+    static long getBucketHighestValue(final int bucketIndex) {
+        final int group = bucketIndex >>> SUB_BUCKET_BITS;
+        if (group == 0) {
+            return bucketIndex;
+        }
+        final long lowestValue = (long) (SUB_BUCKET_COUNT + (bucketIndex & (SUB_BUCKET_COUNT - 1))) << (group - 1);
+        return lowestValue + (1L << (group - 1)) - 1;
+    }
+
+    /**
+     * @return the non-empty buckets, to be read with {@link #fromByteArray(byte[])}
+     */
+    public byte[] toByteArray() {
+        int nonEmptyBuckets = 0;
+        for (final long count : counts) {
+            if (count != 0) {
+                nonEmptyBuckets++;
+            }
+        }
+        final ByteBuffer buffer = ByteBuffer.allocate(4 + nonEmptyBuckets * 10);
+        buffer.putInt(nonEmptyBuckets);
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            if (counts[i] != 0) {
+                buffer.putShort((short) i);
+                buffer.putLong(counts[i]);
+            }
+        }
+        return buffer.array();
+    }
+
+    public static LatencyHistogram fromByteArray(final byte[] bytes) {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        for (int i = buffer.getInt(); i > 0; i--) {
+            histogram.addCount(buffer.getShort(), buffer.getLong());
+        }
+        return histogram;
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyHistogram["//
+                + "totalCount=" + totalCount//
+                + ", p50=" + getValueAtPercentile(50)//
+                + ", p99=" + getValueAtPercentile(99)//
+                + ", max=" + getValueAtPercentile(100)//
+                + "]";
+    }
+
+}
@@ -0,0 +1,98 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger.model;
+
+import java.util.Arrays;
+
+/**
+ * Counts the messages that could not be sent to the console because it did not keep up with the application, by
+ * type of message, between 2 timestamps.
+ */
+public class LostMessagesLog implements LogMessage {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum MessageType {
+        /**
+         * The logs sent before the execution of the statements, or with their whole execution
+         */
+        STATEMENT,
+        STATEMENT_EXECUTED,
+        RESULT_SET,
+        TRANSACTION,
+        CONNECTION,
+        OTHER;
+
+        public static MessageType of(final LogMessage log) {
+            if (log instanceof AbstractBeforeStatementExecutionLog || log instanceof StatementCompletedLog) {
+                return STATEMENT;
+            } else if (log instanceof StatementExecutedLog) {
+                return STATEMENT_EXECUTED;
+            } else if (log instanceof ResultSetLog) {
+                return RESULT_SET;
+            } else if (log instanceof TxCompleteLog) {
+                return TRANSACTION;
+            } else if (log instanceof ConnectionInfo) {
+                return CONNECTION;
+            }
+            return OTHER;
+        }
+    }
+
+    private final long startTimestamp;
+    private final long endTimestamp;
+    private final long[] lostCounts;
+
+    /**
+     * @param lostCounts
+     *            the number of messages lost, indexed by the ordinal of their {@link MessageType}
+     */
+    public LostMessagesLog(final long startTimestamp, final long endTimestamp, final long[] lostCounts) {
+        this.startTimestamp = startTimestamp;
+        this.endTimestamp = endTimestamp;
+        this.lostCounts = Arrays.copyOf(lostCounts, MessageType.values().length);
+    }
+
+    public long getStartTimestamp() {
+        return startTimestamp;
+    }
+
+    public long getEndTimestamp() {
+        return endTimestamp;
+    }
+
+    public long getLostCount(final MessageType type) {
+        return lostCounts[type.ordinal()];
+    }
+
+    public long getTotalLostCount() {
+        long total = 0;
+        for (final long count : lostCounts) {
+            total += count;
+        }
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        return "LostMessagesLog["//
+                + "startTimestamp=" + startTimestamp//
+                + ", endTimestamp=" + endTimestamp//
+                + ", lostCounts=" + Arrays.toString(lostCounts)//
+                + "]";
+    }
+
+}
@@ -16,26 +16,188 @@
 package ch.sla.jdbcperflogger.model;
 
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.Nullable;
 
 /**
- * Map from parameter index or name to value.
- * 
+ * Values bound to the parameters of a prepared statement, by index or by name (for callable statements).
+ * <p>
+ * Indexed values are kept in parallel arrays (value, setter name and SQL type) addressed by the parameter index, so
+ * that binding a value does not allocate. {@link #copy()} returns a snapshot sharing the arrays with this holder, the
+ * arrays being copied only when one of them is modified afterwards.
+ *
  * @author slaurent
- * 
+ *
  */
-public class PreparedStatementValuesHolder extends HashMap<Serializable, SqlTypedValue> {
-    private static final long serialVersionUID = 1L;
+public class PreparedStatementValuesHolder {
+    private static final int INITIAL_CAPACITY = 10;
+    /**
+     * SQL type of the slots without any value bound.
+     */
+    private static final int UNSET = Integer.MIN_VALUE;
+
+    private @Nullable Object[] values;
+    private @Nullable String[] setters;
+    private int[] sqlTypes;
+    // highest index (1-based) with a bound value
+    private int maxIndex;
+    @Nullable
+    private Map<String, SqlTypedValue> namedValues;
+    // true if the arrays are shared with a copy
+    private boolean shared;
 
     public PreparedStatementValuesHolder() {
-        super(10);
+        values = new Object[INITIAL_CAPACITY + 1];
+        setters = new String[INITIAL_CAPACITY + 1];
+        sqlTypes = newSqlTypes(INITIAL_CAPACITY + 1);
     }
 
     public PreparedStatementValuesHolder(final PreparedStatementValuesHolder original) {
-        super(original);
+        values = original.values;
+        setters = original.setters;
+        sqlTypes = original.sqlTypes;
+        maxIndex = original.maxIndex;
+        final Map<String, SqlTypedValue> originalNamedValues = original.namedValues;
+        if (originalNamedValues != null) {
+            namedValues = new HashMap<String, SqlTypedValue>(originalNamedValues);
+        }
+        shared = true;
+        original.shared = true;
     }
 
+    /**
+     * @return a snapshot of the current values, not affected by later modifications of this holder
+     */
     public PreparedStatementValuesHolder copy() {
         return new PreparedStatementValuesHolder(this);
     }
+
+    /**
+     * Binds a value to a parameter.
+     *
+     * @param index
+     *            1-based index of the parameter
+     * @param setter
+     *            name of the setter method if the SQL type is not explicit
+     * @param sqlType
+     *            one of {@link java.sql.Types}, -1 when the setter is given, 0 when unknown
+     */
+    public void set(final int index, @Nullable final Object value, @Nullable final String setter, final int sqlType) {
+        if (index >= sqlTypes.length) {
+            grow(index);
+        } else if (shared) {
+            unshare();
+        }
+        values[index] = value;
+        setters[index] = setter;
+        sqlTypes[index] = sqlType;
+        if (index > maxIndex) {
+            maxIndex = index;
+        }
+    }
+
+    /**
+     * Binds a value to a named parameter of a callable statement.
+     */
+    public void set(final String name, @Nullable final Object value, @Nullable final String setter,
+            final int sqlType) {
+        Map<String, SqlTypedValue> named = namedValues;
+        if (named == null) {
+            named = new HashMap<String, SqlTypedValue>();
+            namedValues = named;
+        }
+        named.put(name, new SqlTypedValue(value, setter, sqlType));
+    }
+
+    /**
+     * Binds a value to a parameter given by its index ({@link Integer}) or its name ({@link String}).
+     */
+    public void set(final Serializable key, @Nullable final Object value, @Nullable final String setter,
+            final int sqlType) {
+        if (key instanceof Integer) {
+            set(((Integer) key).intValue(), value, setter, sqlType);
+        } else {
+            set(key.toString(), value, setter, sqlType);
+        }
+    }
+
+    public void put(final Serializable key, final SqlTypedValue sqlTypedValue) {
+        final Integer sqlType = sqlTypedValue.sqlType;
+        set(key, sqlTypedValue.value, sqlTypedValue.setter, sqlType != null ? sqlType.intValue() : 0);
+    }
+
+    /**
+     * @return the value bound to the given parameter, <code>null</code> if none
+     */
+    @Nullable
+    public SqlTypedValue get(final Serializable key) {
+        if (key instanceof Integer) {
+            final int index = ((Integer) key).intValue();
+            if (!isSet(index)) {
+                return null;
+            }
+            return new SqlTypedValue(values[index], setters[index], sqlTypes[index]);
+        }
+        final Map<String, SqlTypedValue> named = namedValues;
+        return named != null ? named.get(key.toString()) : null;
+    }
+
+    public boolean isSet(final int index) {
+        return index > 0 && index <= maxIndex && sqlTypes[index] != UNSET;
+    }
+
+    @Nullable
+    public Object getValue(final int index) {
+        return values[index];
+    }
+
+    @Nullable
+    public String getSetter(final int index) {
+        return setters[index];
+    }
+
+    public int getSqlType(final int index) {
+        return sqlTypes[index];
+    }
+
+    public void clear() {
+        if (shared) {
+            values = new Object[values.length];
+            setters = new String[setters.length];
+            sqlTypes = newSqlTypes(sqlTypes.length);
+            shared = false;
+        } else {
+            Arrays.fill(values, 0, maxIndex + 1, null);
+            Arrays.fill(setters, 0, maxIndex + 1, null);
+            Arrays.fill(sqlTypes, 0, maxIndex + 1, UNSET);
+        }
+        maxIndex = 0;
+        namedValues = null;
+    }
+
+    private void grow(final int index) {
+        final int newLength = Math.max(index + 1, sqlTypes.length * 2);
+        values = Arrays.copyOf(values, newLength);
+        setters = Arrays.copyOf(setters, newLength);
+        final int[] newSqlTypes = Arrays.copyOf(sqlTypes, newLength);
+        Arrays.fill(newSqlTypes, sqlTypes.length, newLength, UNSET);
+        sqlTypes = newSqlTypes;
+        shared = false;
+    }
+
+    private void unshare() {
+        values = values.clone();
+        setters = setters.clone();
+        sqlTypes = sqlTypes.clone();
+        shared = false;
+    }
+
+    private static int[] newSqlTypes(final int length) {
+        final int[] sqlTypes = new int[length];
+        Arrays.fill(sqlTypes, UNSET);
+        return sqlTypes;
+    }
 }
@@ -15,19 +15,17 @@
  */
 package ch.sla.jdbcperflogger.model;
 
-import java.util.UUID;
-
 public class ResultSetLog implements LogMessage {
 
-    private static final long serialVersionUID = 1L;
+    private static final long serialVersionUID = 2L;
 
-    private final UUID logId;
+    private final long logId;
 
     private final long resultSetUsageDurationNanos;
     private final long fetchDurationNanos;
     private final int nbRowsIterated;
 
-    public ResultSetLog(final UUID logId, final long resultSetIterationTimeNanos, final long fetchDurationNanos,
+    public ResultSetLog(final long logId, final long resultSetIterationTimeNanos, final long fetchDurationNanos,
             final int nbRowsIterated) {
         this.logId = logId;
         this.resultSetUsageDurationNanos = resultSetIterationTimeNanos;
@@ -35,7 +33,7 @@ public class ResultSetLog implements LogMessage {
         this.nbRowsIterated = nbRowsIterated;
     }
 
-    public UUID getLogId() {
+    public long getLogId() {
         return logId;
     }
 
@@ -0,0 +1,57 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger.model;
+
+/**
+ * Counts the statements that were executed but not sent to the console because of sampling, since the previous
+ * message of this type.
+ */
+public class SampledOutStatementsLog implements LogMessage {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long timestamp;
+    private final long statementCount;
+    private final long executionTimeNanos;
+
+    public SampledOutStatementsLog(final long timestamp, final long statementCount, final long executionTimeNanos) {
+        this.timestamp = timestamp;
+        this.statementCount = statementCount;
+        this.executionTimeNanos = executionTimeNanos;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public long getStatementCount() {
+        return statementCount;
+    }
+
+    public long getExecutionTimeNanos() {
+        return executionTimeNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "SampledOutStatementsLog["//
+                + "timestamp=" + timestamp//
+                + ", statementCount=" + statementCount//
+                + ", executionTimeNanos=" + executionTimeNanos//
+                + "]";
+    }
+
+}
@@ -37,4 +37,10 @@ public class SqlTypedValue {
         this.setter = setter;
     }
 
+    public SqlTypedValue(@Nullable final Object value, @Nullable final String setter, final int sqlType) {
+        this.value = value;
+        this.sqlType = sqlType;
+        this.setter = setter;
+    }
+
 }
@@ -0,0 +1,62 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger.model;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Everything about the execution of a statement, sent at once instead of the log preceding the execution, the
+ * {@link StatementExecutedLog} and the {@link ResultSetLog}.
+ */
+public class StatementCompletedLog implements LogMessage {
+
+    private static final long serialVersionUID = 1L;
+
+    private final AbstractBeforeStatementExecutionLog beforeExecutionLog;
+    private final StatementExecutedLog executedLog;
+    @Nullable
+    private final ResultSetLog resultSetLog;
+
+    public StatementCompletedLog(final AbstractBeforeStatementExecutionLog beforeExecutionLog,
+            final StatementExecutedLog executedLog, @Nullable final ResultSetLog resultSetLog) {
+        this.beforeExecutionLog = beforeExecutionLog;
+        this.executedLog = executedLog;
+        this.resultSetLog = resultSetLog;
+    }
+
+    public AbstractBeforeStatementExecutionLog getBeforeExecutionLog() {
+        return beforeExecutionLog;
+    }
+
+    public StatementExecutedLog getExecutedLog() {
+        return executedLog;
+    }
+
+    @Nullable
+    public ResultSetLog getResultSetLog() {
+        return resultSetLog;
+    }
+
+    @Override
+    public String toString() {
+        return "StatementCompletedLog["//
+                + "beforeExecutionLog=" + beforeExecutionLog//
+                + ", executedLog=" + executedLog//
+                + ", resultSetLog=" + resultSetLog//
+                + "]";
+    }
+
+}
@@ -15,22 +15,20 @@
  */
 package ch.sla.jdbcperflogger.model;
 
-import java.util.UUID;
-
 import org.eclipse.jdt.annotation.Nullable;
 
 public class StatementExecutedLog implements LogMessage {
 
-    private static final long serialVersionUID = 1L;
+    private static final long serialVersionUID = 2L;
 
-    private final UUID logId;
+    private final long logId;
     private final long executionTimeNanos;
     @Nullable
     private final Long updateCount;
     @Nullable
     private final String sqlException;
 
-    public StatementExecutedLog(final UUID logId, final long executionTimeNanos, @Nullable final Long updateCount,
+    public StatementExecutedLog(final long logId, final long executionTimeNanos, @Nullable final Long updateCount,
             @Nullable final String sqlException) {
         this.logId = logId;
         this.executionTimeNanos = executionTimeNanos;
@@ -38,7 +36,7 @@ public class StatementExecutedLog implements LogMessage {
         this.sqlException = sqlException;
     }
 
-    public UUID getLogId() {
+    public long getLogId() {
         return logId;
     }
 
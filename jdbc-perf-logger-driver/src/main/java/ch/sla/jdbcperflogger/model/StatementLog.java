@@ -15,48 +15,101 @@
  */
 package ch.sla.jdbcperflogger.model;
 
-import java.util.UUID;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.function.Supplier;
+
+import org.eclipse.jdt.annotation.Nullable;
 
 import ch.sla.jdbcperflogger.StatementType;
 
 public class StatementLog extends AbstractBeforeStatementExecutionLog {
 
     private static final long serialVersionUID = 1L;
+    /**
+     * The hash of the fingerprint of plain statements is left to the console, their SQL changing at each execution
+     */
+    public static final long UNKNOWN_FINGERPRINT_HASH = 0;
 
     private final String rawSql;
-    private final String filledSql;
+    @Nullable
+    private String filledSql;
+    // set only when the filled sql is rendered lazily, not serialized
+    @Nullable
+    private transient Supplier<String> filledSqlRenderer;
     private final boolean preparedStatement;
+    private final long fingerprintHash;
 
-    public StatementLog(final UUID connectionId, final UUID logId, final long timestamp,
+    public StatementLog(final long connectionId, final long logId, final long timestamp,
             final StatementType statementType, final String sql, final String threadName, final int timeout,
             final boolean autoCommit, final int transactionIsolation) {
         super(connectionId, logId, timestamp, statementType, threadName, timeout, autoCommit, transactionIsolation);
         rawSql = sql;
         filledSql = sql;
         preparedStatement = false;
+        fingerprintHash = UNKNOWN_FINGERPRINT_HASH;
     }
 
-    public StatementLog(final UUID connectionId, final UUID logId, final long timestamp,
+    public StatementLog(final long connectionId, final long logId, final long timestamp,
             final StatementType statementType, final String rawSql, final String filledSql, final String threadName,
-            final int timeout, final boolean autoCommit, int transactionIsolation) {
+            final int timeout, final boolean autoCommit, int transactionIsolation, final long fingerprintHash) {
         super(connectionId, logId, timestamp, statementType, threadName, timeout, autoCommit, transactionIsolation);
         this.rawSql = rawSql;
         this.filledSql = filledSql;
         preparedStatement = true;
+        this.fingerprintHash = fingerprintHash;
+    }
+
+    /**
+     * Creates the log of a prepared statement whose filled SQL is only rendered when first needed, at the latest when
+     * the log is serialized.
+     */
+    public StatementLog(final long connectionId, final long logId, final long timestamp,
+            final StatementType statementType, final String rawSql, final Supplier<String> filledSqlRenderer,
+            final String threadName, final int timeout, final boolean autoCommit, final int transactionIsolation,
+            final long fingerprintHash) {
+        super(connectionId, logId, timestamp, statementType, threadName, timeout, autoCommit, transactionIsolation);
+        this.rawSql = rawSql;
+        this.filledSqlRenderer = filledSqlRenderer;
+        preparedStatement = true;
+        this.fingerprintHash = fingerprintHash;
     }
 
     public String getRawSql() {
         return rawSql;
     }
 
-    public String getFilledSql() {
-        return filledSql;
+    public synchronized String getFilledSql() {
+        String sql = filledSql;
+        if (sql == null) {
+            final Supplier<String> renderer = filledSqlRenderer;
+            assert renderer != null;
+            sql = renderer.get();
+            filledSql = sql;
+            filledSqlRenderer = null;
+        }
+        return sql;
+    }
+
+    /**
+     * @return <code>false</code> while the rendering of the filled SQL is deferred and not done yet
+     */
+    public synchronized boolean isFilledSqlRendered() {
+        return filledSql != null;
     }
 
     public boolean isPreparedStatement() {
         return preparedStatement;
     }
 
+    /**
+     * @return the hash of the fingerprint of the raw SQL (see {@link ch.sla.jdbcperflogger.logger.SqlFingerprint}),
+     *         computed once per prepared statement SQL, or {@link #UNKNOWN_FINGERPRINT_HASH}
+     */
+    public long getFingerprintHash() {
+        return fingerprintHash;
+    }
+
     @Override
     public String toString() {
         return "StatementLog["//
@@ -68,8 +121,14 @@ public class StatementLog extends AbstractBeforeStatementExecutionLog {
                 + ", autocommit=" + isAutoCommit()//
                 + ", getTransactionIsolation=" + getTransactionIsolation()//
                 + ", rawSql=" + rawSql//
-                + ", filledSql=" + filledSql//
+                + ", filledSql=" + getFilledSql()//
                 + ", preparedStatement=" + preparedStatement//
+                + ", fingerprintHash=" + fingerprintHash//
                 + "]";
     }
+
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        getFilledSql();
+        out.defaultWriteObject();
+    }
 }
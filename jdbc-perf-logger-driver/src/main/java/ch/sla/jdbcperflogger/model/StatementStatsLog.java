@@ -0,0 +1,168 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger.model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import ch.sla.jdbcperflogger.StatementType;
+
+/**
+ * Statistics of the statements executed since the previous message of this type, sent instead of the logs of each
+ * execution when the statements are aggregated by the driver.
+ */
+public class StatementStatsLog implements LogMessage {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long startTimestamp;
+    private final long endTimestamp;
+    private final List<StatementStats> stats;
+
+    public StatementStatsLog(final long startTimestamp, final long endTimestamp, final List<StatementStats> stats) {
+        this.startTimestamp = startTimestamp;
+        this.endTimestamp = endTimestamp;
+        this.stats = Collections.unmodifiableList(new ArrayList<StatementStats>(stats));
+    }
+
+    public long getStartTimestamp() {
+        return startTimestamp;
+    }
+
+    public long getEndTimestamp() {
+        return endTimestamp;
+    }
+
+    public List<StatementStats> getStats() {
+        return stats;
+    }
+
+    @Override
+    public String toString() {
+        return "StatementStatsLog["//
+                + "startTimestamp=" + startTimestamp//
+                + ", endTimestamp=" + endTimestamp//
+                + ", stats=" + stats//
+                + "]";
+    }
+
+    /**
+     * Statistics of the executions of a statement. The execution time of a query includes the usage of its
+     * ResultSet, like in the console. The histograms are owned by this object and must not be modified.
+     */
+    public static class StatementStats implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final StatementType statementType;
+        private final String rawSql;
+        private final long executionCount;
+        private final long errorCount;
+        private final long totalExecutionTimeNanos;
+        private final long minExecutionTimeNanos;
+        private final long maxExecutionTimeNanos;
+        private final long totalFetchTimeNanos;
+        private final long totalRows;
+        private final LatencyHistogram executionTimeHistogram;
+        private final LatencyHistogram resultSetUsageTimeHistogram;
+
+        public StatementStats(final StatementType statementType, final String rawSql, final long executionCount,
+                final long errorCount, final long totalExecutionTimeNanos, final long minExecutionTimeNanos,
+                final long maxExecutionTimeNanos, final long totalFetchTimeNanos, final long totalRows,
+                final LatencyHistogram executionTimeHistogram, final LatencyHistogram resultSetUsageTimeHistogram) {
+            this.statementType = statementType;
+            this.rawSql = rawSql;
+            this.executionCount = executionCount;
+            this.errorCount = errorCount;
+            this.totalExecutionTimeNanos = totalExecutionTimeNanos;
+            this.minExecutionTimeNanos = minExecutionTimeNanos;
+            this.maxExecutionTimeNanos = maxExecutionTimeNanos;
+            this.totalFetchTimeNanos = totalFetchTimeNanos;
+            this.totalRows = totalRows;
+            this.executionTimeHistogram = executionTimeHistogram;
+            this.resultSetUsageTimeHistogram = resultSetUsageTimeHistogram;
+        }
+
+        public StatementType getStatementType() {
+            return statementType;
+        }
+
+        public String getRawSql() {
+            return rawSql;
+        }
+
+        public long getExecutionCount() {
+            return executionCount;
+        }
+
+        public long getErrorCount() {
+            return errorCount;
+        }
+
+        public long getTotalExecutionTimeNanos() {
+            return totalExecutionTimeNanos;
+        }
+
+        public long getMinExecutionTimeNanos() {
+            return minExecutionTimeNanos;
+        }
+
+        public long getMaxExecutionTimeNanos() {
+            return maxExecutionTimeNanos;
+        }
+
+        public long getTotalFetchTimeNanos() {
+            return totalFetchTimeNanos;
+        }
+
+        /**
+         * @return the number of rows iterated for the queries, updated for the other statements
+         */
+        public long getTotalRows() {
+            return totalRows;
+        }
+
+        public LatencyHistogram getExecutionTimeHistogram() {
+            return executionTimeHistogram;
+        }
+
+        /**
+         * @return the histogram of the usage time of the ResultSets, empty if the statement is not a query
+         */
+        public LatencyHistogram getResultSetUsageTimeHistogram() {
+            return resultSetUsageTimeHistogram;
+        }
+
+        @Override
+        public String toString() {
+            return "StatementStats["//
+                    + "statementType=" + statementType//
+                    + ", rawSql=" + rawSql//
+                    + ", executionCount=" + executionCount//
+                    + ", errorCount=" + errorCount//
+                    + ", totalExecutionTimeNanos=" + totalExecutionTimeNanos//
+                    + ", minExecutionTimeNanos=" + minExecutionTimeNanos//
+                    + ", maxExecutionTimeNanos=" + maxExecutionTimeNanos//
+                    + ", totalFetchTimeNanos=" + totalFetchTimeNanos//
+                    + ", totalRows=" + totalRows//
+                    + ", executionTimeHistogram=" + executionTimeHistogram//
+                    + ", resultSetUsageTimeHistogram=" + resultSetUsageTimeHistogram//
+                    + "]";
+        }
+    }
+}
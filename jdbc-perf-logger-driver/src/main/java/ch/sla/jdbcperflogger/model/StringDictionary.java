@@ -0,0 +1,89 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Bounded dictionary of the strings repeated in many logs (raw SQL of prepared statements, thread names), giving them
+ * a small id. When it is full, an entry not used since the last pass of the "clock" is evicted and its id is given
+ * to the new string with a new {@link Entry}, so that the receivers can tell whether they know the current value of
+ * an id by comparing the entries.
+ */
+public final class StringDictionary {
+    private final int capacity;
+    private final Map<String, Entry> entries = new HashMap<String, Entry>();
+    private final Entry[] entriesById;
+    private final boolean[] referenced;
+    private int size;
+    private int clockHand;
+
+    public StringDictionary(final int capacity) {
+        this.capacity = capacity;
+        entriesById = new Entry[capacity];
+        referenced = new boolean[capacity];
+    }
+
+    public synchronized Entry getEntry(final String value) {
+        Entry entry = entries.get(value);
+        if (entry != null) {
+            referenced[entry.id] = true;
+            return entry;
+        }
+        final int id;
+        if (size < capacity) {
+            id = size++;
+        } else {
+            // second chance: evict the first entry not referenced since the clock hand last passed on it
+            while (referenced[clockHand]) {
+                referenced[clockHand] = false;
+                clockHand = (clockHand + 1) % capacity;
+            }
+            id = clockHand;
+            clockHand = (clockHand + 1) % capacity;
+            entries.remove(entriesById[id].value);
+        }
+        entry = new Entry(id, value);
+        entries.put(value, entry);
+        entriesById[id] = entry;
+        // so that the next string of the same log cannot evict it
+        referenced[id] = true;
+        return entry;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public static final class Entry {
+        private final int id;
+        private final String value;
+
+        Entry(final int id, final String value) {
+            this.id = id;
+            this.value = value;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getValue() {
+            return value;
+        }
+    }
+}
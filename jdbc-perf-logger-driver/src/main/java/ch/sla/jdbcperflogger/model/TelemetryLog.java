@@ -0,0 +1,125 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger.model;
+
+/**
+ * What the logger itself cost and whether it kept up with the application, between 2 timestamps.
+ */
+public class TelemetryLog implements LogMessage {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long startTimestamp;
+    private final long endTimestamp;
+    private final long postedCount;
+    private final long droppedCount;
+    private final long encodedCount;
+    private final long encodingTimeNanos;
+    private final long bytesSent;
+    private final long loggerCallCount;
+    private final long loggerTimeNanos;
+    private final long maxQueueDepth;
+
+    /**
+     * @param postedCount
+     *            the number of logs posted by the application threads
+     * @param droppedCount
+     *            the number of logs that could not be sent, summed over all the consoles
+     * @param encodedCount
+     *            the number of logs encoded for the consoles
+     * @param encodingTimeNanos
+     *            the time spent encoding them
+     * @param bytesSent
+     *            the number of bytes written to the consoles
+     * @param loggerCallCount
+     *            the number of calls to the logger made by the application threads
+     * @param loggerTimeNanos
+     *            the time spent by the application threads in those calls
+     * @param maxQueueDepth
+     *            the highest number of logs waiting to be sent to a console, at the end of the period
+     */
+    public TelemetryLog(final long startTimestamp, final long endTimestamp, final long postedCount,
+            final long droppedCount, final long encodedCount, final long encodingTimeNanos, final long bytesSent,
+            final long loggerCallCount, final long loggerTimeNanos, final long maxQueueDepth) {
+        this.startTimestamp = startTimestamp;
+        this.endTimestamp = endTimestamp;
+        this.postedCount = postedCount;
+        this.droppedCount = droppedCount;
+        this.encodedCount = encodedCount;
+        this.encodingTimeNanos = encodingTimeNanos;
+        this.bytesSent = bytesSent;
+        this.loggerCallCount = loggerCallCount;
+        this.loggerTimeNanos = loggerTimeNanos;
+        this.maxQueueDepth = maxQueueDepth;
+    }
+
+    public long getStartTimestamp() {
+        return startTimestamp;
+    }
+
+    public long getEndTimestamp() {
+        return endTimestamp;
+    }
+
+    public long getPostedCount() {
+        return postedCount;
+    }
+
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+
+    public long getEncodedCount() {
+        return encodedCount;
+    }
+
+    public long getEncodingTimeNanos() {
+        return encodingTimeNanos;
+    }
+
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    public long getLoggerCallCount() {
+        return loggerCallCount;
+    }
+
+    public long getLoggerTimeNanos() {
+        return loggerTimeNanos;
+    }
+
+    public long getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    @Override
+    public String toString() {
+        return "TelemetryLog["//
+                + "startTimestamp=" + startTimestamp//
+                + ", endTimestamp=" + endTimestamp//
+                + ", postedCount=" + postedCount//
+                + ", droppedCount=" + droppedCount//
+                + ", encodedCount=" + encodedCount//
+                + ", encodingTimeNanos=" + encodingTimeNanos//
+                + ", bytesSent=" + bytesSent//
+                + ", loggerCallCount=" + loggerCallCount//
+                + ", loggerTimeNanos=" + loggerTimeNanos//
+                + ", maxQueueDepth=" + maxQueueDepth//
+                + "]";
+    }
+
+}
@@ -1,15 +1,13 @@
 package ch.sla.jdbcperflogger.model;
 
-import java.util.UUID;
-
 import org.eclipse.jdt.annotation.Nullable;
 
 import ch.sla.jdbcperflogger.TxCompletionType;
 
 public class TxCompleteLog implements LogMessage {
-    private static final long serialVersionUID = 1L;
+    private static final long serialVersionUID = 2L;
 
-    private final UUID connectionUuid;
+    private final long connectionId;
     private final long timestamp;
     private final TxCompletionType completionType;
     private final long executionTimeNanos;
@@ -17,9 +15,9 @@ public class TxCompleteLog implements LogMessage {
     @Nullable
     private final String savePointDescription;
 
-    public TxCompleteLog(final UUID connectionUuid, final long timestamp, final TxCompletionType completionType,
+    public TxCompleteLog(final long connectionId, final long timestamp, final TxCompletionType completionType,
             final long executionTimeNanos, final String threadName, final @Nullable String savePointDescription) {
-        this.connectionUuid = connectionUuid;
+        this.connectionId = connectionId;
         this.timestamp = timestamp;
         this.completionType = completionType;
         this.executionTimeNanos = executionTimeNanos;
@@ -27,8 +25,8 @@ public class TxCompleteLog implements LogMessage {
         this.savePointDescription = savePointDescription;
     }
 
-    public UUID getConnectionUuid() {
-        return connectionUuid;
+    public long getConnectionId() {
+        return connectionId;
     }
 
     public long getTimestamp() {
@@ -55,7 +53,7 @@ public class TxCompleteLog implements LogMessage {
     @Override
     public String toString() {
         return "TxCompleteLog["//
-                + "connectionUuid=" + connectionUuid//
+                + "connectionId=" + connectionId//
                 + ", timestamp=" + timestamp//
                 + ", completionType=" + completionType//
                 + ", executionTimeNanos=" + executionTimeNanos//
@@ -0,0 +1,32 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger;
+
+/**
+ * Changes the configuration of the driver for the tests of the other packages, which must restore it.
+ */
+public final class DriverConfigOverrides {
+    private DriverConfigOverrides() {
+    }
+
+    public static void setFilledSqlRendering(final FilledSqlRendering filledSqlRendering) {
+        DriverConfig.INSTANCE.setFilledSqlRendering(filledSqlRendering);
+    }
+
+    public static void setStatementLogMode(final StatementLogMode statementLogMode) {
+        DriverConfig.INSTANCE.setStatementLogMode(statementLogMode);
+    }
+}
@@ -6,6 +6,7 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -30,6 +31,89 @@ public class DriverConfigTest {
         assertEquals("oracle.jdbc.OracleDriver", DriverConfig.INSTANCE.getClassNameForJdbcUrl("jdbc:oracle:thin:toto"));
         assertEquals("com.MyDriver", DriverConfig.INSTANCE.getClassNameForJdbcUrl("jdbc:mydriver:"));
         assertNull(DriverConfig.INSTANCE.getClassNameForJdbcUrl("jdbc:mynonexisting:"));
+        assertEquals(WrapperMode.PROXY, DriverConfig.INSTANCE.getWrapperMode());
+        assertEquals(FilledSqlRendering.EAGER, DriverConfig.INSTANCE.getFilledSqlRendering());
+        assertEquals(StatementLogMode.SEPARATE, DriverConfig.INSTANCE.getStatementLogMode());
+        assertEquals(SamplingMode.NONE, DriverConfig.INSTANCE.getSamplingMode());
+    }
+
+    @Test
+    public void testWrapperMode() throws Exception {
+        final DriverConfig config = DriverConfig.parseConfig(new ByteArrayInputStream(
+                "<jdbc-perf-logger><wrappers mode=\"delegate\" /></jdbc-perf-logger>".getBytes("UTF-8")));
+        assertEquals(WrapperMode.DELEGATE, config.getWrapperMode());
+    }
+
+    @Test
+    public void testFilledSqlRendering() throws Exception {
+        final DriverConfig config = DriverConfig.parseConfig(new ByteArrayInputStream(
+                "<jdbc-perf-logger><filled-sql rendering=\"deferred\" /></jdbc-perf-logger>".getBytes("UTF-8")));
+        assertEquals(FilledSqlRendering.DEFERRED, config.getFilledSqlRendering());
+    }
+
+    @Test
+    public void testStatementLogMode() throws Exception {
+        DriverConfig config = DriverConfig.parseConfig(new ByteArrayInputStream(
+                "<jdbc-perf-logger><statement-logs mode=\"fused\" /></jdbc-perf-logger>".getBytes("UTF-8")));
+        assertEquals(StatementLogMode.FUSED, config.getStatementLogMode());
+        assertEquals(10, config.getStatementStatsIntervalSeconds());
+
+        config = DriverConfig.parseConfig(new ByteArrayInputStream(
+                "<jdbc-perf-logger><statement-logs mode=\"aggregated\" interval-s=\"60\" /></jdbc-perf-logger>"
+                        .getBytes("UTF-8")));
+        assertEquals(StatementLogMode.AGGREGATED, config.getStatementLogMode());
+        assertEquals(60, config.getStatementStatsIntervalSeconds());
+    }
+
+    @Test
+    public void testSampling() throws Exception {
+        DriverConfig config = DriverConfig.parseConfig(new ByteArrayInputStream(
+                "<jdbc-perf-logger><sampling mode=\"rate\" rate=\"100\" /></jdbc-perf-logger>".getBytes("UTF-8")));
+        assertEquals(SamplingMode.RATE, config.getSamplingMode());
+        assertEquals(100, config.getSamplingRate());
+
+        config = DriverConfig.parseConfig(new ByteArrayInputStream(
+                ("<jdbc-perf-logger><sampling mode=\"adaptive\" threshold-ms=\"5\" max-threshold-ms=\"200\" />"
+                        + "</jdbc-perf-logger>").getBytes("UTF-8")));
+        assertEquals(SamplingMode.ADAPTIVE, config.getSamplingMode());
+        assertEquals(1, config.getSamplingRate());
+        assertEquals(5, config.getSamplingThresholdMillis());
+        assertEquals(200, config.getSamplingMaxThresholdMillis());
+    }
+
+    @Test
+    public void testConsoleLink() throws Exception {
+        assertEquals(ConsoleLinkCompression.NONE, DriverConfig.INSTANCE.getConsoleLinkCompression());
+
+        final DriverConfig config = DriverConfig.parseConfig(new ByteArrayInputStream(
+                ("<jdbc-perf-logger><console-link compression=\"deflate\" batch-size=\"100\" batch-delay-ms=\"50\" />"
+                        + "</jdbc-perf-logger>").getBytes("UTF-8")));
+        assertEquals(ConsoleLinkCompression.DEFLATE, config.getConsoleLinkCompression());
+        assertEquals(100, config.getConsoleLinkBatchSize());
+        assertEquals(50, config.getConsoleLinkBatchDelayMillis());
+    }
+
+    @Test
+    public void testBackPressure() throws Exception {
+        assertEquals(BackPressurePolicy.DROP_OLDEST, DriverConfig.INSTANCE.getBackPressurePolicy());
+
+        final DriverConfig config = DriverConfig.parseConfig(new ByteArrayInputStream(
+                "<jdbc-perf-logger><back-pressure policy=\"block\" max-block-us=\"250\" /></jdbc-perf-logger>"
+                        .getBytes("UTF-8")));
+        assertEquals(BackPressurePolicy.BLOCK, config.getBackPressurePolicy());
+        assertEquals(250, config.getBackPressureMaxBlockMicros());
+    }
+
+    @Test
+    public void testCaptureFile() throws Exception {
+        assertNull(DriverConfig.INSTANCE.getCaptureFileDirectory());
+
+        final DriverConfig config = DriverConfig.parseConfig(new ByteArrayInputStream(("<jdbc-perf-logger>"
+                + "<capture-file directory=\"/tmp/capture\" segments=\"4\" segment-size-mb=\"2\" />"
+                + "</jdbc-perf-logger>").getBytes("UTF-8")));
+        assertEquals("/tmp/capture", config.getCaptureFileDirectory());
+        assertEquals(4, config.getCaptureFileSegmentCount());
+        assertEquals(2, config.getCaptureFileSegmentSizeMb());
     }
 
     @Test
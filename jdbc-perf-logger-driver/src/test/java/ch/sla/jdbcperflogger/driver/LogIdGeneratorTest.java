@@ -0,0 +1,35 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger.driver;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LogIdGeneratorTest {
+
+    @Test
+    public void testNextId() {
+        long previousId = LogIdGenerator.nextId();
+        Assert.assertTrue(previousId > 0);
+        for (int i = 0; i < 1000; i++) {
+            final long id = LogIdGenerator.nextId();
+            Assert.assertTrue(id > previousId);
+            // same JVM id in the high bits
+            Assert.assertEquals(previousId >>> 44, id >>> 44);
+            previousId = id;
+        }
+    }
+}
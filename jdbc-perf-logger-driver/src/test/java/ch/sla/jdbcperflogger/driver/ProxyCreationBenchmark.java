@@ -0,0 +1,60 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger.driver;
+
+import java.lang.reflect.InvocationHandler;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Measures the cost of wrapping JDBC objects in a {@link java.lang.reflect.Proxy} with
+ * {@link Utils#newProxyInstance(Object, InvocationHandler)}. Not a unit test, run it with its main method.
+ */
+public class ProxyCreationBenchmark {
+    private static final int WARMUP_ITERATIONS = 200_000;
+    private static final int ITERATIONS = 2_000_000;
+
+    public static void main(final String[] args) throws Exception {
+        final InvocationHandler handler = (proxy, method, methodArgs) -> null;
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:bench", "test", "test");
+                Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery("select 1")) {
+            final Object[] targets = { connection, statement, resultSet };
+            for (int round = 0; round < 3; round++) {
+                for (final Object target : targets) {
+                    run(target, handler, WARMUP_ITERATIONS);
+                }
+            }
+            for (final Object target : targets) {
+                final long start = System.nanoTime();
+                final int sink = run(target, handler, ITERATIONS);
+                final long elapsed = System.nanoTime() - start;
+                System.out.printf("%-40s %8.1f ns/wrap (%d)%n", target.getClass().getName(),
+                        (double) elapsed / ITERATIONS, sink);
+            }
+        }
+    }
+
+    private static int run(final Object target, final InvocationHandler handler, final int iterations) {
+        int sink = 0;
+        for (int i = 0; i < iterations; i++) {
+            sink += System.identityHashCode(Utils.newProxyInstance(target, handler)) & 1;
+        }
+        return sink;
+    }
+}
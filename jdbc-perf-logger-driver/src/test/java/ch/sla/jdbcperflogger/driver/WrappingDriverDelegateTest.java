@@ -0,0 +1,68 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger.driver;
+
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.junit.Test;
+
+import ch.sla.jdbcperflogger.WrapperMode;
+
+/**
+ * Runs all the tests of {@link WrappingDriverTest} with the {@link WrapperMode#DELEGATE} wrappers.
+ */
+@SuppressWarnings("null")
+public class WrappingDriverDelegateTest extends WrappingDriverTest {
+
+    @Override
+    protected Connection openConnection(final String url) throws SQLException {
+        final String rawUrl = url.replaceFirst("^(" + WrappingDriver.URL_PREFIX + ")+", "");
+        return WrappingDriver.INSTANCE.wrapConnection(rawUrl, null,
+                () -> DriverManager.getConnection(rawUrl, "test", "test"), WrapperMode.DELEGATE);
+    }
+
+    @Test
+    public void testDelegatingWrappers() throws Exception {
+        assertTrue(connection instanceof DelegatingConnection);
+        try (Statement statement = connection.createStatement()) {
+            assertTrue(statement instanceof DelegatingStatement);
+            statement.execute("create table test (key_id int)");
+            try (ResultSet resultSet = statement.executeQuery("select * from test")) {
+                assertTrue(resultSet instanceof DelegatingResultSet);
+            }
+        }
+        try (PreparedStatement statement = connection.prepareStatement("select * from test")) {
+            assertTrue(statement instanceof DelegatingPreparedStatement);
+        }
+        try (PreparedStatement statement = connection.prepareCall("call 2*3")) {
+            assertTrue(statement instanceof DelegatingCallableStatement);
+        }
+    }
+
+    @Test
+    public void testAlreadyWrappedConnection() throws Exception {
+        assertSame(connection, WrappingDriver.INSTANCE.wrapConnection("jdbc:dummy", null, () -> connection,
+                WrapperMode.DELEGATE));
+    }
+}
@@ -26,6 +26,7 @@ import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.JDBCType;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Savepoint;
 import java.sql.Statement;
@@ -45,12 +46,18 @@ import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import ch.sla.jdbcperflogger.DriverConfig;
+import ch.sla.jdbcperflogger.DriverConfigOverrides;
+import ch.sla.jdbcperflogger.FilledSqlRendering;
+import ch.sla.jdbcperflogger.StatementLogMode;
 import ch.sla.jdbcperflogger.StatementType;
+import ch.sla.jdbcperflogger.WrapperMode;
 import ch.sla.jdbcperflogger.logger.PerfLoggerRemoting;
 import ch.sla.jdbcperflogger.logger.RecordingLogSender;
 import ch.sla.jdbcperflogger.model.BatchedNonPreparedStatementsLog;
 import ch.sla.jdbcperflogger.model.BatchedPreparedStatementsLog;
 import ch.sla.jdbcperflogger.model.ResultSetLog;
+import ch.sla.jdbcperflogger.model.StatementCompletedLog;
 import ch.sla.jdbcperflogger.model.StatementExecutedLog;
 import ch.sla.jdbcperflogger.model.StatementLog;
 
@@ -440,6 +447,79 @@ public class WrappingDriverJava8Test {
         }
     }
 
+    @Test
+    public void testDeferredFilledSql() throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table test (key_id int)");
+        }
+        final FilledSqlRendering previousRendering = DriverConfig.INSTANCE.getFilledSqlRendering();
+        DriverConfigOverrides.setFilledSqlRendering(FilledSqlRendering.DEFERRED);
+        try {
+            for (final WrapperMode wrapperMode : WrapperMode.values()) {
+                try (Connection deferredConnection = WrappingDriver.INSTANCE.wrapConnection("jdbc:derby:memory:mydb",
+                        null, () -> DriverManager.getConnection("jdbc:derby:memory:mydb"), wrapperMode);
+                        PreparedStatement statement = deferredConnection
+                                .prepareStatement("insert into test (key_id) values (?)")) {
+                    statement.setInt(1, 1);
+                    statement.executeUpdate();
+                    final StatementLog statementLog = (StatementLog) logRecorder.lastLogMessage(1);
+                    assertFalse(statementLog.isFilledSqlRendered());
+
+                    // rendered with the values of the execution
+                    statement.setInt(1, 2);
+                    statement.executeUpdate();
+                    assertEquals("insert into test (key_id) values (1 /*setInt*/)", statementLog.getFilledSql());
+                    assertTrue(statementLog.isFilledSqlRendered());
+                }
+            }
+        } finally {
+            DriverConfigOverrides.setFilledSqlRendering(previousRendering);
+        }
+    }
+
+    @Test
+    public void testFusedStatementLogs() throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table test (key_id int)");
+            statement.execute("insert into test (key_id) values (1), (2), (3)");
+        }
+        final StatementLogMode previousMode = DriverConfig.INSTANCE.getStatementLogMode();
+        DriverConfigOverrides.setStatementLogMode(StatementLogMode.FUSED);
+        try {
+            for (final WrapperMode wrapperMode : WrapperMode.values()) {
+                try (Connection fusedConnection = WrappingDriver.INSTANCE.wrapConnection("jdbc:derby:memory:mydb",
+                        null, () -> DriverManager.getConnection("jdbc:derby:memory:mydb"), wrapperMode)) {
+                    logRecorder.clearLogs();
+                    try (PreparedStatement statement = fusedConnection
+                            .prepareStatement("select * from test where key_id > ?")) {
+                        statement.setInt(1, 0);
+                        try (ResultSet resultSet = statement.executeQuery()) {
+                            while (resultSet.next()) {
+                                // iterate
+                            }
+                            // nothing sent before the ResultSet is closed
+                            assertEquals(0, logRecorder.getRecordedLogMessages().length);
+                        }
+                    }
+                    assertEquals(1, logRecorder.getRecordedLogMessages().length);
+                    final StatementCompletedLog completedLog = (StatementCompletedLog) logRecorder.lastLogMessage(0);
+                    final StatementLog statementLog = (StatementLog) completedLog.getBeforeExecutionLog();
+                    assertEquals(StatementType.PREPARED_QUERY_STMT, statementLog.getStatementType());
+                    assertEquals("select * from test where key_id > 0 /*setInt*/", statementLog.getFilledSql());
+                    assertEquals(statementLog.getLogId(), completedLog.getExecutedLog().getLogId());
+                    assertTrue(completedLog.getExecutedLog().getExecutionTimeNanos() > 0);
+                    final ResultSetLog resultSetLog = completedLog.getResultSetLog();
+                    assertEquals(statementLog.getLogId(), resultSetLog.getLogId());
+                    assertEquals(3, resultSetLog.getNbRowsIterated());
+                    assertTrue(resultSetLog.getFetchDurationNanos() > 0);
+                    assertTrue(resultSetLog.getResultSetUsageDurationNanos() >= resultSetLog.getFetchDurationNanos());
+                }
+            }
+        } finally {
+            DriverConfigOverrides.setStatementLogMode(previousMode);
+        }
+    }
+
     @Test
     public void testCallable() throws Exception {
         {
@@ -16,6 +16,7 @@
 package ch.sla.jdbcperflogger.driver;
 
 import ch.sla.jdbcperflogger.StatementType;
+import ch.sla.jdbcperflogger.logger.PerfLogger;
 import ch.sla.jdbcperflogger.logger.PerfLoggerRemoting;
 import ch.sla.jdbcperflogger.logger.RecordingLogSender;
 import ch.sla.jdbcperflogger.model.BatchedNonPreparedStatementsLog;
@@ -25,11 +26,13 @@ import ch.sla.jdbcperflogger.model.StatementExecutedLog;
 import ch.sla.jdbcperflogger.model.StatementLog;
 import org.junit.After;
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.lang.reflect.Proxy;
 import java.sql.CallableStatement;
 import java.sql.Connection;
 import java.sql.DriverManager;
@@ -53,8 +56,8 @@ public class WrappingDriverTest {
     private final static SimpleDateFormat YMD_FORMAT = new SimpleDateFormat("yyyy-MM-dd");
     private final static SimpleDateFormat DATE_PLUS_TIME_FORMAT = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS");
 
-    private Connection connection;
-    private RecordingLogSender logRecorder;
+    protected Connection connection;
+    protected RecordingLogSender logRecorder;
 
     @Before
     public void setup() throws Exception {
@@ -69,11 +72,15 @@ public class WrappingDriverTest {
             //swallowed
         }
 
-        connection = DriverManager.getConnection("jdbcperflogger:" + rawUrl, "test", "test");
+        connection = openConnection("jdbcperflogger:" + rawUrl);
         logRecorder = new RecordingLogSender();
         PerfLoggerRemoting.addSender(logRecorder);
     }
 
+    protected Connection openConnection(final String url) throws SQLException {
+        return DriverManager.getConnection(url, "test", "test");
+    }
+
     @After
     public void tearDown() throws Exception {
         PerfLoggerRemoting.removeSender(logRecorder);
@@ -110,6 +117,23 @@ public class WrappingDriverTest {
         statement.close();
     }
 
+    @Test
+    public void testTimeoutPrepared() throws Exception {
+        try (PreparedStatement statement = connection.prepareStatement("call 2*3")) {
+            statement.execute();
+            // once known, the timeout is only tracked through the wrapper
+            statement.setQueryTimeout(123);
+            statement.execute();
+            assertEquals(123, ((StatementLog) logRecorder.lastLogMessage(1)).getTimeout());
+        }
+        try (CallableStatement statement = connection.prepareCall("call 2*3")) {
+            statement.execute();
+            statement.setQueryTimeout(12);
+            statement.execute();
+            assertEquals(12, ((StatementLog) logRecorder.lastLogMessage(1)).getTimeout());
+        }
+    }
+
     @Test
     public void testAutocommit() throws Exception {
         final Statement statement = connection.createStatement();
@@ -125,6 +149,33 @@ public class WrappingDriverTest {
         statement.close();
     }
 
+    @Test
+    public void testNothingCapturedWithoutConsole() throws Exception {
+        PerfLoggerRemoting.removeSender(logRecorder);
+        Assume.assumeFalse(PerfLogger.isEnabled());
+        final Statement statement = connection.createStatement();
+        statement.execute("create table test (key_id int)");
+        final ResultSet resultSet = statement.executeQuery("select * from test");
+        assertFalse(resultSet instanceof DelegatingResultSet || Proxy.isProxyClass(resultSet.getClass()));
+        resultSet.close();
+        connection.commit();
+
+        PerfLoggerRemoting.addSender(logRecorder);
+        assertEquals(0, logRecorder.getRecordedLogMessages().length);
+        executeQueryAndCheckLogged(statement, "select * from test");
+        statement.close();
+    }
+
+    @Test
+    public void testTransactionIsolation() throws Exception {
+        connection.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+        final PreparedStatement statement = connection.prepareStatement("create table test (key_id int)");
+        statement.execute();
+        assertEquals(Connection.TRANSACTION_SERIALIZABLE,
+                ((StatementLog) logRecorder.lastLogMessage(1)).getTransactionIsolation());
+        statement.close();
+    }
+
     @Test
     public void testExecuteNonPrepared() throws Exception {
         {
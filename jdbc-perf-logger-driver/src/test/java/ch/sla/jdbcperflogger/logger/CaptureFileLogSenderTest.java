@@ -0,0 +1,271 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger.logger;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import ch.sla.jdbcperflogger.driver.LoggingConnectionInvocationHandler;
+import ch.sla.jdbcperflogger.model.BinaryLogMessageCodec;
+import ch.sla.jdbcperflogger.model.BufferFullLogMessage;
+import ch.sla.jdbcperflogger.model.ConnectionInfo;
+
+public class CaptureFileLogSenderTest {
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private final Map<LoggingConnectionInvocationHandler, ConnectionInfo> otherConnections = new HashMap<>();
+
+    @Before
+    public void setUp() {
+        // the connections left by the other tests would be written at the start of each segment
+        synchronized (PerfLoggerRemoting.connectionToInfo) {
+            otherConnections.putAll(PerfLoggerRemoting.connectionToInfo);
+            PerfLoggerRemoting.connectionToInfo.clear();
+        }
+    }
+
+    @After
+    public void tearDown() {
+        synchronized (PerfLoggerRemoting.connectionToInfo) {
+            PerfLoggerRemoting.connectionToInfo.putAll(otherConnections);
+        }
+    }
+
+    @Test
+    public void testCaptureAndConvert() throws Exception {
+        final File directory = tempFolder.newFolder();
+        try (CaptureFileLogSender sender = new CaptureFileLogSender(directory, 3, 4096)) {
+            for (int i = 0; i < 10; i++) {
+                sender.postLog(new BufferFullLogMessage(i));
+            }
+        }
+        Assert.assertEquals(3, directory.list((dir, name) -> name.endsWith(".bin")).length);
+        final List<Long> timestamps = readTimestamps(directory);
+        Assert.assertEquals(10, timestamps.size());
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(i, timestamps.get(i).longValue());
+        }
+    }
+
+    @Test
+    public void testRingKeepsTheLastLogs() throws Exception {
+        final File directory = tempFolder.newFolder();
+        try (CaptureFileLogSender sender = new CaptureFileLogSender(directory, 3, 4096)) {
+            for (int i = 0; i < 5000; i++) {
+                sender.postLog(new BufferFullLogMessage(i));
+            }
+        }
+        final List<Long> timestamps = readTimestamps(directory);
+        Assert.assertTrue(timestamps.size() > 500);
+        Assert.assertTrue(timestamps.size() < 5000);
+        for (int i = 0; i < timestamps.size(); i++) {
+            Assert.assertEquals(5000 - timestamps.size() + i, timestamps.get(i).longValue());
+        }
+    }
+
+    @Test
+    public void testRecordsFillingSegmentsExactly() throws Exception {
+        final File directory = tempFolder.newFolder();
+        final int recordSize = CaptureFileLogSender.RECORD_HEADER_SIZE
+                + BinaryLogMessageCodec.encode(new BufferFullLogMessage(1000)).length;
+        Assert.assertEquals(recordSize, CaptureFileLogSender.RECORD_HEADER_SIZE
+                + BinaryLogMessageCodec.encode(new BufferFullLogMessage(1999)).length);
+        try (CaptureFileLogSender sender = new CaptureFileLogSender(directory, 3,
+                CaptureFileLogSender.SEGMENT_HEADER_SIZE + 20 * recordSize)) {
+            for (int i = 1000; i < 2000; i++) {
+                sender.postLog(new BufferFullLogMessage(i));
+            }
+        }
+        for (int i = 0; i < 3; i++) {
+            try (RandomAccessFile file = new RandomAccessFile(CaptureFileLogSender.getSegmentFile(directory, i), "r")) {
+                Assert.assertEquals(CaptureFileLogSender.SEGMENT_MAGIC, file.readInt());
+            }
+        }
+        // the segments hold 19 records, the last one being filled with the logs left
+        final List<Long> timestamps = readTimestamps(directory);
+        Assert.assertEquals(2 * 19 + 1000 % 19, timestamps.size());
+        for (int i = 0; i < timestamps.size(); i++) {
+            Assert.assertEquals(2000 - timestamps.size() + i, timestamps.get(i).longValue());
+        }
+    }
+
+    @Test
+    public void testReopenAfterCrash() throws Exception {
+        final File directory = tempFolder.newFolder();
+        try (CaptureFileLogSender sender = new CaptureFileLogSender(directory, 3, 4096)) {
+            for (int i = 0; i < 10; i++) {
+                sender.postLog(new BufferFullLogMessage(i));
+            }
+        }
+        // the JVM crashed while writing the last log
+        corruptLastRecord(CaptureFileLogSender.getSegmentFile(directory, 0));
+
+        try (CaptureFileLogSender sender = new CaptureFileLogSender(directory, 3, 4096)) {
+            sender.postLog(new BufferFullLogMessage(100));
+        }
+        final List<Long> timestamps = readTimestamps(directory);
+        Assert.assertEquals(10, timestamps.size());
+        Assert.assertEquals(8, timestamps.get(8).longValue());
+        Assert.assertEquals(100, timestamps.get(9).longValue());
+    }
+
+    @Test(expected = IOException.class)
+    public void testDirectoryUsedOnce() throws Exception {
+        final File directory = tempFolder.newFolder();
+        try (CaptureFileLogSender sender = new CaptureFileLogSender(directory, 3, 4096)) {
+            new CaptureFileLogSender(directory, 3, 4096).close();
+        }
+    }
+
+    @Test
+    public void testSegmentsStartedBeforeTheirRecords() throws Exception {
+        final File directory = tempFolder.newFolder();
+        final int threadCount = 4;
+        final int logsPerThread = 2000;
+        try (CaptureFileLogSender sender = new CaptureFileLogSender(directory, 3, 1024)) {
+            final List<Thread> threads = new ArrayList<Thread>();
+            for (int t = 0; t < threadCount; t++) {
+                final int firstTimestamp = t * logsPerThread;
+                threads.add(new Thread(() -> {
+                    for (int i = 0; i < logsPerThread; i++) {
+                        sender.postLog(new BufferFullLogMessage(firstTimestamp + i));
+                    }
+                }));
+            }
+            for (final Thread thread : threads) {
+                thread.start();
+            }
+            for (final Thread thread : threads) {
+                thread.join();
+            }
+        }
+
+        long lastGeneration = -1;
+        for (int i = 0; i < 3; i++) {
+            lastGeneration = Math.max(lastGeneration,
+                    checkSegmentGenerations(CaptureFileLogSender.getSegmentFile(directory, i)));
+        }
+        // more than a hundred segments were written
+        Assert.assertTrue(lastGeneration > 100);
+
+        // each thread published its logs in order
+        final long[] lastTimestamps = new long[threadCount];
+        Arrays.fill(lastTimestamps, -1);
+        for (final long timestamp : readTimestamps(directory)) {
+            final int t = (int) (timestamp / logsPerThread);
+            Assert.assertTrue(timestamp > lastTimestamps[t]);
+            lastTimestamps[t] = timestamp;
+        }
+        // the last thread to finish published the last log
+        boolean lastLogCaptured = false;
+        for (int t = 0; t < threadCount; t++) {
+            lastLogCaptured |= lastTimestamps[t] == (t + 1) * logsPerThread - 1;
+        }
+        Assert.assertTrue(lastLogCaptured);
+    }
+
+    /**
+     * Checks that the records of the segment have the generation of its header, up to the end of the segment or to
+     * the records left by a previous lap of the ring.
+     *
+     * @return the generation of the segment
+     */
+    private static long checkSegmentGenerations(final File segmentFile) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(segmentFile, "r")) {
+            Assert.assertEquals(CaptureFileLogSender.SEGMENT_MAGIC, file.readInt());
+            file.seek(8);
+            final long generation = file.readLong();
+            int offset = CaptureFileLogSender.SEGMENT_HEADER_SIZE;
+            int recordCount = 0;
+            while (offset + CaptureFileLogSender.RECORD_HEADER_SIZE <= file.length()) {
+                file.seek(offset);
+                final int length = file.readInt();
+                if (length <= 0) {
+                    break;
+                }
+                final int recordGeneration = file.readInt();
+                if (recordGeneration != (int) generation) {
+                    Assert.assertTrue(recordGeneration < generation);
+                    break;
+                }
+                offset += CaptureFileLogSender.RECORD_HEADER_SIZE + length;
+                recordCount++;
+            }
+            Assert.assertTrue(recordCount > 0);
+            return generation;
+        }
+    }
+
+    private static void corruptLastRecord(final File segmentFile) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(segmentFile, "rw")) {
+            int offset = CaptureFileLogSender.SEGMENT_HEADER_SIZE;
+            int lastRecordEnd = offset;
+            while (true) {
+                file.seek(offset);
+                final int length = file.readInt();
+                if (length <= 0) {
+                    break;
+                }
+                offset += CaptureFileLogSender.RECORD_HEADER_SIZE + length;
+                lastRecordEnd = offset;
+            }
+            file.seek(lastRecordEnd - 1);
+            final int lastByte = file.read();
+            file.seek(lastRecordEnd - 1);
+            file.write(lastByte + 1);
+        }
+    }
+
+    private static List<Long> readTimestamps(final File directory) throws Exception {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final long count = CaptureFileReader.convert(directory, bytes);
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        Assert.assertEquals(BinaryLogMessageCodec.MAGIC, in.readInt());
+        Assert.assertEquals(BinaryLogMessageCodec.VERSION, in.readShort());
+
+        final BinaryLogMessageCodec.Decoder decoder = new BinaryLogMessageCodec.Decoder();
+        final List<Long> timestamps = new ArrayList<Long>();
+        for (long i = 0; i < count; i++) {
+            final byte[] frame = new byte[in.readInt()];
+            in.readFully(frame);
+            decoder.decode(frame, log -> {
+                // the connections are written again at the start of each segment
+                if (log instanceof BufferFullLogMessage) {
+                    timestamps.add(((BufferFullLogMessage) log).getTimestamp());
+                }
+            });
+        }
+        Assert.assertEquals(-1, in.read());
+        return timestamps;
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger.logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import ch.sla.jdbcperflogger.model.BinaryLogMessageCodec;
+import ch.sla.jdbcperflogger.model.BufferFullLogMessage;
+import ch.sla.jdbcperflogger.model.LogMessage;
+import ch.sla.jdbcperflogger.model.LostMessagesLog;
+import ch.sla.jdbcperflogger.model.LostMessagesLog.MessageType;
+import ch.sla.jdbcperflogger.model.ResultSetLog;
+import ch.sla.jdbcperflogger.model.StatementExecutedLog;
+
+public class LogRingBufferTest {
+
+    @Test
+    public void testCapacity() {
+        Assert.assertEquals(16, new LogRingBuffer(16).getCapacity());
+        Assert.assertEquals(32, new LogRingBuffer(17).getCapacity());
+    }
+
+    @Test
+    public void testPollInOrder() throws Exception {
+        final LogRingBuffer ring = new LogRingBuffer(16);
+        Assert.assertFalse(ring.hasConsumers());
+        final LogRingBuffer.Consumer consumer = ring.newConsumer("test");
+        Assert.assertTrue(ring.hasConsumers());
+        Assert.assertNull(consumer.poll());
+
+        for (int i = 0; i < 40; i++) {
+            final LogMessage log = new BufferFullLogMessage(i);
+            ring.publish(log);
+            Assert.assertSame(log, consumer.poll());
+        }
+        Assert.assertNull(consumer.poll(10, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(0, consumer.getMissedCount());
+
+        ring.removeConsumer(consumer);
+        Assert.assertFalse(ring.hasConsumers());
+    }
+
+    @Test
+    public void testQueueDepths() {
+        final LogRingBuffer ring = new LogRingBuffer(16);
+        final LogRingBuffer.Consumer slowConsumer = ring.newConsumer("slow");
+        final LogRingBuffer.Consumer fastConsumer = ring.newConsumer("fast");
+        for (int i = 0; i < 40; i++) {
+            ring.publish(new BufferFullLogMessage(i));
+            fastConsumer.poll();
+        }
+        Assert.assertEquals(16, slowConsumer.getQueueDepth());
+        Assert.assertEquals(0, fastConsumer.getQueueDepth());
+        Assert.assertEquals(16, ring.getMaxQueueDepth());
+        Assert.assertEquals(Long.valueOf(16), ring.getQueueDepths().get("slow"));
+        Assert.assertEquals(Long.valueOf(0), ring.getQueueDepths().get("fast"));
+    }
+
+    @Test
+    public void testConsumerOnlyReceivesNewLogs() {
+        final LogRingBuffer ring = new LogRingBuffer(16);
+        ring.publish(new BufferFullLogMessage(1));
+        final LogRingBuffer.Consumer consumer = ring.newConsumer("test");
+        Assert.assertNull(consumer.poll());
+        ring.publish(new BufferFullLogMessage(2));
+        Assert.assertEquals(2, ((BufferFullLogMessage) consumer.poll()).getTimestamp());
+    }
+
+    @Test
+    public void testOverrunConsumer() {
+        final LogRingBuffer ring = new LogRingBuffer(16);
+        final LogRingBuffer.Consumer slowConsumer = ring.newConsumer("test");
+        final LogRingBuffer.Consumer fastConsumer = ring.newConsumer("test");
+        for (int i = 0; i < 20; i++) {
+            ring.publish(new BufferFullLogMessage(i));
+            Assert.assertEquals(i, ((BufferFullLogMessage) fastConsumer.poll()).getTimestamp());
+        }
+        Assert.assertEquals(1.0, slowConsumer.getFillRatio(), 0.0);
+        Assert.assertEquals(0.0, fastConsumer.getFillRatio(), 0.0);
+        Assert.assertEquals(1.0, ring.getMaxFillRatio(), 0.0);
+
+        // the 4 oldest logs have been overwritten
+        Assert.assertEquals(4, ((BufferFullLogMessage) slowConsumer.poll()).getTimestamp());
+        Assert.assertEquals(4, slowConsumer.getMissedCount());
+        Assert.assertEquals(0, fastConsumer.getMissedCount());
+        Assert.assertNull(fastConsumer.drainLost());
+    }
+
+    @Test
+    public void testLostCountsByType() {
+        final LogRingBuffer ring = new LogRingBuffer(16);
+        final LogRingBuffer.Consumer consumer = ring.newConsumer("test");
+        for (int i = 0; i < 20; i++) {
+            ring.publish(i % 2 == 0 ? new BufferFullLogMessage(i) : new StatementExecutedLog(i, 1, null, null));
+        }
+        ring.countLost(new ResultSetLog(1, 2, 3, 4));
+        Assert.assertNotNull(consumer.poll());
+
+        final LostMessagesLog lost = consumer.drainLost();
+        Assert.assertEquals(5, lost.getTotalLostCount());
+        Assert.assertEquals(2, lost.getLostCount(MessageType.OTHER));
+        Assert.assertEquals(2, lost.getLostCount(MessageType.STATEMENT_EXECUTED));
+        Assert.assertEquals(1, lost.getLostCount(MessageType.RESULT_SET));
+        Assert.assertTrue(lost.getStartTimestamp() <= lost.getEndTimestamp());
+        Assert.assertNull(consumer.drainLost());
+    }
+
+    @Test
+    public void testTryPublishWaitsForSlowestConsumer() throws Exception {
+        final LogRingBuffer ring = new LogRingBuffer(16);
+        final LogRingBuffer.Consumer slowConsumer = ring.newConsumer("test");
+        final LogRingBuffer.Consumer fastConsumer = ring.newConsumer("test");
+        for (int i = 0; i < 16; i++) {
+            Assert.assertTrue(ring.tryPublish(new BufferFullLogMessage(i), 0));
+            Assert.assertNotNull(fastConsumer.poll());
+        }
+        Assert.assertFalse(ring.tryPublish(new BufferFullLogMessage(16), 0));
+        Assert.assertFalse(ring.tryPublish(new BufferFullLogMessage(16), TimeUnit.MILLISECONDS.toNanos(1)));
+
+        final Thread reader = new Thread(() -> {
+            try {
+                Thread.sleep(20);
+            } catch (final InterruptedException e) {
+                // stop waiting
+            }
+            slowConsumer.poll();
+        });
+        reader.start();
+        Assert.assertTrue(ring.tryPublish(new BufferFullLogMessage(16), TimeUnit.SECONDS.toNanos(10)));
+        reader.join();
+
+        // nothing was overwritten
+        for (int i = 1; i <= 16; i++) {
+            Assert.assertEquals(i, ((BufferFullLogMessage) slowConsumer.poll()).getTimestamp());
+        }
+        Assert.assertEquals(0, slowConsumer.getMissedCount());
+    }
+
+    @Test
+    public void testEncodedOnceForAllConsumers() throws Exception {
+        final LogRingBuffer ring = new LogRingBuffer(16);
+        final LogRingBuffer.Consumer consumer1 = ring.newConsumer("test");
+        final LogRingBuffer.Consumer consumer2 = ring.newConsumer("test");
+        ring.publish(new BufferFullLogMessage(12));
+
+        final byte[] frame = consumer1.pollEncoded(1, TimeUnit.SECONDS, WireFormat.BINARY).getBytes();
+        Assert.assertSame(frame, consumer2.pollEncoded(1, TimeUnit.SECONDS, WireFormat.BINARY).getBytes());
+        Assert.assertEquals(12, ((BufferFullLogMessage) BinaryLogMessageCodec
+                .decode(Arrays.copyOfRange(frame, 4, frame.length))).getTimestamp());
+    }
+
+    @Test
+    public void testSlotsReleasedOnceReadByAllConsumers() throws Exception {
+        final LogRingBuffer ring = new LogRingBuffer(16);
+        final LogRingBuffer.Consumer consumer1 = ring.newConsumer("test");
+        final LogRingBuffer.Consumer consumer2 = ring.newConsumer("test");
+        for (int i = 0; i < 10; i++) {
+            ring.publish(new BufferFullLogMessage(i));
+        }
+        for (int i = 0; i < 10; i++) {
+            Assert.assertNotNull(consumer1.pollEncoded(1, TimeUnit.SECONDS, WireFormat.BINARY));
+        }
+        Assert.assertNull(consumer1.poll());
+        Assert.assertFalse(ring.isReleased(0));
+
+        for (int i = 0; i < 5; i++) {
+            Assert.assertNotNull(consumer2.poll());
+        }
+        Assert.assertNull(consumer1.poll());
+        for (int i = 0; i < 4; i++) {
+            Assert.assertTrue(ring.isReleased(i));
+        }
+        // may still be encoded by consumer2
+        Assert.assertFalse(ring.isReleased(4));
+
+        ring.removeConsumer(consumer2);
+        for (int i = 0; i < 9; i++) {
+            Assert.assertTrue(ring.isReleased(i));
+        }
+        Assert.assertFalse(ring.isReleased(9));
+
+        // the released slots are written again on the next lap
+        for (int i = 10; i < 40; i++) {
+            ring.publish(new BufferFullLogMessage(i));
+            Assert.assertEquals(i, ((BufferFullLogMessage) consumer1.poll()).getTimestamp());
+        }
+    }
+
+    @Test
+    public void testConcurrentProducers() throws Exception {
+        final int producerCount = 4;
+        final int logsPerProducer = 20000;
+        final LogRingBuffer ring = new LogRingBuffer(1024);
+        final LogRingBuffer.Consumer consumer = ring.newConsumer("test");
+        final List<Thread> producers = new ArrayList<Thread>();
+        for (int p = 0; p < producerCount; p++) {
+            final int producer = p;
+            final Thread thread = new Thread(() -> {
+                for (int i = 0; i < logsPerProducer; i++) {
+                    ring.publish(new BufferFullLogMessage(producer * (long) logsPerProducer + i));
+                }
+            });
+            producers.add(thread);
+            thread.start();
+        }
+
+        final long[] lastReceivedPerProducer = new long[producerCount];
+        Arrays.fill(lastReceivedPerProducer, -1);
+        long received = 0;
+        while (received + consumer.getMissedCount() < producerCount * logsPerProducer) {
+            final BufferFullLogMessage log = (BufferFullLogMessage) consumer.poll(1, TimeUnit.SECONDS);
+            Assert.assertNotNull(log);
+            final int producer = (int) (log.getTimestamp() / logsPerProducer);
+            final long index = log.getTimestamp() % logsPerProducer;
+            // each log is received at most once, in the order of its producer
+            Assert.assertTrue(index > lastReceivedPerProducer[producer]);
+            lastReceivedPerProducer[producer] = index;
+            received++;
+        }
+        for (final Thread thread : producers) {
+            thread.join();
+        }
+        Assert.assertNull(consumer.poll());
+        Assert.assertEquals(producerCount * logsPerProducer, received + consumer.getMissedCount());
+    }
+}
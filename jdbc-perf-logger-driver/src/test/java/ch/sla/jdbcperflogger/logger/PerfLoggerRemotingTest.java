@@ -0,0 +1,98 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger.logger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import ch.sla.jdbcperflogger.BackPressurePolicy;
+import ch.sla.jdbcperflogger.model.BufferFullLogMessage;
+import ch.sla.jdbcperflogger.model.LostMessagesLog;
+import ch.sla.jdbcperflogger.model.LostMessagesLog.MessageType;
+import ch.sla.jdbcperflogger.model.StatementExecutedLog;
+import ch.sla.jdbcperflogger.model.TelemetryLog;
+
+public class PerfLoggerRemotingTest {
+
+    @Test
+    public void testDropOldest() {
+        final LogRingBuffer ring = new LogRingBuffer(4);
+        final LogRingBuffer.Consumer consumer = ring.newConsumer("test");
+        for (int i = 0; i < 5; i++) {
+            PerfLoggerRemoting.publish(ring, new BufferFullLogMessage(i), BackPressurePolicy.DROP_OLDEST, 0);
+        }
+        Assert.assertEquals(1, ((BufferFullLogMessage) consumer.poll()).getTimestamp());
+        Assert.assertEquals(1, consumer.drainLost().getLostCount(MessageType.OTHER));
+    }
+
+    @Test
+    public void testDropNewest() {
+        final LogRingBuffer ring = new LogRingBuffer(4);
+        final LogRingBuffer.Consumer consumer = ring.newConsumer("test");
+        for (int i = 0; i < 5; i++) {
+            PerfLoggerRemoting.publish(ring, new StatementExecutedLog(i, 1, null, null),
+                    BackPressurePolicy.DROP_NEWEST, 0);
+        }
+        Assert.assertEquals(0, ((StatementExecutedLog) consumer.poll()).getLogId());
+        Assert.assertEquals(1, ((StatementExecutedLog) consumer.poll()).getLogId());
+        Assert.assertEquals(2, ((StatementExecutedLog) consumer.poll()).getLogId());
+        Assert.assertEquals(3, ((StatementExecutedLog) consumer.poll()).getLogId());
+        Assert.assertNull(consumer.poll());
+        final LostMessagesLog lost = consumer.drainLost();
+        Assert.assertEquals(1, lost.getTotalLostCount());
+        Assert.assertEquals(1, lost.getLostCount(MessageType.STATEMENT_EXECUTED));
+    }
+
+    @Test
+    public void testTelemetryOnlySentToConsoles() {
+        final RecordingLogSender recorder = new RecordingLogSender();
+        final RecordingLogSender telemetryReceiver = new RecordingLogSender() {
+            @Override
+            public boolean isTelemetryReceiver() {
+                return true;
+            }
+        };
+        PerfLoggerRemoting.addSender(recorder);
+        PerfLoggerRemoting.addSender(telemetryReceiver);
+        try {
+            PerfLoggerRemoting.postTelemetry();
+        } finally {
+            PerfLoggerRemoting.removeSender(recorder);
+            PerfLoggerRemoting.removeSender(telemetryReceiver);
+        }
+        Assert.assertEquals(0, recorder.getRecordedLogMessages().length);
+        Assert.assertTrue(telemetryReceiver.lastLogMessage(0) instanceof TelemetryLog);
+    }
+
+    @Test
+    public void testAggregateDoesNotCountExecutionsAsLost() {
+        final LogRingBuffer ring = new LogRingBuffer(4);
+        final LogRingBuffer.Consumer consumer = ring.newConsumer("test");
+        for (int i = 0; i < 5; i++) {
+            PerfLoggerRemoting.publish(ring, new StatementExecutedLog(i, 1, null, null),
+                    BackPressurePolicy.AGGREGATE, 0);
+        }
+        PerfLoggerRemoting.publish(ring, new BufferFullLogMessage(5), BackPressurePolicy.AGGREGATE, 0);
+        Assert.assertEquals(0, ((StatementExecutedLog) consumer.poll()).getLogId());
+        Assert.assertEquals(1, ((StatementExecutedLog) consumer.poll()).getLogId());
+        Assert.assertEquals(2, ((StatementExecutedLog) consumer.poll()).getLogId());
+        Assert.assertEquals(3, ((StatementExecutedLog) consumer.poll()).getLogId());
+        Assert.assertNull(consumer.poll());
+        final LostMessagesLog lost = consumer.drainLost();
+        Assert.assertEquals(1, lost.getTotalLostCount());
+        Assert.assertEquals(1, lost.getLostCount(MessageType.OTHER));
+    }
+}
@@ -1,10 +1,23 @@
 package ch.sla.jdbcperflogger.logger;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import org.junit.Assert;
 import org.junit.Test;
 
+import ch.sla.jdbcperflogger.StatementType;
+import ch.sla.jdbcperflogger.model.BinaryLogMessageCodec;
+import ch.sla.jdbcperflogger.model.LogMessage;
+import ch.sla.jdbcperflogger.model.SampledOutStatementsLog;
+import ch.sla.jdbcperflogger.model.StatementLog;
+
 public class PerfLoggerServerThreadTest {
 
     @Test
@@ -17,9 +30,7 @@ public class PerfLoggerServerThreadTest {
             final PerfLoggerServerThread thread = PerfLoggerServerThread.spawn(0);
             Thread.sleep(1000);
             final ClassLoader classLoaderInsideThread = thread.getContextClassLoader();
-            thread.serverSocket.close();
-            thread.done = true;
-            thread.interrupt();
+            thread.close();
             thread.join();
 
             Assert.assertNotSame(myClassLoader, classLoaderInsideThread);
@@ -28,6 +39,53 @@ public class PerfLoggerServerThreadTest {
         }
     }
 
+    @Test
+    public void testSlowConsoleDoesNotBlockTheOthers() throws Exception {
+        final PerfLoggerServerThread thread = PerfLoggerServerThread.spawn(0);
+        try (Socket slowConsole = new Socket(); Socket fastConsole = new Socket()) {
+            slowConsole.setReceiveBufferSize(1024);
+            slowConsole.connect(new InetSocketAddress("localhost", thread.getLocalPort()));
+            sayHello(slowConsole);
+            fastConsole.connect(new InetSocketAddress("localhost", thread.getLocalPort()));
+            sayHello(fastConsole);
+            final DataInputStream in = new DataInputStream(fastConsole.getInputStream());
+            Assert.assertEquals(BinaryLogMessageCodec.MAGIC, in.readInt());
+            Assert.assertEquals(BinaryLogMessageCodec.VERSION, in.readShort());
+
+            // the slow console never reads, more logs are sent than its socket buffers can hold
+            final char[] sql = new char[500];
+            Arrays.fill(sql, 'x');
+            final int logCount = 20000;
+            for (int i = 0; i < logCount; i++) {
+                PerfLoggerRemoting.postLog(new StatementLog(1, i, 3, StatementType.NON_PREPARED_QUERY_STMT,
+                        new String(sql) + i, "main", 0, true, 2));
+                if (i % 500 == 0) {
+                    Thread.sleep(5);
+                }
+            }
+            PerfLoggerRemoting.postLog(new SampledOutStatementsLog(logCount, 0, 0));
+
+            final BinaryLogMessageCodec.Decoder decoder = new BinaryLogMessageCodec.Decoder();
+            final List<LogMessage> logs = new ArrayList<LogMessage>();
+            while (logs.isEmpty() || !(logs.get(logs.size() - 1) instanceof SampledOutStatementsLog)) {
+                final byte[] frame = new byte[in.readInt()];
+                in.readFully(frame);
+                decoder.decode(frame, logs::add);
+            }
+            Assert.assertEquals(logCount, ((SampledOutStatementsLog) logs.get(logs.size() - 1)).getTimestamp());
+        } finally {
+            thread.close();
+            thread.join();
+        }
+    }
+
+    private static void sayHello(final Socket console) throws IOException {
+        final DataOutputStream out = new DataOutputStream(console.getOutputStream());
+        out.writeInt(BinaryLogMessageCodec.MAGIC);
+        out.writeShort(BinaryLogMessageCodec.VERSION);
+        out.flush();
+    }
+
     private static ClassLoader currentCcl() {
         return Thread.currentThread().getContextClassLoader();
     }
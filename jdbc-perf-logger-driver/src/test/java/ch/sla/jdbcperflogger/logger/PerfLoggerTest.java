@@ -15,6 +15,11 @@
  */
 package ch.sla.jdbcperflogger.logger;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.sql.Connection;
 import java.sql.Timestamp;
 import java.sql.Types;
 import java.text.SimpleDateFormat;
@@ -24,8 +29,10 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import ch.sla.jdbcperflogger.DatabaseType;
+import ch.sla.jdbcperflogger.StatementType;
 import ch.sla.jdbcperflogger.model.PreparedStatementValuesHolder;
 import ch.sla.jdbcperflogger.model.SqlTypedValue;
+import ch.sla.jdbcperflogger.model.StatementLog;
 
 public class PerfLoggerTest {
     @Test
@@ -72,6 +79,29 @@ public class PerfLoggerTest {
         Assert.assertEquals("select * from toto where param = ? /*CLOB*/", filledSql);
     }
 
+    @Test
+    public void testDeferredFilledSql() throws Exception {
+        final PreparedStatementValuesHolder valHolder = new PreparedStatementValuesHolder();
+        valHolder.put(1, new SqlTypedValue(36, Types.INTEGER));
+        final PreparedStatementValuesHolder snapshot = valHolder.copy();
+        final StatementLog log = new StatementLog(1L, 2L, 0L,
+                StatementType.BASE_PREPARED_STMT, "select * from toto where age < ?",
+                () -> PerfLogger.fillParameters("select * from toto where age < ?", snapshot, DatabaseType.ORACLE),
+                "thread", 0, true, Connection.TRANSACTION_READ_COMMITTED, StatementLog.UNKNOWN_FINGERPRINT_HASH);
+        valHolder.put(1, new SqlTypedValue(37, Types.INTEGER));
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+            oos.writeObject(log);
+        }
+        final StatementLog deserialized;
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            deserialized = (StatementLog) ois.readObject();
+        }
+        Assert.assertEquals("select * from toto where age < 36 /*INTEGER*/", deserialized.getFilledSql());
+        Assert.assertEquals(log.getFilledSql(), deserialized.getFilledSql());
+    }
+
     @Test
     public void testgetValueAsString_string() {
         String val;
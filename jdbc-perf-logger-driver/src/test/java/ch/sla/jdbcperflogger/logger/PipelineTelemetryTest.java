@@ -0,0 +1,77 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger.logger;
+
+import java.io.Closeable;
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import ch.sla.jdbcperflogger.model.TelemetryLog;
+
+public class PipelineTelemetryTest {
+
+    @Test
+    public void testDrain() {
+        final PipelineTelemetry telemetry = new PipelineTelemetry();
+        telemetry.logPosted();
+        telemetry.logPosted();
+        telemetry.logsDropped(3);
+        telemetry.logEncoded(100);
+        telemetry.bytesSent(1000);
+        telemetry.loggerCalled(System.nanoTime());
+
+        TelemetryLog log = telemetry.drain(5);
+        Assert.assertEquals(2, log.getPostedCount());
+        Assert.assertEquals(3, log.getDroppedCount());
+        Assert.assertEquals(1, log.getEncodedCount());
+        Assert.assertEquals(100, log.getEncodingTimeNanos());
+        Assert.assertEquals(1000, log.getBytesSent());
+        Assert.assertEquals(1, log.getLoggerCallCount());
+        Assert.assertEquals(5, log.getMaxQueueDepth());
+        Assert.assertTrue(log.getStartTimestamp() <= log.getEndTimestamp());
+
+        // only what happened since the previous drain
+        telemetry.logPosted();
+        log = telemetry.drain(0);
+        Assert.assertEquals(1, log.getPostedCount());
+        Assert.assertEquals(0, log.getDroppedCount());
+        Assert.assertEquals(0, log.getBytesSent());
+
+        // the MBean shows the totals
+        Assert.assertEquals(3, telemetry.getPostedLogCount());
+        Assert.assertEquals(1000, telemetry.getBytesSent());
+    }
+
+    @Test
+    public void testMBean() throws Exception {
+        final MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+        final ObjectName objectName = new ObjectName(PipelineTelemetry.OBJECT_NAME);
+        // may already be registered by the driver
+        try (Closeable registration = PipelineTelemetry.register()) {
+            Assert.assertTrue(mbeanServer.isRegistered(objectName));
+            PipelineTelemetry.INSTANCE.logPosted();
+            Assert.assertTrue((Long) mbeanServer.getAttribute(objectName, "PostedLogCount") > 0);
+            Assert.assertEquals(PerfLoggerRemoting.logRing.getCapacity(),
+                    mbeanServer.getAttribute(objectName, "QueueCapacity"));
+            Assert.assertNotNull(mbeanServer.getAttribute(objectName, "QueueDepths"));
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger.logger;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import ch.sla.jdbcperflogger.ConsoleLinkCompression;
+import ch.sla.jdbcperflogger.model.BinaryLogMessageCodec;
+import ch.sla.jdbcperflogger.model.BufferFullLogMessage;
+import ch.sla.jdbcperflogger.model.LogMessage;
+
+public class SocketLogSenderTest {
+
+    @Test
+    public void testBinaryFormatWhenTheConsoleSaysHello() throws Exception {
+        try (ServerSocket serverSocket = new ServerSocket(0);
+                Socket consoleSocket = new Socket("localhost", serverSocket.getLocalPort())) {
+            startSender(serverSocket.accept());
+
+            final DataOutputStream out = new DataOutputStream(consoleSocket.getOutputStream());
+            out.writeInt(BinaryLogMessageCodec.MAGIC);
+            out.writeShort(BinaryLogMessageCodec.VERSION);
+            out.flush();
+
+            final DataInputStream in = new DataInputStream(consoleSocket.getInputStream());
+            Assert.assertEquals(BinaryLogMessageCodec.MAGIC, in.readInt());
+            Assert.assertEquals(BinaryLogMessageCodec.VERSION, in.readShort());
+
+            PerfLoggerRemoting.postLog(new BufferFullLogMessage(42));
+            Assert.assertEquals(42, readBufferFullLog(in).getTimestamp());
+        }
+    }
+
+    @Test
+    public void testCompressedBatches() throws Exception {
+        try (ServerSocket serverSocket = new ServerSocket(0);
+                Socket consoleSocket = new Socket("localhost", serverSocket.getLocalPort())) {
+            final Thread senderThread = new Thread(
+                    new SocketLogSender(serverSocket.accept(), ConsoleLinkCompression.DEFLATE, 3, 50),
+                    "SocketLogSenderTest");
+            senderThread.setDaemon(true);
+            senderThread.start();
+
+            final DataOutputStream out = new DataOutputStream(consoleSocket.getOutputStream());
+            out.writeInt(BinaryLogMessageCodec.MAGIC);
+            out.writeShort(BinaryLogMessageCodec.VERSION);
+            out.flush();
+
+            final DataInputStream in = new DataInputStream(consoleSocket.getInputStream());
+            Assert.assertEquals(BinaryLogMessageCodec.MAGIC, in.readInt());
+            Assert.assertEquals(BinaryLogMessageCodec.VERSION, in.readShort());
+
+            for (int i = 0; i < 5; i++) {
+                PerfLoggerRemoting.postLog(new BufferFullLogMessage(100 + i));
+            }
+            // batches of at most 3 logs, the last one sent once the delay is elapsed
+            final BinaryLogMessageCodec.Decoder decoder = new BinaryLogMessageCodec.Decoder();
+            final List<LogMessage> logs = new ArrayList<LogMessage>();
+            while (logs.size() < 5) {
+                final byte[] frame = new byte[in.readInt()];
+                in.readFully(frame);
+                decoder.decode(frame, log -> {
+                    if (log instanceof BufferFullLogMessage) {
+                        logs.add(log);
+                    }
+                });
+            }
+            for (int i = 0; i < 5; i++) {
+                Assert.assertEquals(100 + i, ((BufferFullLogMessage) logs.get(i)).getTimestamp());
+            }
+        }
+    }
+
+    @Test
+    public void testOlderConsoleDisconnected() throws Exception {
+        try (ServerSocket serverSocket = new ServerSocket(0);
+                Socket consoleSocket = new Socket("localhost", serverSocket.getLocalPort())) {
+            startSender(serverSocket.accept());
+
+            // not the hello of a console reading the binary format
+            final DataOutputStream out = new DataOutputStream(consoleSocket.getOutputStream());
+            out.writeInt(0xACED0005);
+            out.writeShort(0);
+            out.flush();
+
+            consoleSocket.setSoTimeout(5000);
+            Assert.assertEquals(-1, consoleSocket.getInputStream().read());
+        }
+    }
+
+    private static BufferFullLogMessage readBufferFullLog(final DataInputStream in) throws Exception {
+        final BinaryLogMessageCodec.Decoder decoder = new BinaryLogMessageCodec.Decoder();
+        final List<LogMessage> logs = new ArrayList<LogMessage>();
+        while (true) {
+            // skip the connections opened by other tests
+            final byte[] frame = new byte[in.readInt()];
+            in.readFully(frame);
+            decoder.decode(frame, logs::add);
+            for (final LogMessage log : logs) {
+                if (log instanceof BufferFullLogMessage) {
+                    return (BufferFullLogMessage) log;
+                }
+            }
+            logs.clear();
+        }
+    }
+
+    private static void startSender(final Socket socket) throws Exception {
+        final Thread senderThread = new Thread(new SocketLogSender(socket), "SocketLogSenderTest");
+        senderThread.setDaemon(true);
+        senderThread.start();
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger.logger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import ch.sla.jdbcperflogger.model.StatementLog;
+
+public class SqlFingerprintTest {
+    @Test
+    public void testLiterals() {
+        Assert.assertEquals("select * from emp where name = ? and age > ? and salary < ?",
+                SqlFingerprint.normalize("select * from emp where name = 'o''hara' and age > 36 and salary < 1.5e+3"));
+        Assert.assertEquals("select * from emp where id = ? and code = x ?",
+                SqlFingerprint.normalize("select * from emp where id = 0x1F and code = x'ab'"));
+        Assert.assertEquals("select t.col1, \"My 'col' 2\" from t2 t where c = - ? and d <= ?",
+                SqlFingerprint.normalize("select t . col1, \"My 'col' 2\" from t2 t where c=-.5 and d<=1"));
+        // the parameters of the prepared statements are kept
+        Assert.assertEquals("update emp set name = ? where id = ?",
+                SqlFingerprint.normalize("update emp set name = ? where id = ?"));
+    }
+
+    @Test
+    public void testHash() {
+        final String sql = "select * from emp where id in (1, 2)";
+        final String fingerprint = SqlFingerprint.normalize(sql);
+        Assert.assertEquals(SqlFingerprint.hash(fingerprint),
+                SqlFingerprint.hash(SqlFingerprint.normalize("select * from emp  where id in (3)")));
+        Assert.assertNotEquals(SqlFingerprint.hash(fingerprint),
+                SqlFingerprint.hash(SqlFingerprint.normalize("select * from dept where id in (3)")));
+        Assert.assertNotEquals(StatementLog.UNKNOWN_FINGERPRINT_HASH, SqlFingerprint.hash(""));
+        // computed once per SQL by the prepared statements
+        Assert.assertEquals(SqlFingerprint.hash(fingerprint), SqlPlaceholderIndex.of(sql).getFingerprintHash());
+    }
+
+    @Test
+    public void testInLists() {
+        final String expected = "select * from emp where id in (?+) and name not IN (?+)";
+        Assert.assertEquals(expected, SqlFingerprint.normalize("select * from emp where id in (1) and name not IN ('a')"));
+        Assert.assertEquals(expected,
+                SqlFingerprint.normalize("select * from emp where id in (1, 2,3, -4) and name not IN ('a', ?)"));
+        Assert.assertEquals("select * from emp where id in (select id from t where c in (?+))",
+                SqlFingerprint.normalize("select * from emp where id in (select id from t where c in (5, 6))"));
+        Assert.assertEquals("select * from emp where (a, b) in ((?, ?), (?, ?))",
+                SqlFingerprint.normalize("select * from emp where (a, b) in ((1, 2), (3, 4))"));
+        Assert.assertEquals("select min(a) from t", SqlFingerprint.normalize("select min(a) from t"));
+    }
+
+    @Test
+    public void testCommentsAndWhitespaces() {
+        Assert.assertEquals("select * from emp where id = ?", SqlFingerprint.normalize(
+                "/* leading ? */ select *\n  from emp -- the 'employees'\n\twhere /*+ hint */ id = 12 -- end"));
+        Assert.assertEquals("select ?", SqlFingerprint.normalize("select 'unterminated"));
+        Assert.assertEquals("select count(*), a || b from t where c = :name",
+                SqlFingerprint.normalize("select count( * ),a||b from t where c=: name"));
+        Assert.assertEquals("", SqlFingerprint.normalize("  /* only a comment "));
+    }
+}
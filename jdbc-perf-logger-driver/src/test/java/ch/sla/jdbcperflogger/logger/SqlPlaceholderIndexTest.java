@@ -0,0 +1,49 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger.logger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class SqlPlaceholderIndexTest {
+
+    @Test
+    public void testFindPlaceholders() {
+        assertArrayEquals(new int[] {}, SqlPlaceholderIndex.findPlaceholders("select 1 from dual"));
+        assertArrayEquals(new int[] { 2, 4 }, SqlPlaceholderIndex.findPlaceholders("f(?,?)"));
+        assertArrayEquals(new int[] { 11 }, SqlPlaceholderIndex.findPlaceholders("'a?''b?' = ?"));
+        assertArrayEquals(new int[] { 8 }, SqlPlaceholderIndex.findPlaceholders("/* ? */ ?--?"));
+        assertArrayEquals(new int[] { 5 }, SqlPlaceholderIndex.findPlaceholders("--?\r\n?"));
+        assertArrayEquals(new int[] { 5 }, SqlPlaceholderIndex.findPlaceholders("--?\n ?"));
+    }
+
+    @Test
+    public void testUnterminated() {
+        // same behavior as the regular expression previously used
+        assertArrayEquals(new int[] { 2 }, SqlPlaceholderIndex.findPlaceholders("'a?"));
+        assertArrayEquals(new int[] { 3 }, SqlPlaceholderIndex.findPlaceholders("/* ?"));
+        // 'a' is a string followed by an unterminated one
+        assertArrayEquals(new int[] { 5 }, SqlPlaceholderIndex.findPlaceholders("'a''b?"));
+    }
+
+    @Test
+    public void testCache() {
+        final String sql = "select * from cached where a = ?";
+        assertSame(SqlPlaceholderIndex.of(sql), SqlPlaceholderIndex.of(new String(sql)));
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger.logger;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import ch.sla.jdbcperflogger.SamplingMode;
+import ch.sla.jdbcperflogger.model.SampledOutStatementsLog;
+
+public class StatementSamplerTest {
+
+    @Test
+    public void testNone() {
+        final StatementSampler sampler = new StatementSampler(SamplingMode.NONE, 1, 0, 0, () -> 1.0);
+        Assert.assertTrue(sampler.sampleNext());
+        Assert.assertFalse(sampler.holdsBeforeLogs());
+        Assert.assertNull(sampler.drainSampledOut());
+    }
+
+    @Test
+    public void testRate() {
+        final StatementSampler sampler = new StatementSampler(SamplingMode.RATE, 10, 0, 0, () -> 0.0);
+        Assert.assertFalse(sampler.holdsBeforeLogs());
+        int sampled = 0;
+        for (int i = 0; i < 100000; i++) {
+            if (sampler.sampleNext()) {
+                sampled++;
+            }
+        }
+        Assert.assertTrue("sampled " + sampled, sampled > 9000 && sampled < 11000);
+    }
+
+    @Test
+    public void testThreshold() {
+        final StatementSampler sampler = new StatementSampler(SamplingMode.THRESHOLD, 1, 10, 1000, () -> 1.0);
+        Assert.assertTrue(sampler.sampleNext());
+        Assert.assertTrue(sampler.holdsBeforeLogs());
+        Assert.assertEquals(MILLISECONDS.toNanos(10), sampler.getThresholdNanos());
+        Assert.assertTrue(sampler.keep(MILLISECONDS.toNanos(10), false));
+        Assert.assertFalse(sampler.keep(MILLISECONDS.toNanos(9), false));
+        Assert.assertTrue(sampler.keep(MILLISECONDS.toNanos(9), true));
+    }
+
+    @Test
+    public void testAdaptive() {
+        final double[] fillRatio = { 0.0 };
+        final StatementSampler sampler = new StatementSampler(SamplingMode.ADAPTIVE, 1, 10, 1010,
+                () -> fillRatio[0]);
+        Assert.assertTrue(sampler.holdsBeforeLogs());
+        Assert.assertEquals(MILLISECONDS.toNanos(10), sampler.getThresholdNanos());
+        fillRatio[0] = StatementSampler.ADAPTIVE_MIN_FILL_RATIO;
+        Assert.assertEquals(MILLISECONDS.toNanos(10), sampler.getThresholdNanos());
+        fillRatio[0] = 0.625;
+        Assert.assertEquals(MILLISECONDS.toNanos(510), sampler.getThresholdNanos());
+        fillRatio[0] = 1.0;
+        Assert.assertEquals(MILLISECONDS.toNanos(1010), sampler.getThresholdNanos());
+    }
+
+    @Test
+    public void testDrainSampledOut() {
+        final StatementSampler sampler = new StatementSampler(SamplingMode.RATE, 2, 0, 0, () -> 0.0);
+        sampler.sampledOut(100);
+        sampler.sampledOut(50);
+        final SampledOutStatementsLog log = sampler.drainSampledOut();
+        Assert.assertNotNull(log);
+        Assert.assertEquals(2, log.getStatementCount());
+        Assert.assertEquals(150, log.getExecutionTimeNanos());
+        Assert.assertNull(sampler.drainSampledOut());
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger.logger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import ch.sla.jdbcperflogger.StatementType;
+import ch.sla.jdbcperflogger.model.StatementStatsLog;
+import ch.sla.jdbcperflogger.model.StatementStatsLog.StatementStats;
+
+public class StatementStatsAggregatorTest {
+
+    @Test
+    public void testAggregation() {
+        final StatementStatsAggregator aggregator = new StatementStatsAggregator();
+        Assert.assertNull(aggregator.drain());
+
+        aggregator.add(StatementType.PREPARED_QUERY_STMT, "select 1", 100, 40, 10, 5, false);
+        aggregator.add(StatementType.PREPARED_QUERY_STMT, "select 1", 300, 60, 20, 7, true);
+        aggregator.add(StatementType.BASE_PREPARED_STMT, "select 1", 50, -1, 0, 1, false);
+
+        final StatementStatsLog log = aggregator.drain();
+        Assert.assertNotNull(log);
+        Assert.assertTrue(log.getStartTimestamp() <= log.getEndTimestamp());
+        Assert.assertEquals(2, log.getStats().size());
+        final StatementStats queryStats = find(log, StatementType.PREPARED_QUERY_STMT, "select 1");
+        Assert.assertEquals(2, queryStats.getExecutionCount());
+        Assert.assertEquals(1, queryStats.getErrorCount());
+        Assert.assertEquals(400, queryStats.getTotalExecutionTimeNanos());
+        Assert.assertEquals(100, queryStats.getMinExecutionTimeNanos());
+        Assert.assertEquals(300, queryStats.getMaxExecutionTimeNanos());
+        Assert.assertEquals(30, queryStats.getTotalFetchTimeNanos());
+        Assert.assertEquals(12, queryStats.getTotalRows());
+        Assert.assertEquals(2, queryStats.getExecutionTimeHistogram().getTotalCount());
+        Assert.assertEquals(103, queryStats.getExecutionTimeHistogram().getValueAtPercentile(50));
+        Assert.assertEquals(303, queryStats.getExecutionTimeHistogram().getValueAtPercentile(99.9));
+        Assert.assertEquals(2, queryStats.getResultSetUsageTimeHistogram().getTotalCount());
+        Assert.assertEquals(0, find(log, StatementType.BASE_PREPARED_STMT, "select 1").getResultSetUsageTimeHistogram()
+                .getTotalCount());
+        Assert.assertEquals(1, find(log, StatementType.BASE_PREPARED_STMT, "select 1").getExecutionCount());
+
+        // reset by the drain
+        aggregator.add(StatementType.PREPARED_QUERY_STMT, "select 1", 200, -1, 0, 0, false);
+        final StatementStats nextStats = find(aggregator.drain(), StatementType.PREPARED_QUERY_STMT, "select 1");
+        Assert.assertEquals(1, nextStats.getExecutionCount());
+        Assert.assertEquals(0, nextStats.getErrorCount());
+        Assert.assertEquals(200, nextStats.getMinExecutionTimeNanos());
+        Assert.assertEquals(200, nextStats.getMaxExecutionTimeNanos());
+        Assert.assertEquals(1, nextStats.getExecutionTimeHistogram().getTotalCount());
+        Assert.assertEquals(0, nextStats.getResultSetUsageTimeHistogram().getTotalCount());
+
+        Assert.assertNull(aggregator.drain());
+    }
+
+    @Test
+    public void testMaxStatements() {
+        final StatementStatsAggregator aggregator = new StatementStatsAggregator(2);
+        aggregator.add(StatementType.BASE_NON_PREPARED_STMT, "select 1", 1, -1, 0, 0, false);
+        aggregator.add(StatementType.BASE_NON_PREPARED_STMT, "select 2", 1, -1, 0, 0, false);
+        aggregator.add(StatementType.BASE_NON_PREPARED_STMT, "select 3", 1, -1, 0, 0, false);
+        aggregator.add(StatementType.BASE_NON_PREPARED_STMT, "select 4", 1, -1, 0, 0, false);
+        aggregator.add(StatementType.BASE_NON_PREPARED_STMT, "select 1", 1, -1, 0, 0, false);
+
+        StatementStatsLog log = aggregator.drain();
+        Assert.assertEquals(3, log.getStats().size());
+        Assert.assertEquals(2, find(log, StatementType.BASE_NON_PREPARED_STMT, "select 1").getExecutionCount());
+        Assert.assertEquals(2, find(log, StatementType.BASE_NON_PREPARED_STMT,
+                StatementStatsAggregator.OTHER_STATEMENTS_SQL).getExecutionCount());
+
+        // the idle statements are forgotten, making room for new ones
+        aggregator.drain();
+        aggregator.add(StatementType.BASE_NON_PREPARED_STMT, "select 3", 1, -1, 0, 0, false);
+        aggregator.add(StatementType.BASE_NON_PREPARED_STMT, "select 4", 1, -1, 0, 0, false);
+        log = aggregator.drain();
+        Assert.assertEquals(2, log.getStats().size());
+        Assert.assertEquals(1, find(log, StatementType.BASE_NON_PREPARED_STMT, "select 4").getExecutionCount());
+    }
+
+    @Test
+    public void testConcurrentDrains() throws Exception {
+        final StatementStatsAggregator aggregator = new StatementStatsAggregator();
+        final int nbThreads = 4;
+        final int nbExecutions = 100000;
+        final List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < nbThreads; t++) {
+            final Thread thread = new Thread(() -> {
+                for (int i = 0; i < nbExecutions; i++) {
+                    aggregator.add(StatementType.BASE_PREPARED_STMT, "update " + (i % 10), 1, -1, 0, 1, false);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        long total = 0;
+        boolean running = true;
+        while (running) {
+            running = false;
+            for (final Thread thread : threads) {
+                running |= thread.isAlive();
+            }
+            final StatementStatsLog log = aggregator.drain();
+            if (log != null) {
+                for (final StatementStats stats : log.getStats()) {
+                    total += stats.getExecutionCount();
+                    Assert.assertEquals(stats.getExecutionCount(), stats.getTotalRows());
+                }
+            }
+        }
+        Assert.assertEquals(nbThreads * nbExecutions, total);
+    }
+
+    private static StatementStats find(final StatementStatsLog log, final StatementType statementType,
+            final String rawSql) {
+        for (final StatementStats stats : log.getStats()) {
+            if (stats.getStatementType() == statementType && stats.getRawSql().equals(rawSql)) {
+                return stats;
+            }
+        }
+        throw new AssertionError("no stats for " + statementType + " " + rawSql);
+    }
+}
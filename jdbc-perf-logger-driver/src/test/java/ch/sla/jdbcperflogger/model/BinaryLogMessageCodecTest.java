@@ -0,0 +1,259 @@
+/* 
+ *  Copyright 2013 Sylvain LAURENT
+ *     
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+
+import org.junit.Test;
+
+import ch.sla.jdbcperflogger.StatementType;
+import ch.sla.jdbcperflogger.TxCompletionType;
+
+public class BinaryLogMessageCodecTest {
+
+    @Test
+    public void testKeepAlive() throws Exception {
+        assertNull(roundTrip(null));
+    }
+
+    @Test
+    public void testStatementLog() throws Exception {
+        final StatementLog log = new StatementLog(1L << 50, 123456789L, System.currentTimeMillis(),
+                StatementType.BASE_PREPARED_STMT, "select * from toto where name = ?",
+                "select * from toto where name = 'été' /*VARCHAR*/", "main", 10, false,
+                Connection.TRANSACTION_SERIALIZABLE, 0x1234_5678_9abc_def0L);
+        final StatementLog decoded = (StatementLog) roundTrip(log);
+        assertEquals(log.toString(), decoded.toString());
+        assertTrue(decoded.isPreparedStatement());
+        assertEquals(0x1234_5678_9abc_def0L, decoded.getFingerprintHash());
+        assertEquals(log.getFilledSql(), decoded.getFilledSql());
+        assertEquals(log.getConnectionId(), decoded.getConnectionId());
+        assertEquals(log.getLogId(), decoded.getLogId());
+
+        final StatementLog nonPrepared = new StatementLog(1, 2, 3, StatementType.NON_PREPARED_QUERY_STMT, "select 1",
+                "thread", 0, true, Connection.TRANSACTION_READ_COMMITTED);
+        assertEquals(nonPrepared.toString(), roundTrip(nonPrepared).toString());
+    }
+
+    @Test
+    public void testBatchedLogs() throws Exception {
+        final BatchedNonPreparedStatementsLog nonPrepared = new BatchedNonPreparedStatementsLog(1, 2, 3,
+                Arrays.asList("insert into a values(1)", "insert into a values(2)"), "thread", 0, true, 2);
+        final BatchedNonPreparedStatementsLog decodedNonPrepared = (BatchedNonPreparedStatementsLog) roundTrip(
+                nonPrepared);
+        assertEquals(nonPrepared.getSqlList(), decodedNonPrepared.getSqlList());
+        assertEquals(nonPrepared.toString(), decodedNonPrepared.toString());
+
+        final BatchedPreparedStatementsLog prepared = new BatchedPreparedStatementsLog(1, 2, 3,
+                "insert into a values(?)", Arrays.asList("insert into a values(1)"), "thread", 0, true, 2);
+        final BatchedPreparedStatementsLog decodedPrepared = (BatchedPreparedStatementsLog) roundTrip(prepared);
+        assertEquals(prepared.getRawSql(), decodedPrepared.getRawSql());
+        assertEquals(prepared.getSqlList(), decodedPrepared.getSqlList());
+    }
+
+    @Test
+    public void testExecutionLogs() throws Exception {
+        final StatementExecutedLog executed = new StatementExecutedLog(12, 34567, -2L, "java.sql.SQLException");
+        assertEquals(executed.toString(), roundTrip(executed).toString());
+        final StatementExecutedLog noUpdateCount = new StatementExecutedLog(12, 34567, null, null);
+        assertEquals(noUpdateCount.toString(), roundTrip(noUpdateCount).toString());
+
+        final ResultSetLog resultSet = new ResultSetLog(12, 345, 67, 89);
+        assertEquals(resultSet.toString(), roundTrip(resultSet).toString());
+
+        final StatementLog statement = new StatementLog(1, 12, 3, StatementType.NON_PREPARED_QUERY_STMT, "select 1",
+                "thread", 0, true, 2);
+        final StatementCompletedLog completed = (StatementCompletedLog) roundTrip(
+                new StatementCompletedLog(statement, executed, resultSet));
+        assertEquals(statement.toString(), completed.getBeforeExecutionLog().toString());
+        assertEquals(executed.toString(), completed.getExecutedLog().toString());
+        assertEquals(resultSet.toString(), String.valueOf(completed.getResultSetLog()));
+        assertNull(((StatementCompletedLog) roundTrip(new StatementCompletedLog(statement, executed, null)))
+                .getResultSetLog());
+    }
+
+    @Test
+    public void testOtherLogs() throws Exception {
+        final Properties properties = new Properties();
+        properties.setProperty("user", "toto");
+        final ConnectionInfo connectionInfo = new ConnectionInfo(123, 4, "jdbc:h2:mem:", new Date(), 567, properties);
+        final ConnectionInfo decodedConnectionInfo = (ConnectionInfo) roundTrip(connectionInfo);
+        assertEquals(connectionInfo.toString(), decodedConnectionInfo.toString());
+        assertEquals(connectionInfo.getCreationDate(), decodedConnectionInfo.getCreationDate());
+        assertEquals(properties, decodedConnectionInfo.getConnectionProperties());
+
+        final TxCompleteLog txCompleteLog = new TxCompleteLog(123, 456, TxCompletionType.ROLLBACK_TO_SAVEPOINT, 789,
+                "thread", "sp1");
+        assertEquals(txCompleteLog.toString(), roundTrip(txCompleteLog).toString());
+
+        assertEquals(12L, ((BufferFullLogMessage) roundTrip(new BufferFullLogMessage(12))).getTimestamp());
+
+        final SampledOutStatementsLog sampledOut = new SampledOutStatementsLog(12, 34, 56);
+        assertEquals(sampledOut.toString(), roundTrip(sampledOut).toString());
+
+        final LostMessagesLog lost = new LostMessagesLog(12, 34, new long[] { 1, 2, 0, 0, 0, 3 });
+        final LostMessagesLog decodedLost = (LostMessagesLog) roundTrip(lost);
+        assertEquals(lost.toString(), decodedLost.toString());
+        assertEquals(6, decodedLost.getTotalLostCount());
+        assertEquals(3, decodedLost.getLostCount(LostMessagesLog.MessageType.OTHER));
+
+        final LatencyHistogram executionTimes = new LatencyHistogram();
+        executionTimes.record(50);
+        executionTimes.record(200);
+        executionTimes.record(Long.MAX_VALUE);
+        final LatencyHistogram resultSetUsageTimes = new LatencyHistogram();
+        resultSetUsageTimes.record(10);
+        final StatementStatsLog statsLog = new StatementStatsLog(12, 34, Arrays.asList(
+                new StatementStatsLog.StatementStats(StatementType.PREPARED_QUERY_STMT, "select 1", 5, 1, 500, 50,
+                        200, 40, 30, executionTimes, resultSetUsageTimes),
+                new StatementStatsLog.StatementStats(StatementType.TRANSACTION, "COMMIT", 2, 0, 20, 5, 15, 0, 0,
+                        new LatencyHistogram(), new LatencyHistogram())));
+        final StatementStatsLog decodedStatsLog = (StatementStatsLog) roundTrip(statsLog);
+        assertEquals(statsLog.toString(), decodedStatsLog.toString());
+        final LatencyHistogram decodedExecutionTimes = decodedStatsLog.getStats().get(0).getExecutionTimeHistogram();
+        for (int i = 0; i < LatencyHistogram.BUCKET_COUNT; i++) {
+            assertEquals(executionTimes.getCount(i), decodedExecutionTimes.getCount(i));
+        }
+
+        final TelemetryLog telemetryLog = new TelemetryLog(12, 34, 100, 2, 98, 5000, 12345, 300, 60000, 7);
+        assertEquals(telemetryLog.toString(), roundTrip(telemetryLog).toString());
+    }
+
+    @Test
+    public void testJavaSerializedFallback() throws Exception {
+        final AbstractBeforeStatementExecutionLog log = new AbstractBeforeStatementExecutionLog(1, 2, 3,
+                StatementType.BASE_NON_PREPARED_STMT, "thread", 0, true, 2);
+        final AbstractBeforeStatementExecutionLog decoded = (AbstractBeforeStatementExecutionLog) roundTrip(log);
+        assertEquals(AbstractBeforeStatementExecutionLog.class, decoded.getClass());
+        assertEquals(log.getLogId(), decoded.getLogId());
+        assertEquals(log.getThreadName(), decoded.getThreadName());
+    }
+
+    @Test
+    public void testSmallerThanJavaSerialization() throws Exception {
+        final StatementExecutedLog executed = new StatementExecutedLog(12, 34567, 1L, null);
+        assertTrue(BinaryLogMessageCodec.encode(executed).length * 4 < LogMessageSerializer.serialize(executed).length);
+    }
+
+    @Test
+    public void testDictionary() throws Exception {
+        final StringDictionary dictionary = new StringDictionary(2);
+        final BinaryLogMessageCodec.FrameWriter frameWriter = new BinaryLogMessageCodec.FrameWriter();
+        final BinaryLogMessageCodec.Decoder decoder = new BinaryLogMessageCodec.Decoder();
+        final StatementLog log1 = new StatementLog(1, 2, 3, StatementType.BASE_PREPARED_STMT,
+                "select * from toto where name = ?", "select * from toto where name = 'a'", "main", 0, true, 2,
+                StatementLog.UNKNOWN_FINGERPRINT_HASH);
+        final StatementLog log2 = new StatementLog(1, 3, 4, StatementType.BASE_PREPARED_STMT,
+                "select * from toto where name = ?", "select * from toto where name = 'b'", "main", 0, true, 2,
+                StatementLog.UNKNOWN_FINGERPRINT_HASH);
+        final StatementLog log3 = new StatementLog(1, 4, 5, StatementType.BASE_PREPARED_STMT,
+                "select * from titi where id = ?", "select * from titi where id = 1", "other", 0, true, 2,
+                StatementLog.UNKNOWN_FINGERPRINT_HASH);
+
+        final List<LogMessage> decoded = new ArrayList<LogMessage>();
+        // the sql and the thread name are defined once
+        assertEquals(3, writeAndDecode(log1, dictionary, frameWriter, decoder, decoded));
+        assertEquals(1, writeAndDecode(log2, dictionary, frameWriter, decoder, decoded));
+        // the 2 entries are evicted and redefined
+        assertEquals(3, writeAndDecode(log3, dictionary, frameWriter, decoder, decoded));
+        assertEquals(3, writeAndDecode(log1, dictionary, frameWriter, decoder, decoded));
+
+        assertEquals(Arrays.asList(log1.toString(), log2.toString(), log3.toString(), log1.toString()),
+                decoded.stream().map(LogMessage::toString).collect(Collectors.toList()));
+        assertEquals("select * from toto where name = 'b'", ((StatementLog) decoded.get(1)).getFilledSql());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUndefinedDictionaryEntry() throws Exception {
+        final StatementLog log = new StatementLog(1, 2, 3, StatementType.BASE_PREPARED_STMT, "select ?", "select 1",
+                "main", 0, true, 2, StatementLog.UNKNOWN_FINGERPRINT_HASH);
+        final byte[] frame = BinaryLogMessageCodec.encode(log, new StringDictionary(2)).getBytes();
+        new BinaryLogMessageCodec.Decoder().decode(Arrays.copyOfRange(frame, 4, frame.length), log2 -> {
+        });
+    }
+
+    @Test
+    public void testCompressedBatch() throws Exception {
+        final StringDictionary dictionary = new StringDictionary(16);
+        final BinaryLogMessageCodec.FrameWriter frameWriter = new BinaryLogMessageCodec.FrameWriter();
+        final ByteArrayOutputStream frames = new ByteArrayOutputStream();
+        final List<String> expected = new ArrayList<String>();
+        for (int i = 0; i < 100; i++) {
+            final StatementLog log = new StatementLog(1, i, 3, StatementType.BASE_PREPARED_STMT,
+                    "select * from toto where name = ?", "select * from toto where name = '" + i + "'", "main", 0,
+                    true, 2, StatementLog.UNKNOWN_FINGERPRINT_HASH);
+            frameWriter.write(BinaryLogMessageCodec.encode(log, dictionary), frames);
+            expected.add(log.toString());
+        }
+        frameWriter.write(BinaryLogMessageCodec.encode(new StatementExecutedLog(99, 12, 1L, null), dictionary),
+                frames);
+        expected.add(new StatementExecutedLog(99, 12, 1L, null).toString());
+
+        final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        final byte[] batch = BinaryLogMessageCodec.compressBatch(frames.toByteArray(), frames.size(), deflater);
+        deflater.end();
+        assertTrue(batch.length * 5 < frames.size());
+
+        final List<LogMessage> decoded = new ArrayList<LogMessage>();
+        final BinaryLogMessageCodec.Decoder decoder = new BinaryLogMessageCodec.Decoder();
+        decoder.decode(Arrays.copyOfRange(batch, 4, batch.length), decoded::add);
+        assertEquals(expected, decoded.stream().map(LogMessage::toString).collect(Collectors.toList()));
+        // the inflater is reused for the next batch
+        decoded.clear();
+        decoder.decode(Arrays.copyOfRange(batch, 4, batch.length), decoded::add);
+        assertEquals(101, decoded.size());
+    }
+
+    /**
+     * @return the number of frames written
+     */
+    private static int writeAndDecode(final LogMessage log, final StringDictionary dictionary,
+            final BinaryLogMessageCodec.FrameWriter frameWriter, final BinaryLogMessageCodec.Decoder decoder,
+            final List<LogMessage> decoded) throws Exception {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        frameWriter.write(BinaryLogMessageCodec.encode(log, dictionary), bytes);
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        int frameCount = 0;
+        while (in.available() > 0) {
+            final byte[] frame = new byte[in.readInt()];
+            in.readFully(frame);
+            frameCount++;
+            decoder.decode(frame, decoded::add);
+        }
+        return frameCount;
+    }
+
+    private static LogMessage roundTrip(final LogMessage log) throws Exception {
+        final byte[] frame = BinaryLogMessageCodec.encode(log);
+        assertEquals(frame.length - 4,
+                (frame[0] & 0xFF) << 24 | (frame[1] & 0xFF) << 16 | (frame[2] & 0xFF) << 8 | frame[3] & 0xFF);
+        return BinaryLogMessageCodec.decode(Arrays.copyOfRange(frame, 4, frame.length));
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testBuckets() {
+        for (long value = 0; value < LatencyHistogram.SUB_BUCKET_COUNT * 2; value++) {
+            assertEquals(value, LatencyHistogram.getBucketIndex(value));
+            assertEquals(value, LatencyHistogram.getBucketHighestValue((int) value));
+        }
+        assertEquals(0, LatencyHistogram.getBucketIndex(-1));
+        assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.getBucketIndex(Long.MAX_VALUE));
+        assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.getBucketIndex((1L << 40) - 1));
+
+        // contiguous buckets, with a width of at most 1/16 of their values
+        for (int i = 1; i < LatencyHistogram.BUCKET_COUNT; i++) {
+            final long lowestValue = LatencyHistogram.getBucketHighestValue(i - 1) + 1;
+            final long highestValue = LatencyHistogram.getBucketHighestValue(i);
+            assertEquals(i, LatencyHistogram.getBucketIndex(lowestValue));
+            assertEquals(i, LatencyHistogram.getBucketIndex(highestValue));
+            assertTrue(highestValue - lowestValue <= lowestValue / 16);
+        }
+    }
+
+    @Test
+    public void testPercentiles() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getValueAtPercentile(99));
+
+        for (long i = 1; i <= 10000; i++) {
+            histogram.record(i * 1000);
+        }
+        assertEquals(10000, histogram.getTotalCount());
+        assertCloseTo(5000000, histogram.getValueAtPercentile(50));
+        assertCloseTo(9500000, histogram.getValueAtPercentile(95));
+        assertCloseTo(9900000, histogram.getValueAtPercentile(99));
+        assertCloseTo(9990000, histogram.getValueAtPercentile(99.9));
+        assertCloseTo(10000000, histogram.getValueAtPercentile(100));
+        assertCloseTo(1000, histogram.getValueAtPercentile(0));
+    }
+
+    @Test
+    public void testMergeAndBytes() {
+        final Random random = new Random(0);
+        final LatencyHistogram histogram1 = new LatencyHistogram();
+        final LatencyHistogram histogram2 = new LatencyHistogram();
+        final LatencyHistogram all = new LatencyHistogram();
+        for (int i = 0; i < 1000; i++) {
+            final long value = (long) Math.exp(random.nextDouble() * 25);
+            (i % 2 == 0 ? histogram1 : histogram2).record(value);
+            all.record(value);
+        }
+
+        final LatencyHistogram merged = LatencyHistogram.fromByteArray(histogram1.toByteArray());
+        merged.add(histogram2);
+        assertEquals(all.getTotalCount(), merged.getTotalCount());
+        for (int i = 0; i < LatencyHistogram.BUCKET_COUNT; i++) {
+            assertEquals(all.getCount(i), merged.getCount(i));
+        }
+
+        final LatencyHistogram copy = merged.copy();
+        merged.reset();
+        assertEquals(0, merged.getTotalCount());
+        assertEquals(all.getValueAtPercentile(99), copy.getValueAtPercentile(99));
+    }
+
+    private static void assertCloseTo(final long expected, final long actual) {
+        assertTrue("expected " + expected + " but was " + actual,
+                actual >= expected && actual <= expected + expected / 16);
+    }
+}
@@ -0,0 +1,106 @@
+/* 
+ *  Copyright 2013 Sylvain LAURENT
+ *     
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger.model;
+
+import java.sql.Connection;
+import java.util.Arrays;
+
+import ch.sla.jdbcperflogger.StatementType;
+
+/**
+ * Compares the size and the cost of encoding and decoding the most frequent logs with {@link BinaryLogMessageCodec}
+ * and with java serialization ({@link LogMessageSerializer}). Not a unit test, run it with its main method.
+ */
+public class LogMessageCodecBenchmark {
+    private static final int WARMUP_ITERATIONS = 200_000;
+    private static final int ITERATIONS = 1_000_000;
+
+    private interface Codec {
+        byte[] encode(LogMessage log) throws Exception;
+
+        LogMessage decode(byte[] bytes) throws Exception;
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final LogMessage[] logs = {
+                new StatementLog(1L << 50, 123456789L, System.currentTimeMillis(), StatementType.PREPARED_QUERY_STMT,
+                        "select name, age from person where id = ?",
+                        "select name, age from person where id = 12 /*INTEGER*/", "http-nio-8080-exec-12", 0, true,
+                        Connection.TRANSACTION_READ_COMMITTED, StatementLog.UNKNOWN_FINGERPRINT_HASH),
+                new StatementExecutedLog(123456789L, 345678, null, null), //
+                new ResultSetLog(123456789L, 456789, 12345, 1) };
+        final Codec binary = new Codec() {
+            @Override
+            public byte[] encode(final LogMessage log) throws Exception {
+                return BinaryLogMessageCodec.encode(log);
+            }
+
+            @Override
+            public LogMessage decode(final byte[] bytes) throws Exception {
+                // skip the length of the frame
+                return BinaryLogMessageCodec.decode(Arrays.copyOfRange(bytes, 4, bytes.length));
+            }
+        };
+        final Codec javaSerialization = new Codec() {
+            @Override
+            public byte[] encode(final LogMessage log) throws Exception {
+                return LogMessageSerializer.serialize(log);
+            }
+
+            @Override
+            public LogMessage decode(final byte[] bytes) throws Exception {
+                return LogMessageSerializer.deserialize(bytes);
+            }
+        };
+
+        for (int round = 0; round < 3; round++) {
+            for (final LogMessage log : logs) {
+                run(binary, log, WARMUP_ITERATIONS);
+                run(javaSerialization, log, WARMUP_ITERATIONS);
+            }
+        }
+        for (final LogMessage log : logs) {
+            report("binary", binary, log);
+            report("java serialization", javaSerialization, log);
+        }
+    }
+
+    private static void report(final String name, final Codec codec, final LogMessage log) throws Exception {
+        final byte[] bytes = codec.encode(log);
+        long start = System.nanoTime();
+        int sink = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += codec.encode(log).length;
+        }
+        final long encodeNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += System.identityHashCode(codec.decode(bytes)) & 1;
+        }
+        final long decodeNanos = System.nanoTime() - start;
+        System.out.printf("%-22s %-20s %5d bytes %8.1f ns/encode %8.1f ns/decode (%d)%n",
+                log.getClass().getSimpleName(), name, bytes.length, (double) encodeNanos / ITERATIONS,
+                (double) decodeNanos / ITERATIONS, sink);
+    }
+
+    private static int run(final Codec codec, final LogMessage log, final int iterations) throws Exception {
+        int sink = 0;
+        for (int i = 0; i < iterations; i++) {
+            sink += System.identityHashCode(codec.decode(codec.encode(log))) & 1;
+        }
+        return sink;
+    }
+}
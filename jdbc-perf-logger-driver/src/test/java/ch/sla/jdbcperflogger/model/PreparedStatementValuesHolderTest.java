@@ -0,0 +1,70 @@
+/* 
+ *  Copyright 2013 Sylvain LAURENT
+ *     
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Types;
+
+import org.junit.Test;
+
+public class PreparedStatementValuesHolderTest {
+
+    @Test
+    public void testSetAndGet() {
+        final PreparedStatementValuesHolder holder = new PreparedStatementValuesHolder();
+        holder.set(1, "a", "setString", -1);
+        holder.set(25, null, null, Types.INTEGER);
+        holder.set("name", 3, null, Types.INTEGER);
+
+        assertTrue(holder.isSet(1));
+        assertFalse(holder.isSet(2));
+        assertTrue(holder.isSet(25));
+        assertFalse(holder.isSet(26));
+        assertEquals("a", holder.getValue(1));
+        assertEquals("setString", holder.getSetter(1));
+        assertNull(holder.getValue(25));
+        assertEquals(Types.INTEGER, holder.getSqlType(25));
+        assertEquals(3, holder.get("name").value);
+        assertNull(holder.get(2));
+
+        holder.clear();
+        assertFalse(holder.isSet(1));
+        assertFalse(holder.isSet(25));
+        assertNull(holder.get("name"));
+    }
+
+    @Test
+    public void testCopyIsSnapshot() {
+        final PreparedStatementValuesHolder holder = new PreparedStatementValuesHolder();
+        holder.set(1, "a", "setString", -1);
+        final PreparedStatementValuesHolder snapshot = holder.copy();
+
+        holder.set(1, "b", "setString", -1);
+        holder.set(2, "c", "setString", -1);
+        assertEquals("a", snapshot.getValue(1));
+        assertFalse(snapshot.isSet(2));
+
+        final PreparedStatementValuesHolder snapshot2 = holder.copy();
+        holder.clear();
+        assertEquals("b", snapshot2.getValue(1));
+        assertEquals("c", snapshot2.getValue(2));
+        assertFalse(holder.isSet(1));
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger.model;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StringDictionaryTest {
+
+    @Test
+    public void testSameEntryForSameString() {
+        final StringDictionary dictionary = new StringDictionary(4);
+        final StringDictionary.Entry entry = dictionary.getEntry("select 1");
+        Assert.assertSame(entry, dictionary.getEntry(new String("select 1")));
+        Assert.assertEquals(0, entry.getId());
+        Assert.assertEquals(1, dictionary.getEntry("select 2").getId());
+        Assert.assertEquals(2, dictionary.size());
+    }
+
+    @Test
+    public void testEvictsEntryNotUsedRecently() {
+        final StringDictionary dictionary = new StringDictionary(3);
+        final StringDictionary.Entry a = dictionary.getEntry("a");
+        dictionary.getEntry("b");
+        dictionary.getEntry("c");
+        // first eviction: all the entries are new, the clock clears them and evicts the oldest one
+        final StringDictionary.Entry d = dictionary.getEntry("d");
+        Assert.assertEquals(a.getId(), d.getId());
+        Assert.assertEquals("d", d.getValue());
+        Assert.assertEquals(3, dictionary.size());
+
+        // "b" is used again, "c" is evicted instead
+        dictionary.getEntry("b");
+        final StringDictionary.Entry e = dictionary.getEntry("e");
+        Assert.assertEquals(2, e.getId());
+
+        // the id of "a" is given to another entry, a new one is created when it comes back
+        final StringDictionary.Entry newA = dictionary.getEntry("a");
+        Assert.assertNotSame(a, newA);
+        Assert.assertEquals("a", newA.getValue());
+    }
+}
@@ -1,7 +1,5 @@
 package ch.sla.jdbcperflogger.console.db;
 
-import java.util.UUID;
-
 import lombok.Getter;
 import lombok.ToString;
 import org.eclipse.jdt.annotation.Nullable;
@@ -12,7 +10,7 @@ import ch.sla.jdbcperflogger.model.ConnectionInfo;
 @Getter
 @ToString
 public class DetailedViewStatementLog {
-    private final UUID logId;
+    private final long logId;
     private final long timestamp;
     @Nullable
     private final StatementType statementType;
@@ -23,7 +21,7 @@ public class DetailedViewStatementLog {
     private final String sqlException;
     private final ConnectionInfo connectionInfo;
 
-    public DetailedViewStatementLog(final UUID logId, final ConnectionInfo connectionInfo, final long timestamp,
+    public DetailedViewStatementLog(final long logId, final ConnectionInfo connectionInfo, final long timestamp,
             @Nullable final StatementType statementType, final String rawSql, final String filledSql,
             final String threadName, @Nullable final String exception) {
         this.logId = logId;
@@ -0,0 +1,79 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger.console.db;
+
+import java.sql.Connection;
+import java.sql.Types;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.h2.api.AggregateFunction;
+
+import ch.sla.jdbcperflogger.model.LatencyHistogram;
+
+/**
+ * H2 aggregate merging into a {@link LatencyHistogram} the durations of the logged executions (first argument) and the
+ * histograms sent by the drivers aggregating the statements (second argument), see initdb.sql.
+ */
+public class LatencyHistogramAggregate implements AggregateFunction {
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    @Override
+    public void init(@Nullable final Connection conn) {
+    }
+
+    @Override
+    public int getType(final int @Nullable [] inputTypes) {
+        return Types.VARBINARY;
+    }
+
+    @Override
+    public void add(@Nullable final Object value) {
+        final Object[] values = (Object[]) value;
+        if (values == null) {
+            return;
+        }
+        final Object duration = values[0];
+        if (duration != null) {
+            histogram.record(((Number) duration).longValue());
+        }
+        final Object histogramBytes = values[1];
+        if (histogramBytes != null) {
+            histogram.add(LatencyHistogram.fromByteArray((byte[]) histogramBytes));
+        }
+    }
+
+    @Override
+    public Object getResult() {
+        return histogram.toByteArray();
+    }
+
+    /**
+     * H2 function giving a percentile of a histogram built by this aggregate
+     *
+     * @return <code>null</code> if the histogram is empty
+     */
+    @Nullable
+    public static Long getValueAtPercentile(final byte @Nullable [] histogramBytes, final double percentile) {
+        if (histogramBytes == null) {
+            return null;
+        }
+        final LatencyHistogram histogram = LatencyHistogram.fromByteArray(histogramBytes);
+        if (histogram.getTotalCount() == 0) {
+            return null;
+        }
+        return histogram.getValueAtPercentile(percentile);
+    }
+}
@@ -16,6 +16,11 @@ public class LogRepositoryConstants {
     public static final String MAX_EXEC_PLUS_RSET_USAGE_TIME_COLUMN = "MAX_EXEC_PLUS_RSET_USAGE_TIME";
     public static final String MIN_EXEC_PLUS_RSET_USAGE_TIME_COLUMN = "MIN_EXEC_PLUS_RSET_USAGE_TIME";
     public static final String NB_ROWS_COLUMN = "NBROWS";
+    public static final String P50_EXEC_PLUS_RSET_USAGE_TIME_COLUMN = "P50_EXEC_PLUS_RSET_USAGE_TIME";
+    public static final String P95_EXEC_PLUS_RSET_USAGE_TIME_COLUMN = "P95_EXEC_PLUS_RSET_USAGE_TIME";
+    public static final String P99_EXEC_PLUS_RSET_USAGE_TIME_COLUMN = "P99_EXEC_PLUS_RSET_USAGE_TIME";
+    public static final String P999_EXEC_PLUS_RSET_USAGE_TIME_COLUMN = "P999_EXEC_PLUS_RSET_USAGE_TIME";
+    public static final String P99_RSET_USAGE_TIME_COLUMN = "P99_RSET_USAGE_TIME";
     public static final String RAW_SQL_COLUMN = "RAWSQL";
     public static final String RSET_USAGE_TIME = "RSET_USAGE_TIME";
     public static final String STMT_TYPE_COLUMN = "STATEMENTTYPE";
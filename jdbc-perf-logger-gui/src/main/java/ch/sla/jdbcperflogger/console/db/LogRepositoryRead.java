@@ -1,7 +1,5 @@
 package ch.sla.jdbcperflogger.console.db;
 
-import java.util.UUID;
-
 import org.eclipse.jdt.annotation.Nullable;
 
 public interface LogRepositoryRead {
@@ -12,7 +10,7 @@ public interface LogRepositoryRead {
 
     void getStatementsGroupByFilledSQL(LogSearchCriteria searchCriteria, ResultSetAnalyzer analyzer);
 
-    void getBatchStatementExecutions(UUID logId, ResultSetAnalyzer analyzer);
+    void getBatchStatementExecutions(long logId, ResultSetAnalyzer analyzer);
 
     @Nullable
     DetailedViewStatementLog getStatementLog(long id);
@@ -18,6 +18,11 @@ package ch.sla.jdbcperflogger.console.db;
 import static ch.sla.jdbcperflogger.console.db.LogRepositoryConstants.AVG_EXEC_PLUS_RSET_USAGE_TIME_COLUMN;
 import static ch.sla.jdbcperflogger.console.db.LogRepositoryConstants.MAX_EXEC_PLUS_RSET_USAGE_TIME_COLUMN;
 import static ch.sla.jdbcperflogger.console.db.LogRepositoryConstants.MIN_EXEC_PLUS_RSET_USAGE_TIME_COLUMN;
+import static ch.sla.jdbcperflogger.console.db.LogRepositoryConstants.P50_EXEC_PLUS_RSET_USAGE_TIME_COLUMN;
+import static ch.sla.jdbcperflogger.console.db.LogRepositoryConstants.P95_EXEC_PLUS_RSET_USAGE_TIME_COLUMN;
+import static ch.sla.jdbcperflogger.console.db.LogRepositoryConstants.P999_EXEC_PLUS_RSET_USAGE_TIME_COLUMN;
+import static ch.sla.jdbcperflogger.console.db.LogRepositoryConstants.P99_EXEC_PLUS_RSET_USAGE_TIME_COLUMN;
+import static ch.sla.jdbcperflogger.console.db.LogRepositoryConstants.P99_RSET_USAGE_TIME_COLUMN;
 import static ch.sla.jdbcperflogger.console.db.LogRepositoryConstants.TOTAL_EXEC_PLUS_RSET_USAGE_TIME_COLUMN;
 
 import java.sql.Connection;
@@ -26,8 +31,6 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.Properties;
-import java.util.UUID;
-
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 import org.slf4j.Logger;
@@ -87,27 +90,55 @@ public class LogRepositoryReadJdbc implements LogRepositoryRead {
 
     @Override
     public void getStatementsGroupByRawSQL(final LogSearchCriteria searchCriteria, final ResultSetAnalyzer analyzer) {
+        // the statistics aggregated by the drivers are merged with the logged executions, their negative ids
+        // are only used when the statement has no logged execution. The percentiles are computed from the
+        // histograms sent by the drivers merged with the durations of the logged executions. The statements are
+        // grouped by the hash of their fingerprint, so that the ones differing only by their literals end up in the
+        // same group. The text of the fingerprint is only looked up for the groups
         final StringBuilder sql = new StringBuilder(
-                "select * from (select min(id) as ID, statementType, rawSql, count(1) as exec_count, " //
-                        + "sum(executionDurationNanos+coalesce(rsetUsageDurationNanos,0)) as "
-                        + TOTAL_EXEC_PLUS_RSET_USAGE_TIME_COLUMN + ", "//
-                        + "max(executionDurationNanos+coalesce(rsetUsageDurationNanos,0)) as "
-                        + MAX_EXEC_PLUS_RSET_USAGE_TIME_COLUMN + ", " //
-                        + "min(executionDurationNanos+coalesce(rsetUsageDurationNanos,0)) as "
-                        + MIN_EXEC_PLUS_RSET_USAGE_TIME_COLUMN + ", " //
-                        + "avg(executionDurationNanos+coalesce(rsetUsageDurationNanos,0)) as "
-                        + AVG_EXEC_PLUS_RSET_USAGE_TIME_COLUMN + " " //
-                        + "from statement_log ");
+                "select ID, statementType, rawSql, exec_count, " + TOTAL_EXEC_PLUS_RSET_USAGE_TIME_COLUMN + ", "
+                        + MAX_EXEC_PLUS_RSET_USAGE_TIME_COLUMN + ", " + MIN_EXEC_PLUS_RSET_USAGE_TIME_COLUMN + ", "
+                        + AVG_EXEC_PLUS_RSET_USAGE_TIME_COLUMN + ", "//
+                        + "histogram_percentile(exec_histogram, 50) as " + P50_EXEC_PLUS_RSET_USAGE_TIME_COLUMN + ", "
+                        + "histogram_percentile(exec_histogram, 95) as " + P95_EXEC_PLUS_RSET_USAGE_TIME_COLUMN + ", "
+                        + "histogram_percentile(exec_histogram, 99) as " + P99_EXEC_PLUS_RSET_USAGE_TIME_COLUMN + ", "
+                        + "histogram_percentile(exec_histogram, 99.9) as " + P999_EXEC_PLUS_RSET_USAGE_TIME_COLUMN
+                        + ", histogram_percentile(rset_usage_histogram, 99) as " + P99_RSET_USAGE_TIME_COLUMN + " "
+                        + "from (select g.*, (select fingerprint from sql_fingerprint "//
+                        + "where sql_fingerprint.fingerprintHash=g.fingerprintHash) as rawSql "//
+                        + "from (select coalesce(min(logged_id), -min(stats_id)) as ID, statementType, "//
+                        + "fingerprintHash, "//
+                        + "cast(sum(exec_count) as bigint) as exec_count, " //
+                        + "sum(total_time) as " + TOTAL_EXEC_PLUS_RSET_USAGE_TIME_COLUMN + ", "//
+                        + "max(max_time) as " + MAX_EXEC_PLUS_RSET_USAGE_TIME_COLUMN + ", " //
+                        + "min(min_time) as " + MIN_EXEC_PLUS_RSET_USAGE_TIME_COLUMN + ", " //
+                        + "cast(sum(total_time)/sum(case when total_time is null then 0 else exec_count end) "//
+                        + "as bigint) as " + AVG_EXEC_PLUS_RSET_USAGE_TIME_COLUMN + ", " //
+                        + "latency_histogram(exec_time, exec_histogram) as exec_histogram, "//
+                        + "latency_histogram(rset_usage_time, rset_usage_histogram) as rset_usage_histogram "//
+                        + "from (select id as logged_id, null as stats_id, statementType, rawSql, filledSql, "//
+                        + "fingerprintHash, "//
+                        + "1 as exec_count, executionDurationNanos+coalesce(rsetUsageDurationNanos,0) as total_time, "
+                        + "executionDurationNanos+coalesce(rsetUsageDurationNanos,0) as max_time, "//
+                        + "executionDurationNanos+coalesce(rsetUsageDurationNanos,0) as min_time, "//
+                        + "executionDurationNanos+coalesce(rsetUsageDurationNanos,0) as exec_time, "//
+                        + "cast(null as varbinary) as exec_histogram, rsetUsageDurationNanos as rset_usage_time, "//
+                        + "cast(null as varbinary) as rset_usage_histogram "//
+                        + "from statement_log "//
+                        + "union all select null, id, statementType, rawSql, rawSql, fingerprintHash, execCount, "//
+                        + "totalExecutionDurationNanos, maxExecutionDurationNanos, minExecutionDurationNanos, "//
+                        + "null, executionHistogram, null, rsetUsageHistogram "//
+                        + "from statement_stats) ");
         boolean whereAdded = false;
 
         if (searchCriteria.getFilter() != null) {
             whereAdded = addWhereClause(sql, whereAdded, "(UPPER(rawSql) like ? or UPPER(filledSql) like ?)");
         }
-        sql.append("group by statementType, rawSql ");
+        sql.append("group by statementType, fingerprintHash ");
         if (searchCriteria.getMinDurationNanos() != null) {
-            sql.append("having sum(executionDurationNanos++coalesce(rsetUsageDurationNanos,0))>=? ");
+            sql.append("having sum(total_time)>=? ");
         }
-        sql.append(") ");
+        sql.append(") g) ");
         if (searchCriteria.getSqlPassThroughFilter() != null) {
             addWhereClause(sql, false, searchCriteria.getSqlPassThroughFilter());
         }
@@ -230,7 +261,7 @@ public class LogRepositoryReadJdbc implements LogRepositoryRead {
                 DetailedViewStatementLog result = null;
                 if (resultSet.next()) {
                     int i = 1;
-                    final UUID logId = (UUID) resultSet.getObject(i++);
+                    final long logId = resultSet.getLong(i++);
                     final Timestamp tstamp = resultSet.getTimestamp(i++);
                     final StatementType statementType = StatementType.fromId(resultSet.getInt(i++));
                     @NonNull
@@ -240,7 +271,7 @@ public class LogRepositoryReadJdbc implements LogRepositoryRead {
                     @NonNull
                     final String threadName = resultSet.getString(i++);
                     final String exception = resultSet.getString(i++);
-                    final UUID connectionId = (UUID) resultSet.getObject(i++);
+                    final long connectionId = resultSet.getLong(i++);
                     final int connectionNumber = resultSet.getInt(i++);
                     final String connectionUrl = resultSet.getString(i++);
                     final Timestamp creationDate = resultSet.getTimestamp(i++);
@@ -305,12 +336,12 @@ public class LogRepositoryReadJdbc implements LogRepositoryRead {
     }
 
     @Override
-    public void getBatchStatementExecutions(final UUID logId, final ResultSetAnalyzer analyzer) {
+    public void getBatchStatementExecutions(final long logId, final ResultSetAnalyzer analyzer) {
         String sql = "select batched_stmt_order, filledSql from batched_statement_log where logId=? ";
         sql += "order by batched_stmt_order";
 
         try (PreparedStatement statement = connectionRead.prepareStatement(sql)) {
-            statement.setObject(1, logId);
+            statement.setLong(1, logId);
             try (ResultSet resultSet = statement.executeQuery()) {
                 analyzer.analyze(resultSet);
             }
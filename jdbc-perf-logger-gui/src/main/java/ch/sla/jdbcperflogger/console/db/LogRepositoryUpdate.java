@@ -7,9 +7,13 @@ import org.eclipse.jdt.annotation.Nullable;
 import ch.sla.jdbcperflogger.model.BatchedNonPreparedStatementsLog;
 import ch.sla.jdbcperflogger.model.BatchedPreparedStatementsLog;
 import ch.sla.jdbcperflogger.model.ConnectionInfo;
+import ch.sla.jdbcperflogger.model.LostMessagesLog;
 import ch.sla.jdbcperflogger.model.ResultSetLog;
+import ch.sla.jdbcperflogger.model.SampledOutStatementsLog;
 import ch.sla.jdbcperflogger.model.StatementExecutedLog;
 import ch.sla.jdbcperflogger.model.StatementLog;
+import ch.sla.jdbcperflogger.model.StatementStatsLog;
+import ch.sla.jdbcperflogger.model.TelemetryLog;
 import ch.sla.jdbcperflogger.model.TxCompleteLog;
 
 public interface LogRepositoryUpdate {
@@ -30,6 +34,8 @@ public interface LogRepositoryUpdate {
 
     void addTxCompletionLog(final TxCompleteLog log);
 
+    void addStatementStats(StatementStatsLog log);
+
     void clear();
 
     void deleteStatementLog(final long... logIds);
@@ -42,4 +48,31 @@ public interface LogRepositoryUpdate {
 
     @Nullable
     Long getLastLostMessageTime();
+
+    void addSampledOutStatements(SampledOutStatementsLog log);
+
+    long getSampledOutStatementsCount();
+
+    long getSampledOutExecutionTimeNanos();
+
+    void addLostMessages(LostMessagesLog log);
+
+    /**
+     * @return the start of the first period with lost messages, <code>null</code> if none was lost or if the driver
+     *         only tells when messages are lost
+     */
+    @Nullable
+    Long getFirstLostMessageTime();
+
+    long getLostStatementsCount();
+
+    long getLostOtherMessagesCount();
+
+    void setLastTelemetry(TelemetryLog log);
+
+    /**
+     * @return the telemetry of the logger last received from a driver, <code>null</code> if none was received
+     */
+    @Nullable
+    TelemetryLog getLastTelemetry();
 }
\ No newline at end of file
@@ -25,9 +25,10 @@ import java.sql.Statement;
 import java.sql.Timestamp;
 import java.sql.Types;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
-import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
 import org.eclipse.jdt.annotation.Nullable;
@@ -36,17 +37,25 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ch.sla.jdbcperflogger.StatementType;
+import ch.sla.jdbcperflogger.logger.SqlFingerprint;
 import ch.sla.jdbcperflogger.model.BatchedNonPreparedStatementsLog;
 import ch.sla.jdbcperflogger.model.BatchedPreparedStatementsLog;
 import ch.sla.jdbcperflogger.model.ConnectionInfo;
+import ch.sla.jdbcperflogger.model.LatencyHistogram;
+import ch.sla.jdbcperflogger.model.LostMessagesLog;
+import ch.sla.jdbcperflogger.model.LostMessagesLog.MessageType;
 import ch.sla.jdbcperflogger.model.ResultSetLog;
+import ch.sla.jdbcperflogger.model.SampledOutStatementsLog;
 import ch.sla.jdbcperflogger.model.StatementExecutedLog;
 import ch.sla.jdbcperflogger.model.StatementLog;
+import ch.sla.jdbcperflogger.model.StatementStatsLog;
+import ch.sla.jdbcperflogger.model.StatementStatsLog.StatementStats;
+import ch.sla.jdbcperflogger.model.TelemetryLog;
 import ch.sla.jdbcperflogger.model.TxCompleteLog;
 
 public class LogRepositoryUpdateJdbc implements LogRepositoryUpdate {
     // TODO ajouter colonne clientId (processId)
-    public static final int SCHEMA_VERSION = 7;
+    public static final int SCHEMA_VERSION = 12;
 
     static final int NB_ROWS_MAX = Integer.parseInt(System.getProperty("maxLoggedStatements", "20000"));
     private static final long CLEAN_UP_PERIOD_MS = TimeUnit.SECONDS.toMillis(30);
@@ -60,11 +69,27 @@ public class LogRepositoryUpdateJdbc implements LogRepositoryUpdate {
     private final PreparedStatement addStatementLogWithAfterExecutionInfo;
     private final PreparedStatement addBatchedStatementLog;
     private final PreparedStatement addTxCompletionLog;
+    private final PreparedStatement selectStatementStatsHistograms;
+    private final PreparedStatement updateStatementStats;
+    private final PreparedStatement addStatementStats;
+    private final PreparedStatement addFingerprint;
+    // the fingerprints already stored in sql_fingerprint
+    private final Set<Long> knownFingerprintHashes = new HashSet<>();
     private long lastModificationTime = System.currentTimeMillis();
+    // negative to never collide with the ids of the logs coming from the drivers
+    private long lastTxCompletionLogId;
     private final Timer cleanupTimer;
     private final String dbName;
     @Nullable
     private Long lastLostMessageTime;
+    @Nullable
+    private volatile Long firstLostMessageTime;
+    private volatile long lostStatementsCount;
+    private volatile long lostOtherMessagesCount;
+    private volatile long sampledOutStatementsCount;
+    private volatile long sampledOutExecutionTimeNanos;
+    @Nullable
+    private volatile TelemetryLog lastTelemetry;
 
     public LogRepositoryUpdateJdbc(final String name) {
         try {
@@ -78,13 +103,13 @@ public class LogRepositoryUpdateJdbc implements LogRepositoryUpdate {
 
             addStatementLog = connectionUpdate
                     .prepareStatement("insert into statement_log (logId, tstamp, statementType, rawSql, filledSql, " //
-                            + "threadName, connectionId, timeout, autoCommit, transaction_Isolation)"//
-                            + " values(?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+                            + "threadName, connectionId, timeout, autoCommit, transaction_Isolation, fingerprintHash)"//
+                            + " values(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
             addStatementLogWithAfterExecutionInfo = connectionUpdate
                     .prepareStatement("insert into statement_log (logId, tstamp, statementType, rawSql, filledSql, " //
                             + "threadName, connectionId, timeout, autoCommit, transaction_Isolation, executionDurationNanos, nbRows, " //
-                            + "fetchDurationNanos, rsetUsageDurationNanos, exception)"//
-                            + " values(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+                            + "fetchDurationNanos, rsetUsageDurationNanos, exception, fingerprintHash)"//
+                            + " values(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
             updateStatementLogWithResultSet = connectionUpdate.prepareStatement(
                     "update statement_log set fetchDurationNanos=?, rsetUsageDurationNanos=?, nbRows=? where logId=?");
             updateStatementLogAfterExecution = connectionUpdate.prepareStatement(
@@ -95,8 +120,24 @@ public class LogRepositoryUpdateJdbc implements LogRepositoryUpdate {
 
             addTxCompletionLog = connectionUpdate.prepareStatement(
                     "insert into statement_log (logId, tstamp, statementType, rawSql, filledSql, executionDurationNanos, "//
-                            + "threadName, connectionId) "//
-                            + "values (?,?,?,?,?,?,?,?)");
+                            + "threadName, connectionId, fingerprintHash) "//
+                            + "values (?,?,?,?,?,?,?,?,?)");
+
+            selectStatementStatsHistograms = connectionUpdate.prepareStatement("select id, executionHistogram, "//
+                    + "rsetUsageHistogram from statement_stats where statementType=? and rawSql=?");
+            updateStatementStats = connectionUpdate.prepareStatement("update statement_stats set tstamp=?, "//
+                    + "execCount=execCount+?, errorCount=errorCount+?, "//
+                    + "totalExecutionDurationNanos=totalExecutionDurationNanos+?, "//
+                    + "minExecutionDurationNanos=least(minExecutionDurationNanos,?), "//
+                    + "maxExecutionDurationNanos=greatest(maxExecutionDurationNanos,?), "//
+                    + "totalFetchDurationNanos=totalFetchDurationNanos+?, totalRows=totalRows+?, "//
+                    + "executionHistogram=?, rsetUsageHistogram=? where id=?");
+            addStatementStats = connectionUpdate.prepareStatement("insert into statement_stats (tstamp, execCount, "//
+                    + "errorCount, totalExecutionDurationNanos, minExecutionDurationNanos, maxExecutionDurationNanos, "//
+                    + "totalFetchDurationNanos, totalRows, executionHistogram, rsetUsageHistogram, statementType, "//
+                    + "rawSql, fingerprintHash) values (?,?,?,?,?,?,?,?,?,?,?,?,?)");
+            addFingerprint = connectionUpdate
+                    .prepareStatement("merge into sql_fingerprint (fingerprintHash, fingerprint) values (?, ?)");
 
             cleanupTimer = new Timer(true);
             cleanupTimer.schedule(new CleanupTask(), CLEAN_UP_PERIOD_MS, CLEAN_UP_PERIOD_MS);
@@ -154,6 +195,7 @@ public class LogRepositoryUpdateJdbc implements LogRepositoryUpdate {
             addStatementLog.close();
             updateStatementLogWithResultSet.close();
             addBatchedStatementLog.close();
+            addFingerprint.close();
             connectionUpdate.close();
         } catch (final SQLException e) {
             LOGGER.error("error while closing the connection", e);
@@ -174,16 +216,17 @@ public class LogRepositoryUpdateJdbc implements LogRepositoryUpdate {
         LOGGER.debug("addStatementLog:{}", log);
         try {
             int i = 1;
-            addStatementLog.setObject(i++, log.getLogId());
+            addStatementLog.setLong(i++, log.getLogId());
             addStatementLog.setTimestamp(i++, new Timestamp(log.getTimestamp()));
             addStatementLog.setInt(i++, log.getStatementType().getId());
             addStatementLog.setString(i++, log.getRawSql());
             addStatementLog.setString(i++, log.getFilledSql());
             addStatementLog.setString(i++, log.getThreadName());
-            addStatementLog.setObject(i++, log.getConnectionUuid());
+            addStatementLog.setLong(i++, log.getConnectionId());
             addStatementLog.setInt(i++, log.getTimeout());
             addStatementLog.setBoolean(i++, log.isAutoCommit());
             addStatementLog.setInt(i++, log.getTransactionIsolation());
+            addStatementLog.setLong(i++, getFingerprintHash(log.getRawSql(), log.getFingerprintHash()));
             final int insertCount = addStatementLog.executeUpdate();
             assert insertCount == 1;
         } catch (final SQLException e) {
@@ -198,22 +241,29 @@ public class LogRepositoryUpdateJdbc implements LogRepositoryUpdate {
         try {
             for (final StatementFullyExecutedLog log : logs) {
                 int i = 1;
-                addStatementLogWithAfterExecutionInfo.setObject(i++, log.getLogId());
+                addStatementLogWithAfterExecutionInfo.setLong(i++, log.getLogId());
                 addStatementLogWithAfterExecutionInfo.setTimestamp(i++, new Timestamp(log.getTimestamp()));
                 addStatementLogWithAfterExecutionInfo.setInt(i++, log.getStatementType().getId());
                 addStatementLogWithAfterExecutionInfo.setString(i++, log.getRawSql());
                 addStatementLogWithAfterExecutionInfo.setString(i++, log.getFilledSql());
                 addStatementLogWithAfterExecutionInfo.setString(i++, log.getThreadName());
-                addStatementLogWithAfterExecutionInfo.setObject(i++, log.getConnectionUuid());
+                addStatementLogWithAfterExecutionInfo.setLong(i++, log.getConnectionId());
                 addStatementLogWithAfterExecutionInfo.setInt(i++, log.getTimeout());
                 addStatementLogWithAfterExecutionInfo.setBoolean(i++, log.isAutoCommit());
                 addStatementLogWithAfterExecutionInfo.setInt(i++, log.getTransactionIsolation());
                 addStatementLogWithAfterExecutionInfo.setLong(i++, log.getExecutionTimeNanos());
-                addStatementLogWithAfterExecutionInfo.setObject(i++, log.getNbRowsIterated(), Types.INTEGER);
+                final Integer nbRowsIterated = log.getNbRowsIterated();
+                if (nbRowsIterated != null) {
+                    addStatementLogWithAfterExecutionInfo.setInt(i++, nbRowsIterated.intValue());
+                } else {
+                    addStatementLogWithAfterExecutionInfo.setObject(i++, log.getUpdateCount(), Types.BIGINT);
+                }
                 addStatementLogWithAfterExecutionInfo.setObject(i++, log.getFetchDurationNanos(), Types.BIGINT);
                 addStatementLogWithAfterExecutionInfo.setObject(i++, log.getResultSetUsageDurationNanos(),
                         Types.BIGINT);
                 addStatementLogWithAfterExecutionInfo.setString(i++, log.getSqlException());
+                addStatementLogWithAfterExecutionInfo.setLong(i++,
+                        getFingerprintHash(log.getRawSql(), log.getFingerprintHash()));
                 addStatementLogWithAfterExecutionInfo.addBatch();
             }
             addStatementLogWithAfterExecutionInfo.executeBatch();
@@ -237,7 +287,7 @@ public class LogRepositoryUpdateJdbc implements LogRepositoryUpdate {
                 updateStatementLogAfterExecution.setNull(i++, Types.BIGINT);
             }
             updateStatementLogAfterExecution.setString(i++, log.getSqlException());
-            updateStatementLogAfterExecution.setObject(i++, log.getLogId());
+            updateStatementLogAfterExecution.setLong(i++, log.getLogId());
             updateStatementLogAfterExecution.executeUpdate();
         } catch (final SQLException e) {
             throw new RuntimeException(e);
@@ -253,7 +303,7 @@ public class LogRepositoryUpdateJdbc implements LogRepositoryUpdate {
             updateStatementLogWithResultSet.setLong(i++, log.getFetchDurationNanos());
             updateStatementLogWithResultSet.setLong(i++, log.getResultSetUsageDurationNanos());
             updateStatementLogWithResultSet.setInt(i++, log.getNbRowsIterated());
-            updateStatementLogWithResultSet.setObject(i++, log.getLogId());
+            updateStatementLogWithResultSet.setLong(i++, log.getLogId());
             updateStatementLogWithResultSet.execute();
         } catch (final SQLException e) {
             throw new RuntimeException(e);
@@ -266,19 +316,21 @@ public class LogRepositoryUpdateJdbc implements LogRepositoryUpdate {
         LOGGER.debug("addBatchedPreparedStatementsLog:{}", log);
         try {
             int i = 1;
-            addStatementLog.setObject(i++, log.getLogId());
+            addStatementLog.setLong(i++, log.getLogId());
             addStatementLog.setTimestamp(i++, new Timestamp(log.getTimestamp()));
             addStatementLog.setInt(i++, log.getStatementType().getId());
             addStatementLog.setString(i++, log.getRawSql());
             addStatementLog.setString(i++, "(" + log.getSqlList().size() + " batched statements, click for details)");
             addStatementLog.setString(i++, log.getThreadName());
-            addStatementLog.setObject(i++, log.getConnectionUuid());
+            addStatementLog.setLong(i++, log.getConnectionId());
             addStatementLog.setInt(i++, log.getTimeout());
             addStatementLog.setBoolean(i++, log.isAutoCommit());
             addStatementLog.setInt(i++, log.getTransactionIsolation());
+            addStatementLog.setLong(i++,
+                    getFingerprintHash(log.getRawSql(), StatementLog.UNKNOWN_FINGERPRINT_HASH));
             addStatementLog.executeUpdate();
 
-            addBatchedStatementLog.setObject(1, log.getLogId());
+            addBatchedStatementLog.setLong(1, log.getLogId());
             for (int j = 0; j < log.getSqlList().size(); j++) {
                 addBatchedStatementLog.setInt(2, j);
                 addBatchedStatementLog.setString(3, log.getSqlList().get(j));
@@ -296,19 +348,21 @@ public class LogRepositoryUpdateJdbc implements LogRepositoryUpdate {
         LOGGER.debug("addBatchedNonPreparedStatementsLog:{}", log);
         try {
             int i = 1;
-            addStatementLog.setObject(i++, log.getLogId());
+            addStatementLog.setLong(i++, log.getLogId());
             addStatementLog.setTimestamp(i++, new Timestamp(log.getTimestamp()));
             addStatementLog.setInt(i++, log.getStatementType().getId());
-            addStatementLog.setString(i++, "(" + log.getSqlList().size() + " batched statements, click for details)");
+            final String rawSql = "(" + log.getSqlList().size() + " batched statements, click for details)";
+            addStatementLog.setString(i++, rawSql);
             addStatementLog.setString(i++, "(click for details)");
             addStatementLog.setString(i++, log.getThreadName());
-            addStatementLog.setObject(i++, log.getConnectionUuid());
+            addStatementLog.setLong(i++, log.getConnectionId());
             addStatementLog.setInt(i++, log.getTimeout());
             addStatementLog.setBoolean(i++, log.isAutoCommit());
             addStatementLog.setInt(i++, log.getTransactionIsolation());
+            addStatementLog.setLong(i++, getFingerprintHash(rawSql, StatementLog.UNKNOWN_FINGERPRINT_HASH));
             addStatementLog.executeUpdate();
 
-            addBatchedStatementLog.setObject(1, log.getLogId());
+            addBatchedStatementLog.setLong(1, log.getLogId());
             for (int j = 0; j < log.getSqlList().size(); j++) {
                 addBatchedStatementLog.setInt(2, j);
                 addBatchedStatementLog.setString(3, log.getSqlList().get(j));
@@ -330,7 +384,7 @@ public class LogRepositoryUpdateJdbc implements LogRepositoryUpdate {
                         + "connectionCreationDurationNanos, connectionProperties)"//
                         + " key(connectionId) values (?,?,?,?,?,?)")) {
             int i = 1;
-            stmt.setObject(i++, connectionInfo.getUuid());
+            stmt.setLong(i++, connectionInfo.getConnectionId());
             stmt.setInt(i++, connectionInfo.getConnectionNumber());
             stmt.setString(i++, connectionInfo.getUrl());
             stmt.setTimestamp(i++, new Timestamp(connectionInfo.getCreationDate().getTime()));
@@ -348,7 +402,7 @@ public class LogRepositoryUpdateJdbc implements LogRepositoryUpdate {
         LOGGER.debug("addTxCompletionLog:{}", log);
         try {
             int i = 1;
-            addTxCompletionLog.setObject(i++, UUID.randomUUID());
+            addTxCompletionLog.setLong(i++, --lastTxCompletionLogId);
             addTxCompletionLog.setTimestamp(i++, new Timestamp(log.getTimestamp()));
             addTxCompletionLog.setInt(i++, StatementType.TRANSACTION.getId());
             String rawSql = log.getCompletionType().name();
@@ -359,7 +413,8 @@ public class LogRepositoryUpdateJdbc implements LogRepositoryUpdate {
             addTxCompletionLog.setString(i++, "/*" + rawSql + "*/");
             addTxCompletionLog.setLong(i++, log.getExecutionTimeNanos());
             addTxCompletionLog.setString(i++, log.getThreadName());
-            addTxCompletionLog.setObject(i++, log.getConnectionUuid());
+            addTxCompletionLog.setLong(i++, log.getConnectionId());
+            addTxCompletionLog.setLong(i++, getFingerprintHash(rawSql, StatementLog.UNKNOWN_FINGERPRINT_HASH));
             addTxCompletionLog.execute();
         } catch (final SQLException e) {
             throw new RuntimeException(e);
@@ -367,15 +422,84 @@ public class LogRepositoryUpdateJdbc implements LogRepositoryUpdate {
         lastModificationTime = System.currentTimeMillis();
     }
 
+    @Override
+    public synchronized void addStatementStats(final StatementStatsLog log) {
+        LOGGER.debug("addStatementStats:{}", log);
+        try {
+            // the statistics of a statement are accumulated in a single row
+            for (final StatementStats stats : log.getStats()) {
+                final LatencyHistogram executionHistogram = stats.getExecutionTimeHistogram().copy();
+                final LatencyHistogram rsetUsageHistogram = stats.getResultSetUsageTimeHistogram().copy();
+                selectStatementStatsHistograms.setInt(1, stats.getStatementType().getId());
+                selectStatementStatsHistograms.setString(2, stats.getRawSql());
+                Long id = null;
+                try (ResultSet resultSet = selectStatementStatsHistograms.executeQuery()) {
+                    if (resultSet.next()) {
+                        id = resultSet.getLong(1);
+                        executionHistogram.add(LatencyHistogram.fromByteArray(resultSet.getBytes(2)));
+                        rsetUsageHistogram.add(LatencyHistogram.fromByteArray(resultSet.getBytes(3)));
+                    }
+                }
+                final PreparedStatement statement = id != null ? updateStatementStats : addStatementStats;
+                int i = 1;
+                statement.setTimestamp(i++, new Timestamp(log.getEndTimestamp()));
+                statement.setLong(i++, stats.getExecutionCount());
+                statement.setLong(i++, stats.getErrorCount());
+                statement.setLong(i++, stats.getTotalExecutionTimeNanos());
+                statement.setLong(i++, stats.getMinExecutionTimeNanos());
+                statement.setLong(i++, stats.getMaxExecutionTimeNanos());
+                statement.setLong(i++, stats.getTotalFetchTimeNanos());
+                statement.setLong(i++, stats.getTotalRows());
+                statement.setBytes(i++, executionHistogram.toByteArray());
+                statement.setBytes(i++, rsetUsageHistogram.toByteArray());
+                if (id != null) {
+                    statement.setLong(i++, id.longValue());
+                } else {
+                    statement.setInt(i++, stats.getStatementType().getId());
+                    statement.setString(i++, stats.getRawSql());
+                    statement.setLong(i++,
+                            getFingerprintHash(stats.getRawSql(), StatementLog.UNKNOWN_FINGERPRINT_HASH));
+                }
+                statement.executeUpdate();
+            }
+        } catch (final SQLException e) {
+            throw new RuntimeException(e);
+        }
+        lastModificationTime = System.currentTimeMillis();
+    }
+
+    /**
+     * @return the hash of the fingerprint of the SQL, the one computed by the driver if any, the text of the
+     *         fingerprint being stored the first time it is seen
+     */
+    private long getFingerprintHash(final String rawSql, final long driverFingerprintHash) throws SQLException {
+        if (knownFingerprintHashes.contains(driverFingerprintHash)) {
+            return driverFingerprintHash;
+        }
+        final String fingerprint = SqlFingerprint.normalize(rawSql);
+        final long fingerprintHash = driverFingerprintHash != StatementLog.UNKNOWN_FINGERPRINT_HASH
+                ? driverFingerprintHash
+                : SqlFingerprint.hash(fingerprint);
+        if (knownFingerprintHashes.add(fingerprintHash)) {
+            addFingerprint.setLong(1, fingerprintHash);
+            addFingerprint.setString(2, fingerprint);
+            addFingerprint.executeUpdate();
+        }
+        return fingerprintHash;
+    }
+
     @Override
     public void clear() {
         try (Statement statement = connectionUpdate.createStatement()) {
             statement.execute("truncate table batched_statement_log");
             statement.execute("truncate table statement_log");
+            statement.execute("truncate table statement_stats");
         } catch (final SQLException e) {
             throw new RuntimeException(e);
         }
-        lastLostMessageTime = null;
+        clearLostMessages();
+        sampledOutStatementsCount = 0;
+        sampledOutExecutionTimeNanos = 0;
         lastModificationTime = System.currentTimeMillis();
     }
 
@@ -436,7 +560,7 @@ public class LogRepositoryUpdateJdbc implements LogRepositoryUpdate {
                     // clear flag about lost statements if they have been purged
                     final Long lastLostMessageTime2 = lastLostMessageTime;
                     if (lastLostMessageTime2 != null && lastLostMessageTime2 < timestamp.getTime()) {
-                        setLastLostMessageTime(null);
+                        clearLostMessages();
                     }
                 }
             }
@@ -463,6 +587,71 @@ public class LogRepositoryUpdateJdbc implements LogRepositoryUpdate {
         return lastLostMessageTime;
     }
 
+    @Override
+    public void addLostMessages(final LostMessagesLog log) {
+        // only called by the thread persisting the logs
+        final long lostStatements = log.getLostCount(MessageType.STATEMENT);
+        lostStatementsCount += lostStatements;
+        lostOtherMessagesCount += log.getTotalLostCount() - lostStatements;
+        if (firstLostMessageTime == null) {
+            firstLostMessageTime = log.getStartTimestamp();
+        }
+        setLastLostMessageTime(log.getEndTimestamp());
+    }
+
+    private void clearLostMessages() {
+        firstLostMessageTime = null;
+        lostStatementsCount = 0;
+        lostOtherMessagesCount = 0;
+        setLastLostMessageTime(null);
+    }
+
+    @Override
+    @Nullable
+    public Long getFirstLostMessageTime() {
+        return firstLostMessageTime;
+    }
+
+    @Override
+    public long getLostStatementsCount() {
+        return lostStatementsCount;
+    }
+
+    @Override
+    public long getLostOtherMessagesCount() {
+        return lostOtherMessagesCount;
+    }
+
+    @Override
+    public void addSampledOutStatements(final SampledOutStatementsLog log) {
+        // only called by the thread persisting the logs
+        sampledOutStatementsCount += log.getStatementCount();
+        sampledOutExecutionTimeNanos += log.getExecutionTimeNanos();
+        lastModificationTime = System.currentTimeMillis();
+    }
+
+    @Override
+    public long getSampledOutStatementsCount() {
+        return sampledOutStatementsCount;
+    }
+
+    @Override
+    public long getSampledOutExecutionTimeNanos() {
+        return sampledOutExecutionTimeNanos;
+    }
+
+    @Override
+    public void setLastTelemetry(final TelemetryLog log) {
+        lastTelemetry = log;
+        lastModificationTime = System.currentTimeMillis();
+    }
+
+    @Override
+    @Nullable
+    public TelemetryLog getLastTelemetry() {
+        return lastTelemetry;
+    }
+
     private static void checkSchemaVersion(final Connection conn) throws SQLException {
         try (Statement statement = conn.createStatement()) {
             statement.execute("create table if not exists schema_version (version int not null)");
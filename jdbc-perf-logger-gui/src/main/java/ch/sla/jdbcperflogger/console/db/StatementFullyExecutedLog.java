@@ -1,11 +1,10 @@
 package ch.sla.jdbcperflogger.console.db;
 
-import java.util.UUID;
-
 import org.eclipse.jdt.annotation.Nullable;
 
 import ch.sla.jdbcperflogger.StatementType;
 import ch.sla.jdbcperflogger.model.ResultSetLog;
+import ch.sla.jdbcperflogger.model.StatementCompletedLog;
 import ch.sla.jdbcperflogger.model.StatementExecutedLog;
 import ch.sla.jdbcperflogger.model.StatementLog;
 
@@ -22,11 +21,21 @@ public class StatementFullyExecutedLog {
         this.resultSetLog = resultSetLog;
     }
 
-    public UUID getConnectionUuid() {
-        return statementLog.getConnectionUuid();
+    /**
+     * @param completedLog
+     *            the fused log of a statement, sent instead of its {@link StatementLog}, {@link StatementExecutedLog}
+     *            and {@link ResultSetLog}
+     */
+    public StatementFullyExecutedLog(final StatementCompletedLog completedLog) {
+        this((StatementLog) completedLog.getBeforeExecutionLog(), completedLog.getExecutedLog(),
+                completedLog.getResultSetLog());
+    }
+
+    public long getConnectionId() {
+        return statementLog.getConnectionId();
     }
 
-    public UUID getLogId() {
+    public long getLogId() {
         return statementLog.getLogId();
     }
 
@@ -66,6 +75,10 @@ public class StatementFullyExecutedLog {
         return statementLog.isPreparedStatement();
     }
 
+    public long getFingerprintHash() {
+        return statementLog.getFingerprintHash();
+    }
+
     public long getExecutionTimeNanos() {
         return statementExecutedLog.getExecutionTimeNanos();
     }
@@ -15,18 +15,22 @@
  */
 package ch.sla.jdbcperflogger.console.net;
 
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.EOFException;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.ObjectInputStream;
 import java.net.Socket;
 import java.net.SocketTimeoutException;
+import java.util.ArrayDeque;
+import java.util.Deque;
 
 import org.eclipse.jdt.annotation.Nullable;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import ch.sla.jdbcperflogger.model.BinaryLogMessageCodec;
 import ch.sla.jdbcperflogger.model.LogMessage;
 
 public abstract class AbstractLogReceiver extends Thread {
@@ -72,17 +76,22 @@ public abstract class AbstractLogReceiver extends Thread {
         socket.setKeepAlive(true);
         socket.setSoTimeout(SOCKET_TIMEOUT);
 
-        final InputStream is = socket.getInputStream();
+        // announce that the binary format is read, the driver answers in the same format
+        final DataOutputStream os = new DataOutputStream(socket.getOutputStream());
+        os.writeInt(BinaryLogMessageCodec.MAGIC);
+        os.writeShort(BinaryLogMessageCodec.VERSION);
+        os.flush();
 
-        try (ObjectInputStream ois = new ObjectInputStream(is)) {
+        try (BufferedInputStream is = new BufferedInputStream(socket.getInputStream())) {
+            final LogReader logReader = openLogReader(is);
             connected = true;
             while (!disposed) {
-                Object o;
+                LogMessage logMessage;
                 try {
-                    o = ois.readObject();
-                } catch (final ClassNotFoundException e) {
+                    logMessage = logReader.read();
+                } catch (final ClassNotFoundException | IllegalArgumentException e) {
                     LOGGER.error(
-                            "unknown class, maybe the client is not compatible with the GUI? the msg will be skipped",
+                            "unknown log, maybe the client is not compatible with the GUI? the msg will be skipped",
                             e);
                     continue;
                 } catch (final EOFException e) {
@@ -94,11 +103,11 @@ public abstract class AbstractLogReceiver extends Thread {
                     lastConnectionError = e;
                     continue;
                 }
-                if (o == null || paused || disposed) {
+                if (logMessage == null || paused || disposed) {
                     continue;
                 }
 
-                logPersister.putMessage((LogMessage) o);
+                logPersister.putMessage(logMessage);
 
             }
         } finally {
@@ -109,6 +118,40 @@ public abstract class AbstractLogReceiver extends Thread {
 
     }
 
+    /**
+     * Checks that the driver answered with the binary format
+     */
+    private static LogReader openLogReader(final BufferedInputStream is) throws IOException {
+        final DataInputStream dis = new DataInputStream(is);
+        if (dis.readInt() == BinaryLogMessageCodec.MAGIC) {
+            final short version = dis.readShort();
+            LOGGER.debug("receiving logs in binary format version {}", version);
+            // the dictionary entries are defined per connection
+            final BinaryLogMessageCodec.Decoder decoder = new BinaryLogMessageCodec.Decoder();
+            // a frame may contain a compressed batch of logs
+            final Deque<LogMessage> pendingLogs = new ArrayDeque<>();
+            return () -> {
+                if (pendingLogs.isEmpty()) {
+                    final byte[] frame = new byte[dis.readInt()];
+                    dis.readFully(frame);
+                    decoder.decode(frame, pendingLogs::add);
+                }
+                return pendingLogs.poll();
+            };
+        }
+        throw new IOException("the driver does not send the binary format, it is probably older than the console "
+                + "and must be upgraded");
+    }
+
+    @FunctionalInterface
+    private interface LogReader {
+        /**
+         * @return the next log, or <code>null</code> for a keep-alive message
+         */
+        @Nullable
+        LogMessage read() throws IOException, ClassNotFoundException;
+    }
+
     public abstract boolean isServerMode();
 
     public @Nullable Throwable getLastConnectionError() {
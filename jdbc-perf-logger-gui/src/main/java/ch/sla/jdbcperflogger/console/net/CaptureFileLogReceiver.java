@@ -0,0 +1,211 @@
+/*
+ *  Copyright 2013 Sylvain LAURENT
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.sla.jdbcperflogger.console.net;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ch.sla.jdbcperflogger.console.db.LogRepositoryUpdate;
+import ch.sla.jdbcperflogger.logger.CaptureFileReader;
+import ch.sla.jdbcperflogger.model.BinaryLogMessageCodec;
+import ch.sla.jdbcperflogger.model.LogMessage;
+
+/**
+ * Loads a capture into the repository instead of receiving the logs from a connection. The capture is either the
+ * directory of the segments written by the driver (or one of its segments), or a file in the binary format of the
+ * connections, as written by {@link CaptureFileReader}.
+ * <p>
+ * The frames are decoded by several threads, one chunk of frames each, while this thread stores the decoded chunks
+ * in the order of the capture.
+ */
+public class CaptureFileLogReceiver extends AbstractLogReceiver {
+    private final static Logger LOGGER = LoggerFactory.getLogger(CaptureFileLogReceiver.class);
+
+    // Visible for testing
+    static int FRAMES_PER_CHUNK = 10000;
+    // the frames of the segments are preceded by their length
+    private static final int SEGMENT_FRAME_OFFSET = 4;
+
+    private final File captureFile;
+    private final LogRepositoryUpdate logRepository;
+    private final int decodingThreadsCount;
+    private volatile long loadedLogsCount;
+    private volatile boolean loaded;
+
+    public CaptureFileLogReceiver(final File captureFile, final LogRepositoryUpdate logRepository) {
+        this.captureFile = captureFile;
+        this.logRepository = logRepository;
+        decodingThreadsCount = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        this.setName("CaptureFileLogReceiver");
+    }
+
+    @Override
+    public void run() {
+        final long startNanos = System.nanoTime();
+        connected = true;
+        final ExecutorService decodingExecutor = Executors.newFixedThreadPool(decodingThreadsCount, r -> {
+            final Thread thread = new Thread(r, "CaptureFileDecoder");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final LogPersister logPersister = new LogPersister(logRepository);
+        final Deque<Future<List<LogMessage>>> decodingChunks = new ArrayDeque<>();
+        try {
+            final ChunkSubmitter submitter = chunk -> {
+                decodingChunks.add(decodingExecutor.submit(chunk));
+                // bound the memory used by the decoded logs waiting to be stored
+                while (decodingChunks.size() > decodingThreadsCount) {
+                    persist(decodingChunks.remove(), logPersister);
+                }
+            };
+            if (captureFile.isDirectory()) {
+                readSegments(captureFile, submitter);
+            } else if (CaptureFileReader.isSegmentFile(captureFile)) {
+                readSegments(captureFile.getAbsoluteFile().getParentFile(), submitter);
+            } else {
+                readStream(captureFile, submitter);
+            }
+            while (!decodingChunks.isEmpty()) {
+                persist(decodingChunks.remove(), logPersister);
+            }
+            LOGGER.info("{} logs loaded from {} in {}ms", loadedLogsCount, captureFile,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        } catch (final IOException | ExecutionException e) {
+            LOGGER.error("error while loading " + captureFile, e);
+            lastConnectionError = e;
+        } catch (final InterruptedException e) {
+            LOGGER.warn("interrupted", e);
+            lastConnectionError = e;
+        } finally {
+            decodingExecutor.shutdownNow();
+            loaded = true;
+            connected = false;
+        }
+    }
+
+    private void persist(final Future<List<LogMessage>> chunk, final LogPersister logPersister)
+            throws InterruptedException, ExecutionException {
+        final List<LogMessage> logs = chunk.get();
+        if (!disposed) {
+            logPersister.persistLogs(logs);
+            loadedLogsCount += logs.size();
+        }
+    }
+
+    private void readSegments(final File directory, final ChunkSubmitter submitter)
+            throws IOException, InterruptedException, ExecutionException {
+        final List<ByteBuffer> segments = CaptureFileReader.readSegments(directory);
+        LOGGER.debug("loading {} segments from {}", segments.size(), directory);
+        for (final ByteBuffer segment : segments) {
+            if (disposed) {
+                return;
+            }
+            // the CRC of the records are checked by the decoding threads
+            submitter.submit(() -> decodeFrames(CaptureFileReader.readFrames(segment), SEGMENT_FRAME_OFFSET));
+        }
+    }
+
+    private void readStream(final File file, final ChunkSubmitter submitter)
+            throws IOException, InterruptedException, ExecutionException {
+        try (DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+            if (dis.readInt() != BinaryLogMessageCodec.MAGIC) {
+                throw new IOException(file + " is not a capture file");
+            }
+            final short version = dis.readShort();
+            if (version != BinaryLogMessageCodec.VERSION) {
+                throw new IOException(file + " was written with version " + version + " of the binary format");
+            }
+            List<byte[]> frames = new ArrayList<>(FRAMES_PER_CHUNK);
+            while (!disposed) {
+                final byte[] frame;
+                try {
+                    frame = new byte[dis.readInt()];
+                    dis.readFully(frame);
+                } catch (final EOFException e) {
+                    break;
+                }
+                frames.add(frame);
+                if (frames.size() == FRAMES_PER_CHUNK) {
+                    final List<byte[]> chunk = frames;
+                    submitter.submit(() -> decodeFrames(chunk, 0));
+                    frames = new ArrayList<>(FRAMES_PER_CHUNK);
+                }
+            }
+            final List<byte[]> lastChunk = frames;
+            submitter.submit(() -> decodeFrames(lastChunk, 0));
+        }
+    }
+
+    /**
+     * Decodes the frames of a chunk, that do not refer to a dictionary since they have been written for no
+     * connection in particular.
+     */
+    static List<LogMessage> decodeFrames(final List<byte[]> frames, final int offset) throws IOException {
+        final BinaryLogMessageCodec.Decoder decoder = new BinaryLogMessageCodec.Decoder();
+        final List<LogMessage> logs = new ArrayList<>(frames.size());
+        for (final byte[] frame : frames) {
+            try {
+                decoder.decode(frame, offset, frame.length - offset, logs::add);
+            } catch (final ClassNotFoundException | IllegalArgumentException e) {
+                LOGGER.error("unknown log, maybe the capture is not compatible with the GUI? the msg will be skipped",
+                        e);
+            }
+        }
+        return logs;
+    }
+
+    /**
+     * @return the number of logs stored in the repository so far
+     */
+    public long getLoadedLogsCount() {
+        return loadedLogsCount;
+    }
+
+    /**
+     * @return whether the whole capture has been read, or its loading failed
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    @Override
+    public boolean isServerMode() {
+        return false;
+    }
+
+    @FunctionalInterface
+    private interface ChunkSubmitter {
+        void submit(Callable<List<LogMessage>> chunk) throws InterruptedException, ExecutionException;
+    }
+}
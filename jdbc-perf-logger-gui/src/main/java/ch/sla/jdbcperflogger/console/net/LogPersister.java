@@ -17,9 +17,14 @@ import ch.sla.jdbcperflogger.model.BatchedPreparedStatementsLog;
 import ch.sla.jdbcperflogger.model.BufferFullLogMessage;
 import ch.sla.jdbcperflogger.model.ConnectionInfo;
 import ch.sla.jdbcperflogger.model.LogMessage;
+import ch.sla.jdbcperflogger.model.LostMessagesLog;
 import ch.sla.jdbcperflogger.model.ResultSetLog;
+import ch.sla.jdbcperflogger.model.SampledOutStatementsLog;
+import ch.sla.jdbcperflogger.model.StatementCompletedLog;
 import ch.sla.jdbcperflogger.model.StatementExecutedLog;
 import ch.sla.jdbcperflogger.model.StatementLog;
+import ch.sla.jdbcperflogger.model.StatementStatsLog;
+import ch.sla.jdbcperflogger.model.TelemetryLog;
 import ch.sla.jdbcperflogger.model.TxCompleteLog;
 
 class LogPersister extends Thread implements AutoCloseable {
@@ -28,6 +33,7 @@ class LogPersister extends Thread implements AutoCloseable {
     private volatile boolean disposed = false;
     protected final LogRepositoryUpdate logRepository;
     private final BlockingQueue<LogMessage> logs = new ArrayBlockingQueue<>(10000);
+    private final List<StatementFullyExecutedLog> statementFullyExecutedLogs = new ArrayList<>(100);
 
     LogPersister(final LogRepositoryUpdate logRepository) {
         this.logRepository = logRepository;
@@ -55,8 +61,6 @@ class LogPersister extends Thread implements AutoCloseable {
     @Override
     public void run() {
         final List<LogMessage> drainedLogs = new ArrayList<>(1000);
-        final List<StatementFullyExecutedLog> statementFullyExecutedLogs = new ArrayList<>(
-                100);
 
         while (!disposed) {
             @Nullable
@@ -74,48 +78,34 @@ class LogPersister extends Thread implements AutoCloseable {
             drainedLogs.clear();
             drainedLogs.add(logMessage);
             logs.drainTo(drainedLogs);
+            persistLogs(drainedLogs);
+        }
+    }
 
-            for (int i = 0; i < drainedLogs.size(); i++) {
-                logMessage = drainedLogs.get(i);
-                if (i < drainedLogs.size() - 2 && logMessage instanceof StatementLog
-                        && drainedLogs.get(i + 1) instanceof StatementExecutedLog) {
-                    final StatementExecutedLog statementExecutedLog = (StatementExecutedLog) drainedLogs.get(i + 1);
-                    ResultSetLog resultSetLog = null;
-                    if (drainedLogs.get(i + 2) instanceof ResultSetLog) {
-                        resultSetLog = (ResultSetLog) drainedLogs.get(i + 2);
-                    }
-                    final StatementFullyExecutedLog statementFullyExecutedLog = new StatementFullyExecutedLog(
-                            (StatementLog) logMessage, statementExecutedLog, resultSetLog);
-                    statementFullyExecutedLogs.add(statementFullyExecutedLog);
-
-                    i += 1 + (resultSetLog != null ? 1 : 0);
-                    continue;
-                }
-
-                if (!statementFullyExecutedLogs.isEmpty()) {
-                    logRepository.addStatementFullyExecutedLog(statementFullyExecutedLogs);
-                    statementFullyExecutedLogs.clear();
+    /**
+     * Stores the logs in the repository, in order, inserting the statements with their execution info in batches.
+     */
+    void persistLogs(final List<LogMessage> drainedLogs) {
+        for (int i = 0; i < drainedLogs.size(); i++) {
+            final LogMessage logMessage = drainedLogs.get(i);
+            if (i < drainedLogs.size() - 2 && logMessage instanceof StatementLog
+                    && drainedLogs.get(i + 1) instanceof StatementExecutedLog) {
+                final StatementExecutedLog statementExecutedLog = (StatementExecutedLog) drainedLogs.get(i + 1);
+                ResultSetLog resultSetLog = null;
+                if (drainedLogs.get(i + 2) instanceof ResultSetLog) {
+                    resultSetLog = (ResultSetLog) drainedLogs.get(i + 2);
                 }
+                final StatementFullyExecutedLog statementFullyExecutedLog = new StatementFullyExecutedLog(
+                        (StatementLog) logMessage, statementExecutedLog, resultSetLog);
+                statementFullyExecutedLogs.add(statementFullyExecutedLog);
 
-                if (logMessage instanceof ConnectionInfo) {
-                    logRepository.addConnection((ConnectionInfo) logMessage);
-                } else if (logMessage instanceof StatementLog) {
-                    logRepository.addStatementLog((StatementLog) logMessage);
-                } else if (logMessage instanceof StatementExecutedLog) {
-                    logRepository.updateLogAfterExecution((StatementExecutedLog) logMessage);
-                } else if (logMessage instanceof ResultSetLog) {
-                    logRepository.updateLogWithResultSetLog((ResultSetLog) logMessage);
-                } else if (logMessage instanceof BatchedNonPreparedStatementsLog) {
-                    logRepository.addBatchedNonPreparedStatementsLog((BatchedNonPreparedStatementsLog) logMessage);
-                } else if (logMessage instanceof BatchedPreparedStatementsLog) {
-                    logRepository.addBatchedPreparedStatementsLog((BatchedPreparedStatementsLog) logMessage);
-                } else if (logMessage instanceof TxCompleteLog) {
-                    logRepository.addTxCompletionLog((TxCompleteLog) logMessage);
-                } else if (logMessage instanceof BufferFullLogMessage) {
-                    logRepository.setLastLostMessageTime(((BufferFullLogMessage) logMessage).getTimestamp());
-                } else {
-                    throw new IllegalArgumentException("unexpected log, class=" + logMessage.getClass());
-                }
+                i += 1 + (resultSetLog != null ? 1 : 0);
+                continue;
+            }
+            if (logMessage instanceof StatementCompletedLog
+                    && ((StatementCompletedLog) logMessage).getBeforeExecutionLog() instanceof StatementLog) {
+                statementFullyExecutedLogs.add(new StatementFullyExecutedLog((StatementCompletedLog) logMessage));
+                continue;
             }
 
             if (!statementFullyExecutedLogs.isEmpty()) {
@@ -123,6 +113,50 @@ class LogPersister extends Thread implements AutoCloseable {
                 statementFullyExecutedLogs.clear();
             }
 
+            if (logMessage instanceof ConnectionInfo) {
+                logRepository.addConnection((ConnectionInfo) logMessage);
+            } else if (logMessage instanceof StatementLog) {
+                logRepository.addStatementLog((StatementLog) logMessage);
+            } else if (logMessage instanceof StatementExecutedLog) {
+                logRepository.updateLogAfterExecution((StatementExecutedLog) logMessage);
+            } else if (logMessage instanceof ResultSetLog) {
+                logRepository.updateLogWithResultSetLog((ResultSetLog) logMessage);
+            } else if (logMessage instanceof BatchedNonPreparedStatementsLog) {
+                logRepository.addBatchedNonPreparedStatementsLog((BatchedNonPreparedStatementsLog) logMessage);
+            } else if (logMessage instanceof BatchedPreparedStatementsLog) {
+                logRepository.addBatchedPreparedStatementsLog((BatchedPreparedStatementsLog) logMessage);
+            } else if (logMessage instanceof TxCompleteLog) {
+                logRepository.addTxCompletionLog((TxCompleteLog) logMessage);
+            } else if (logMessage instanceof BufferFullLogMessage) {
+                logRepository.setLastLostMessageTime(((BufferFullLogMessage) logMessage).getTimestamp());
+            } else if (logMessage instanceof StatementCompletedLog) {
+                // batches, the plain statements have been handled above
+                final StatementCompletedLog statementCompletedLog = (StatementCompletedLog) logMessage;
+                final LogMessage beforeExecutionLog = statementCompletedLog.getBeforeExecutionLog();
+                if (beforeExecutionLog instanceof BatchedNonPreparedStatementsLog) {
+                    logRepository.addBatchedNonPreparedStatementsLog(
+                            (BatchedNonPreparedStatementsLog) beforeExecutionLog);
+                } else {
+                    logRepository.addBatchedPreparedStatementsLog(
+                            (BatchedPreparedStatementsLog) beforeExecutionLog);
+                }
+                logRepository.updateLogAfterExecution(statementCompletedLog.getExecutedLog());
+            } else if (logMessage instanceof SampledOutStatementsLog) {
+                logRepository.addSampledOutStatements((SampledOutStatementsLog) logMessage);
+            } else if (logMessage instanceof StatementStatsLog) {
+                logRepository.addStatementStats((StatementStatsLog) logMessage);
+            } else if (logMessage instanceof LostMessagesLog) {
+                logRepository.addLostMessages((LostMessagesLog) logMessage);
+            } else if (logMessage instanceof TelemetryLog) {
+                logRepository.setLastTelemetry((TelemetryLog) logMessage);
+            } else {
+                throw new IllegalArgumentException("unexpected log, class=" + logMessage.getClass());
+            }
+        }
+
+        if (!statementFullyExecutedLogs.isEmpty()) {
+            logRepository.addStatementFullyExecutedLog(statementFullyExecutedLogs);
+            statementFullyExecutedLogs.clear();
         }
     }
 
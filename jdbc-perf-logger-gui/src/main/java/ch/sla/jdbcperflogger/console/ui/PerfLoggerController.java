@@ -39,6 +39,7 @@ import org.slf4j.LoggerFactory;
 import ch.sla.jdbcperflogger.StatementType;
 import ch.sla.jdbcperflogger.console.net.AbstractLogReceiver;
 import ch.sla.jdbcperflogger.model.ConnectionInfo;
+import ch.sla.jdbcperflogger.model.TelemetryLog;
 
 public class PerfLoggerController {
     private final static Logger LOGGER = LoggerFactory.getLogger(PerfLoggerController.class);
@@ -467,11 +468,53 @@ public class PerfLoggerController {
                         TimeUnit.NANOSECONDS.toMillis(logRepositoryRead.getTotalExecAndFetchTimeNanos(searchCriteria)));
                 txt.append("ms total filtered");
             }
+            final long sampledOutStatementsCount = logRepositoryUpdate.getSampledOutStatementsCount();
+            if (sampledOutStatementsCount > 0) {
+                txt.append(" - ");
+                txt.append(sampledOutStatementsCount);
+                txt.append(" statements not sampled (");
+                txt.append(TimeUnit.NANOSECONDS.toMillis(logRepositoryUpdate.getSampledOutExecutionTimeNanos()));
+                txt.append("ms)");
+            }
             final Long lastLostMessageTime = logRepositoryUpdate.getLastLostMessageTime();
-            if (lastLostMessageTime != null) {
+            final Long firstLostMessageTime = logRepositoryUpdate.getFirstLostMessageTime();
+            if (lastLostMessageTime != null && firstLostMessageTime != null) {
+                txt.append(" - WARNING: ");
+                txt.append(logRepositoryUpdate.getLostStatementsCount());
+                txt.append(" statements lost between ");
+                txt.append(DateFormat.getTimeInstance().format(new Date(firstLostMessageTime)));
+                txt.append(" and ");
+                txt.append(DateFormat.getTimeInstance().format(new Date(lastLostMessageTime)));
+                final long lostOtherMessagesCount = logRepositoryUpdate.getLostOtherMessagesCount();
+                if (lostOtherMessagesCount > 0) {
+                    txt.append(" (and ");
+                    txt.append(lostOtherMessagesCount);
+                    txt.append(" other messages)");
+                }
+            } else if (lastLostMessageTime != null) {
                 txt.append(" - WARNING: missed statements on ");
                 txt.append(DateFormat.getTimeInstance().format(new Date(lastLostMessageTime)));
             }
+            final TelemetryLog telemetry = logRepositoryUpdate.getLastTelemetry();
+            if (telemetry != null) {
+                final long periodMillis = Math.max(1, telemetry.getEndTimestamp() - telemetry.getStartTimestamp());
+                txt.append(" - logger: ");
+                txt.append(telemetry.getPostedCount() * 1000 / periodMillis);
+                txt.append(" logs/s, ");
+                if (telemetry.getLoggerCallCount() > 0) {
+                    txt.append(telemetry.getLoggerTimeNanos() / telemetry.getLoggerCallCount());
+                    txt.append("ns per JDBC call, ");
+                }
+                txt.append(telemetry.getBytesSent() * 1000 / periodMillis / 1024);
+                txt.append("KB/s sent, ");
+                txt.append(telemetry.getMaxQueueDepth());
+                txt.append(" queued");
+                if (telemetry.getDroppedCount() > 0) {
+                    txt.append(", ");
+                    txt.append(telemetry.getDroppedCount());
+                    txt.append(" dropped");
+                }
+            }
 
             SwingUtilities.invokeLater(() -> perfLoggerPanel.lblStatus.setText(txt.toString()));
         }
@@ -17,12 +17,18 @@ package ch.sla.jdbcperflogger.console.ui;
 
 import java.awt.Dimension;
 import java.awt.Frame;
+import java.io.File;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.prefs.BackingStoreException;
 import java.util.prefs.Preferences;
 
 import org.eclipse.jdt.annotation.Nullable;
+import javax.swing.JFileChooser;
+import javax.swing.JMenu;
+import javax.swing.JMenuBar;
+import javax.swing.JMenuItem;
 import javax.swing.JPanel;
 import javax.swing.SwingUtilities;
 import javax.swing.ToolTipManager;
@@ -37,6 +43,7 @@ import ch.sla.jdbcperflogger.console.db.LogRepositoryReadJdbc;
 import ch.sla.jdbcperflogger.console.db.LogRepositoryUpdate;
 import ch.sla.jdbcperflogger.console.db.LogRepositoryUpdateJdbc;
 import ch.sla.jdbcperflogger.console.net.AbstractLogReceiver;
+import ch.sla.jdbcperflogger.console.net.CaptureFileLogReceiver;
 import ch.sla.jdbcperflogger.console.net.ClientLogReceiver;
 import ch.sla.jdbcperflogger.console.net.ServerLogReceiver;
 
@@ -48,6 +55,7 @@ public class PerfLoggerGuiMain implements IClientConnectionDelegate {
     private final PerfLoggerGuiMainFrame frmJdbcPerformanceLogger;
 
     private final Map<String, PerfLoggerController> connectionsToLogController = new HashMap<>();
+    private final AtomicInteger capturesCount = new AtomicInteger();
     private static final Preferences prefs = Preferences.userNodeForPackage(PerfLoggerGuiMain.class);
 
     /**
@@ -106,6 +114,7 @@ public class PerfLoggerGuiMain implements IClientConnectionDelegate {
         ToolTipManager.sharedInstance().setInitialDelay(500);
 
         frmJdbcPerformanceLogger = new PerfLoggerGuiMainFrame();
+        frmJdbcPerformanceLogger.setJMenuBar(createMenuBar());
 
         final JPanel welcomePanel = new WelcomePanel(this);
         frmJdbcPerformanceLogger.addTab("Welcome", welcomePanel);
@@ -120,6 +129,27 @@ public class PerfLoggerGuiMain implements IClientConnectionDelegate {
 
     }
 
+    private JMenuBar createMenuBar() {
+        final JMenuItem openCaptureItem = new JMenuItem("Open capture...");
+        openCaptureItem.addActionListener(e -> openCapture());
+        final JMenu fileMenu = new JMenu("File");
+        fileMenu.add(openCaptureItem);
+        final JMenuBar menuBar = new JMenuBar();
+        menuBar.add(fileMenu);
+        return menuBar;
+    }
+
+    private void openCapture() {
+        final JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Open a capture directory or file");
+        fileChooser.setFileSelectionMode(JFileChooser.FILES_AND_DIRECTORIES);
+        if (fileChooser.showOpenDialog(frmJdbcPerformanceLogger) == JFileChooser.APPROVE_OPTION) {
+            final File captureFile = fileChooser.getSelectedFile();
+            final PerfLoggerController capturePerfLoggerController = loadCapture(captureFile);
+            frmJdbcPerformanceLogger.addTab(captureFile.getName(), capturePerfLoggerController.getPanel());
+        }
+    }
+
     @Override
     public void createClientConnection(final String host, final int port) {
         final PerfLoggerController clientPerfLoggerController = connectToClient(host, port);
@@ -147,6 +177,17 @@ public class PerfLoggerGuiMain implements IClientConnectionDelegate {
         return perfLoggerController;
     }
 
+    private PerfLoggerController loadCapture(final File captureFile) {
+        final String repositoryName = "capture_" + capturesCount.incrementAndGet();
+        final LogRepositoryUpdate logRepositoryUpdate = new LogRepositoryUpdateJdbc(repositoryName);
+        final LogRepositoryRead logRepositoryRead = new LogRepositoryReadJdbc(repositoryName);
+
+        final AbstractLogReceiver logReceiver = new CaptureFileLogReceiver(captureFile, logRepositoryUpdate);
+        logReceiver.start();
+
+        return new PerfLoggerController(this, logReceiver, logRepositoryUpdate, logRepositoryRead);
+    }
+
     private PerfLoggerController createServer(final int listeningPort) {
         final LogRepositoryUpdate logRepositoryUpdate = new LogRepositoryUpdateJdbc("server_" + listeningPort);
         final LogRepositoryRead logRepositoryRead = new LogRepositoryReadJdbc("server_" + listeningPort);
@@ -92,6 +92,11 @@ public class PerfLoggerPanel extends JPanel {
         COLUMNS_WIDTH.put(LogRepositoryConstants.THREAD_NAME_COLUMN, 200);
         COLUMNS_WIDTH.put(LogRepositoryConstants.EXEC_COUNT_COLUMN, 100);
         COLUMNS_WIDTH.put(LogRepositoryConstants.TOTAL_EXEC_PLUS_RSET_USAGE_TIME_COLUMN, 100);
+        COLUMNS_WIDTH.put(LogRepositoryConstants.P50_EXEC_PLUS_RSET_USAGE_TIME_COLUMN, 60);
+        COLUMNS_WIDTH.put(LogRepositoryConstants.P95_EXEC_PLUS_RSET_USAGE_TIME_COLUMN, 60);
+        COLUMNS_WIDTH.put(LogRepositoryConstants.P99_EXEC_PLUS_RSET_USAGE_TIME_COLUMN, 60);
+        COLUMNS_WIDTH.put(LogRepositoryConstants.P999_EXEC_PLUS_RSET_USAGE_TIME_COLUMN, 60);
+        COLUMNS_WIDTH.put(LogRepositoryConstants.P99_RSET_USAGE_TIME_COLUMN, 60);
         COLUMNS_WIDTH.put(LogRepositoryConstants.TIMEOUT_COLUMN, 70);
         COLUMNS_WIDTH.put(LogRepositoryConstants.AUTOCOMMIT_COLUMN, 40);
         COLUMNS_WIDTH.put(LogRepositoryConstants.TRANSACTION_ISOLATION_COLUMN, 50);
@@ -6,26 +6,45 @@ SET UNDO_LOG 0;
 --drop all objects;
 
 create table if not exists connection_info 
-    (id identity, connectionId UUID not null, connectionNumber int not null, 
+    (id identity, connectionId bigint not null, connectionNumber int not null, 
     url varchar not null, creationDate timestamp not null, connectionCreationDurationNanos bigInt, connectionProperties other);
 
 create table if not exists statement_log 
-    (id identity, connectionId UUID not null, logId UUID not null, tstamp timestamp not null, statementType tinyInt not null, 
+    (id identity, connectionId bigint not null, logId bigint not null, tstamp timestamp not null, statementType tinyInt not null, 
     rawSql varchar not null, filledSql varchar not null, 
     executionDurationNanos bigInt, fetchDurationNanos bigInt, rsetUsageDurationNanos bigInt, nbRows int, 
-    threadName varchar, exception varchar, timeout int, autoCommit boolean, transaction_Isolation int);
+    threadName varchar, exception varchar, timeout int, autoCommit boolean, transaction_Isolation int,
+    fingerprintHash bigint not null);
 
 create index if not exists idx_logId on statement_log(logId);
 create index if not exists idx_duration on statement_log(executionDurationNanos desc);
-create index if not exists idx_rawSql on statement_log(rawSql);
+create index if not exists idx_fingerprintHash on statement_log(fingerprintHash);
 create index if not exists idx_tstamp on statement_log(tstamp);
 create index if not exists idx_tstamp_desc on statement_log(tstamp desc);
 
 create table if not exists batched_statement_log 
-    (id identity, logId UUID not null, batched_stmt_order int not null, filledSql varchar not null);
+    (id identity, logId bigint not null, batched_stmt_order int not null, filledSql varchar not null);
 
 create index if not exists idx_batched_logId on batched_statement_log(logId);
 
+-- statistics sent by the drivers aggregating the statements, one row per statement
+create table if not exists statement_stats 
+    (id identity, tstamp timestamp not null, statementType tinyInt not null, rawSql varchar not null, 
+    execCount bigint not null, errorCount bigint not null, totalExecutionDurationNanos bigint not null, 
+    minExecutionDurationNanos bigint not null, maxExecutionDurationNanos bigint not null, 
+    totalFetchDurationNanos bigint not null, totalRows bigint not null, 
+    executionHistogram varbinary not null, rsetUsageHistogram varbinary not null, fingerprintHash bigint not null);
+
+create index if not exists idx_stats_rawSql on statement_stats(rawSql);
+
+-- the text of the fingerprints the statements are grouped by, only read to display the groups
+create table if not exists sql_fingerprint (fingerprintHash bigint primary key, fingerprint varchar not null);
+
+-- merges durations and histograms into a histogram, to compute percentiles with histogram_percentile
+create aggregate if not exists latency_histogram for "ch.sla.jdbcperflogger.console.db.LatencyHistogramAggregate";
+create alias if not exists histogram_percentile 
+    for "ch.sla.jdbcperflogger.console.db.LatencyHistogramAggregate.getValueAtPercentile";
+
 create or replace view v_statement_log
     (id, tstamp, statementType, rawSql, filledSql, EXEC_PLUS_RSET_USAGE_TIME, execution_time, fetch_time, RSET_USAGE_TIME, nbRows, threadName, timeout, autoCommit, transaction_Isolation, error, connectionNumber)
   as select statement_log.id, statement_log.tstamp, statement_log.statementType, statement_log.rawSql, statement_log.filledSql,
@@ -1,7 +1,6 @@
 package ch.sla.jdbcperflogger.console.db;
 
 import static java.sql.Connection.TRANSACTION_NONE;
-import static java.util.UUID.randomUUID;
 import static org.eclipse.jdt.annotation.DefaultLocation.PARAMETER;
 import static org.eclipse.jdt.annotation.DefaultLocation.RETURN_TYPE;
 
@@ -11,6 +10,7 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Date;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.junit.After;
@@ -22,6 +22,7 @@ import ch.sla.jdbcperflogger.model.StatementLog;
 
 @NonNullByDefault({ PARAMETER, RETURN_TYPE })
 public class AbstractLogRepositoryTest {
+    private static final AtomicLong IDS = new AtomicLong();
 
     protected LogRepositoryUpdateJdbc repositoryUpdate;
     protected LogRepositoryRead repositoryRead;
@@ -38,10 +39,14 @@ public class AbstractLogRepositoryTest {
         repositoryRead.dispose();
     }
 
+    protected static long nextId() {
+        return IDS.incrementAndGet();
+    }
+
     protected ConnectionInfo insert1Connection() {
         final Properties connProps = new Properties();
         connProps.setProperty("myprop", "myval");
-        final ConnectionInfo connectionInfo = new ConnectionInfo(randomUUID(), 12, "jdbc:toto", new Date(), 12,
+        final ConnectionInfo connectionInfo = new ConnectionInfo(nextId(), 12, "jdbc:toto", new Date(), 12,
                 connProps);
         repositoryUpdate.addConnection(connectionInfo);
         return connectionInfo;
@@ -49,7 +54,7 @@ public class AbstractLogRepositoryTest {
 
     protected StatementLog insert1Log(final ConnectionInfo connectionInfo) {
 
-        final StatementLog log = new StatementLog(connectionInfo.getUuid(), randomUUID(), System.currentTimeMillis(),
+        final StatementLog log = new StatementLog(connectionInfo.getConnectionId(), nextId(), System.currentTimeMillis(),
                 StatementType.BASE_NON_PREPARED_STMT, "myrawsql", Thread.currentThread().getName(), 123, true, TRANSACTION_NONE);
         repositoryUpdate.addStatementLog(log);
         return log;
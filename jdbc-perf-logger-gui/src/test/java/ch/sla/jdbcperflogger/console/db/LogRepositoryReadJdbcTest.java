@@ -2,7 +2,6 @@ package ch.sla.jdbcperflogger.console.db;
 
 import static ch.sla.jdbcperflogger.console.db.LogRepositoryConstants.ID_COLUMN;
 import static java.sql.Connection.TRANSACTION_READ_UNCOMMITTED;
-import static java.util.UUID.randomUUID;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
@@ -18,11 +17,15 @@ import org.junit.Test;
 
 import ch.sla.jdbcperflogger.StatementType;
 import ch.sla.jdbcperflogger.TxCompletionType;
+import ch.sla.jdbcperflogger.logger.SqlPlaceholderIndex;
 import ch.sla.jdbcperflogger.model.BatchedPreparedStatementsLog;
 import ch.sla.jdbcperflogger.model.ConnectionInfo;
+import ch.sla.jdbcperflogger.model.LatencyHistogram;
 import ch.sla.jdbcperflogger.model.ResultSetLog;
 import ch.sla.jdbcperflogger.model.StatementExecutedLog;
 import ch.sla.jdbcperflogger.model.StatementLog;
+import ch.sla.jdbcperflogger.model.StatementStatsLog;
+import ch.sla.jdbcperflogger.model.StatementStatsLog.StatementStats;
 import ch.sla.jdbcperflogger.model.TxCompleteLog;
 
 public class LogRepositoryReadJdbcTest extends AbstractLogRepositoryTest {
@@ -229,6 +232,56 @@ public class LogRepositoryReadJdbcTest extends AbstractLogRepositoryTest {
         });
     }
 
+    @Test
+    public void testgetStatementsGroupByRawSQL_withStatementStats() {
+        insert3Logs();
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(50);
+        histogram.record(100);
+        histogram.record(150);
+        final LatencyHistogram aggregatedHistogram = new LatencyHistogram();
+        aggregatedHistogram.record(50000);
+        for (int i = 0; i < 2; i++) {
+            repositoryUpdate.addStatementStats(new StatementStatsLog(0, System.currentTimeMillis(), Arrays.asList(
+                    new StatementStats(StatementType.BASE_NON_PREPARED_STMT, "myrawsql", 3, 0, 300, 50, 5000, 0, 0,
+                            histogram, new LatencyHistogram()),
+                    new StatementStats(StatementType.BASE_PREPARED_STMT, "aggregatedsql", 1, 0, 50000, 50000,
+                            50000, 0, 0, aggregatedHistogram, new LatencyHistogram()))));
+        }
+
+        repositoryRead.getStatementsGroupByRawSQL(new LogSearchCriteria(), resultSet -> {
+            assertTrue(resultSet.next());
+            assertTrue(resultSet.getLong(ID_COLUMN) < 0);
+            assertEquals("aggregatedsql", resultSet.getString(LogRepositoryConstants.RAW_SQL_COLUMN));
+            assertEquals(2, resultSet.getLong(LogRepositoryConstants.EXEC_COUNT_COLUMN));
+            assertEquals(100000, resultSet.getLong(LogRepositoryConstants.TOTAL_EXEC_PLUS_RSET_USAGE_TIME_COLUMN));
+            assertEquals(50000, resultSet.getLong(LogRepositoryConstants.AVG_EXEC_PLUS_RSET_USAGE_TIME_COLUMN));
+            // percentiles are the highest values of the histogram buckets
+            assertEquals(51199, resultSet.getLong(LogRepositoryConstants.P50_EXEC_PLUS_RSET_USAGE_TIME_COLUMN));
+
+            assertTrue(resultSet.next());
+            assertEquals(1, resultSet.getLong(ID_COLUMN));
+            assertEquals("myrawsql", resultSet.getString(LogRepositoryConstants.RAW_SQL_COLUMN));
+            assertEquals(2 + 6, resultSet.getLong(LogRepositoryConstants.EXEC_COUNT_COLUMN));
+            assertEquals(234 + 2340 + 789 + 600,
+                    resultSet.getLong(LogRepositoryConstants.TOTAL_EXEC_PLUS_RSET_USAGE_TIME_COLUMN));
+            assertEquals(5000, resultSet.getLong(LogRepositoryConstants.MAX_EXEC_PLUS_RSET_USAGE_TIME_COLUMN));
+            assertEquals(50, resultSet.getLong(LogRepositoryConstants.MIN_EXEC_PLUS_RSET_USAGE_TIME_COLUMN));
+            assertEquals((234 + 2340 + 789 + 600) / 8,
+                    resultSet.getLong(LogRepositoryConstants.AVG_EXEC_PLUS_RSET_USAGE_TIME_COLUMN));
+            // logged executions are merged with the histograms of the statistics
+            assertEquals(103, resultSet.getLong(LogRepositoryConstants.P50_EXEC_PLUS_RSET_USAGE_TIME_COLUMN));
+            assertEquals(3199, resultSet.getLong(LogRepositoryConstants.P99_EXEC_PLUS_RSET_USAGE_TIME_COLUMN));
+
+            assertTrue(resultSet.next());
+            assertEquals("myRawsql2", resultSet.getString(LogRepositoryConstants.RAW_SQL_COLUMN));
+            assertFalse(resultSet.next());
+        });
+
+        repositoryUpdate.clear();
+        repositoryRead.getStatementsGroupByRawSQL(new LogSearchCriteria(), resultSet -> assertFalse(resultSet.next()));
+    }
+
     @Test
     public void testgetStatementsGroupByRawSQL_filterByMinDuration() {
         insert3Logs();
@@ -290,7 +343,7 @@ public class LogRepositoryReadJdbcTest extends AbstractLogRepositoryTest {
         final List<StatementFullyExecutedLog> logs = insert3Logs();
         final StatementFullyExecutedLog log1 = logs.get(0);
         @SuppressWarnings("null")
-        final TxCompleteLog log = new TxCompleteLog(log1.getConnectionUuid(), System.currentTimeMillis(),
+        final TxCompleteLog log = new TxCompleteLog(log1.getConnectionId(), System.currentTimeMillis(),
                 TxCompletionType.COMMIT, 321, "mythread", null);
         repositoryUpdate.addTxCompletionLog(log);
 
@@ -318,7 +371,7 @@ public class LogRepositoryReadJdbcTest extends AbstractLogRepositoryTest {
     public void testgetStatementsGroupByFilledSQL_filterCommits() {
         final List<StatementFullyExecutedLog> logs = insert3Logs();
         final StatementFullyExecutedLog log1 = logs.get(0);
-        repositoryUpdate.addTxCompletionLog(new TxCompleteLog(log1.getConnectionUuid(), System.currentTimeMillis(),
+        repositoryUpdate.addTxCompletionLog(new TxCompleteLog(log1.getConnectionId(), System.currentTimeMillis(),
                 TxCompletionType.COMMIT, 321, "mythread", null));
 
         final LogSearchCriteria searchCriteria = new LogSearchCriteria();
@@ -345,8 +398,8 @@ public class LogRepositoryReadJdbcTest extends AbstractLogRepositoryTest {
         final StatementLog log = insert1Log();
 
         final List<String> sqlList = Arrays.asList("st1", "st2", "st3");
-        final BatchedPreparedStatementsLog batchedLogs = new BatchedPreparedStatementsLog(log.getConnectionUuid(),
-                randomUUID(), System.currentTimeMillis(), "myRaw stmt", sqlList, "myThread", 13, true, 1);
+        final BatchedPreparedStatementsLog batchedLogs = new BatchedPreparedStatementsLog(log.getConnectionId(),
+                nextId(), System.currentTimeMillis(), "myRaw stmt", sqlList, "myThread", 13, true, 1);
         repositoryUpdate.addBatchedPreparedStatementsLog(batchedLogs);
         assertEquals(2, countRowsInTable("statement_log"));
         assertEquals(3, countRowsInTable("batched_statement_log"));
@@ -376,35 +429,88 @@ public class LogRepositoryReadJdbcTest extends AbstractLogRepositoryTest {
         });
     }
 
+    @Test
+    public void testgetStatementsGroupByRawSQL_literalsNormalized() {
+        final ConnectionInfo connectionInfo = insert1Connection();
+        final List<StatementFullyExecutedLog> fullLogs = new ArrayList<>();
+        for (final String rawSql : Arrays.asList("select * from emp where name = 'toto' and id in (1, 2)",
+                "select * from emp  where name='titi' and id in (3) -- comment")) {
+            final StatementLog log = new StatementLog(connectionInfo.getConnectionId(), nextId(),
+                    System.currentTimeMillis(), StatementType.BASE_NON_PREPARED_STMT, rawSql, rawSql,
+                    Thread.currentThread().getName(), 0, true, TRANSACTION_READ_UNCOMMITTED,
+                    StatementLog.UNKNOWN_FINGERPRINT_HASH);
+            @SuppressWarnings("null")
+            final StatementExecutedLog statementExecutedLog = new StatementExecutedLog(log.getLogId(), 12L, null, null);
+            fullLogs.add(new StatementFullyExecutedLog(log, statementExecutedLog, null));
+        }
+        repositoryUpdate.addStatementFullyExecutedLog(fullLogs);
+
+        repositoryRead.getStatementsGroupByRawSQL(new LogSearchCriteria(), resultSet -> {
+            assertTrue(resultSet.next());
+            assertEquals(2, resultSet.getLong(LogRepositoryConstants.EXEC_COUNT_COLUMN));
+            assertEquals("select * from emp where name = ? and id in (?+)",
+                    resultSet.getString(LogRepositoryConstants.RAW_SQL_COLUMN));
+            assertFalse(resultSet.next());
+        });
+    }
+
+    @Test
+    public void testgetStatementsGroupByRawSQL_driverFingerprintHash() {
+        final ConnectionInfo connectionInfo = insert1Connection();
+        final List<StatementFullyExecutedLog> fullLogs = new ArrayList<>();
+        for (final String rawSql : Arrays.asList("select * from emp where id in (?)",
+                "select * from emp where id in (?, ?)")) {
+            final StatementLog log = new StatementLog(connectionInfo.getConnectionId(), nextId(),
+                    System.currentTimeMillis(), StatementType.PREPARED_QUERY_STMT, rawSql, rawSql,
+                    Thread.currentThread().getName(), 0, true, TRANSACTION_READ_UNCOMMITTED,
+                    SqlPlaceholderIndex.of(rawSql).getFingerprintHash());
+            @SuppressWarnings("null")
+            final StatementExecutedLog statementExecutedLog = new StatementExecutedLog(log.getLogId(), 12L, null, null);
+            fullLogs.add(new StatementFullyExecutedLog(log, statementExecutedLog, null));
+        }
+        repositoryUpdate.addStatementFullyExecutedLog(fullLogs);
+
+        repositoryRead.getStatementsGroupByRawSQL(new LogSearchCriteria(), resultSet -> {
+            assertTrue(resultSet.next());
+            assertEquals(2, resultSet.getLong(LogRepositoryConstants.EXEC_COUNT_COLUMN));
+            assertEquals("select * from emp where id in (?+)",
+                    resultSet.getString(LogRepositoryConstants.RAW_SQL_COLUMN));
+            assertFalse(resultSet.next());
+        });
+    }
+
     private List<StatementFullyExecutedLog> insert3Logs() {
         final Properties connProps = new Properties();
         connProps.setProperty("myprop", "myval");
-        final ConnectionInfo connectionInfo = new ConnectionInfo(randomUUID(), 12, "jdbc:toto", new Date(), 12,
+        final ConnectionInfo connectionInfo = new ConnectionInfo(nextId(), 12, "jdbc:toto", new Date(), 12,
                 connProps);
         repositoryUpdate.addConnection(connectionInfo);
 
         final List<StatementFullyExecutedLog> fullLogs = new ArrayList<>();
         {
-            final StatementLog log = new StatementLog(connectionInfo.getUuid(), randomUUID(),
+            final StatementLog log = new StatementLog(connectionInfo.getConnectionId(), nextId(),
                     System.currentTimeMillis(), StatementType.BASE_NON_PREPARED_STMT, "myrawsql", "myfilledsql",
-                    Thread.currentThread().getName(), 123, true, TRANSACTION_READ_UNCOMMITTED);
+                    Thread.currentThread().getName(), 123, true, TRANSACTION_READ_UNCOMMITTED,
+                    StatementLog.UNKNOWN_FINGERPRINT_HASH);
             final StatementExecutedLog statementExecutedLog = new StatementExecutedLog(log.getLogId(), 234L, 4560L,
                     "myexception");
             fullLogs.add(new StatementFullyExecutedLog(log, statementExecutedLog, null));
         }
         {
-            final StatementLog log = new StatementLog(connectionInfo.getUuid(), randomUUID(),
+            final StatementLog log = new StatementLog(connectionInfo.getConnectionId(), nextId(),
                     System.currentTimeMillis(), StatementType.BASE_NON_PREPARED_STMT, "myrawsql", "myfilledsql",
-                    Thread.currentThread().getName(), 123, true, TRANSACTION_READ_UNCOMMITTED);
+                    Thread.currentThread().getName(), 123, true, TRANSACTION_READ_UNCOMMITTED,
+                    StatementLog.UNKNOWN_FINGERPRINT_HASH);
             final StatementExecutedLog statementExecutedLog = new StatementExecutedLog(log.getLogId(), 2340L, 456L,
                     "myexception");
             final ResultSetLog resultSetLog = new ResultSetLog(log.getLogId(), 789L, 700L, 21);
             fullLogs.add(new StatementFullyExecutedLog(log, statementExecutedLog, resultSetLog));
         }
         {
-            final StatementLog log = new StatementLog(connectionInfo.getUuid(), randomUUID(),
+            final StatementLog log = new StatementLog(connectionInfo.getConnectionId(), nextId(),
                     System.currentTimeMillis(), StatementType.BASE_NON_PREPARED_STMT, "myRawsql2", "myfilledsql2",
-                    Thread.currentThread().getName(), 0, true, TRANSACTION_READ_UNCOMMITTED);
+                    Thread.currentThread().getName(), 0, true, TRANSACTION_READ_UNCOMMITTED,
+                    StatementLog.UNKNOWN_FINGERPRINT_HASH);
             @SuppressWarnings("null")
             final StatementExecutedLog statementExecutedLog = new StatementExecutedLog(log.getLogId(), 12L, null, null);
             fullLogs.add(new StatementFullyExecutedLog(log, statementExecutedLog, null));
@@ -17,16 +17,18 @@ package ch.sla.jdbcperflogger.console.db;
 
 import static ch.sla.jdbcperflogger.console.db.LogRepositoryConstants.ID_COLUMN;
 import static ch.sla.jdbcperflogger.console.db.LogRepositoryConstants.TRANSACTION_ISOLATION_COLUMN;
-import static java.util.UUID.randomUUID;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.sql.ResultSetMetaData;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 import org.junit.Test;
@@ -37,6 +39,7 @@ import ch.sla.jdbcperflogger.model.BatchedNonPreparedStatementsLog;
 import ch.sla.jdbcperflogger.model.BatchedPreparedStatementsLog;
 import ch.sla.jdbcperflogger.model.ConnectionInfo;
 import ch.sla.jdbcperflogger.model.ResultSetLog;
+import ch.sla.jdbcperflogger.model.StatementCompletedLog;
 import ch.sla.jdbcperflogger.model.StatementExecutedLog;
 import ch.sla.jdbcperflogger.model.StatementLog;
 import ch.sla.jdbcperflogger.model.TxCompleteLog;
@@ -65,7 +68,7 @@ public class LogRepositoryUpdateJdbcTest extends AbstractLogRepositoryTest {
         assertEquals(connectionInfo.getConnectionCreationDuration(),
                 readLog.getConnectionInfo().getConnectionCreationDuration());
         assertEquals(connectionInfo.getConnectionProperties(), readLog.getConnectionInfo().getConnectionProperties());
-        assertEquals(connectionInfo.getUuid(), readLog.getConnectionInfo().getUuid());
+        assertEquals(connectionInfo.getConnectionId(), readLog.getConnectionInfo().getConnectionId());
     }
 
     @Test
@@ -129,7 +132,7 @@ public class LogRepositoryUpdateJdbcTest extends AbstractLogRepositoryTest {
 
         repositoryUpdate.setLastLostMessageTime(System.currentTimeMillis() - 1);
         for (int i = 1; i < 2 * LogRepositoryUpdateJdbc.NB_ROWS_MAX; i++) {
-            final StatementLog newLog = new StatementLog(log.getConnectionUuid(), randomUUID(),
+            final StatementLog newLog = new StatementLog(log.getConnectionId(), nextId(),
                     System.currentTimeMillis(), StatementType.BASE_NON_PREPARED_STMT, "myrawsql" + i,
                     Thread.currentThread().getName(), i, i % 2 == 0, i % 4);
             repositoryUpdate.addStatementLog(newLog);
@@ -153,11 +156,11 @@ public class LogRepositoryUpdateJdbcTest extends AbstractLogRepositoryTest {
     @Test
     public void testDelete() {
         final StatementLog log1 = insert1Log();
-        final StatementLog log2 = new StatementLog(log1.getConnectionUuid(), randomUUID(), System.currentTimeMillis(),
+        final StatementLog log2 = new StatementLog(log1.getConnectionId(), nextId(), System.currentTimeMillis(),
                 StatementType.BASE_NON_PREPARED_STMT, "myrawsql2", Thread.currentThread().getName(), 2, false, 1);
         repositoryUpdate.addStatementLog(log2);
 
-        final StatementLog log3 = new StatementLog(log1.getConnectionUuid(), randomUUID(), System.currentTimeMillis(),
+        final StatementLog log3 = new StatementLog(log1.getConnectionId(), nextId(), System.currentTimeMillis(),
                 StatementType.BASE_NON_PREPARED_STMT, "myrawsql3", Thread.currentThread().getName(), 3, false, 1);
         repositoryUpdate.addStatementLog(log3);
 
@@ -171,8 +174,8 @@ public class LogRepositoryUpdateJdbcTest extends AbstractLogRepositoryTest {
         final StatementLog log = insert1Log();
 
         final List<String> sqlList = Arrays.asList("st1", "st2", "st3");
-        final BatchedNonPreparedStatementsLog batchedLogs = new BatchedNonPreparedStatementsLog(log.getConnectionUuid(),
-                randomUUID(), System.currentTimeMillis(), sqlList, "myThread", 13, true, 1);
+        final BatchedNonPreparedStatementsLog batchedLogs = new BatchedNonPreparedStatementsLog(log.getConnectionId(),
+                nextId(), System.currentTimeMillis(), sqlList, "myThread", 13, true, 1);
         repositoryUpdate.addBatchedNonPreparedStatementsLog(batchedLogs);
         assertEquals(2, countRowsInTable("statement_log"));
         assertEquals(3, countRowsInTable("batched_statement_log"));
@@ -183,8 +186,8 @@ public class LogRepositoryUpdateJdbcTest extends AbstractLogRepositoryTest {
         final StatementLog log = insert1Log();
 
         final List<String> sqlList = Arrays.asList("st1", "st2", "st3");
-        final BatchedPreparedStatementsLog batchedLogs = new BatchedPreparedStatementsLog(log.getConnectionUuid(),
-                randomUUID(), System.currentTimeMillis(), "myRaw stmt", sqlList, "myThread", 13, true, 1);
+        final BatchedPreparedStatementsLog batchedLogs = new BatchedPreparedStatementsLog(log.getConnectionId(),
+                nextId(), System.currentTimeMillis(), "myRaw stmt", sqlList, "myThread", 13, true, 1);
         repositoryUpdate.addBatchedPreparedStatementsLog(batchedLogs);
         assertEquals(2, countRowsInTable("statement_log"));
         assertEquals(3, countRowsInTable("batched_statement_log"));
@@ -224,7 +227,7 @@ public class LogRepositoryUpdateJdbcTest extends AbstractLogRepositoryTest {
     public void testaddTxComplete() {
         final StatementLog log = insert1Log();
 
-        final TxCompleteLog txCompleteLog = new TxCompleteLog(log.getConnectionUuid(), System.currentTimeMillis(),
+        final TxCompleteLog txCompleteLog = new TxCompleteLog(log.getConnectionId(), System.currentTimeMillis(),
                 TxCompletionType.SET_SAVE_POINT, 12, "mythread", "mySavePoint");
         repositoryUpdate.addTxCompletionLog(txCompleteLog);
         assertEquals(2, countRowsInTable("statement_log"));
@@ -251,13 +254,13 @@ public class LogRepositoryUpdateJdbcTest extends AbstractLogRepositoryTest {
     public void testaddStatementFullyExecutedLog() {
         final Properties connProps = new Properties();
         connProps.setProperty("myprop", "myval");
-        final ConnectionInfo connectionInfo = new ConnectionInfo(randomUUID(), 12, "jdbc:toto", new Date(), 12,
+        final ConnectionInfo connectionInfo = new ConnectionInfo(nextId(), 12, "jdbc:toto", new Date(), 12,
                 connProps);
         repositoryUpdate.addConnection(connectionInfo);
 
         final List<StatementFullyExecutedLog> fullLogs = new ArrayList<>();
         {
-            final StatementLog log = new StatementLog(connectionInfo.getUuid(), randomUUID(),
+            final StatementLog log = new StatementLog(connectionInfo.getConnectionId(), nextId(),
                     System.currentTimeMillis(), StatementType.BASE_NON_PREPARED_STMT, "myrawsql",
                     Thread.currentThread().getName(), 123, true, 1);
             final StatementExecutedLog statementExecutedLog = new StatementExecutedLog(log.getLogId(), 234L, 456L,
@@ -265,7 +268,7 @@ public class LogRepositoryUpdateJdbcTest extends AbstractLogRepositoryTest {
             fullLogs.add(new StatementFullyExecutedLog(log, statementExecutedLog, null));
         }
         {
-            final StatementLog log = new StatementLog(connectionInfo.getUuid(), randomUUID(),
+            final StatementLog log = new StatementLog(connectionInfo.getConnectionId(), nextId(),
                     System.currentTimeMillis(), StatementType.BASE_NON_PREPARED_STMT, "myrawsql",
                     Thread.currentThread().getName(), 123, true, 1);
             final StatementExecutedLog statementExecutedLog = new StatementExecutedLog(log.getLogId(), 234L, 456L,
@@ -300,8 +303,8 @@ public class LogRepositoryUpdateJdbcTest extends AbstractLogRepositoryTest {
                         resultSet.getLong(LogRepositoryConstants.EXEC_TIME_COLUMN));
                 assertEquals(stmtLog.getExecutionTimeNanos(),
                         resultSet.getLong(LogRepositoryConstants.EXEC_PLUS_RSET_USAGE_TIME));
-                resultSet.getInt(LogRepositoryConstants.NB_ROWS_COLUMN);
-                assertTrue(resultSet.wasNull());
+                assertEquals(stmtLog.getUpdateCount().longValue(),
+                        resultSet.getLong(LogRepositoryConstants.NB_ROWS_COLUMN));
                 assertEquals(stmtLog.getThreadName(),
                         resultSet.getString(LogRepositoryConstants.THREAD_NAME_COLUMN));
                 assertEquals(stmtLog.getTimeout(), resultSet.getInt(LogRepositoryConstants.TIMEOUT_COLUMN));
@@ -344,6 +347,48 @@ public class LogRepositoryUpdateJdbcTest extends AbstractLogRepositoryTest {
         }, false);
     }
 
+    @Test
+    public void testFusedLogPersistedLikeSeparateLogs() {
+        final ConnectionInfo connectionInfo = insert1Connection();
+        final long timestamp = System.currentTimeMillis();
+        final long[] logIds = { nextId(), nextId() };
+        final StatementLog[] logs = new StatementLog[2];
+        for (int i = 0; i < 2; i++) {
+            logs[i] = new StatementLog(connectionInfo.getConnectionId(), logIds[i], timestamp,
+                    StatementType.PREPARED_QUERY_STMT, "select * from emp where id > ?",
+                    "select * from emp where id > 12", Thread.currentThread().getName(), 30, false, 2,
+                    StatementLog.UNKNOWN_FINGERPRINT_HASH);
+        }
+        repositoryUpdate.addStatementLog(logs[0]);
+        repositoryUpdate.updateLogAfterExecution(new StatementExecutedLog(logIds[0], 234L, null, null));
+        repositoryUpdate.updateLogWithResultSetLog(new ResultSetLog(logIds[0], 789L, 700L, 21));
+
+        repositoryUpdate.addStatementFullyExecutedLog(Arrays.asList(new StatementFullyExecutedLog(
+                new StatementCompletedLog(logs[1], new StatementExecutedLog(logIds[1], 234L, null, null),
+                        new ResultSetLog(logIds[1], 789L, 700L, 21)))));
+
+        final List<Map<String, Object>> rows = new ArrayList<>();
+        repositoryRead.getStatements(new LogSearchCriteria(), resultSet -> {
+            final ResultSetMetaData metaData = resultSet.getMetaData();
+            while (resultSet.next()) {
+                final Map<String, Object> row = new HashMap<>();
+                for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                    row.put(metaData.getColumnLabel(i), resultSet.getObject(i));
+                }
+                rows.add(row);
+            }
+        }, false);
+        assertEquals(2, rows.size());
+        assertEquals(21, ((Number) rows.get(1).get(LogRepositoryConstants.NB_ROWS_COLUMN)).intValue());
+        assertEquals(789L, ((Number) rows.get(1).get(LogRepositoryConstants.RSET_USAGE_TIME)).longValue());
+        // only the ids differ
+        rows.get(0).remove(ID_COLUMN);
+        rows.get(1).remove(ID_COLUMN);
+        assertEquals(rows.get(0), rows.get(1));
+        assertEquals(repositoryRead.getStatementLog(1).getFilledSql(),
+                repositoryRead.getStatementLog(2).getFilledSql());
+    }
+
     @Test
     public void testgetLastModificationTime() throws Exception {
         final long beforeInsert = System.currentTimeMillis();
@@ -0,0 +1,105 @@
+package ch.sla.jdbcperflogger.console.net;
+
+import static java.sql.Connection.TRANSACTION_NONE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.Date;
+import java.util.Properties;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import ch.sla.jdbcperflogger.StatementType;
+import ch.sla.jdbcperflogger.console.db.AbstractLogRepositoryTest;
+import ch.sla.jdbcperflogger.logger.CaptureFileLogSender;
+import ch.sla.jdbcperflogger.logger.CaptureFileReader;
+import ch.sla.jdbcperflogger.model.ConnectionInfo;
+import ch.sla.jdbcperflogger.model.StatementExecutedLog;
+import ch.sla.jdbcperflogger.model.StatementLog;
+
+@SuppressWarnings("null")
+public class CaptureFileLogReceiverTest extends AbstractLogRepositoryTest {
+    private static final int NB_STATEMENTS = 1000;
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void testLoadCaptureDirectory() throws Exception {
+        final File directory = capture();
+
+        final CaptureFileLogReceiver receiver = load(directory);
+        assertEquals(NB_STATEMENTS, repositoryRead.countStatements());
+        assertEquals(NB_STATEMENTS * 1000L, repositoryRead.getTotalExecAndFetchTimeNanos());
+        assertEquals(2 * NB_STATEMENTS + 1, receiver.getLoadedLogsCount());
+    }
+
+    @Test
+    public void testLoadSegmentFile() throws Exception {
+        final File directory = capture();
+
+        load(new File(directory, "jdbcperflogger-capture-0.bin"));
+        assertEquals(NB_STATEMENTS, repositoryRead.countStatements());
+    }
+
+    @Test
+    public void testLoadConvertedFile() throws Exception {
+        final File convertedFile = tempFolder.newFile();
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(convertedFile))) {
+            CaptureFileReader.convert(capture(), out);
+        }
+
+        final int framesPerChunk = CaptureFileLogReceiver.FRAMES_PER_CHUNK;
+        // a statement and its execution end up in different chunks
+        CaptureFileLogReceiver.FRAMES_PER_CHUNK = 7;
+        try {
+            load(convertedFile);
+        } finally {
+            CaptureFileLogReceiver.FRAMES_PER_CHUNK = framesPerChunk;
+        }
+        assertEquals(NB_STATEMENTS, repositoryRead.countStatements());
+        assertEquals(NB_STATEMENTS * 1000L, repositoryRead.getTotalExecAndFetchTimeNanos());
+    }
+
+    @Test
+    public void testLoadInvalidFile() throws Exception {
+        final CaptureFileLogReceiver receiver = new CaptureFileLogReceiver(tempFolder.newFile(), repositoryUpdate);
+        receiver.start();
+        receiver.join();
+        assertTrue(receiver.isLoaded());
+        assertEquals(0, receiver.getConnectionsCount());
+        assertTrue(receiver.getLastConnectionError() != null);
+    }
+
+    private File capture() throws Exception {
+        final File directory = tempFolder.newFolder();
+        try (CaptureFileLogSender sender = new CaptureFileLogSender(directory, 4, 1024 * 1024)) {
+            final ConnectionInfo connectionInfo = new ConnectionInfo(nextId(), 12, "jdbc:toto", new Date(), 12,
+                    new Properties());
+            sender.postLog(connectionInfo);
+            for (int i = 0; i < NB_STATEMENTS; i++) {
+                final long logId = nextId();
+                sender.postLog(new StatementLog(connectionInfo.getConnectionId(), logId, System.currentTimeMillis(),
+                        StatementType.BASE_NON_PREPARED_STMT, "select " + i, "thread", 0, true, TRANSACTION_NONE));
+                sender.postLog(new StatementExecutedLog(logId, 1000, 1L, null));
+            }
+        }
+        return directory;
+    }
+
+    private CaptureFileLogReceiver load(final File captureFile) throws InterruptedException {
+        final CaptureFileLogReceiver receiver = new CaptureFileLogReceiver(captureFile, repositoryUpdate);
+        receiver.start();
+        receiver.join();
+        assertTrue(receiver.isLoaded());
+        assertNull(receiver.getLastConnectionError());
+        return receiver;
+    }
+}
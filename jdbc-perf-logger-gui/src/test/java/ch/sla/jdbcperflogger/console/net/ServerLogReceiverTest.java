@@ -5,7 +5,7 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
-import java.io.ObjectOutputStream;
+import java.io.DataOutputStream;
 import java.net.Socket;
 import java.net.UnknownHostException;
 
@@ -15,13 +15,14 @@ import org.junit.Test;
 import org.mockito.Mock;
 
 import ch.sla.jdbcperflogger.console.db.LogRepositoryUpdateJdbc;
+import ch.sla.jdbcperflogger.model.BinaryLogMessageCodec;
 
 @SuppressWarnings("null")
 public class ServerLogReceiverTest {
     private ServerLogReceiver receiver;
     @Mock
     private LogRepositoryUpdateJdbc repository;
-    private ObjectOutputStream oos;
+    private DataOutputStream out;
     private Socket clientSocket;
 
     @Before
@@ -33,8 +34,8 @@ public class ServerLogReceiverTest {
 
     @After
     public void teardown() throws Exception {
-        if (oos != null) {
-            oos.close();
+        if (out != null) {
+            out.close();
         }
         if (clientSocket != null) {
             clientSocket.close();
@@ -61,8 +62,11 @@ public class ServerLogReceiverTest {
 
     private Socket connectToServer() throws UnknownHostException, IOException {
         clientSocket = new Socket("localhost", receiver.getListenPort());
-        oos = new ObjectOutputStream(clientSocket.getOutputStream());
-        oos.writeObject(null);
+        out = new DataOutputStream(clientSocket.getOutputStream());
+        out.writeInt(BinaryLogMessageCodec.MAGIC);
+        out.writeShort(BinaryLogMessageCodec.VERSION);
+        out.write(BinaryLogMessageCodec.encode(null));
+        out.flush();
         return clientSocket;
     }
 